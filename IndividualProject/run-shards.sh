@@ -0,0 +1,35 @@
+#!/usr/bin/env bash
+# Starts a local sharded catalogue: SHARDS processes on consecutive ports from BASE_PORT, each
+# owning its slice of the book ids. Any shard answers reads for the whole catalogue and accepts
+# imports, splitting them by owner. Ctrl-C stops all.
+#
+#   ./run-shards.sh [SHARDS] [BASE_PORT]      (defaults: 3 shards from port 8080)
+#
+# Extra Spring properties can be passed in JAVA_OPTS, e.g. JAVA_OPTS=-Dcatalogue.backend=file
+# (give each shard its own catalogue.file then).
+set -euo pipefail
+
+shards=${1:-3}
+base_port=${2:-8080}
+cd "$(dirname "$0")"
+
+jar=target/individualproject-0.0.1-SNAPSHOT.jar
+if [[ ! -f $jar ]]; then
+  ./mvnw -B -q package -DskipTests
+fi
+
+nodes=""
+for ((i = 0; i < shards; i++)); do
+  nodes+="${nodes:+,}http://localhost:$((base_port + i))/"
+done
+
+pids=()
+trap 'kill "${pids[@]}" 2>/dev/null; wait' EXIT INT TERM
+for ((i = 0; i < shards; i++)); do
+  # shellcheck disable=SC2086
+  java ${JAVA_OPTS:-} -jar "$jar" --server.port=$((base_port + i)) \
+    --shard.nodes="$nodes" --shard.self=$i > "target/shard-$i.log" 2>&1 &
+  pids+=($!)
+  echo "shard $i: http://localhost:$((base_port + i))/ (log: target/shard-$i.log)"
+done
+wait
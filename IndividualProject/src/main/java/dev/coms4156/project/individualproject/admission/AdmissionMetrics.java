@@ -0,0 +1,99 @@
+package dev.coms4156.project.individualproject.admission;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts what {@link CheckoutAdmissionFilter} admitted and shed, overall and per book.
+ *
+ * <p>Per-book counts are kept for at most {@link #MAX_TRACKED_BOOKS} ids; sheds for further
+ * ids are still counted in the totals.
+ */
+@Component
+public class AdmissionMetrics {
+
+  /** Upper bound on ids with a per-book shed counter. */
+  static final int MAX_TRACKED_BOOKS = 10_000;
+
+  /** Why a request was shed. */
+  public enum Reason {
+    /** The book's token bucket was empty. */
+    RATE_LIMITED,
+    /** A checkout for a book with no available copies. */
+    SOLD_OUT
+  }
+
+  /** Requests let through to the controller. */
+  private final LongAdder admitted = new LongAdder();
+
+  /** Requests shed because the book's bucket was empty. */
+  private final LongAdder shedRateLimited = new LongAdder();
+
+  /** Checkouts shed because the book had no available copies. */
+  private final LongAdder shedSoldOut = new LongAdder();
+
+  /** Shed requests by book id. */
+  private final Map<Integer, LongAdder> shedByBook = new ConcurrentHashMap<>();
+
+  /** Records an admitted request. */
+  public void recordAdmitted() {
+    admitted.increment();
+  }
+
+  /**
+   * Records a shed request.
+   *
+   * @param bookId the requested book
+   * @param reason why it was shed
+   */
+  public void recordShed(final int bookId, final Reason reason) {
+    if (reason == Reason.SOLD_OUT) {
+      shedSoldOut.increment();
+    } else {
+      shedRateLimited.increment();
+    }
+    LongAdder perBook = shedByBook.get(bookId);
+    if (perBook == null && shedByBook.size() < MAX_TRACKED_BOOKS) {
+      perBook = shedByBook.computeIfAbsent(bookId, id -> new LongAdder());
+    }
+    if (perBook != null) {
+      perBook.increment();
+    }
+  }
+
+  /**
+   * Returns totals and the most-shed books.
+   *
+   * @param topBooks how many per-book entries to include
+   * @return a JSON-friendly summary
+   */
+  public Map<String, Object> summarize(final int topBooks) {
+    final Map<String, Object> summary = new LinkedHashMap<>();
+    summary.put("admitted", admitted.sum());
+    summary.put("shedRateLimited", shedRateLimited.sum());
+    summary.put("shedSoldOut", shedSoldOut.sum());
+    final List<Map.Entry<Integer, Long>> perBook = new ArrayList<>(shedByBook.size());
+    shedByBook.forEach((id, count) -> perBook.add(Map.entry(id, count.sum())));
+    perBook.sort(Map.Entry.<Integer, Long>comparingByValue().reversed());
+    final Map<Integer, Long> hottest = new LinkedHashMap<>();
+    for (final Map.Entry<Integer, Long> entry
+        : perBook.subList(0, Math.min(topBooks, perBook.size()))) {
+      hottest.put(entry.getKey(), entry.getValue());
+    }
+    summary.put("shedByBook", hottest);
+    return summary;
+  }
+
+  /** Drops all counts. */
+  public void reset() {
+    admitted.reset();
+    shedRateLimited.reset();
+    shedSoldOut.reset();
+    shedByBook.clear();
+  }
+}
@@ -0,0 +1,152 @@
+package dev.coms4156.project.individualproject.admission;
+
+import dev.coms4156.project.individualproject.service.MockApiService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Per-book admission control for {@code PATCH /checkout} and {@code GET /book/{id}}.
+ *
+ * <p>Each book gets its own token bucket per operation, so one hot title cannot drain the
+ * request pool for everyone else. Checkouts for a book whose {@code copiesAvailable} is zero
+ * are rejected here, before the controller and the service's locking and persistence path,
+ * since they are bound to fail. Shed requests get {@code 429 Too Many Requests} with a
+ * {@code Retry-After} header and are counted in {@link AdmissionMetrics}.
+ *
+ * <p>Enabled with {@code admission.enabled=true}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(prefix = "admission", name = "enabled", havingValue = "true")
+public class CheckoutAdmissionFilter extends OncePerRequestFilter {
+
+  /** Buckets tracked per operation before some are evicted. */
+  private static final int MAX_BUCKETS = 10_000;
+
+  /** Path prefix of the single-book read endpoint. */
+  private static final String BOOK_PREFIX = "/book/";
+
+  /** Used for the sold-out fast path. */
+  private final MockApiService mockApiService;
+
+  /** Shed and admit counters. */
+  private final AdmissionMetrics metrics;
+
+  /** Checkout buckets by book id. */
+  private final TokenBuckets checkoutBuckets;
+
+  /** Read buckets by book id. */
+  private final TokenBuckets readBuckets;
+
+  /** Retry-After sent for sold-out titles, in seconds. */
+  private final long soldOutRetryAfter;
+
+  /**
+   * Creates the filter.
+   *
+   * @param mockApiService catalogue lookups for the sold-out check
+   * @param metrics shed and admit counters
+   * @param checkoutRate sustained checkouts per second per book
+   * @param checkoutBurst checkout burst per book
+   * @param readRate sustained reads per second per book
+   * @param readBurst read burst per book
+   * @param soldOutRetryAfter Retry-After seconds for sold-out titles
+   */
+  @SuppressWarnings("PMD.ExcessiveParameterList")
+  public CheckoutAdmissionFilter(final MockApiService mockApiService,
+      final AdmissionMetrics metrics,
+      @Value("${admission.checkout.rate-per-second:50}") final double checkoutRate,
+      @Value("${admission.checkout.burst:100}") final int checkoutBurst,
+      @Value("${admission.read.rate-per-second:500}") final double readRate,
+      @Value("${admission.read.burst:1000}") final int readBurst,
+      @Value("${admission.sold-out.retry-after-seconds:30}") final long soldOutRetryAfter) {
+    super();
+    this.mockApiService = mockApiService;
+    this.metrics = metrics;
+    this.checkoutBuckets = new TokenBuckets(checkoutRate, checkoutBurst, MAX_BUCKETS);
+    this.readBuckets = new TokenBuckets(readRate, readBurst, MAX_BUCKETS);
+    this.soldOutRetryAfter = soldOutRetryAfter;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(final HttpServletRequest request) {
+    return bookIdOf(request) == null;
+  }
+
+  @Override
+  protected void doFilterInternal(final HttpServletRequest request,
+                                  final HttpServletResponse response,
+                                  final FilterChain filterChain)
+      throws ServletException, IOException {
+    final int bookId = bookIdOf(request);
+    final boolean checkout = "PATCH".equals(request.getMethod());
+    final long now = System.nanoTime();
+    final TokenBucket bucket = (checkout ? checkoutBuckets : readBuckets).get(bookId, now);
+
+    if (!bucket.tryAcquire(now)) {
+      metrics.recordShed(bookId, AdmissionMetrics.Reason.RATE_LIMITED);
+      reject(response, bucket.secondsUntilToken(now), "Too many requests for this book.");
+    } else if (checkout && isSoldOut(bookId)) {
+      metrics.recordShed(bookId, AdmissionMetrics.Reason.SOLD_OUT);
+      reject(response, soldOutRetryAfter, "No copies available.");
+    } else {
+      metrics.recordAdmitted();
+      filterChain.doFilter(request, response);
+    }
+  }
+
+  /** Forgets every bucket, so each book starts again with a full burst. */
+  public void reset() {
+    checkoutBuckets.clear();
+    readBuckets.clear();
+  }
+
+  private boolean isSoldOut(final int bookId) {
+    return mockApiService.findBook(bookId).map(book -> !book.hasCopies()).orElse(false);
+  }
+
+  private static void reject(final HttpServletResponse response, final long retryAfterSeconds,
+                             final String message) throws IOException {
+    response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+    response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    response.getWriter().write(message);
+  }
+
+  /** Returns the targeted book id for guarded endpoints, or null for everything else. */
+  private static Integer bookIdOf(final HttpServletRequest request) {
+    final String path = request.getRequestURI().substring(request.getContextPath().length());
+    final String method = request.getMethod();
+    String raw = null;
+    if ("PATCH".equals(method) && "/checkout".equals(path)) {
+      raw = request.getParameter("id");
+    } else if ("GET".equals(method) && path.startsWith(BOOK_PREFIX)
+        && path.indexOf('/', BOOK_PREFIX.length()) < 0) {
+      raw = path.substring(BOOK_PREFIX.length());
+    }
+    Integer bookId = null;
+    if (raw != null) {
+      try {
+        bookId = Integer.valueOf(raw);
+      } catch (final NumberFormatException e) {
+        // Leave malformed ids to the controller's own validation.
+        bookId = null;
+      }
+    }
+    return bookId;
+  }
+}
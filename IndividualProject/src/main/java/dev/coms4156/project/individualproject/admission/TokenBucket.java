@@ -0,0 +1,88 @@
+package dev.coms4156.project.individualproject.admission;
+
+/**
+ * Classic token bucket: holds up to {@code burst} tokens and refills at {@code ratePerSecond}.
+ *
+ * <p>Time is passed in by the caller (from {@link System#nanoTime()}) so that buckets are
+ * cheap to test and never read the clock more than once per request.
+ */
+public final class TokenBucket {
+
+  /** Nanoseconds per second. */
+  private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+  /** Maximum number of stored tokens. */
+  private final double burst;
+
+  /** Tokens added per nanosecond. */
+  private final double tokensPerNano;
+
+  /** Tokens currently available; guarded by {@code this}. */
+  private double tokens;
+
+  /** Time of the last refill; guarded by {@code this}. */
+  private long lastRefillNanos;
+
+  /**
+   * Creates a full bucket.
+   *
+   * @param ratePerSecond sustained admissions per second (must be positive)
+   * @param burst maximum admissions in a burst (at least 1)
+   * @param nowNanos current time
+   */
+  public TokenBucket(final double ratePerSecond, final int burst, final long nowNanos) {
+    if (ratePerSecond <= 0 || burst < 1) {
+      throw new IllegalArgumentException("rate must be > 0 and burst >= 1");
+    }
+    this.burst = burst;
+    this.tokensPerNano = ratePerSecond / NANOS_PER_SECOND;
+    this.tokens = burst;
+    this.lastRefillNanos = nowNanos;
+  }
+
+  /**
+   * Takes one token if available.
+   *
+   * @param nowNanos current time
+   * @return true if the request is admitted
+   */
+  public synchronized boolean tryAcquire(final long nowNanos) {
+    refill(nowNanos);
+    if (tokens >= 1) {
+      tokens -= 1;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns how long until the next token is available.
+   *
+   * @param nowNanos current time
+   * @return whole seconds to wait, at least 1
+   */
+  public synchronized long secondsUntilToken(final long nowNanos) {
+    refill(nowNanos);
+    final double missing = Math.max(0, 1 - tokens);
+    return Math.max(1, (long) Math.ceil(missing / tokensPerNano / NANOS_PER_SECOND));
+  }
+
+  /**
+   * Returns whether the bucket has refilled completely, i.e. has been idle.
+   *
+   * @param nowNanos current time
+   * @return true if full
+   */
+  public synchronized boolean isFull(final long nowNanos) {
+    refill(nowNanos);
+    return tokens >= burst;
+  }
+
+  private void refill(final long nowNanos) {
+    final long elapsed = nowNanos - lastRefillNanos;
+    if (elapsed > 0) {
+      tokens = Math.min(burst, tokens + elapsed * tokensPerNano);
+      lastRefillNanos = nowNanos;
+    }
+  }
+}
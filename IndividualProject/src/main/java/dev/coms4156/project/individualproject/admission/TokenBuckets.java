@@ -0,0 +1,97 @@
+package dev.coms4156.project.individualproject.admission;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link TokenBucket}s by book id, all with the same rate and burst, bounded in number.
+ *
+ * <p>A lookup is one hash probe. When a new id arrives with the table at capacity, a single
+ * sweep first drops every bucket that has refilled completely, which behaves exactly like a
+ * fresh one, and then, if the table is still above three quarters of capacity, drops
+ * arbitrary buckets until it is not. Each sweep therefore makes room for at least a quarter
+ * of the capacity, so its cost is spread over that many insertions, and the table never grows
+ * past capacity by more than the number of threads inserting at once. A book whose drained
+ * bucket is dropped early gets a fresh burst; that only happens while more than
+ * three quarters of the capacity are being throttled at the same time.
+ */
+public final class TokenBuckets {
+
+  /** Buckets by book id. */
+  private final Map<Integer, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+  /** Sustained admissions per second per book. */
+  private final double rate;
+
+  /** Burst per book. */
+  private final int burst;
+
+  /** Buckets held before a sweep. */
+  private final int capacity;
+
+  /** Size a sweep shrinks the table to. */
+  private final int lowWatermark;
+
+  /**
+   * Creates an empty table.
+   *
+   * @param rate sustained admissions per second per book
+   * @param burst burst per book
+   * @param capacity buckets held before a sweep (positive)
+   */
+  public TokenBuckets(final double rate, final int burst, final int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("capacity must be positive");
+    }
+    this.rate = rate;
+    this.burst = burst;
+    this.capacity = capacity;
+    this.lowWatermark = capacity - Math.max(1, capacity / 4);
+  }
+
+  /**
+   * Returns the bucket of {@code bookId}, creating a full one if there is none.
+   *
+   * @param bookId the book id
+   * @param now current time from {@link System#nanoTime()}
+   * @return the bucket
+   */
+  public TokenBucket get(final int bookId, final long now) {
+    final TokenBucket bucket = buckets.get(bookId);
+    if (bucket != null) {
+      return bucket;
+    }
+    if (buckets.size() >= capacity) {
+      sweep(now);
+    }
+    return buckets.computeIfAbsent(bookId, id -> new TokenBucket(rate, burst, now));
+  }
+
+  /**
+   * Returns the number of buckets held.
+   *
+   * @return table size
+   */
+  public int size() {
+    return buckets.size();
+  }
+
+  /** Forgets every bucket. */
+  public void clear() {
+    buckets.clear();
+  }
+
+  private synchronized void sweep(final long now) {
+    // Threads that queued behind a sweep find the room already made.
+    if (buckets.size() < capacity) {
+      return;
+    }
+    buckets.values().removeIf(idle -> idle.isFull(now));
+    final Iterator<TokenBucket> victims = buckets.values().iterator();
+    while (buckets.size() > lowWatermark && victims.hasNext()) {
+      victims.next();
+      victims.remove();
+    }
+  }
+}
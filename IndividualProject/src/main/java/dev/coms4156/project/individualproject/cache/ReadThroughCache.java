@@ -0,0 +1,571 @@
+package dev.coms4156.project.individualproject.cache;
+
+import dev.coms4156.project.individualproject.service.CountMinSketch;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded read-through cache with W-TinyLFU eviction, expiry, refresh-ahead and single-flight
+ * loading.
+ *
+ * <p><b>Loading.</b> Concurrent misses for the same key cost one call to the loader: the first
+ * thread loads and the others wait for its result. Entries expire {@code expireAfterWrite}
+ * after they were loaded or put. A hit on an entry older than {@code refreshAfterWrite} returns
+ * the current value at once and reloads it in the background, so hot keys are renewed before
+ * they expire and readers do not wait on the source. A failed refresh keeps the old value until
+ * it expires.
+ *
+ * <p><b>Eviction.</b> New entries enter a small LRU window (1% of capacity). An entry pushed
+ * out of the window joins the main area only if a {@link CountMinSketch} of recent access
+ * frequencies rates it above the main area's own eviction victim, so a burst of one-off keys
+ * such as a scan cannot flush out the hot set. The main area is a segmented LRU: a second hit
+ * moves an entry from probation to the protected segment (80% of the main area). Counts are
+ * halved every {@code 10 * maximumSize} accesses so that popularity ages.
+ *
+ * <p>Hits are lock-free. Eviction bookkeeping is guarded by a lock that hits only try to take,
+ * skipping the recency update when it is busy.
+ *
+ * <p>A refresh swaps in the new value while holding the monitor of the value it replaces, and
+ * a {@link #put} always wins over a refresh that started before it. A caller that changes a
+ * value under its monitor and then puts it back never has that change undone by a refresh.
+ *
+ * <p>An optional listener is told about every value the loader returned once it is cached,
+ * whether by a miss or a refresh, so that structures derived from the values can follow
+ * changes at the source. It is not told about {@link #put} values, which the caller knows.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public final class ReadThroughCache<K, V> {
+
+  /** Logger instance for this cache. */
+  private static final Logger LOG = LoggerFactory.getLogger(ReadThroughCache.class);
+
+  /** Share of the capacity given to the admission window, in percent. */
+  private static final int WINDOW_PERCENT = 1;
+
+  /** Share of the main area given to the protected segment, in percent. */
+  private static final int PROTECTED_PERCENT = 80;
+
+  /** Loads values on a miss or refresh. */
+  private final Loader<K, V> loader;
+
+  /** Told about each loaded value once it is cached. */
+  private final BiConsumer<K, V> onLoad;
+
+  /** Entries by key. */
+  private final Map<K, Node<K, V>> data = new ConcurrentHashMap<>();
+
+  /** Loads in progress, for single-flight. */
+  private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+  /** Runs background refreshes. */
+  private final Executor refreshExecutor;
+
+  /** Clock for expiry, in nanoseconds. */
+  private final LongSupplier ticker;
+
+  /** Maximum number of entries. */
+  private final int maximumSize;
+
+  /** Entry age after which a hit is a miss. */
+  private final long expireNanos;
+
+  /** Entry age after which a hit triggers a background reload. */
+  private final long refreshNanos;
+
+  /** Guards the segments, the sketch and {@link #sampled}. */
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  /** LRU admission window. */
+  private final Map<K, Node<K, V>> window = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** Main-area entries seen once since admission. */
+  private final Map<K, Node<K, V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** Main-area entries hit again while on probation. */
+  private final Map<K, Node<K, V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** Capacity of {@link #window}. */
+  private final int windowMax;
+
+  /** Capacity of {@link #protectedSegment}. */
+  private final int protectedMax;
+
+  /** Access frequencies for admission. */
+  private final CountMinSketch sketch;
+
+  /** Accesses recorded since the sketch was last halved. */
+  private int sampled;
+
+  /** Lookups answered from the cache. */
+  private final LongAdder hits = new LongAdder();
+
+  /** Lookups that had to load. */
+  private final LongAdder misses = new LongAdder();
+
+  /** Misses that waited for another thread's load instead of loading themselves. */
+  private final LongAdder coalesced = new LongAdder();
+
+  /** Successful loader calls, for misses and refreshes. */
+  private final LongAdder loads = new LongAdder();
+
+  /** Failed loader calls. */
+  private final LongAdder loadFailures = new LongAdder();
+
+  /** Total loader wall time in nanoseconds. */
+  private final LongAdder loadNanos = new LongAdder();
+
+  /** Slowest loader call in nanoseconds. */
+  private final LongAccumulator maxLoadNanos = new LongAccumulator(Math::max, 0);
+
+  /** Values replaced by a background refresh. */
+  private final LongAdder refreshes = new LongAdder();
+
+  /** Entries dropped to stay within {@link #maximumSize}. */
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Creates an empty cache.
+   *
+   * @param loader loads values on a miss or refresh
+   * @param maximumSize maximum number of entries (positive)
+   * @param expireAfterWrite entry age after which it is reloaded before use
+   * @param refreshAfterWrite entry age after which a hit reloads it in the background
+   * @param refreshExecutor runs background refreshes
+   * @param ticker nanosecond clock for expiry, e.g. {@code System::nanoTime}
+   * @throws IllegalArgumentException if the size is not positive
+   */
+  @SuppressWarnings("PMD.ExcessiveParameterList")
+  public ReadThroughCache(final Loader<K, V> loader, final int maximumSize,
+                          final Duration expireAfterWrite, final Duration refreshAfterWrite,
+                          final Executor refreshExecutor, final LongSupplier ticker) {
+    this(loader, maximumSize, expireAfterWrite, refreshAfterWrite, refreshExecutor, ticker,
+        (key, value) -> { });
+  }
+
+  /**
+   * Creates an empty cache that reports loaded values to {@code onLoad}.
+   *
+   * @param loader loads values on a miss or refresh
+   * @param maximumSize maximum number of entries (positive)
+   * @param expireAfterWrite entry age after which it is reloaded before use
+   * @param refreshAfterWrite entry age after which a hit reloads it in the background
+   * @param refreshExecutor runs background refreshes
+   * @param ticker nanosecond clock for expiry, e.g. {@code System::nanoTime}
+   * @param onLoad told about each loaded value once it is cached, on the loading thread
+   * @throws IllegalArgumentException if the size is not positive
+   */
+  @SuppressWarnings("PMD.ExcessiveParameterList")
+  public ReadThroughCache(final Loader<K, V> loader, final int maximumSize,
+                          final Duration expireAfterWrite, final Duration refreshAfterWrite,
+                          final Executor refreshExecutor, final LongSupplier ticker,
+                          final BiConsumer<K, V> onLoad) {
+    if (maximumSize < 1) {
+      throw new IllegalArgumentException("maximumSize must be positive");
+    }
+    this.loader = loader;
+    this.onLoad = onLoad;
+    this.maximumSize = maximumSize;
+    this.expireNanos = expireAfterWrite.toNanos();
+    this.refreshNanos = refreshAfterWrite.toNanos();
+    this.refreshExecutor = refreshExecutor;
+    this.ticker = ticker;
+    this.windowMax = Math.max(1, maximumSize * WINDOW_PERCENT / 100);
+    this.protectedMax = (maximumSize - windowMax) * PROTECTED_PERCENT / 100;
+    this.sketch = new CountMinSketch(Math.max(64, Math.min(maximumSize, 1 << 28) * 4), 4);
+  }
+
+  /**
+   * Returns the value for {@code key}, loading it on a miss.
+   *
+   * @param key the key
+   * @return the value
+   * @throws UncheckedIOException if the value had to be loaded and loading failed
+   */
+  public V get(final K key) {
+    final Node<K, V> node = data.get(key);
+    if (node != null) {
+      final Stamped<V> current = node.current;
+      final long age = ticker.getAsLong() - current.writtenAt;
+      if (age < expireNanos) {
+        hits.increment();
+        onAccess(node);
+        if (age >= refreshNanos) {
+          refresh(node, current);
+        }
+        return current.value;
+      }
+    }
+    misses.increment();
+    return load(key);
+  }
+
+  /**
+   * Returns the cached value for {@code key} without loading, recording a hit or touching the
+   * eviction order.
+   *
+   * @param key the key
+   * @return the value, or null if absent or expired
+   */
+  public V getIfPresent(final K key) {
+    final Node<K, V> node = data.get(key);
+    if (node == null) {
+      return null;
+    }
+    final Stamped<V> current = node.current;
+    return ticker.getAsLong() - current.writtenAt < expireNanos ? current.value : null;
+  }
+
+  /**
+   * Stores {@code value} for {@code key}, replacing any cached or in-refresh value.
+   *
+   * @param key the key
+   * @param value the value (non-null)
+   */
+  public void put(final K key, final V value) {
+    install(key, value);
+  }
+
+  /**
+   * Drops the entry for {@code key}, so that the next {@link #get(Object)} loads it again.
+   *
+   * @param key the key
+   */
+  public void invalidate(final K key) {
+    evictionLock.lock();
+    try {
+      final Node<K, V> node = data.remove(key);
+      if (node != null) {
+        window.remove(key, node);
+        probation.remove(key, node);
+        protectedSegment.remove(key, node);
+        node.segment = null;
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of cached entries, including expired ones not yet replaced.
+   *
+   * @return entry count
+   */
+  public int size() {
+    return data.size();
+  }
+
+  /**
+   * Returns hit, load and eviction counters.
+   *
+   * @return counters by name
+   */
+  public Map<String, Object> getStats() {
+    final long hitCount = hits.sum();
+    final long missCount = misses.sum();
+    final long loadCount = loads.sum() + loadFailures.sum();
+    final Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("size", data.size());
+    stats.put("maximumSize", maximumSize);
+    stats.put("hits", hitCount);
+    stats.put("misses", missCount);
+    stats.put("hitRatio", hitCount + missCount == 0 ? 0.0
+        : (double) hitCount / (hitCount + missCount));
+    stats.put("coalescedMisses", coalesced.sum());
+    stats.put("loads", loads.sum());
+    stats.put("loadFailures", loadFailures.sum());
+    stats.put("meanLoadMillis", loadCount == 0 ? 0.0 : loadNanos.sum() / 1e6 / loadCount);
+    stats.put("maxLoadMillis", maxLoadNanos.get() / 1e6);
+    stats.put("refreshes", refreshes.sum());
+    stats.put("evictions", evictions.sum());
+    return stats;
+  }
+
+  /** Loads {@code key} once for all concurrent callers. */
+  private V load(final K key) {
+    final CompletableFuture<V> mine = new CompletableFuture<>();
+    final CompletableFuture<V> inFlight = loading.putIfAbsent(key, mine);
+    if (inFlight != null) {
+      coalesced.increment();
+      return await(inFlight);
+    }
+    try {
+      // A load that finished between our lookup and putIfAbsent has already done the work.
+      V value = getIfPresent(key);
+      final boolean loaded = value == null;
+      if (loaded) {
+        value = timedLoad(key);
+        install(key, value);
+      }
+      mine.complete(value);
+      if (loaded) {
+        notifyLoaded(key, value);
+      }
+      return value;
+    } catch (final IOException e) {
+      mine.completeExceptionally(e);
+      throw new UncheckedIOException(e);
+    } catch (final RuntimeException e) {
+      mine.completeExceptionally(e);
+      throw e;
+    } finally {
+      loading.remove(key, mine);
+    }
+  }
+
+  private static <V> V await(final CompletableFuture<V> inFlight) {
+    try {
+      return inFlight.join();
+    } catch (final CompletionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw new UncheckedIOException((IOException) cause);
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw e;
+    }
+  }
+
+  private V timedLoad(final K key) throws IOException {
+    final long start = System.nanoTime();
+    try {
+      final V value = loader.load(key);
+      loads.increment();
+      return value;
+    } catch (final IOException | RuntimeException e) {
+      loadFailures.increment();
+      throw e;
+    } finally {
+      final long elapsed = System.nanoTime() - start;
+      loadNanos.add(elapsed);
+      maxLoadNanos.accumulate(elapsed);
+    }
+  }
+
+  /** Reloads {@code node} in the background unless a refresh is already running. */
+  private void refresh(final Node<K, V> node, final Stamped<V> current) {
+    if (!node.refreshing.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      refreshExecutor.execute(() -> {
+        try {
+          final V fresh = timedLoad(node.key);
+          boolean swapped = false;
+          synchronized (current.value) {
+            synchronized (node) {
+              if (node.current == current) {
+                node.current = new Stamped<>(fresh, ticker.getAsLong());
+                refreshes.increment();
+                swapped = true;
+              }
+            }
+          }
+          if (swapped) {
+            notifyLoaded(node.key, fresh);
+          }
+        } catch (final IOException | RuntimeException e) {
+          LOG.debug("Refresh of {} failed; serving the cached value until it expires", node.key,
+              e);
+        } finally {
+          node.refreshing.set(false);
+        }
+      });
+    } catch (final RejectedExecutionException e) {
+      node.refreshing.set(false);
+    }
+  }
+
+  private void notifyLoaded(final K key, final V value) {
+    try {
+      onLoad.accept(key, value);
+    } catch (final RuntimeException e) {
+      LOG.warn("Load listener failed for {}", key, e);
+    }
+  }
+
+  private void install(final K key, final V value) {
+    final Stamped<V> stamped = new Stamped<>(value, ticker.getAsLong());
+    final Node<K, V> created = new Node<>(key, stamped);
+    final Node<K, V> node = data.compute(key, (k, existing) -> {
+      if (existing == null) {
+        return created;
+      }
+      synchronized (existing) {
+        existing.current = stamped;
+      }
+      return existing;
+    });
+    if (node == created) {
+      onInsert(created);
+    }
+  }
+
+  private void onAccess(final Node<K, V> node) {
+    if (!evictionLock.tryLock()) {
+      // Dropping an occasional recency update under contention costs little hit ratio.
+      return;
+    }
+    try {
+      recordFrequency(node.key);
+      if (node.segment == Segment.WINDOW) {
+        window.get(node.key);
+      } else if (node.segment == Segment.PROBATION) {
+        probation.remove(node.key);
+        protectedSegment.put(node.key, node);
+        node.segment = Segment.PROTECTED;
+        if (protectedSegment.size() > protectedMax) {
+          final Node<K, V> demoted = removeEldest(protectedSegment);
+          probation.put(demoted.key, demoted);
+          demoted.segment = Segment.PROBATION;
+        }
+      } else if (node.segment == Segment.PROTECTED) {
+        protectedSegment.get(node.key);
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void onInsert(final Node<K, V> node) {
+    evictionLock.lock();
+    try {
+      recordFrequency(node.key);
+      window.put(node.key, node);
+      node.segment = Segment.WINDOW;
+      while (window.size() > windowMax) {
+        admit(removeEldest(window));
+      }
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  /** Moves a window evictee into probation, or drops it if it is rarer than the main victim. */
+  private void admit(final Node<K, V> candidate) {
+    if (probation.size() + protectedSegment.size() < maximumSize - windowMax) {
+      probation.put(candidate.key, candidate);
+      candidate.segment = Segment.PROBATION;
+      return;
+    }
+    final Map<K, Node<K, V>> victims = probation.isEmpty() ? protectedSegment : probation;
+    final Node<K, V> victim = victims.isEmpty() ? null : victims.values().iterator().next();
+    if (victim != null
+        && sketch.estimate(hash(candidate.key)) > sketch.estimate(hash(victim.key))) {
+      victims.remove(victim.key);
+      evict(victim);
+      probation.put(candidate.key, candidate);
+      candidate.segment = Segment.PROBATION;
+    } else {
+      evict(candidate);
+    }
+  }
+
+  private void evict(final Node<K, V> node) {
+    node.segment = null;
+    if (data.remove(node.key, node)) {
+      evictions.increment();
+    }
+  }
+
+  private void recordFrequency(final K key) {
+    sketch.increment(hash(key));
+    if (++sampled >= 10L * maximumSize) {
+      sketch.halve();
+      sampled /= 2;
+    }
+  }
+
+  private static <K, V> Node<K, V> removeEldest(final Map<K, Node<K, V>> segment) {
+    final Iterator<Node<K, V>> eldest = segment.values().iterator();
+    final Node<K, V> node = eldest.next();
+    eldest.remove();
+    return node;
+  }
+
+  private static long hash(final Object key) {
+    return key.hashCode();
+  }
+
+  /**
+   * Loads the value for a key.
+   *
+   * @param <K> key type
+   * @param <V> value type
+   */
+  @FunctionalInterface
+  public interface Loader<K, V> {
+    /**
+     * Loads the current value.
+     *
+     * @param key the key
+     * @return the value, never null
+     * @throws IOException if the value cannot be loaded
+     */
+    V load(K key) throws IOException;
+  }
+
+  /** Where a node sits in the eviction order. */
+  private enum Segment {
+    /** Admission window. */
+    WINDOW,
+    /** Main area, seen once. */
+    PROBATION,
+    /** Main area, seen repeatedly. */
+    PROTECTED
+  }
+
+  /** A value and when it was loaded or put. */
+  private static final class Stamped<V> {
+    /** The cached value. */
+    private final V value;
+
+    /** Ticker time of the load or put. */
+    private final long writtenAt;
+
+    private Stamped(final V value, final long writtenAt) {
+      this.value = value;
+      this.writtenAt = writtenAt;
+    }
+  }
+
+  /** One cache entry. */
+  private static final class Node<K, V> {
+    /** The entry's key. */
+    private final K key;
+
+    /** Current value; replaced under this node's monitor. */
+    private volatile Stamped<V> current;
+
+    /** Eviction segment, or null once evicted; guarded by the eviction lock. */
+    private Segment segment;
+
+    /** Set while a background refresh is scheduled or running. */
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private Node(final K key, final Stamped<V> current) {
+      this.key = key;
+      this.current = current;
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package dev.coms4156.project.individualproject.controller;
+
+import dev.coms4156.project.individualproject.events.AvailabilityBroadcaster;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST controller for push notifications of availability: "/books/availability/stream".
+ *
+ * <p>Replaces polling {@code GET /book/{id}} while waiting for a copy. Responses are streamed,
+ * so this path must stay in {@code instrumentation.exclude-paths}.
+ */
+@RestController
+public class AvailabilityStreamController {
+
+  /** Most books one stream may watch. */
+  private static final int MAX_IDS = 100;
+
+  /** Service layer facade, to check that watched books exist. */
+  private final MockApiService mockApiService;
+
+  /** Holds the open streams. */
+  private final AvailabilityBroadcaster broadcaster;
+
+  /** Constructor that injects the dependencies. */
+  public AvailabilityStreamController(final MockApiService mockApiService,
+                                      final AvailabilityBroadcaster broadcaster) {
+    this.mockApiService = mockApiService;
+    this.broadcaster = broadcaster;
+  }
+
+  /**
+   * Opens a Server-Sent Events stream for the given books. Each book's current state is sent
+   * first, then an event whenever its {@code copiesAvailable} changes:
+   * <pre>
+   * event: availability
+   * data: {"id":3,"copiesAvailable":1,"totalCopies":2}
+   * </pre>
+   * A book dropped from the catalogue yields a {@code removed} event with its id. Comment
+   * lines are sent periodically as heartbeats.
+   *
+   * @param ids comma-separated ids of the books to watch, at most {@value #MAX_IDS}
+   * @return the event stream
+   * @throws ResponseStatusException 400 if no or too many ids are given; 404 if a book does
+   *     not exist
+   */
+  @GetMapping(value = "/books/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter stream(@RequestParam("ids") final List<Integer> ids) {
+    final Set<Integer> watched = new LinkedHashSet<>(ids);
+    watched.remove(null);
+    if (watched.isEmpty() || watched.size() > MAX_IDS) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+          "ids must list between 1 and " + MAX_IDS + " books.");
+    }
+    for (final Integer id : watched) {
+      if (mockApiService.findBook(id).isEmpty()) {
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Book " + id + " not found.");
+      }
+    }
+    return broadcaster.subscribe(watched);
+  }
+}
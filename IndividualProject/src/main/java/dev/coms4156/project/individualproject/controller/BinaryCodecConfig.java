@@ -0,0 +1,57 @@
+package dev.coms4156.project.individualproject.controller;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary Jackson formats for service-to-service callers.
+ *
+ * <p>Every endpoint that renders a body through Jackson can also answer
+ * {@code Accept: application/x-jackson-smile} or {@code Accept: application/cbor}, and accepts
+ * request bodies in either format. JSON stays the default: the binary converters sit after the
+ * JSON converter, so they are only chosen when the client asks for them explicitly.
+ *
+ * <p>Spring MVC would register plain versions of these converters on its own; declaring them
+ * here builds them from Boot's {@link Jackson2ObjectMapperBuilder}, so {@code spring.jackson.*}
+ * settings apply to all three formats alike. Smile also back-references repeated string values
+ * (languages, shelving locations, publishers), on top of the repeated field names it shares by
+ * default. CBOR is left as plain RFC 8949 so that non-Jackson clients can decode it.
+ */
+@Configuration
+public class BinaryCodecConfig {
+
+  /**
+   * Creates the Smile converter.
+   *
+   * @param builder Boot's prototype mapper builder
+   * @return the converter
+   */
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(
+      final Jackson2ObjectMapperBuilder builder) {
+    final SmileFactory factory = SmileFactory.builder()
+        .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+        .build();
+    return new MappingJackson2SmileHttpMessageConverter(
+        builder.createXmlMapper(false).factory(factory).build());
+  }
+
+  /**
+   * Creates the CBOR converter.
+   *
+   * @param builder Boot's prototype mapper builder
+   * @return the converter
+   */
+  @Bean
+  public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(
+      final Jackson2ObjectMapperBuilder builder) {
+    return new MappingJackson2CborHttpMessageConverter(
+        builder.createXmlMapper(false).factory(new CBORFactory()).build());
+  }
+}
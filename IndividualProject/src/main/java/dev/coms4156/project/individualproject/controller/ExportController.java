@@ -0,0 +1,156 @@
+package dev.coms4156.project.individualproject.controller;
+
+import dev.coms4156.project.individualproject.service.CatalogueExporter;
+import dev.coms4156.project.individualproject.service.CatalogueSnapshot;
+import dev.coms4156.project.individualproject.service.ExportFormat;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * REST controller for full-catalogue dumps: "/books/export", "/books/export/snapshot".
+ *
+ * <p>Responses are streamed, so these paths must stay in {@code instrumentation.exclude-paths}.
+ */
+@RestController
+public class ExportController {
+
+  /** Logger for this controller. */
+  private static final Logger LOG = LoggerFactory.getLogger(ExportController.class);
+
+  /** Tomcat request attribute set when the connector can use sendfile. */
+  private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+  /** Media type of gzip-compressed downloads. */
+  private static final String GZIP = "application/gzip";
+
+  /** Source of snapshots. */
+  private final MockApiService mockApiService;
+
+  /** Writes dumps and snapshot files. */
+  private final CatalogueExporter exporter;
+
+  /** Constructor that injects the dependencies. */
+  public ExportController(final MockApiService mockApiService,
+                          final CatalogueExporter exporter) {
+    this.mockApiService = mockApiService;
+    this.exporter = exporter;
+  }
+
+  /**
+   * Streams the whole catalogue, including live counters and return dates, as one consistent
+   * snapshot in gzip-compressed NDJSON or CSV.
+   *
+   * @param format "ndjson" (default) or "csv"
+   * @return 200 with the streamed file
+   * @throws ResponseStatusException 400 if the format is unknown
+   */
+  @GetMapping({"/books/export"})
+  public ResponseEntity<StreamingResponseBody> export(
+      @RequestParam(value = "format", defaultValue = "ndjson") final String format) {
+    // Declared as StreamingResponseBody (not ResponseEntity<?>) so that MVC streams the body
+    // asynchronously instead of handing it to a message converter.
+    final ExportFormat exportFormat;
+    try {
+      exportFormat = ExportFormat.fromParameter(format);
+    } catch (final IllegalArgumentException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+    }
+    // The snapshot is opened only once the body is written, so it cannot leak if the
+    // client goes away before streaming starts.
+    final StreamingResponseBody body = out -> {
+      try (CatalogueSnapshot snapshot = mockApiService.openSnapshot()) {
+        exporter.write(snapshot, exportFormat, out);
+      }
+    };
+    return ResponseEntity.ok()
+        .header(HttpHeaders.CONTENT_TYPE, GZIP)
+        .header(HttpHeaders.CONTENT_DISPOSITION, attachment(
+            "catalogue." + exportFormat.extension() + ".gz"))
+        .body(body);
+  }
+
+  /**
+   * Writes the current catalogue to a new NDJSON snapshot file for
+   * {@code GET /books/export/snapshot}.
+   *
+   * @return 201 with the file name and size; 500 on error
+   */
+  @PostMapping({"/books/export/snapshot"})
+  public ResponseEntity<?> createSnapshot() {
+    ResponseEntity<?> result;
+    try {
+      final Path file = exporter.createSnapshotFile();
+      final Map<String, Object> created = new LinkedHashMap<>();
+      created.put("file", file.getFileName().toString());
+      created.put("bytes", Files.size(file));
+      result = new ResponseEntity<>(created, HttpStatus.CREATED);
+    } catch (final IOException e) {
+      LOG.error("Error occurred when writing the snapshot file", e);
+      result = new ResponseEntity<>(
+          "Error occurred when writing the snapshot file", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+    return result;
+  }
+
+  /**
+   * Sends the newest snapshot file. When the Tomcat connector supports sendfile, the kernel
+   * copies the file to the socket and the bytes never enter the JVM heap; otherwise the file
+   * is streamed through the response in buffer-sized chunks.
+   *
+   * @param request the request
+   * @param response the response
+   * @throws IOException if the file cannot be read or the client goes away
+   */
+  @GetMapping({"/books/export/snapshot"})
+  public void downloadSnapshot(final HttpServletRequest request,
+                               final HttpServletResponse response) throws IOException {
+    final Optional<Path> latest = exporter.latestSnapshotFile();
+    if (latest.isEmpty()) {
+      response.sendError(HttpStatus.NOT_FOUND.value(),
+          "No snapshot file; POST /books/export/snapshot first.");
+      return;
+    }
+    final Path file = latest.get();
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      final long size = channel.size();
+      response.setContentType(GZIP);
+      response.setContentLengthLong(size);
+      response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+          attachment(file.getFileName().toString()));
+      if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+        request.setAttribute("org.apache.tomcat.sendfile.filename",
+            file.toAbsolutePath().toString());
+        request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+        request.setAttribute("org.apache.tomcat.sendfile.end", size);
+        return;
+      }
+      Channels.newInputStream(channel).transferTo(response.getOutputStream());
+    }
+  }
+
+  private static String attachment(final String fileName) {
+    return ContentDisposition.attachment().filename(fileName).build().toString();
+  }
+}
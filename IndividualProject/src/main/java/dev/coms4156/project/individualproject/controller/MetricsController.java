@@ -0,0 +1,122 @@
+package dev.coms4156.project.individualproject.controller;
+
+import dev.coms4156.project.individualproject.admission.AdmissionMetrics;
+import dev.coms4156.project.individualproject.events.AvailabilityBroadcaster;
+import dev.coms4156.project.individualproject.events.MutationEventPipeline;
+import dev.coms4156.project.individualproject.instrumentation.TimingRegistry;
+import dev.coms4156.project.individualproject.instrumentation.TimingSummary;
+import dev.coms4156.project.individualproject.repository.CatalogueRepository;
+import java.util.Map;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for operational metrics: "/metrics/timings", "/metrics/admission",
+ * "/metrics/events", "/metrics/cache", "/metrics/availability".
+ */
+@RestController
+public class MetricsController {
+
+  /** Per-endpoint stage timings collected by the instrumentation filter. */
+  private final TimingRegistry timingRegistry;
+
+  /** Admitted and shed counts from the per-book admission filter. */
+  private final AdmissionMetrics admissionMetrics;
+
+  /** Asynchronous mutation event delivery. */
+  private final MutationEventPipeline eventPipeline;
+
+  /** Catalogue backend, for its read-cache counters; absent in slice tests. */
+  private final ObjectProvider<CatalogueRepository> repository;
+
+  /** Availability stream subscriptions; absent in slice tests. */
+  private final ObjectProvider<AvailabilityBroadcaster> broadcaster;
+
+  /** Constructor that injects the metric sources. */
+  public MetricsController(final TimingRegistry timingRegistry,
+                           final AdmissionMetrics admissionMetrics,
+                           final MutationEventPipeline eventPipeline,
+                           final ObjectProvider<CatalogueRepository> repository,
+                           final ObjectProvider<AvailabilityBroadcaster> broadcaster) {
+    this.timingRegistry = timingRegistry;
+    this.admissionMetrics = admissionMetrics;
+    this.eventPipeline = eventPipeline;
+    this.repository = repository;
+    this.broadcaster = broadcaster;
+  }
+
+  /**
+   * Returns aggregated per-stage timings for every endpoint seen since the last reset.
+   * Empty unless {@code instrumentation.enabled=true}.
+   *
+   * @return 200 with summaries keyed by endpoint
+   */
+  @GetMapping({"/metrics/timings"})
+  public ResponseEntity<Map<String, TimingSummary>> getTimings() {
+    return new ResponseEntity<>(timingRegistry.summarize(), HttpStatus.OK);
+  }
+
+  /**
+   * Clears the aggregated timings.
+   *
+   * @return 204
+   */
+  @DeleteMapping({"/metrics/timings"})
+  public ResponseEntity<Void> resetTimings() {
+    timingRegistry.reset();
+    return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+  }
+
+  /**
+   * Returns how many requests the admission filter admitted and shed, and the books shed most.
+   * All zero unless {@code admission.enabled=true}.
+   *
+   * @param top number of per-book entries to include
+   * @return 200 with the summary
+   */
+  @GetMapping({"/metrics/admission"})
+  public ResponseEntity<Map<String, Object>> getAdmission(
+      @RequestParam(value = "top", defaultValue = "10") final int top) {
+    return new ResponseEntity<>(admissionMetrics.summarize(top), HttpStatus.OK);
+  }
+
+  /**
+   * Returns mutation event pipeline counters: published, delivered, dropped, queue depth.
+   *
+   * @return 200 with the counters
+   */
+  @GetMapping({"/metrics/events"})
+  public ResponseEntity<Map<String, Object>> getEvents() {
+    return new ResponseEntity<>(eventPipeline.getStats(), HttpStatus.OK);
+  }
+
+  /**
+   * Returns the catalogue read cache's hit ratio, load latency, refresh and eviction counters.
+   * Empty unless {@code catalogue.backend=remote}.
+   *
+   * @return 200 with the counters
+   */
+  @GetMapping({"/metrics/cache"})
+  public ResponseEntity<Map<String, Object>> getCache() {
+    final CatalogueRepository backend = repository.getIfAvailable();
+    return new ResponseEntity<>(
+        backend == null ? Map.of() : backend.getCacheStats(), HttpStatus.OK);
+  }
+
+  /**
+   * Returns open availability streams, watched books, and events and heartbeats sent.
+   *
+   * @return 200 with the counters
+   */
+  @GetMapping({"/metrics/availability"})
+  public ResponseEntity<Map<String, Object>> getAvailability() {
+    final AvailabilityBroadcaster streams = broadcaster.getIfAvailable();
+    return new ResponseEntity<>(
+        streams == null ? Map.of() : streams.getStats(), HttpStatus.OK);
+  }
+}
@@ -0,0 +1,47 @@
+package dev.coms4156.project.individualproject.controller;
+
+import dev.coms4156.project.individualproject.service.MockApiService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for the readiness probe: "/ready".
+ *
+ * <p>With {@code catalogue.loading} set to {@code BACKGROUND} or {@code LAZY}, the server
+ * accepts connections before the catalogue is loaded, and catalogue requests wait for the
+ * load. Load balancers and autoscalers should send traffic only once this answers 200.
+ */
+@RestController
+public class ReadinessController {
+
+  /** Seconds a probe should wait before asking again while the catalogue loads. */
+  private static final String RETRY_AFTER_SECONDS = "1";
+
+  /** Service layer facade, for its loading state. */
+  private final MockApiService mockApiService;
+
+  /** Constructor that injects the service dependency. */
+  public ReadinessController(final MockApiService mockApiService) {
+    this.mockApiService = mockApiService;
+  }
+
+  /**
+   * Reports whether the catalogue is loaded. A lazily loaded catalogue starts loading in the
+   * background on the first probe, so instances become ready without waiting for a request.
+   *
+   * @return 200 once the catalogue is loaded; otherwise 503 with {@code Retry-After}
+   */
+  @GetMapping({"/ready"})
+  public ResponseEntity<String> ready() {
+    if (mockApiService.isLoaded()) {
+      return new ResponseEntity<>("Ready.", HttpStatus.OK);
+    }
+    mockApiService.loadInBackground();
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+        .body("Loading the catalogue.");
+  }
+}
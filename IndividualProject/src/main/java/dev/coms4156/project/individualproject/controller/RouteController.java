@@ -1,7 +1,12 @@
 package dev.coms4156.project.individualproject.controller;
 
+import dev.coms4156.project.individualproject.instrumentation.RequestTimings;
 import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.BookSort;
 import dev.coms4156.project.individualproject.service.MockApiService;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -13,12 +18,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 /**
  * REST controller for book-related endpoints:
- * "/", "/book/{id}", "/books/available", "/book/{bookId}/add".
+ * "/", "/book/{id}", "/books", "/books/available", "/books/trending", "/book/{bookId}/add",
+ * "/book/{id}/also-borrowed", "/books/import", "/checkout", "/return".
  */
 @RestController
 public class RouteController {
@@ -26,6 +33,15 @@ public class RouteController {
   /** Logger for this controller. */
   private static final Logger LOG = LoggerFactory.getLogger(RouteController.class); 
 
+  /** Largest page accepted by {@code GET /books}. */
+  private static final int MAX_PAGE_SIZE = 500;
+
+  /** Largest limit accepted by the ranked listings (trending, also-borrowed). */
+  private static final int MAX_TRENDING = 100;
+
+  /** Largest batch accepted by {@code POST /books/import}. */
+  private static final int MAX_IMPORT_BATCH = 10_000;
+
   /** Service layer facade for book operations. */
   private final MockApiService mockApiService;
 
@@ -50,18 +66,51 @@ public class RouteController {
   @GetMapping({"/book/{id}"})
   @SuppressWarnings("PMD.ShortVariable") // keep path variable name as 'id'
   public ResponseEntity<?> getBook(@PathVariable final int id) {
-    Book found = null;
-    for (final Book book : mockApiService.getBooks()) {
-      if (book.getId() == id) {
-        found = book;
-        break;
-      }
+    final Book found;
+    try (RequestTimings.Stage stage = RequestTimings.stage("lookup")) {
+      found = mockApiService.findBook(id).orElse(null);
     }
     return (found != null)
         ? new ResponseEntity<>(found, HttpStatus.OK)
         : new ResponseEntity<>("Book not found.", HttpStatus.NOT_FOUND);
   }
 
+  /**
+   * Lists the catalogue one page at a time. Pass the returned {@code nextCursor} back as
+   * {@code cursor} to get the following page; it is null on the last page.
+   *
+   * @param sort "id" (default) or "popularity" (most checked out first)
+   * @param cursor cursor from the previous page, or absent for the first page
+   * @param limit page size, 1 to {@value #MAX_PAGE_SIZE}
+   * @return 200 with the page; 400 if a parameter is invalid; 500 if error
+   */
+  @GetMapping({"/books"})
+  public ResponseEntity<?> listBooks(
+      @RequestParam(value = "sort", defaultValue = "id") final String sort,
+      @RequestParam(value = "cursor", required = false) final String cursor,
+      @RequestParam(value = "limit", defaultValue = "50") final int limit) {
+    ResponseEntity<?> result;
+    try {
+      if (limit < 1 || limit > MAX_PAGE_SIZE) {
+        result = new ResponseEntity<>(
+            "limit must be between 1 and " + MAX_PAGE_SIZE + ".", HttpStatus.BAD_REQUEST);
+      } else {
+        try (RequestTimings.Stage stage = RequestTimings.stage("scan")) {
+          result = new ResponseEntity<>(
+              mockApiService.listBooks(BookSort.fromParameter(sort), cursor, limit),
+              HttpStatus.OK);
+        }
+      }
+    } catch (final IllegalArgumentException e) {
+      result = new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+    } catch (final Exception e) {
+      LOG.error("Error occurred when listing books", e);
+      result = new ResponseEntity<>(
+          "Error occurred when listing books", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+    return result;
+  }
+
   /**
    * Get and return a list of all the books with available copies.
    *
@@ -72,9 +121,11 @@ public class RouteController {
     ResponseEntity<?> result;
     try {
       final List<Book> availableBooks = new ArrayList<>();
-      for (final Book book : mockApiService.getBooks()) {
-        if (book.hasCopies()) {
-          availableBooks.add(book);
+      try (RequestTimings.Stage stage = RequestTimings.stage("scan")) {
+        for (final Book book : mockApiService.getBooks()) {
+          if (book.hasCopies()) {
+            availableBooks.add(book);
+          }
         }
       }
       result = new ResponseEntity<>(availableBooks, HttpStatus.OK);
@@ -87,6 +138,97 @@ public class RouteController {
     return result;
   }
 
+  /**
+   * Returns the titles checked out most in the recent window (24 hours by default), with
+   * their window checkout counts.
+   *
+   * @param limit number of titles, 1 to {@value #MAX_TRENDING}
+   * @return 200 with the titles; 400 if the limit is invalid; 500 if error
+   */
+  @GetMapping({"/books/trending"})
+  public ResponseEntity<?> getTrending(
+      @RequestParam(value = "limit", defaultValue = "10") final int limit) {
+    ResponseEntity<?> result;
+    try {
+      if (limit < 1 || limit > MAX_TRENDING) {
+        result = new ResponseEntity<>(
+            "limit must be between 1 and " + MAX_TRENDING + ".", HttpStatus.BAD_REQUEST);
+      } else {
+        try (RequestTimings.Stage stage = RequestTimings.stage("rank")) {
+          result = new ResponseEntity<>(mockApiService.getTrending(limit), HttpStatus.OK);
+        }
+      }
+    } catch (final Exception e) {
+      LOG.error("Error occurred when getting trending books", e);
+      result = new ResponseEntity<>(
+          "Error occurred when getting trending books", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+    return result;
+  }
+
+  /**
+   * Returns the books most often borrowed by patrons who also borrowed the given book, based
+   * on checkouts made with a {@code patronId}.
+   *
+   * @param id the book id
+   * @param limit number of titles, 1 to {@value #MAX_TRENDING}
+   * @return 200 with the titles (possibly empty); 400 if the limit is invalid; 404 if the
+   *     book is not found; 500 if error
+   */
+  @GetMapping({"/book/{id}/also-borrowed"})
+  @SuppressWarnings("PMD.ShortVariable")
+  public ResponseEntity<?> getAlsoBorrowed(@PathVariable final int id,
+      @RequestParam(value = "limit", defaultValue = "5") final int limit) {
+    ResponseEntity<?> result;
+    try {
+      if (limit < 1 || limit > MAX_TRENDING) {
+        result = new ResponseEntity<>(
+            "limit must be between 1 and " + MAX_TRENDING + ".", HttpStatus.BAD_REQUEST);
+      } else if (mockApiService.findBook(id).isEmpty()) {
+        result = new ResponseEntity<>("Book not found.", HttpStatus.NOT_FOUND);
+      } else {
+        try (RequestTimings.Stage stage = RequestTimings.stage("rank")) {
+          result = new ResponseEntity<>(
+              mockApiService.getAlsoBorrowed(id, limit), HttpStatus.OK);
+        }
+      }
+    } catch (final Exception e) {
+      LOG.error("Error occurred when getting related books", e);
+      result = new ResponseEntity<>(
+          "Error occurred when getting related books", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+    return result;
+  }
+
+  /**
+   * Adds or replaces books from a newline-delimited JSON body (one book object per line,
+   * e.g. {@code Content-Type: application/x-ndjson}). The body is streamed, not buffered.
+   *
+   * @param body the request body
+   * @param batchSize records committed together, 1 to {@value #MAX_IMPORT_BATCH}
+   * @return 200 with the import report (including rejected records); 400 if the batch size is
+   *     invalid; 500 if reading the body fails
+   */
+  @PostMapping({"/books/import"})
+  public ResponseEntity<?> importBooks(final InputStream body,
+      @RequestParam(value = "batchSize", defaultValue = "500") final int batchSize) {
+    ResponseEntity<?> result;
+    try {
+      if (batchSize < 1 || batchSize > MAX_IMPORT_BATCH) {
+        result = new ResponseEntity<>(
+            "batchSize must be between 1 and " + MAX_IMPORT_BATCH + ".", HttpStatus.BAD_REQUEST);
+      } else {
+        result = new ResponseEntity<>(mockApiService.importBooks(
+            new InputStreamReader(body, StandardCharsets.UTF_8), batchSize), HttpStatus.OK);
+      }
+    } catch (final Exception e) {
+      LOG.error("Error occurred when importing books", e);
+      result = new ResponseEntity<>(
+          "Error occurred when importing books", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+    return result;
+  }
+
   /**
    * Adds a copy to the Book if it exists.
    *
@@ -97,16 +239,15 @@ public class RouteController {
   public ResponseEntity<?> addCopy(@PathVariable final Integer bookId) {
     ResponseEntity<?> result;
     try {
-      Book matched = null;
-      for (final Book book : mockApiService.getBooks()) {
-        if (bookId.equals(book.getId())) {
-          matched = book;
-          break;
-        }
+      final Book matched;
+      try (RequestTimings.Stage stage = RequestTimings.stage("lookup")) {
+        matched = mockApiService.findBook(bookId).orElse(null);
       }
       if (matched != null) {
-        matched.addCopy();
-        result = new ResponseEntity<>(matched, HttpStatus.OK);
+        try (RequestTimings.Stage stage = RequestTimings.stage("mutation")) {
+          mockApiService.addCopy(matched);
+        }
+        result = new ResponseEntity<>(afterMutation(matched), HttpStatus.OK);
       } else {
         result = new ResponseEntity<>("Book not found.", HttpStatus.NOT_FOUND);
       }
@@ -130,28 +271,33 @@ public class RouteController {
   public ResponseEntity<?> getRecommendations() {
     ResponseEntity<?> result;
     try {
-      final List<Book> all = mockApiService.getBooks();
+      final List<Book> all;
+      try (RequestTimings.Stage stage = RequestTimings.stage("scan")) {
+        all = mockApiService.getBooks();
+      }
       if (all == null || all.size() < 10) {
         result = new ResponseEntity<>(
             "Not enough books to generate 10 recommendations.",
             HttpStatus.BAD_REQUEST);
       } else {
-        // Top 5 by popularity
-        final List<Book> sorted = new ArrayList<>(all);
-        sorted.sort(Comparator.comparingInt(Book::getAmountOfTimesCheckedOut).reversed());
-        final int topCount = Math.min(5, sorted.size());
-        final List<Book> topPopular = new ArrayList<>(sorted.subList(0, topCount));
-
-        // Random 5 from the remaining pool
-        final List<Book> remaining = new ArrayList<>(all);
-        remaining.removeAll(topPopular);
-        Collections.shuffle(remaining);
-        final int randomCount = 10 - topCount; // normally 5
-        final List<Book> randomPicks = new ArrayList<>(remaining.subList(0, randomCount));
-
         final List<Book> recommendations = new ArrayList<>(10);
-        recommendations.addAll(topPopular);
-        recommendations.addAll(randomPicks);
+        try (RequestTimings.Stage stage = RequestTimings.stage("rank")) {
+          // Top 5 by popularity
+          final List<Book> sorted = new ArrayList<>(all);
+          sorted.sort(Comparator.comparingInt(Book::getAmountOfTimesCheckedOut).reversed());
+          final int topCount = Math.min(5, sorted.size());
+          final List<Book> topPopular = new ArrayList<>(sorted.subList(0, topCount));
+
+          // Random 5 from the remaining pool
+          final List<Book> remaining = new ArrayList<>(all);
+          remaining.removeAll(topPopular);
+          Collections.shuffle(remaining);
+          final int randomCount = 10 - topCount; // normally 5
+          final List<Book> randomPicks = new ArrayList<>(remaining.subList(0, randomCount));
+
+          recommendations.addAll(topPopular);
+          recommendations.addAll(randomPicks);
+        }
 
         result = new ResponseEntity<>(recommendations, HttpStatus.OK);
       }
@@ -165,34 +311,38 @@ public class RouteController {
   }
 
   /**
-   * Checks out a book by id using {@link Book#checkoutCopy()} to update its state.
+   * Checks out a book by id using {@link MockApiService#checkoutCopy(Book)} to update its state.
    *
    * @param id book id (request parameter)
+   * @param patronId optional borrowing patron, used for "readers also borrowed"
    * @return 200 with updated book; 400 if no copies; 404 if not found; 500 on error
    */
   @SuppressWarnings("PMD.ShortVariable")
   @PatchMapping("/checkout")
-  public ResponseEntity<?> checkout(@RequestParam("id") final int id) {
+  public ResponseEntity<?> checkout(@RequestParam("id") final int id,
+      @RequestParam(value = "patronId", required = false) final String patronId) {
     ResponseEntity<?> result;
     try {
-      Book target = null;
-      for (final Book b : mockApiService.getBooks()) {
-        if (b.getId() == id) {
-          target = b;
-          break;
-        }
+      final Book target;
+      try (RequestTimings.Stage stage = RequestTimings.stage("lookup")) {
+        target = mockApiService.findBook(id).orElse(null);
       }
 
       if (target == null) {
         result = new ResponseEntity<>("Book not found.", HttpStatus.NOT_FOUND);
       } else {
-        // Updates copiesAvailable, amountOfTimesCheckedOut, and returnDates.
-        final String due = target.checkoutCopy();
+        // Updates copiesAvailable, amountOfTimesCheckedOut, and returnDates, then persists.
+        final String due;
+        try (RequestTimings.Stage stage = RequestTimings.stage("mutation")) {
+          due = mockApiService.checkoutCopy(target);
+        }
         if (due == null) {
           result = new ResponseEntity<>("No copies available.", HttpStatus.BAD_REQUEST);
         } else {
-          mockApiService.updateBook(target); // persist change in service catalogue
-          result = new ResponseEntity<>(target, HttpStatus.OK);
+          if (patronId != null && !patronId.isBlank()) {
+            mockApiService.recordPatronCheckout(patronId, id);
+          }
+          result = new ResponseEntity<>(afterMutation(target), HttpStatus.OK);
         }
       }
     } catch (final Exception e) {
@@ -201,4 +351,51 @@ public class RouteController {
     }
     return result;
   }
-}
\ No newline at end of file
+
+  /**
+   * Returns a checked-out copy of a book using {@link MockApiService#returnCopy(Book, String)}.
+   * Subscribers of {@code /books/availability/stream} are notified of the new availability.
+   *
+   * @param id book id (request parameter)
+   * @param dueDate the due date handed out at checkout
+   * @return 200 with updated book; 400 if no copy with that due date is checked out;
+   *     404 if not found; 500 on error
+   */
+  @SuppressWarnings("PMD.ShortVariable")
+  @PatchMapping("/return")
+  public ResponseEntity<?> returnCopy(@RequestParam("id") final int id,
+      @RequestParam("dueDate") final String dueDate) {
+    ResponseEntity<?> result;
+    try {
+      final Book target;
+      try (RequestTimings.Stage stage = RequestTimings.stage("lookup")) {
+        target = mockApiService.findBook(id).orElse(null);
+      }
+
+      if (target == null) {
+        result = new ResponseEntity<>("Book not found.", HttpStatus.NOT_FOUND);
+      } else {
+        final boolean returned;
+        try (RequestTimings.Stage stage = RequestTimings.stage("mutation")) {
+          returned = mockApiService.returnCopy(target, dueDate);
+        }
+        result = returned
+            ? new ResponseEntity<>(afterMutation(target), HttpStatus.OK)
+            : new ResponseEntity<>("No copy with that due date is checked out.",
+                HttpStatus.BAD_REQUEST);
+      }
+    } catch (final Exception e) {
+      LOG.error("Error during return", e);
+      result = new ResponseEntity<>("Error during return.", HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+    return result;
+  }
+
+  /**
+   * Re-reads {@code looked} after a mutation. The service applies mutations to the instance
+   * currently in the catalogue, which a reload or import may have replaced since the lookup.
+   */
+  private Book afterMutation(final Book looked) {
+    return mockApiService.findBook(looked.getId()).orElse(looked);
+  }
+}
@@ -0,0 +1,27 @@
+package dev.coms4156.project.individualproject.events;
+
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes every catalogue mutation to the {@code audit} logger.
+ *
+ * <p>Enabled with {@code events.audit-log=true}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "events", name = "audit-log", havingValue = "true")
+public class AuditLogListener implements MutationListener {
+
+  /** Dedicated logger so the audit trail can be routed separately. */
+  private static final Logger AUDIT = LoggerFactory.getLogger("audit");
+
+  @Override
+  public void onEvents(final List<MutationEvent> batch) {
+    for (final MutationEvent event : batch) {
+      AUDIT.info("{}", event);
+    }
+  }
+}
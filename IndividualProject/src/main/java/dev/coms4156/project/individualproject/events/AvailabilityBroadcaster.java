@@ -0,0 +1,320 @@
+package dev.coms4156.project.individualproject.events;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Pushes {@code copiesAvailable} changes to Server-Sent Events subscribers of
+ * {@code GET /books/availability/stream}.
+ *
+ * <p>Subscriptions are indexed by book id, so a mutation costs nothing unless someone watches
+ * that book and then touches only its watchers. Mutations only mark a book dirty; a single
+ * fan-out thread reads each dirty book's current state and sends an {@code availability}
+ * event to its watchers if {@code copiesAvailable} differs from the last one sent. A burst of
+ * checkouts and returns of one title therefore collapses into one event, and because every
+ * read happens on that thread, each subscriber sees states in the order they occurred. A new
+ * subscriber's initial snapshot is sent from the same thread for the same reason.
+ *
+ * <p>Idle subscriptions hold an async servlet request but no thread. A comment line is sent
+ * to every subscriber each {@code availability.heartbeat} to keep proxies from closing the
+ * connection and to find clients that went away; a failed send drops the subscription.
+ * Streams end after {@code availability.stream-timeout}; {@code EventSource} clients reconnect
+ * on their own and receive a fresh snapshot.
+ */
+@Component
+public class AvailabilityBroadcaster implements MutationListener, AutoCloseable {
+
+  /** Logger for this broadcaster. */
+  private static final Logger LOG = LoggerFactory.getLogger(AvailabilityBroadcaster.class);
+
+  /** Sentinel in {@link #lastSent} for a book that was removed from the catalogue. */
+  private static final int REMOVED = -1;
+
+  /** Source of current book state; resolved lazily, as the service publishes to this bean. */
+  private final ObjectProvider<MockApiService> mockApiService;
+
+  /** Lifetime of each stream. */
+  private final long streamTimeoutMillis;
+
+  /** Subscriptions by watched book id. */
+  private final Map<Integer, Set<Subscription>> watchers = new ConcurrentHashMap<>();
+
+  /** Every open subscription, for heartbeats. */
+  private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+  /** Watched books changed since the last fan-out. */
+  private final Set<Integer> dirty = ConcurrentHashMap.newKeySet();
+
+  /** Set while a fan-out is queued or running. */
+  private final AtomicBoolean fanOutScheduled = new AtomicBoolean();
+
+  /** Last {@code copiesAvailable} sent per watched book; confined to the fan-out thread. */
+  private final Map<Integer, Integer> lastSent = new HashMap<>();
+
+  /** Sends snapshots and changes. */
+  private final ExecutorService fanOut;
+
+  /** Sends heartbeats. */
+  private final ScheduledExecutorService heartbeat;
+
+  /** Availability events sent, summed over subscribers. */
+  private final LongAdder eventsSent = new LongAdder();
+
+  /** Heartbeat comments sent, summed over subscribers. */
+  private final LongAdder heartbeatsSent = new LongAdder();
+
+  /** Subscriptions dropped because a send failed. */
+  private final LongAdder disconnects = new LongAdder();
+
+  /**
+   * Creates the broadcaster and starts its heartbeat.
+   *
+   * @param mockApiService source of current book state
+   * @param heartbeatInterval time between heartbeat comments
+   * @param streamTimeout lifetime of each stream
+   */
+  public AvailabilityBroadcaster(final ObjectProvider<MockApiService> mockApiService,
+      @Value("${availability.heartbeat:15s}") final Duration heartbeatInterval,
+      @Value("${availability.stream-timeout:30m}") final Duration streamTimeout) {
+    this.mockApiService = mockApiService;
+    this.streamTimeoutMillis = streamTimeout.toMillis();
+    this.fanOut = Executors.newSingleThreadExecutor(task -> daemon(task, "availability-fanout"));
+    this.heartbeat = Executors.newSingleThreadScheduledExecutor(
+        task -> daemon(task, "availability-heartbeat"));
+    final long period = heartbeatInterval.toMillis();
+    heartbeat.scheduleWithFixedDelay(() -> logFailure(this::sendHeartbeats), period, period,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Opens a stream of availability changes for {@code bookIds}. The current availability of
+   * each book is sent first.
+   *
+   * @param bookIds books to watch
+   * @return the emitter to return from the handler
+   */
+  public SseEmitter subscribe(final Collection<Integer> bookIds) {
+    final Subscription subscription =
+        new Subscription(new SseEmitter(streamTimeoutMillis), List.copyOf(bookIds));
+    subscription.emitter.onCompletion(() -> unsubscribe(subscription));
+    subscription.emitter.onTimeout(() -> unsubscribe(subscription));
+    subscription.emitter.onError(error -> unsubscribe(subscription));
+    subscriptions.add(subscription);
+    for (final Integer id : subscription.bookIds) {
+      watchers.computeIfAbsent(id, k -> ConcurrentHashMap.newKeySet()).add(subscription);
+    }
+    execute(() -> sendSnapshot(subscription));
+    return subscription.emitter;
+  }
+
+  @Override
+  public void onEvents(final List<MutationEvent> batch) {
+    boolean marked = false;
+    for (final MutationEvent event : batch) {
+      if (watchers.containsKey(event.getBookId())) {
+        marked |= dirty.add(event.getBookId());
+      }
+    }
+    if (marked && fanOutScheduled.compareAndSet(false, true)) {
+      execute(this::fanOut);
+    }
+  }
+
+  /**
+   * Returns subscription and delivery counters.
+   *
+   * @return counters by name
+   */
+  public Map<String, Object> getStats() {
+    final Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("subscriptions", subscriptions.size());
+    stats.put("watchedBooks", watchers.size());
+    stats.put("eventsSent", eventsSent.sum());
+    stats.put("heartbeatsSent", heartbeatsSent.sum());
+    stats.put("disconnects", disconnects.sum());
+    return stats;
+  }
+
+  /** Stops sending and ends every open stream. */
+  @Override
+  public void close() {
+    heartbeat.shutdownNow();
+    fanOut.shutdownNow();
+    for (final Subscription subscription : subscriptions) {
+      subscription.emitter.complete();
+    }
+  }
+
+  /**
+   * Ends every open stream and zeroes the counters, leaving the broadcaster as it was when
+   * created. Pending notifications for the ended streams are discarded.
+   */
+  public void reset() {
+    for (final Subscription subscription : List.copyOf(subscriptions)) {
+      unsubscribe(subscription);
+      subscription.emitter.complete();
+    }
+    dirty.clear();
+    // Queued behind any snapshot or fan-out still running for the ended streams.
+    execute(lastSent::clear);
+    eventsSent.reset();
+    heartbeatsSent.reset();
+    disconnects.reset();
+  }
+
+  private void fanOut() {
+    fanOutScheduled.set(false);
+    for (final Integer id : List.copyOf(dirty)) {
+      dirty.remove(id);
+      if (watchers.containsKey(id)) {
+        publishCurrent(id, null);
+      } else {
+        lastSent.remove(id);
+      }
+    }
+  }
+
+  private void sendSnapshot(final Subscription subscription) {
+    for (final Integer id : subscription.bookIds) {
+      if (subscriptions.contains(subscription)) {
+        publishCurrent(id, subscription);
+      }
+    }
+  }
+
+  /**
+   * Reads book {@code id} and sends its state to every watcher if it changed since the last
+   * send, otherwise only to {@code newcomer} (if not null).
+   */
+  private void publishCurrent(final int id, final Subscription newcomer) {
+    final Book book = mockApiService.getObject().findBook(id).orElse(null);
+    final int available = book == null ? REMOVED : book.getCopiesAvailable();
+    final Integer previous = lastSent.put(id, available);
+    // Encoded once and shared by every recipient.
+    final SseEmitter.SseEventBuilder event =
+        event(id, available, book == null ? 0 : book.getTotalCopies());
+    // With nothing sent yet, every watcher still has its snapshot queued behind this task.
+    if (previous != null && previous != available) {
+      for (final Subscription subscription : watchers.getOrDefault(id, Set.of())) {
+        send(subscription, event);
+      }
+    } else if (newcomer != null) {
+      send(newcomer, event);
+    }
+  }
+
+  /** Builds the event for a book's state; {@code available} is {@link #REMOVED} if it is gone. */
+  private static SseEmitter.SseEventBuilder event(final int bookId, final int available,
+                                                  final int totalCopies) {
+    return available == REMOVED
+        ? SseEmitter.event().name("removed").data("{\"id\":" + bookId + "}")
+        : SseEmitter.event().name("availability").data("{\"id\":" + bookId
+            + ",\"copiesAvailable\":" + available + ",\"totalCopies\":" + totalCopies + "}");
+  }
+
+  private boolean send(final Subscription subscription, final SseEmitter.SseEventBuilder event) {
+    final boolean sent = deliver(subscription, event);
+    if (sent) {
+      eventsSent.increment();
+    }
+    return sent;
+  }
+
+  private void sendHeartbeats() {
+    for (final Subscription subscription : subscriptions) {
+      if (deliver(subscription, SseEmitter.event().comment("heartbeat"))) {
+        heartbeatsSent.increment();
+      }
+    }
+  }
+
+  /** Sends {@code event}, dropping the subscription if the client has gone away. */
+  private boolean deliver(final Subscription subscription,
+                          final SseEmitter.SseEventBuilder event) {
+    try {
+      subscription.emitter.send(event);
+      return true;
+    } catch (final IOException | IllegalStateException e) {
+      LOG.debug("Dropping availability subscriber: {}", e.getMessage());
+      if (unsubscribe(subscription)) {
+        disconnects.increment();
+      }
+      subscription.emitter.completeWithError(e);
+      return false;
+    }
+  }
+
+  private boolean unsubscribe(final Subscription subscription) {
+    if (!subscriptions.remove(subscription)) {
+      return false;
+    }
+    for (final Integer id : subscription.bookIds) {
+      watchers.computeIfPresent(id, (k, watching) -> {
+        watching.remove(subscription);
+        return watching.isEmpty() ? null : watching;
+      });
+    }
+    return true;
+  }
+
+  private void execute(final Runnable task) {
+    try {
+      fanOut.execute(() -> logFailure(task));
+    } catch (final RejectedExecutionException e) {
+      // Closed; open streams have been completed.
+      LOG.debug("Availability broadcaster is closed");
+    }
+  }
+
+  /** Runs {@code task}, logging rather than losing its failure. */
+  private static void logFailure(final Runnable task) {
+    try {
+      task.run();
+    } catch (final RuntimeException e) {
+      LOG.warn("Availability notification failed", e);
+    }
+  }
+
+  private static Thread daemon(final Runnable task, final String name) {
+    final Thread thread = new Thread(task, name);
+    thread.setDaemon(true);
+    return thread;
+  }
+
+  /** One open stream. */
+  private static final class Subscription {
+
+    /** Stream to the client. */
+    private final SseEmitter emitter;
+
+    /** Books the client watches. */
+    private final List<Integer> bookIds;
+
+    private Subscription(final SseEmitter emitter, final List<Integer> bookIds) {
+      this.emitter = emitter;
+      this.bookIds = bookIds;
+    }
+  }
+}
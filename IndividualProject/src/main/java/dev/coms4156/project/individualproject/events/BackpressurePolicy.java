@@ -0,0 +1,13 @@
+package dev.coms4156.project.individualproject.events;
+
+/**
+ * What {@link MutationEventPipeline#publish(MutationEvent)} does when the ring buffer is full.
+ */
+public enum BackpressurePolicy {
+  /** Wait for space; the request thread slows down to the consumers' pace. */
+  BLOCK,
+  /** Discard the event and count it; the request thread is never delayed. */
+  DROP,
+  /** Deliver the event to the listeners on the request thread itself. */
+  CALLER_RUNS
+}
@@ -0,0 +1,150 @@
+package dev.coms4156.project.individualproject.events;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer multi-consumer queue (Vyukov's array queue).
+ *
+ * <p>Every slot carries a sequence number that tells producers and consumers whose turn it is,
+ * so each side claims a position with a single CAS on its own counter and never touches the
+ * other side's counter. Capacity is rounded up to a power of two.
+ *
+ * @param <E> element type
+ */
+public final class MpmcRingBuffer<E> {
+
+  /** {@code capacity - 1}. */
+  private final int mask;
+
+  /** Elements by slot. */
+  private final AtomicReferenceArray<E> elements;
+
+  /**
+   * Per-slot turn: {@code pos} when free for the producer at {@code pos}, {@code pos + 1} when
+   * filled for the consumer at {@code pos}.
+   */
+  private final AtomicLongArray sequences;
+
+  /** Next position to produce. */
+  private final AtomicLong tail = new AtomicLong();
+
+  /** Next position to consume. */
+  private final AtomicLong head = new AtomicLong();
+
+  /**
+   * Creates an empty buffer.
+   *
+   * @param capacity minimum capacity (at least 2), rounded up to a power of two
+   * @throws IllegalArgumentException if the capacity is out of range
+   */
+  public MpmcRingBuffer(final int capacity) {
+    if (capacity < 2 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("capacity must be 2..2^30");
+    }
+    final int size = Integer.bitCount(capacity) == 1 ? capacity
+        : Integer.highestOneBit(capacity) << 1;
+    this.mask = size - 1;
+    this.elements = new AtomicReferenceArray<>(size);
+    this.sequences = new AtomicLongArray(size);
+    for (int i = 0; i < size; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /**
+   * Adds {@code element} if there is room.
+   *
+   * @param element non-null element
+   * @return false if the buffer is full
+   */
+  public boolean offer(final E element) {
+    long pos = tail.get();
+    int slot;
+    while (true) {
+      slot = (int) pos & mask;
+      final long lag = sequences.get(slot) - pos;
+      if (lag == 0) {
+        if (tail.compareAndSet(pos, pos + 1)) {
+          break;
+        }
+        pos = tail.get();
+      } else if (lag < 0) {
+        return false;
+      } else {
+        pos = tail.get();
+      }
+    }
+    elements.lazySet(slot, element);
+    sequences.set(slot, pos + 1);
+    return true;
+  }
+
+  /**
+   * Removes the oldest element.
+   *
+   * @return the element, or null if the buffer is empty
+   */
+  public E poll() {
+    long pos = head.get();
+    int slot;
+    while (true) {
+      slot = (int) pos & mask;
+      final long lag = sequences.get(slot) - (pos + 1);
+      if (lag == 0) {
+        if (head.compareAndSet(pos, pos + 1)) {
+          break;
+        }
+        pos = head.get();
+      } else if (lag < 0) {
+        return null;
+      } else {
+        pos = head.get();
+      }
+    }
+    final E element = elements.get(slot);
+    elements.lazySet(slot, null);
+    sequences.set(slot, pos + mask + 1);
+    return element;
+  }
+
+  /**
+   * Moves up to {@code max} elements into {@code sink}.
+   *
+   * @param sink destination
+   * @param max maximum number of elements
+   * @return number of elements moved
+   */
+  public int drainTo(final List<? super E> sink, final int max) {
+    int drained = 0;
+    while (drained < max) {
+      final E element = poll();
+      if (element == null) {
+        break;
+      }
+      sink.add(element);
+      drained++;
+    }
+    return drained;
+  }
+
+  /**
+   * Returns the approximate number of queued elements.
+   *
+   * @return queued elements
+   */
+  public int size() {
+    return (int) Math.max(0, Math.min(tail.get() - head.get(), mask + 1L));
+  }
+
+  /**
+   * Returns the capacity.
+   *
+   * @return slot count
+   */
+  public int capacity() {
+    return mask + 1;
+  }
+}
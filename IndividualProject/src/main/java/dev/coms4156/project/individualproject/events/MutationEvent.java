@@ -0,0 +1,102 @@
+package dev.coms4156.project.individualproject.events;
+
+import dev.coms4156.project.individualproject.model.Book;
+
+/**
+ * Immutable record of one committed catalogue mutation and the book's counters right after it.
+ */
+public final class MutationEvent {
+
+  /** What happened. */
+  private final MutationType type;
+
+  /** The mutated book. */
+  private final int bookId;
+
+  /** Copies available after the mutation. */
+  private final int copiesAvailable;
+
+  /** Total copies after the mutation. */
+  private final int totalCopies;
+
+  /** Lifetime checkouts after the mutation. */
+  private final int timesCheckedOut;
+
+  /** Due date handed out or returned, for checkouts and returns; otherwise null. */
+  private final String dueDate;
+
+  /** Commit time in epoch milliseconds. */
+  private final long timestampMillis;
+
+  /**
+   * Creates an event.
+   *
+   * @param type what happened
+   * @param bookId the mutated book
+   * @param copiesAvailable copies available after the mutation
+   * @param totalCopies total copies after the mutation
+   * @param timesCheckedOut lifetime checkouts after the mutation
+   * @param dueDate due date for checkouts and returns, or null
+   * @param timestampMillis commit time in epoch milliseconds
+   */
+  @SuppressWarnings("PMD.ExcessiveParameterList")
+  public MutationEvent(final MutationType type, final int bookId, final int copiesAvailable,
+                       final int totalCopies, final int timesCheckedOut, final String dueDate,
+                       final long timestampMillis) {
+    this.type = type;
+    this.bookId = bookId;
+    this.copiesAvailable = copiesAvailable;
+    this.totalCopies = totalCopies;
+    this.timesCheckedOut = timesCheckedOut;
+    this.dueDate = dueDate;
+    this.timestampMillis = timestampMillis;
+  }
+
+  /**
+   * Captures {@code book}'s current counters; call while the mutation is still exclusive.
+   *
+   * @param type what happened
+   * @param book the mutated book
+   * @param dueDate due date for checkouts and returns, or null
+   * @return the event, timestamped now
+   */
+  public static MutationEvent of(final MutationType type, final Book book, final String dueDate) {
+    return new MutationEvent(type, book.getId(), book.getCopiesAvailable(),
+        book.getTotalCopies(), book.getAmountOfTimesCheckedOut(), dueDate,
+        System.currentTimeMillis());
+  }
+
+  public MutationType getType() {
+    return type;
+  }
+
+  public int getBookId() {
+    return bookId;
+  }
+
+  public int getCopiesAvailable() {
+    return copiesAvailable;
+  }
+
+  public int getTotalCopies() {
+    return totalCopies;
+  }
+
+  public int getTimesCheckedOut() {
+    return timesCheckedOut;
+  }
+
+  public String getDueDate() {
+    return dueDate;
+  }
+
+  public long getTimestampMillis() {
+    return timestampMillis;
+  }
+
+  @Override
+  public String toString() {
+    return type + " book=" + bookId + " available=" + copiesAvailable + "/" + totalCopies
+        + " checkouts=" + timesCheckedOut + (dueDate == null ? "" : " due=" + dueDate);
+  }
+}
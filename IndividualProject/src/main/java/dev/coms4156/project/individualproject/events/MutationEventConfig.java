@@ -0,0 +1,35 @@
+package dev.coms4156.project.individualproject.events;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the {@link MutationEventPipeline} from the {@code events.*} properties and wires in
+ * every {@link MutationListener} bean.
+ */
+@Configuration
+public class MutationEventConfig {
+
+  /**
+   * Creates and starts the pipeline.
+   *
+   * @param listeners all listener beans, possibly none
+   * @param capacity ring buffer capacity
+   * @param consumers consumer thread count
+   * @param batchSize maximum events per batch
+   * @param policy behaviour when the buffer is full
+   * @return the pipeline
+   */
+  @Bean(initMethod = "start", destroyMethod = "close")
+  public MutationEventPipeline mutationEventPipeline(
+      final ObjectProvider<MutationListener> listeners,
+      @Value("${events.buffer-size:8192}") final int capacity,
+      @Value("${events.consumers:1}") final int consumers,
+      @Value("${events.batch-size:256}") final int batchSize,
+      @Value("${events.backpressure:BLOCK}") final BackpressurePolicy policy) {
+    return new MutationEventPipeline(listeners.orderedStream().toList(), capacity, consumers,
+        batchSize, policy);
+  }
+}
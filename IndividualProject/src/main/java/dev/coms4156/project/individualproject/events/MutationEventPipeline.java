@@ -0,0 +1,253 @@
+package dev.coms4156.project.individualproject.events;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers {@link MutationEvent}s to {@link MutationListener}s off the request thread.
+ *
+ * <p>{@link #publish(MutationEvent)} is a single lock-free offer into an
+ * {@link MpmcRingBuffer}. Dedicated consumer threads drain it in batches of up to
+ * {@code batchSize} and hand each batch to every listener. While the buffer is empty they spin
+ * briefly, then park with exponential backoff, and once that reaches {@code MAX_PARK_NANOS}
+ * they sleep until a producer wakes them, so an idle pipeline costs no CPU. When the buffer is
+ * full the configured {@link BackpressurePolicy} applies. With a single consumer (the default)
+ * listeners see events in publication order; with more, batches may be delivered concurrently.
+ * A pipeline without listeners starts no consumers and discards events on publication.
+ */
+public class MutationEventPipeline implements Closeable {
+
+  /** Logger for listener failures. */
+  private static final Logger LOG = LoggerFactory.getLogger(MutationEventPipeline.class);
+
+  /** Empty polls spent spinning before a consumer parks; spinning is useless on one CPU. */
+  private static final int SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 100 : 0;
+
+  /** Longest timed park of an idle consumer before it sleeps until woken. */
+  private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  /** Park between retries of a blocked producer. */
+  private static final long PRODUCER_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+  /** Queued events. */
+  private final MpmcRingBuffer<MutationEvent> buffer;
+
+  /** Receivers of every batch. */
+  private final List<MutationListener> listeners;
+
+  /** Maximum events per delivered batch. */
+  private final int batchSize;
+
+  /** Behaviour when the buffer is full. */
+  private final BackpressurePolicy policy;
+
+  /** Consumer threads. */
+  private final List<Thread> consumers;
+
+  /** Consumers sleeping until a producer wakes them. */
+  private final AtomicInteger sleeping = new AtomicInteger();
+
+  /** Cleared by {@link #close()}; consumers exit once it is false and the buffer is empty. */
+  private volatile boolean running;
+
+  /** Events accepted by {@link #publish}. */
+  private final LongAdder published = new LongAdder();
+
+  /** Events handed to listeners. */
+  private final LongAdder delivered = new LongAdder();
+
+  /** Batches handed to listeners. */
+  private final LongAdder batches = new LongAdder();
+
+  /** Events discarded because the buffer was full or the pipeline closed. */
+  private final LongAdder dropped = new LongAdder();
+
+  /** Events delivered on the publishing thread under {@link BackpressurePolicy#CALLER_RUNS}. */
+  private final LongAdder callerRuns = new LongAdder();
+
+  /** Times a producer found the buffer full. */
+  private final LongAdder fullEvents = new LongAdder();
+
+  /**
+   * Creates a stopped pipeline; call {@link #start()} to launch the consumers.
+   *
+   * @param listeners receivers of every batch; if empty, no consumer threads are started
+   * @param capacity ring buffer capacity, rounded up to a power of two
+   * @param consumerCount number of consumer threads (at least 1)
+   * @param batchSize maximum events per batch (at least 1)
+   * @param policy behaviour when the buffer is full
+   */
+  public MutationEventPipeline(final List<MutationListener> listeners, final int capacity,
+                               final int consumerCount, final int batchSize,
+                               final BackpressurePolicy policy) {
+    if (consumerCount < 1 || batchSize < 1) {
+      throw new IllegalArgumentException("consumers and batch size must be positive");
+    }
+    this.buffer = new MpmcRingBuffer<>(capacity);
+    this.listeners = List.copyOf(listeners);
+    this.batchSize = batchSize;
+    this.policy = policy;
+    this.consumers = new ArrayList<>(consumerCount);
+    for (int i = 0; i < consumerCount && !this.listeners.isEmpty(); i++) {
+      final Thread thread = new Thread(this::consume, "mutation-events-" + i);
+      thread.setDaemon(true);
+      consumers.add(thread);
+    }
+  }
+
+  /** Starts the consumer threads. */
+  public void start() {
+    running = true;
+    for (final Thread thread : consumers) {
+      thread.start();
+    }
+  }
+
+  /**
+   * Queues {@code event} for delivery, applying the backpressure policy if the buffer is full.
+   *
+   * @param event the event
+   */
+  public void publish(final MutationEvent event) {
+    if (listeners.isEmpty()) {
+      return;
+    }
+    if (!running) {
+      dropped.increment();
+      return;
+    }
+    if (buffer.offer(event)) {
+      enqueued();
+      return;
+    }
+    fullEvents.increment();
+    switch (policy) {
+      case DROP:
+        dropped.increment();
+        break;
+      case CALLER_RUNS:
+        callerRuns.increment();
+        published.increment();
+        dispatch(Collections.singletonList(event));
+        break;
+      case BLOCK:
+      default:
+        while (!buffer.offer(event)) {
+          if (!running) {
+            dropped.increment();
+            return;
+          }
+          LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+        }
+        enqueued();
+        break;
+    }
+  }
+
+  /** Counts an event added to the buffer and wakes sleeping consumers to deliver it. */
+  private void enqueued() {
+    published.increment();
+    // The buffer write above precedes this read, and a consumer announces itself before its
+    // last look at the buffer, so either it sees the event or it is woken here.
+    if (sleeping.get() > 0) {
+      consumers.forEach(LockSupport::unpark);
+    }
+  }
+
+  /**
+   * Returns delivery counters and the current queue depth.
+   *
+   * @return counters keyed by name
+   */
+  public Map<String, Object> getStats() {
+    final Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("policy", policy.name());
+    stats.put("capacity", buffer.capacity());
+    stats.put("queued", buffer.size());
+    stats.put("sleepingConsumers", sleeping.get());
+    stats.put("published", published.sum());
+    stats.put("delivered", delivered.sum());
+    stats.put("batches", batches.sum());
+    stats.put("bufferFull", fullEvents.sum());
+    stats.put("dropped", dropped.sum());
+    stats.put("callerRuns", callerRuns.sum());
+    return stats;
+  }
+
+  /**
+   * Stops accepting events, delivers everything already queued and waits for the consumers.
+   */
+  @Override
+  public void close() {
+    running = false;
+    consumers.forEach(LockSupport::unpark);
+    for (final Thread thread : consumers) {
+      try {
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void consume() {
+    final List<MutationEvent> batch = new ArrayList<>(batchSize);
+    int idle = 0;
+    long park = PRODUCER_PARK_NANOS;
+    while (running || buffer.size() > 0) {
+      if (buffer.drainTo(batch, batchSize) == 0) {
+        if (idle < SPINS) {
+          idle++;
+          Thread.onSpinWait();
+        } else if (park <= MAX_PARK_NANOS) {
+          LockSupport.parkNanos(park);
+          park *= 2;
+        } else {
+          awaitEvents();
+        }
+        continue;
+      }
+      idle = 0;
+      park = PRODUCER_PARK_NANOS;
+      dispatch(batch);
+      batch.clear();
+    }
+  }
+
+  /** Parks until a producer or {@link #close()} wakes this consumer. */
+  private void awaitEvents() {
+    sleeping.incrementAndGet();
+    try {
+      if (running && buffer.size() == 0) {
+        LockSupport.park(this);
+      }
+    } finally {
+      sleeping.decrementAndGet();
+    }
+  }
+
+  private void dispatch(final List<MutationEvent> batch) {
+    final List<MutationEvent> view = Collections.unmodifiableList(batch);
+    for (final MutationListener listener : listeners) {
+      try {
+        listener.onEvents(view);
+      } catch (final RuntimeException e) {
+        LOG.error("Mutation listener {} failed on a batch of {} events",
+            listener.getClass().getName(), batch.size(), e);
+      }
+    }
+    batches.increment();
+    delivered.add(batch.size());
+  }
+}
@@ -0,0 +1,21 @@
+package dev.coms4156.project.individualproject.events;
+
+import java.util.List;
+
+/**
+ * Consumer of committed catalogue mutations, registered as a Spring bean.
+ *
+ * <p>Listeners run on the pipeline's consumer thread, or on the publishing request thread
+ * under {@link BackpressurePolicy#CALLER_RUNS}, so they must be thread-safe and should not
+ * block for long. Exceptions are logged and do not affect other listeners.
+ */
+@FunctionalInterface
+public interface MutationListener {
+
+  /**
+   * Handles a batch of events in publication order.
+   *
+   * @param batch the events; only valid for the duration of the call
+   */
+  void onEvents(List<MutationEvent> batch);
+}
@@ -0,0 +1,21 @@
+package dev.coms4156.project.individualproject.events;
+
+/**
+ * Kinds of catalogue mutation published by the service.
+ */
+public enum MutationType {
+  /** A copy was checked out. */
+  CHECKOUT,
+  /** A checked-out copy was returned. */
+  RETURN,
+  /** A copy was added. */
+  ADD_COPY,
+  /** An available copy was removed. */
+  DELETE_COPY,
+  /** A book's record was replaced. */
+  UPDATE,
+  /** A new book was added, e.g. by a bulk import. */
+  CREATE,
+  /** A book was dropped from the catalogue, e.g. by a source reload. */
+  REMOVE
+}
@@ -0,0 +1,183 @@
+package dev.coms4156.project.individualproject.instrumentation;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Per-request stage timer bound to the request thread.
+ *
+ * <p>A recorder only exists while {@link ServerTimingFilter} is handling a request. Outside
+ * of that, {@link #stage(String)} costs a single {@link ThreadLocal} read and returns a shared
+ * no-op handle, so call sites in the controller and service can stay instrumented permanently.
+ */
+public final class RequestTimings {
+
+  /** Shared handle returned when no request is being recorded. */
+  private static final Stage NOOP = () -> { };
+
+  /** Recorder of the request currently handled by this thread, if any. */
+  private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+  /** Allocation counter, or null if the JVM cannot report per-thread allocation. */
+  private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = allocationBean();
+
+  /** Upper bound on distinct stages recorded for one request. */
+  private static final int MAX_STAGES = 16;
+
+  /** Stage names in first-seen order. */
+  private final String[] names = new String[MAX_STAGES];
+
+  /** Accumulated wall time per stage, in nanoseconds. */
+  private final long[] nanos = new long[MAX_STAGES];
+
+  /** Number of distinct stages recorded. */
+  private int stageCount;
+
+  /** Wall clock at the start of the request. */
+  private final long startNanos;
+
+  /** Thread allocation counter at the start of the request, or -1 if unsupported. */
+  private final long startAllocatedBytes;
+
+  /** Wall clock when the response body started being serialized, or 0 if never. */
+  private long serializeStartNanos;
+
+  /** Total wall time of the request, set by {@link #finish()}. */
+  private long totalNanos;
+
+  /** Bytes allocated on the request thread, set by {@link #finish()}; -1 if unsupported. */
+  private long allocatedBytes = -1;
+
+  /** A timed section; closing it adds the elapsed time to its stage. */
+  @FunctionalInterface
+  public interface Stage extends AutoCloseable {
+    @Override
+    void close();
+  }
+
+  private RequestTimings() {
+    this.startNanos = System.nanoTime();
+    this.startAllocatedBytes = ALLOCATION_BEAN == null
+        ? -1 : ALLOCATION_BEAN.getCurrentThreadAllocatedBytes();
+  }
+
+  /**
+   * Starts recording for the request handled by the current thread.
+   *
+   * @return the new recorder
+   */
+  static RequestTimings begin() {
+    final RequestTimings timings = new RequestTimings();
+    CURRENT.set(timings);
+    return timings;
+  }
+
+  /** Detaches the recorder from the current thread. */
+  static void end() {
+    CURRENT.remove();
+  }
+
+  /**
+   * Opens a timed stage for the current request.
+   *
+   * @param name stage name; must be a valid Server-Timing metric token
+   * @return a handle to close when the stage ends; a no-op when not recording
+   */
+  public static Stage stage(final String name) {
+    final RequestTimings timings = CURRENT.get();
+    if (timings == null) {
+      return NOOP;
+    }
+    final long start = System.nanoTime();
+    return () -> timings.add(name, System.nanoTime() - start);
+  }
+
+  /** Marks the point where the response body starts being written. */
+  static void markSerializationStart() {
+    final RequestTimings timings = CURRENT.get();
+    if (timings != null && timings.serializeStartNanos == 0) {
+      timings.serializeStartNanos = System.nanoTime();
+    }
+  }
+
+  /** Stops the request clock and captures allocation and serialization time. */
+  void finish() {
+    final long now = System.nanoTime();
+    totalNanos = now - startNanos;
+    if (serializeStartNanos != 0) {
+      add("serialize", now - serializeStartNanos);
+    }
+    if (startAllocatedBytes >= 0) {
+      allocatedBytes = ALLOCATION_BEAN.getCurrentThreadAllocatedBytes() - startAllocatedBytes;
+    }
+  }
+
+  private void add(final String name, final long elapsed) {
+    for (int i = 0; i < stageCount; i++) {
+      if (names[i].equals(name)) {
+        nanos[i] += elapsed;
+        return;
+      }
+    }
+    if (stageCount < MAX_STAGES) {
+      names[stageCount] = name;
+      nanos[stageCount] = elapsed;
+      stageCount++;
+    }
+  }
+
+  int getStageCount() {
+    return stageCount;
+  }
+
+  String getStageName(final int index) {
+    return names[index];
+  }
+
+  long getStageNanos(final int index) {
+    return nanos[index];
+  }
+
+  long getTotalNanos() {
+    return totalNanos;
+  }
+
+  long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * Renders the recorded stages as a {@code Server-Timing} header value.
+   *
+   * @return e.g. {@code lookup;dur=0.012, serialize;dur=0.200, total;dur=0.350, alloc;desc="..."}
+   */
+  String toServerTimingHeader() {
+    final StringBuilder header = new StringBuilder(32 * (stageCount + 2));
+    for (int i = 0; i < stageCount; i++) {
+      appendMetric(header, names[i], nanos[i]);
+      header.append(", ");
+    }
+    appendMetric(header, "total", totalNanos);
+    if (allocatedBytes >= 0) {
+      header.append(", alloc;desc=\"").append(allocatedBytes).append(" bytes\"");
+    }
+    return header.toString();
+  }
+
+  private static void appendMetric(final StringBuilder header, final String name,
+                                   final long elapsedNanos) {
+    header.append(name).append(";dur=")
+        .append(String.format(Locale.ROOT, "%.3f", elapsedNanos / 1_000_000.0));
+  }
+
+  private static com.sun.management.ThreadMXBean allocationBean() {
+    final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      final com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+      if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+        return sunBean;
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,34 @@
+package dev.coms4156.project.individualproject.instrumentation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Marks the start of response-body serialization so that {@link ServerTimingFilter} can
+ * attribute the remaining request time to the message converter.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(prefix = "instrumentation", name = "enabled", havingValue = "true")
+public class SerializationTimingAdvice implements ResponseBodyAdvice<Object> {
+
+  @Override
+  public boolean supports(final MethodParameter returnType,
+                          final Class<? extends HttpMessageConverter<?>> converterType) {
+    return true;
+  }
+
+  @Override
+  public Object beforeBodyWrite(
+      final Object body, final MethodParameter returnType, final MediaType selectedContentType,
+      final Class<? extends HttpMessageConverter<?>> selectedConverterType,
+      final ServerHttpRequest request, final ServerHttpResponse response) {
+    RequestTimings.markSerializationStart();
+    return body;
+  }
+}
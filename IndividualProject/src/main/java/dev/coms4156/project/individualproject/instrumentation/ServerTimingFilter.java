@@ -0,0 +1,87 @@
+package dev.coms4156.project.individualproject.instrumentation;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+/**
+ * Opt-in filter that times each request stage and reports it via {@code Server-Timing}.
+ *
+ * <p>Enabled with {@code instrumentation.enabled=true}. The response body is buffered so the
+ * header can include serialization time and request-thread allocation; streaming endpoints
+ * must therefore be listed in {@code instrumentation.exclude-paths}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "instrumentation", name = "enabled", havingValue = "true")
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+  /** Response header carrying the stage breakdown. */
+  public static final String HEADER = "Server-Timing";
+
+  /** Aggregate store for {@code /metrics/timings}. */
+  private final TimingRegistry registry;
+
+  /** Ant-style path patterns that are never buffered or timed. */
+  private final List<String> excludedPaths;
+
+  /** Matcher for {@link #excludedPaths}. */
+  private final AntPathMatcher matcher = new AntPathMatcher();
+
+  /**
+   * Creates the filter.
+   *
+   * @param registry aggregate store
+   * @param excludedPaths path patterns to skip
+   */
+  public ServerTimingFilter(final TimingRegistry registry,
+      @Value("${instrumentation.exclude-paths:}") final List<String> excludedPaths) {
+    super();
+    this.registry = registry;
+    this.excludedPaths = excludedPaths;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(final HttpServletRequest request) {
+    final String path = request.getRequestURI().substring(request.getContextPath().length());
+    for (final String pattern : excludedPaths) {
+      if (matcher.match(pattern, path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  protected void doFilterInternal(final HttpServletRequest request,
+                                  final HttpServletResponse response,
+                                  final FilterChain filterChain)
+      throws ServletException, IOException {
+    final ContentCachingResponseWrapper wrapped = new ContentCachingResponseWrapper(response);
+    final RequestTimings timings = RequestTimings.begin();
+    try {
+      filterChain.doFilter(request, wrapped);
+    } finally {
+      timings.finish();
+      RequestTimings.end();
+      registry.record(endpointKey(request), timings);
+      wrapped.setHeader(HEADER, timings.toServerTimingHeader());
+      wrapped.copyBodyToResponse();
+    }
+  }
+
+  /** Keys by matched route so that path variables do not explode the aggregate. */
+  private static String endpointKey(final HttpServletRequest request) {
+    final Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    return request.getMethod() + " " + (pattern != null ? pattern : "<unmatched>");
+  }
+}
@@ -0,0 +1,100 @@
+package dev.coms4156.project.individualproject.instrumentation;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aggregates {@link RequestTimings} per endpoint so regressions can be attributed to a stage.
+ *
+ * <p>The registry is always present but stays empty unless {@link ServerTimingFilter} is enabled.
+ */
+@Component
+public class TimingRegistry {
+
+  /** Running totals keyed by endpoint, e.g. {@code "GET /book/{id}"}. */
+  private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+  /**
+   * Adds a finished request to the aggregate of its endpoint.
+   *
+   * @param endpoint endpoint key (method and matched pattern)
+   * @param timings finished recorder of the request
+   */
+  public void record(final String endpoint, final RequestTimings timings) {
+    final EndpointStats stats = endpoints.computeIfAbsent(endpoint, k -> new EndpointStats());
+    stats.total.add(timings.getTotalNanos());
+    for (int i = 0; i < timings.getStageCount(); i++) {
+      stats.stages.computeIfAbsent(timings.getStageName(i), k -> new StageStats())
+          .add(timings.getStageNanos(i));
+    }
+    if (timings.getAllocatedBytes() >= 0) {
+      stats.allocated.add(timings.getAllocatedBytes());
+    }
+  }
+
+  /**
+   * Returns a point-in-time summary of every endpoint seen so far.
+   *
+   * @return summaries keyed by endpoint, sorted by key
+   */
+  public Map<String, TimingSummary> summarize() {
+    final Map<String, TimingSummary> result = new TreeMap<>();
+    endpoints.forEach((endpoint, stats) -> result.put(endpoint, stats.summarize()));
+    return result;
+  }
+
+  /** Drops all aggregates. */
+  public void reset() {
+    endpoints.clear();
+  }
+
+  /** Totals for one endpoint. */
+  private static final class EndpointStats {
+    /** Whole-request wall time. */
+    private final StageStats total = new StageStats();
+
+    /** Allocation on the request thread, recorded in bytes rather than nanoseconds. */
+    private final StageStats allocated = new StageStats();
+
+    /** Wall time per named stage. */
+    private final Map<String, StageStats> stages = new ConcurrentHashMap<>();
+
+    private TimingSummary summarize() {
+      final long count = total.count.sum();
+      final Map<String, TimingSummary.Stat> stageSummary = new TreeMap<>();
+      stages.forEach((name, stats) -> stageSummary.put(name, stats.toMillis(count)));
+      final long allocCount = allocated.count.sum();
+      final long meanAllocated = allocCount == 0 ? -1 : allocated.sum.sum() / allocCount;
+      return new TimingSummary(count, total.toMillis(count), meanAllocated,
+          allocated.max.get(), stageSummary);
+    }
+  }
+
+  /** Sum, count and max of a non-negative measurement. */
+  private static final class StageStats {
+    /** Number of samples. */
+    private final LongAdder count = new LongAdder();
+
+    /** Sum of samples. */
+    private final LongAdder sum = new LongAdder();
+
+    /** Largest sample. */
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    private void add(final long value) {
+      count.increment();
+      sum.add(value);
+      max.accumulate(value);
+    }
+
+    /** Mean is taken over all requests of the endpoint, not only those that hit the stage. */
+    private TimingSummary.Stat toMillis(final long requests) {
+      final double mean = requests == 0 ? 0 : sum.sum() / (double) requests / 1_000_000.0;
+      return new TimingSummary.Stat(mean, max.get() / 1_000_000.0);
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package dev.coms4156.project.individualproject.instrumentation;
+
+import java.util.Map;
+
+/**
+ * Aggregated timings of one endpoint, as served by {@code GET /metrics/timings}.
+ */
+public class TimingSummary {
+
+  /** Number of requests recorded. */
+  private final long requests;
+
+  /** Whole-request wall time. */
+  private final Stat total;
+
+  /** Mean bytes allocated on the request thread, or -1 if the JVM cannot measure it. */
+  private final long meanAllocatedBytes;
+
+  /** Largest allocation observed for a single request. */
+  private final long maxAllocatedBytes;
+
+  /** Wall time per stage (lookup, mutation, serialize, ...). */
+  private final Map<String, Stat> stages;
+
+  /**
+   * Creates a summary.
+   *
+   * @param requests number of requests recorded
+   * @param total whole-request wall time
+   * @param meanAllocatedBytes mean allocation per request, or -1
+   * @param maxAllocatedBytes largest allocation per request
+   * @param stages wall time per stage
+   */
+  public TimingSummary(final long requests, final Stat total, final long meanAllocatedBytes,
+                       final long maxAllocatedBytes, final Map<String, Stat> stages) {
+    this.requests = requests;
+    this.total = total;
+    this.meanAllocatedBytes = meanAllocatedBytes;
+    this.maxAllocatedBytes = maxAllocatedBytes;
+    this.stages = stages;
+  }
+
+  public long getRequests() {
+    return requests;
+  }
+
+  public Stat getTotal() {
+    return total;
+  }
+
+  public long getMeanAllocatedBytes() {
+    return meanAllocatedBytes;
+  }
+
+  public long getMaxAllocatedBytes() {
+    return maxAllocatedBytes;
+  }
+
+  public Map<String, Stat> getStages() {
+    return stages;
+  }
+
+  /** Mean and max wall time in milliseconds. */
+  public static class Stat {
+
+    /** Mean milliseconds per request. */
+    private final double meanMillis;
+
+    /** Largest single observation in milliseconds. */
+    private final double maxMillis;
+
+    /**
+     * Creates a stat.
+     *
+     * @param meanMillis mean milliseconds per request
+     * @param maxMillis largest observation in milliseconds
+     */
+    public Stat(final double meanMillis, final double maxMillis) {
+      this.meanMillis = meanMillis;
+      this.maxMillis = maxMillis;
+    }
+
+    public double getMeanMillis() {
+      return meanMillis;
+    }
+
+    public double getMaxMillis() {
+      return maxMillis;
+    }
+  }
+}
@@ -4,6 +4,7 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * This class defines the Book entry model.
@@ -48,6 +49,12 @@ public class Book implements Comparable<Book> {
   /** Total number of copies (available + checked out). */
   private int totalCopies;
 
+  /**
+   * Off-heap home of the three counters once {@link #bindCounters(MappedCounterStore)} has
+   * been called; null while they live in the fields above.
+   */
+  private MappedCounterStore counters;
+
   /**
    * Very basic Book constructor.
    *
@@ -90,6 +97,28 @@ public class Book implements Comparable<Book> {
     this.totalCopies = totalCopies;
   }
 
+  /**
+   * Copy constructor. The copy holds the current counter values of {@code other} in its own
+   * fields (it is never bound to a counter store) and its own copies of the lists, so later
+   * changes to either book do not affect the other.
+   *
+   * @param other the book to copy
+   */
+  public Book(final Book other) {
+    this.title = other.title;
+    this.authors = copyOf(other.authors);
+    this.language = other.language;
+    this.shelvingLocation = other.shelvingLocation;
+    this.publicationDate = other.publicationDate;
+    this.publisher = other.publisher;
+    this.subjects = copyOf(other.subjects);
+    this.id = other.id;
+    this.amountOfTimesCheckedOut = other.getAmountOfTimesCheckedOut();
+    this.copiesAvailable = other.getCopiesAvailable();
+    this.returnDates = copyOf(other.returnDates);
+    this.totalCopies = other.getTotalCopies();
+  }
+
   /** No-args constructor for Jackson. */
   public Book() {
     this.authors = new ArrayList<>();
@@ -106,13 +135,50 @@ public class Book implements Comparable<Book> {
     this.id = 0;
   }
 
+  private static List<String> copyOf(final List<String> list) {
+    return list == null ? new ArrayList<>() : new ArrayList<>(list);
+  }
+
+  /**
+   * Compares the descriptive fields (title, authors, language, shelving location, publication
+   * date, publisher, subjects) with {@code other}, ignoring the id and all circulation state.
+   *
+   * @param other the book to compare with
+   * @return true if every descriptive field is equal
+   */
+  public boolean hasSameDescription(final Book other) {
+    return Objects.equals(title, other.title)
+        && Objects.equals(authors, other.authors)
+        && Objects.equals(language, other.language)
+        && Objects.equals(shelvingLocation, other.shelvingLocation)
+        && Objects.equals(publicationDate, other.publicationDate)
+        && Objects.equals(publisher, other.publisher)
+        && Objects.equals(subjects, other.subjects);
+  }
+
+  /**
+   * Replaces the descriptive fields with copies of those of {@code source}, leaving the id and
+   * the copy, checkout and due-date state untouched.
+   *
+   * @param source the book to take the description from
+   */
+  public void copyDescriptionFrom(final Book source) {
+    this.title = source.title;
+    this.authors = copyOf(source.authors);
+    this.language = source.language;
+    this.shelvingLocation = source.shelvingLocation;
+    this.publicationDate = source.publicationDate;
+    this.publisher = source.publisher;
+    this.subjects = copyOf(source.subjects);
+  }
+
   /**
    * Returns whether at least one copy is available for checkout.
    *
    * @return true if {@code copiesAvailable > 0}; false otherwise
    */
   public boolean hasCopies() {
-    return copiesAvailable > 0;
+    return getCopiesAvailable() > 0;
   }
 
   /**
@@ -130,6 +196,14 @@ public class Book implements Comparable<Book> {
    * @return true if a copy was deleted; false otherwise
    */
   public boolean deleteCopy() {
+    if (counters != null) {
+      if (counters.get(id, MappedCounterStore.TOTAL_COPIES) > 0
+          && counters.decrementIfPositive(id, MappedCounterStore.COPIES_AVAILABLE)) {
+        counters.getAndAdd(id, MappedCounterStore.TOTAL_COPIES, -1);
+        return true;
+      }
+      return false;
+    }
     if (totalCopies > 0 && copiesAvailable > 0) {
       totalCopies--;
       copiesAvailable--;
@@ -140,6 +214,11 @@ public class Book implements Comparable<Book> {
 
   /** Adds a copy to the book. */
   public void addCopy() {
+    if (counters != null) {
+      counters.getAndAdd(id, MappedCounterStore.TOTAL_COPIES, 1);
+      counters.getAndAdd(id, MappedCounterStore.COPIES_AVAILABLE, 1);
+      return;
+    }
     totalCopies++;
     copiesAvailable++;
   }
@@ -150,9 +229,12 @@ public class Book implements Comparable<Book> {
    * @return ISO_LOCAL_DATE due date string if successful; null otherwise
    */
   public String checkoutCopy() {
-    if (copiesAvailable > 0) {
-      copiesAvailable--;
-      amountOfTimesCheckedOut++;
+    if (takeAvailableCopy()) {
+      if (counters != null) {
+        counters.getAndAdd(id, MappedCounterStore.TIMES_CHECKED_OUT, 1);
+      } else {
+        amountOfTimesCheckedOut++;
+      }
       final LocalDate today = LocalDate.now();
       final LocalDate dueDate = today.plusWeeks(2);
       final String dueDateStr = dueDate.format(DateTimeFormatter.ISO_LOCAL_DATE);
@@ -173,7 +255,11 @@ public class Book implements Comparable<Book> {
       for (int i = 0; i < returnDates.size(); i++) {
         if (returnDates.get(i).equals(date)) {
           returnDates.remove(i);
-          copiesAvailable++;
+          if (counters != null) {
+            counters.getAndAdd(id, MappedCounterStore.COPIES_AVAILABLE, 1);
+          } else {
+            copiesAvailable++;
+          }
           return true;
         }
       }
@@ -181,6 +267,52 @@ public class Book implements Comparable<Book> {
     return false;
   }
 
+  private boolean takeAvailableCopy() {
+    if (counters != null) {
+      return counters.decrementIfPositive(id, MappedCounterStore.COPIES_AVAILABLE);
+    }
+    if (copiesAvailable > 0) {
+      copiesAvailable--;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Moves the copy and checkout counters of this book into {@code store}, so that they are
+   * updated off-heap and survive restarts. If the store already holds counts for this id
+   * (for example from a previous run), those counts replace the values in this instance.
+   * Use this only to restore state at startup; see {@link #writeCounters(MappedCounterStore)}.
+   *
+   * @param store counter store; ids outside {@link MappedCounterStore#supports(int)} stay
+   *     on-heap
+   * @return true if the counts were adopted from the store
+   */
+  public boolean bindCounters(final MappedCounterStore store) {
+    if (!MappedCounterStore.supports(id)) {
+      return false;
+    }
+    final boolean adopted = store.initialize(id, copiesAvailable, totalCopies,
+        amountOfTimesCheckedOut);
+    this.counters = store;
+    return adopted;
+  }
+
+  /**
+   * Moves the copy and checkout counters of this book into {@code store}, replacing any counts
+   * the store holds for this id. Use this when the book's own counts are the new truth, as for
+   * an update, an import or a book re-created under the id of a removed one.
+   *
+   * @param store counter store; ids outside {@link MappedCounterStore#supports(int)} stay
+   *     on-heap
+   */
+  public void writeCounters(final MappedCounterStore store) {
+    if (MappedCounterStore.supports(id)) {
+      store.write(id, getCopiesAvailable(), getTotalCopies(), getAmountOfTimesCheckedOut());
+      this.counters = store;
+    }
+  }
+
   public String getTitle() {
     return title;
   }
@@ -241,16 +373,27 @@ public class Book implements Comparable<Book> {
     return id;
   }
 
+  /**
+   * Sets the id of an unbound book.
+   *
+   * @param id the new id
+   * @throws IllegalStateException if the counters are bound to the slot of the current id
+   */
   public void setId(final int id) {
+    if (counters != null && id != this.id) {
+      throw new IllegalStateException("Cannot change the id of a book with bound counters");
+    }
     this.id = id;
   }
 
   public int getAmountOfTimesCheckedOut() {
-    return amountOfTimesCheckedOut;
+    return counters != null
+        ? counters.get(id, MappedCounterStore.TIMES_CHECKED_OUT) : amountOfTimesCheckedOut;
   }
 
   public int getCopiesAvailable() {
-    return copiesAvailable;
+    return counters != null
+        ? counters.get(id, MappedCounterStore.COPIES_AVAILABLE) : copiesAvailable;
   }
 
   public List<String> getReturnDates() {
@@ -262,11 +405,20 @@ public class Book implements Comparable<Book> {
   }
 
   public int getTotalCopies() {
-    return totalCopies;
+    return counters != null ? counters.get(id, MappedCounterStore.TOTAL_COPIES) : totalCopies;
   }
 
+  /**
+   * Sets the total number of copies, in the counter store once the counters are bound.
+   *
+   * @param totalCopies the new total
+   */
   public void setTotalCopies(final int totalCopies) {
-    this.totalCopies = totalCopies;
+    if (counters != null) {
+      counters.set(id, MappedCounterStore.TOTAL_COPIES, totalCopies);
+    } else {
+      this.totalCopies = totalCopies;
+    }
   }
 
   @Override
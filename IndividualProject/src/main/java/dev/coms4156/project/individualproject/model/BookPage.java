@@ -0,0 +1,34 @@
+package dev.coms4156.project.individualproject.model;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated catalogue listing.
+ */
+public class BookPage {
+
+  /** Books on this page, in listing order. */
+  private final List<Book> books;
+
+  /** Opaque cursor for the next page, or null if this is the last page. */
+  private final String nextCursor;
+
+  /**
+   * Creates a page.
+   *
+   * @param books books on this page
+   * @param nextCursor cursor for the following page, or null
+   */
+  public BookPage(final List<Book> books, final String nextCursor) {
+    this.books = books;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<Book> getBooks() {
+    return books;
+  }
+
+  public String getNextCursor() {
+    return nextCursor;
+  }
+}
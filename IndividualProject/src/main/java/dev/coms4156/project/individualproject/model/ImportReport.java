@@ -0,0 +1,209 @@
+package dev.coms4156.project.individualproject.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import, as returned by {@code POST /books/import}.
+ */
+public class ImportReport {
+
+  /** Most errors listed individually; {@link #getFailed()} still counts all of them. */
+  public static final int MAX_ERRORS = 100;
+
+  /**
+   * Most batches listed individually; {@link #getBatchCount()} and the timing totals still
+   * cover all of them.
+   */
+  public static final int MAX_BATCHES = 100;
+
+  /** Books that did not exist before. */
+  private long created;
+
+  /** Books that replaced an existing id. */
+  private long updated;
+
+  /** Records that could not be imported. */
+  private long failed;
+
+  /** Batches committed. */
+  private int batchCount;
+
+  /** Wall time summed over every batch, in milliseconds. */
+  private double elapsedMillis;
+
+  /** Wall time of the slowest batch, in milliseconds. */
+  private double slowestBatchMillis;
+
+  /** Statistics of the first {@link #MAX_BATCHES} batches in import order. */
+  private final List<BatchStats> batches = new ArrayList<>();
+
+  /** The first {@link #MAX_ERRORS} failures. */
+  private final List<ImportError> errors = new ArrayList<>();
+
+  /**
+   * Records a committed batch.
+   *
+   * @param stats the batch statistics
+   */
+  public void addBatch(final BatchStats stats) {
+    if (batches.size() < MAX_BATCHES) {
+      batches.add(stats);
+    }
+    batchCount++;
+    elapsedMillis += stats.getElapsedMillis();
+    slowestBatchMillis = Math.max(slowestBatchMillis, stats.getElapsedMillis());
+    created += stats.getCreated();
+    updated += stats.getUpdated();
+    failed += stats.getFailed();
+  }
+
+  /**
+   * Records a rejected record; its count is added with the batch it belongs to.
+   *
+   * @param line 1-based line number in the request body
+   * @param message why the record was rejected
+   */
+  public void addError(final long line, final String message) {
+    if (errors.size() < MAX_ERRORS) {
+      errors.add(new ImportError(line, message));
+    }
+  }
+
+  public long getCreated() {
+    return created;
+  }
+
+  public long getUpdated() {
+    return updated;
+  }
+
+  public long getFailed() {
+    return failed;
+  }
+
+  public int getBatchCount() {
+    return batchCount;
+  }
+
+  public double getElapsedMillis() {
+    return elapsedMillis;
+  }
+
+  public double getSlowestBatchMillis() {
+    return slowestBatchMillis;
+  }
+
+  /**
+   * Returns records (including rejected ones) processed per second over the whole import.
+   *
+   * @return throughput
+   */
+  public double getRecordsPerSecond() {
+    return elapsedMillis <= 0 ? 0 : (created + updated + failed) * 1000.0 / elapsedMillis;
+  }
+
+  public List<BatchStats> getBatches() {
+    return Collections.unmodifiableList(batches);
+  }
+
+  public List<ImportError> getErrors() {
+    return Collections.unmodifiableList(errors);
+  }
+
+  /** Counts and throughput of one batch. */
+  public static class BatchStats {
+
+    /** 1-based batch number. */
+    private final int batch;
+
+    /** Books inserted. */
+    private final int created;
+
+    /** Books replaced. */
+    private final int updated;
+
+    /** Records rejected. */
+    private final int failed;
+
+    /** Wall time to parse and commit the batch, in milliseconds. */
+    private final double elapsedMillis;
+
+    /**
+     * Creates batch statistics.
+     *
+     * @param batch 1-based batch number
+     * @param created books inserted
+     * @param updated books replaced
+     * @param failed records rejected
+     * @param elapsedMillis wall time to parse and commit the batch
+     */
+    public BatchStats(final int batch, final int created, final int updated, final int failed,
+                      final double elapsedMillis) {
+      this.batch = batch;
+      this.created = created;
+      this.updated = updated;
+      this.failed = failed;
+      this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getBatch() {
+      return batch;
+    }
+
+    public int getCreated() {
+      return created;
+    }
+
+    public int getUpdated() {
+      return updated;
+    }
+
+    public int getFailed() {
+      return failed;
+    }
+
+    public double getElapsedMillis() {
+      return elapsedMillis;
+    }
+
+    /**
+     * Returns records (including rejected ones) processed per second in this batch.
+     *
+     * @return throughput
+     */
+    public double getRecordsPerSecond() {
+      return elapsedMillis <= 0 ? 0 : (created + updated + failed) * 1000.0 / elapsedMillis;
+    }
+  }
+
+  /** One rejected record. */
+  public static class ImportError {
+
+    /** 1-based line number in the request body. */
+    private final long line;
+
+    /** Why the record was rejected. */
+    private final String message;
+
+    /**
+     * Creates an error entry.
+     *
+     * @param line 1-based line number
+     * @param message why the record was rejected
+     */
+    public ImportError(final long line, final String message) {
+      this.line = line;
+      this.message = message;
+    }
+
+    public long getLine() {
+      return line;
+    }
+
+    public String getMessage() {
+      return message;
+    }
+  }
+}
@@ -0,0 +1,261 @@
+package dev.coms4156.project.individualproject.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Off-heap store for the hot-path {@link Book} counters, kept in a memory-mapped file.
+ *
+ * <p>Each book id owns a fixed-width 16-byte slot at {@code HEADER + id * 16}:
+ * <pre>
+ *   +0  state                    (0 = never written, 1 = initialized)
+ *   +4  copiesAvailable
+ *   +8  totalCopies
+ *   +12 amountOfTimesCheckedOut
+ * </pre>
+ * All accesses go through a {@link VarHandle} view with volatile or atomic semantics, so
+ * updates allocate nothing and reads never tear. Because the mapping is shared with the page
+ * cache, counts written before a crash are visible to the next process that maps the file.
+ *
+ * <p>The file grows by remapping when a larger id is first bound. Older mappings of the same
+ * region stay valid and coherent, so readers holding the previous buffer are unaffected.
+ */
+public final class MappedCounterStore implements Closeable {
+
+  /** Width of one slot in bytes. */
+  static final int SLOT_BYTES = 16;
+
+  /** Header bytes before slot 0: magic and layout version. */
+  private static final int HEADER_BYTES = 16;
+
+  /** Identifies a counter file ("BKCT"). */
+  private static final int MAGIC = 0x424B4354;
+
+  /** Slot state marking an initialized slot. */
+  private static final int INITIALIZED = 1;
+
+  /** Offset of the state word within a slot. */
+  private static final int STATE = 0;
+
+  /** Offset of copiesAvailable within a slot. */
+  static final int COPIES_AVAILABLE = 4;
+
+  /** Offset of totalCopies within a slot. */
+  static final int TOTAL_COPIES = 8;
+
+  /** Offset of amountOfTimesCheckedOut within a slot. */
+  static final int TIMES_CHECKED_OUT = 12;
+
+  /** Smallest mapping, in slots. */
+  private static final int MIN_SLOTS = 4096;
+
+  /** Largest id that can own a slot, keeping the mapping below 2 GiB. */
+  static final int MAX_ID = (Integer.MAX_VALUE - HEADER_BYTES) / SLOT_BYTES - 1;
+
+  /** Little-endian int view so the file layout is identical on every platform. */
+  private static final VarHandle INT =
+      MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+  /** Backing file channel; kept open for remapping. */
+  private final FileChannel channel;
+
+  /** Current mapping; replaced by a larger one when the file grows. */
+  private volatile MappedByteBuffer buffer;
+
+  /**
+   * Opens (or creates) the counter file at {@code file}.
+   *
+   * @param file counter file path
+   * @throws UncheckedIOException if the file cannot be mapped
+   * @throws IllegalStateException if the file exists but is not a counter file
+   */
+  public MappedCounterStore(final Path file) {
+    try {
+      final Path parent = file.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+          StandardOpenOption.READ, StandardOpenOption.WRITE);
+      final long existing = channel.size();
+      this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+          Math.max(existing, HEADER_BYTES + (long) MIN_SLOTS * SLOT_BYTES));
+      final int magic = (int) INT.getVolatile(buffer, 0);
+      if (existing == 0 || magic == 0) {
+        INT.setVolatile(buffer, 4, 1);
+        INT.setVolatile(buffer, 0, MAGIC);
+      } else if (magic != MAGIC) {
+        channel.close();
+        throw new IllegalStateException(file + " is not a book counter file");
+      }
+    } catch (final IOException e) {
+      throw new UncheckedIOException("Failed to map counter file " + file, e);
+    }
+  }
+
+  /**
+   * Returns whether {@code id} can be stored in this file.
+   *
+   * @param id book id
+   * @return true for ids in {@code [0, MAX_ID]}
+   */
+  @SuppressWarnings("PMD.ShortVariable")
+  public static boolean supports(final int id) {
+    return id >= 0 && id <= MAX_ID;
+  }
+
+  /**
+   * Attaches the slot for {@code id}. If the slot was written before (by this or an earlier
+   * process), its counts are kept; otherwise it is initialized with the given values.
+   *
+   * @param id book id
+   * @param copiesAvailable initial available copies
+   * @param totalCopies initial total copies
+   * @param timesCheckedOut initial checkout count
+   * @return true if the slot already held counts that now take precedence
+   */
+  @SuppressWarnings("PMD.ShortVariable")
+  synchronized boolean initialize(final int id, final int copiesAvailable, final int totalCopies,
+                                  final int timesCheckedOut) {
+    final MappedByteBuffer buf = ensureCapacity(id);
+    final int base = slot(id);
+    if ((int) INT.getVolatile(buf, base + STATE) == INITIALIZED) {
+      return true;
+    }
+    INT.setVolatile(buf, base + COPIES_AVAILABLE, copiesAvailable);
+    INT.setVolatile(buf, base + TOTAL_COPIES, totalCopies);
+    INT.setVolatile(buf, base + TIMES_CHECKED_OUT, timesCheckedOut);
+    INT.setVolatile(buf, base + STATE, INITIALIZED);
+    return false;
+  }
+
+  /**
+   * Attaches the slot for {@code id} and overwrites whatever it holds with the given values,
+   * for books whose counts are new rather than restored.
+   *
+   * @param id book id
+   * @param copiesAvailable available copies
+   * @param totalCopies total copies
+   * @param timesCheckedOut checkout count
+   */
+  @SuppressWarnings("PMD.ShortVariable")
+  synchronized void write(final int id, final int copiesAvailable, final int totalCopies,
+                          final int timesCheckedOut) {
+    final MappedByteBuffer buf = ensureCapacity(id);
+    final int base = slot(id);
+    INT.setVolatile(buf, base + COPIES_AVAILABLE, copiesAvailable);
+    INT.setVolatile(buf, base + TOTAL_COPIES, totalCopies);
+    INT.setVolatile(buf, base + TIMES_CHECKED_OUT, timesCheckedOut);
+    INT.setVolatile(buf, base + STATE, INITIALIZED);
+  }
+
+  /**
+   * Reads a counter.
+   *
+   * @param id book id
+   * @param field one of the field offsets
+   * @return the current value
+   */
+  @SuppressWarnings("PMD.ShortVariable")
+  int get(final int id, final int field) {
+    return (int) INT.getVolatile(buffer, slot(id) + field);
+  }
+
+  /**
+   * Overwrites a counter.
+   *
+   * @param id book id
+   * @param field one of the field offsets
+   * @param value new value
+   */
+  @SuppressWarnings("PMD.ShortVariable")
+  void set(final int id, final int field, final int value) {
+    INT.setVolatile(buffer, slot(id) + field, value);
+  }
+
+  /**
+   * Atomically adds to a counter.
+   *
+   * @param id book id
+   * @param field one of the field offsets
+   * @param delta amount to add
+   * @return the value before the addition
+   */
+  @SuppressWarnings("PMD.ShortVariable")
+  int getAndAdd(final int id, final int field, final int delta) {
+    return (int) INT.getAndAdd(buffer, slot(id) + field, delta);
+  }
+
+  /**
+   * Atomically decrements a counter if it is positive.
+   *
+   * @param id book id
+   * @param field one of the field offsets
+   * @return true if the counter was positive and has been decremented
+   */
+  @SuppressWarnings("PMD.ShortVariable")
+  boolean decrementIfPositive(final int id, final int field) {
+    final MappedByteBuffer buf = buffer;
+    final int offset = slot(id) + field;
+    int current = (int) INT.getVolatile(buf, offset);
+    while (current > 0) {
+      if (INT.compareAndSet(buf, offset, current, current - 1)) {
+        return true;
+      }
+      current = (int) INT.getVolatile(buf, offset);
+    }
+    return false;
+  }
+
+  /** Flushes dirty pages to disk; counts are already crash-safe against process death. */
+  public void force() {
+    buffer.force();
+  }
+
+  @Override
+  public void close() {
+    try {
+      force();
+      channel.close();
+    } catch (final IOException e) {
+      throw new UncheckedIOException("Failed to close counter file", e);
+    }
+  }
+
+  @SuppressWarnings("PMD.ShortVariable")
+  private static int slot(final int id) {
+    return HEADER_BYTES + id * SLOT_BYTES;
+  }
+
+  @SuppressWarnings("PMD.ShortVariable")
+  private MappedByteBuffer ensureCapacity(final int id) {
+    if (!supports(id)) {
+      throw new IllegalArgumentException("Book id out of counter range: " + id);
+    }
+    final long needed = (long) slot(id) + SLOT_BYTES;
+    MappedByteBuffer current = buffer;
+    if (needed > current.capacity()) {
+      long size = current.capacity();
+      while (size < needed) {
+        size *= 2;
+      }
+      size = Math.min(size, Integer.MAX_VALUE);
+      try {
+        current = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+      } catch (final IOException e) {
+        throw new UncheckedIOException("Failed to grow counter file", e);
+      }
+      buffer = current;
+    }
+    return current;
+  }
+}
@@ -0,0 +1,32 @@
+package dev.coms4156.project.individualproject.model;
+
+/**
+ * A book together with how often it was borrowed by the same patrons as another book.
+ */
+public class RelatedTitle {
+
+  /** The related book. */
+  private final Book book;
+
+  /** Estimated number of co-checkouts. */
+  private final int coCheckouts;
+
+  /**
+   * Creates an entry.
+   *
+   * @param book the related book
+   * @param coCheckouts estimated co-checkouts
+   */
+  public RelatedTitle(final Book book, final int coCheckouts) {
+    this.book = book;
+    this.coCheckouts = coCheckouts;
+  }
+
+  public Book getBook() {
+    return book;
+  }
+
+  public int getCoCheckouts() {
+    return coCheckouts;
+  }
+}
@@ -0,0 +1,32 @@
+package dev.coms4156.project.individualproject.model;
+
+/**
+ * A book together with its checkout count in the trending window.
+ */
+public class TrendingTitle {
+
+  /** The book. */
+  private final Book book;
+
+  /** Checkouts within the trending window. */
+  private final int checkouts;
+
+  /**
+   * Creates an entry.
+   *
+   * @param book the book
+   * @param checkouts checkouts within the window
+   */
+  public TrendingTitle(final Book book, final int checkouts) {
+    this.book = book;
+    this.checkouts = checkouts;
+  }
+
+  public Book getBook() {
+    return book;
+  }
+
+  public int getCheckouts() {
+    return checkouts;
+  }
+}
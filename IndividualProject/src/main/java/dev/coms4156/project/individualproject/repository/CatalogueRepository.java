@@ -0,0 +1,139 @@
+package dev.coms4156.project.individualproject.repository;
+
+import dev.coms4156.project.individualproject.model.Book;
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Storage abstraction for the book catalogue.
+ *
+ * <p>Implementations keep {@link Book}s keyed by {@link Book#getId()} and must return them in
+ * ascending id order from every scan. {@link Book} instances handed out are the live, stored
+ * instances: callers that mutate one must call {@link #save(Book)} afterwards so that durable
+ * backends can persist the change.
+ *
+ * <p>All implementations must be safe for concurrent use and pass the shared
+ * {@code CatalogueRepositoryContractTest} suite.
+ */
+public interface CatalogueRepository extends Iterable<Book>, Closeable {
+
+  /**
+   * Looks up a book by id.
+   *
+   * @param id the book id
+   * @return the stored book, or empty if there is none
+   */
+  @SuppressWarnings("PMD.ShortVariable")
+  Optional<Book> findById(int id);
+
+  /**
+   * Returns every stored book.
+   *
+   * @return a new list ordered by id
+   */
+  List<Book> findAll();
+
+  /**
+   * Returns up to {@code limit} books with an id strictly greater than {@code afterId}.
+   *
+   * @param afterId exclusive lower bound; use {@link Integer#MIN_VALUE} to start from the top
+   * @param limit maximum number of books to return
+   * @return a new list ordered by id
+   */
+  List<Book> findAfter(int afterId, int limit);
+
+  /**
+   * Returns the number of stored books.
+   *
+   * @return catalogue size
+   */
+  int count();
+
+  /**
+   * Inserts the book, or replaces the stored book with the same id.
+   *
+   * @param book book to store (non-null)
+   */
+  void save(Book book);
+
+  /**
+   * Inserts or replaces several books as one write.
+   *
+   * @param books books to store
+   */
+  void saveAll(Collection<Book> books);
+
+  /**
+   * Removes a book.
+   *
+   * @param id the book id
+   * @return true if a book was removed
+   */
+  @SuppressWarnings("PMD.ShortVariable")
+  boolean deleteById(int id);
+
+  /**
+   * Iterates the stored books in id order. The iterator is weakly consistent: it never throws
+   * {@link java.util.ConcurrentModificationException} and may or may not reflect writes made
+   * while iterating.
+   *
+   * @return iterator over stored books
+   */
+  @Override
+  Iterator<Book> iterator();
+
+  /**
+   * Tells whether the repository holds every book locally, so that a full scan is cheap and
+   * the service may keep its own copy of the catalogue for snapshots. Backends over a remote
+   * source return false: scans page through the source and the catalogue is not mirrored.
+   *
+   * @return true by default
+   */
+  default boolean holdsWholeCatalogue() {
+    return true;
+  }
+
+  /**
+   * Registers the listener told about books the repository re-reads from its source on its
+   * own, such as on a cache miss or a background refresh. Backends that hold the whole
+   * catalogue never re-read and ignore the listener.
+   *
+   * @param listener the listener, replacing any earlier one
+   */
+  default void setLoadListener(final LoadListener listener) {
+    // nothing is ever re-read by default
+  }
+
+  /**
+   * Returns read-cache counters for backends that cache a remote source.
+   *
+   * @return counters by name; empty for backends without a cache
+   */
+  default Map<String, Object> getCacheStats() {
+    return Collections.emptyMap();
+  }
+
+  /** Releases any files held by the repository. */
+  @Override
+  default void close() {
+    // nothing to release by default
+  }
+
+  /** Told about books a repository re-read from its source. */
+  @FunctionalInterface
+  interface LoadListener {
+    /**
+     * Called after the repository started returning a newly read book.
+     *
+     * @param id the book id
+     * @param book the book as read, or null if the source no longer has it
+     */
+    @SuppressWarnings("PMD.ShortVariable")
+    void loaded(int id, Book book);
+  }
+}
@@ -0,0 +1,94 @@
+package dev.coms4156.project.individualproject.repository;
+
+import dev.coms4156.project.individualproject.model.MappedCounterStore;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selects the {@link CatalogueRepository} backend from {@code catalogue.backend}.
+ *
+ * <ul>
+ *   <li>{@code memory} (default): {@link InMemoryCatalogueRepository}, seeded at every start.</li>
+ *   <li>{@code file}: {@link FileCatalogueRepository} journaling to {@code catalogue.file}.</li>
+ *   <li>{@code remote}: {@link RemoteCatalogueRepository} reading through a
+ *       {@code catalogue.cache.*} cache from the upstream at {@code catalogue.remote.url}.</li>
+ * </ul>
+ *
+ * <p>Setting {@code catalogue.counters-file} additionally moves the hot-path book counters
+ * into a {@link MappedCounterStore} at that path.
+ */
+@Configuration
+public class CatalogueRepositoryConfig {
+
+  /**
+   * Creates the configured repository.
+   *
+   * @param backend backend name
+   * @param file journal path for the {@code file} backend
+   * @param remoteUrl upstream base URI for the {@code remote} backend
+   * @param remoteTimeout upstream connect and request timeout
+   * @param cacheSize most books cached by the {@code remote} backend
+   * @param expireAfterWrite age after which a cached book is reloaded before use
+   * @param refreshAfterWrite age after which a lookup reloads a book in the background
+   * @return the repository
+   * @throws IllegalArgumentException if the backend name is unknown
+   */
+  @Bean(destroyMethod = "close")
+  @SuppressWarnings("PMD.ExcessiveParameterList")
+  public CatalogueRepository catalogueRepository(
+      @Value("${catalogue.backend:memory}") final String backend,
+      @Value("${catalogue.file:data/catalogue.ndjson}") final Path file,
+      @Value("${catalogue.remote.url:http://localhost:8081/}") final URI remoteUrl,
+      @Value("${catalogue.remote.timeout:2s}") final Duration remoteTimeout,
+      @Value("${catalogue.cache.maximum-size:10000}") final int cacheSize,
+      @Value("${catalogue.cache.expire-after-write:10m}") final Duration expireAfterWrite,
+      @Value("${catalogue.cache.refresh-after-write:5m}") final Duration refreshAfterWrite) {
+    switch (backend) {
+      case "memory":
+        return new InMemoryCatalogueRepository();
+      case "file":
+        return new FileCatalogueRepository(file);
+      case "remote":
+        return new RemoteCatalogueRepository(
+            new RemoteCatalogueClient(remoteUrl, remoteTimeout), cacheSize, expireAfterWrite,
+            refreshAfterWrite);
+      default:
+        throw new IllegalArgumentException("Unknown catalogue.backend: " + backend);
+    }
+  }
+
+  /**
+   * Creates the off-heap counter store when {@code catalogue.counters-file} is set.
+   *
+   * <p>The store keeps only the counts. The due dates of checked-out copies stay in the
+   * repository, so a backend that forgets them on restart would leave those copies counted as
+   * checked out with nothing to return them against. Only the {@code file} backend qualifies:
+   * the {@code remote} backend hands out new instances whenever its cache loads or refreshes a
+   * book, and the upstream already keeps the counts.
+   *
+   * @param backend backend name
+   * @param file counter file path
+   * @return the mapped store
+   * @throws IllegalStateException if the backend is not {@code file}
+   */
+  @Bean(destroyMethod = "close")
+  @ConditionalOnExpression("!'${catalogue.counters-file:}'.isEmpty()")
+  public MappedCounterStore mappedCounterStore(
+      @Value("${catalogue.backend:memory}") final String backend,
+      @Value("${catalogue.counters-file}") final Path file) {
+    if ("memory".equals(backend)) {
+      throw new IllegalStateException("catalogue.counters-file needs catalogue.backend=file; "
+          + "the memory backend loses due dates on restart");
+    }
+    if ("remote".equals(backend)) {
+      throw new IllegalStateException("catalogue.counters-file needs catalogue.backend=file; "
+          + "the remote backend keeps its counts upstream");
+    }
+    return new MappedCounterStore(file);
+  }
+}
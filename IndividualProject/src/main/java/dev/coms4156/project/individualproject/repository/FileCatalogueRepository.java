@@ -0,0 +1,222 @@
+package dev.coms4156.project.individualproject.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.coms4156.project.individualproject.model.Book;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Durable {@link CatalogueRepository} backed by an append-only NDJSON journal on local disk.
+ *
+ * <p>Every write appends one line ({@code {"op":"put","book":{...}}} or
+ * {@code {"op":"del","id":n}}) and reads are served from an {@link InMemoryCatalogueRepository}
+ * rebuilt by replaying the journal on open. When the journal grows past twice the live
+ * catalogue it is compacted into one {@code put} per book and atomically swapped in.
+ * A torn final line left by a crash is skipped during replay.
+ */
+public class FileCatalogueRepository implements CatalogueRepository {
+
+  /** Logger instance for this repository. */
+  private static final Logger LOG = LoggerFactory.getLogger(FileCatalogueRepository.class);
+
+  /** Journal records below which compaction is never attempted. */
+  private static final int MIN_COMPACTION_RECORDS = 1024;
+
+  /** JSON codec for journal records. */
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  /** Journal location. */
+  private final Path journal;
+
+  /** Read index rebuilt from the journal. */
+  private final InMemoryCatalogueRepository index = new InMemoryCatalogueRepository();
+
+  /** Open appender; guarded by {@code this}. */
+  private BufferedWriter writer;
+
+  /** Records currently in the journal; guarded by {@code this}. */
+  private long journalRecords;
+
+  /**
+   * Opens (or creates) the journal at {@code journal} and replays it into memory.
+   *
+   * @param journal path of the NDJSON journal file
+   * @throws UncheckedIOException if the journal cannot be read or opened for append
+   */
+  public FileCatalogueRepository(final Path journal) {
+    this.journal = journal;
+    try {
+      final Path parent = journal.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      replay();
+      this.writer = openWriter();
+    } catch (final IOException e) {
+      throw new UncheckedIOException("Failed to open catalogue journal " + journal, e);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("PMD.ShortVariable")
+  public Optional<Book> findById(final int id) {
+    return index.findById(id);
+  }
+
+  @Override
+  public List<Book> findAll() {
+    return index.findAll();
+  }
+
+  @Override
+  public List<Book> findAfter(final int afterId, final int limit) {
+    return index.findAfter(afterId, limit);
+  }
+
+  @Override
+  public int count() {
+    return index.count();
+  }
+
+  @Override
+  public synchronized void save(final Book book) {
+    append(putRecord(book));
+    index.save(book);
+    flushAndMaybeCompact();
+  }
+
+  @Override
+  public synchronized void saveAll(final Collection<Book> books) {
+    for (final Book book : books) {
+      append(putRecord(book));
+    }
+    index.saveAll(books);
+    flushAndMaybeCompact();
+  }
+
+  @Override
+  @SuppressWarnings("PMD.ShortVariable")
+  public synchronized boolean deleteById(final int id) {
+    if (!index.deleteById(id)) {
+      return false;
+    }
+    final ObjectNode record = MAPPER.createObjectNode();
+    record.put("op", "del");
+    record.put("id", id);
+    append(record);
+    flushAndMaybeCompact();
+    return true;
+  }
+
+  @Override
+  public Iterator<Book> iterator() {
+    return index.iterator();
+  }
+
+  @Override
+  public synchronized void close() {
+    try {
+      writer.close();
+    } catch (final IOException e) {
+      LOG.warn("Failed to close catalogue journal {}", journal, e);
+    }
+  }
+
+  /**
+   * Rewrites the journal so it holds exactly one {@code put} per stored book.
+   */
+  public synchronized void compact() {
+    final Path tmp = journal.resolveSibling(journal.getFileName() + ".compact");
+    try {
+      writer.close();
+      try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+        for (final Book book : index) {
+          out.write(MAPPER.writeValueAsString(putRecord(book)));
+          out.newLine();
+        }
+      }
+      Files.move(tmp, journal, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      journalRecords = index.count();
+      writer = openWriter();
+    } catch (final IOException e) {
+      throw new UncheckedIOException("Failed to compact catalogue journal " + journal, e);
+    }
+  }
+
+  private void replay() throws IOException {
+    if (!Files.exists(journal)) {
+      return;
+    }
+    long lineNo = 0;
+    try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        lineNo++;
+        if (line.isBlank()) {
+          continue;
+        }
+        try {
+          final JsonNode record = MAPPER.readTree(line);
+          if ("del".equals(record.path("op").asText())) {
+            index.deleteById(record.path("id").asInt());
+          } else {
+            index.save(MAPPER.treeToValue(record.get("book"), Book.class));
+          }
+          journalRecords++;
+        } catch (final IOException | IllegalArgumentException e) {
+          LOG.warn("Skipping unreadable journal record {} in {}", lineNo, journal, e);
+        }
+      }
+    }
+    LOG.info("Replayed {} journal records ({} books) from {}", journalRecords, index.count(),
+        journal);
+  }
+
+  private BufferedWriter openWriter() throws IOException {
+    return Files.newBufferedWriter(journal, StandardCharsets.UTF_8,
+        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+  }
+
+  private static ObjectNode putRecord(final Book book) {
+    final ObjectNode record = MAPPER.createObjectNode();
+    record.put("op", "put");
+    record.set("book", MAPPER.valueToTree(book));
+    return record;
+  }
+
+  private void append(final JsonNode record) {
+    try {
+      writer.write(MAPPER.writeValueAsString(record));
+      writer.newLine();
+      journalRecords++;
+    } catch (final IOException e) {
+      throw new UncheckedIOException("Failed to append to catalogue journal " + journal, e);
+    }
+  }
+
+  private void flushAndMaybeCompact() {
+    try {
+      writer.flush();
+    } catch (final IOException e) {
+      throw new UncheckedIOException("Failed to flush catalogue journal " + journal, e);
+    }
+    if (journalRecords > MIN_COMPACTION_RECORDS && journalRecords > 2L * index.count()) {
+      compact();
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package dev.coms4156.project.individualproject.repository;
+
+import dev.coms4156.project.individualproject.model.Book;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Heap-only {@link CatalogueRepository} indexed by id.
+ *
+ * <p>Backed by a {@link ConcurrentSkipListMap}, so point lookups and range scans cost
+ * O(log n) and full scans come out in id order without sorting.
+ */
+public class InMemoryCatalogueRepository implements CatalogueRepository {
+
+  /** Books keyed by id. */
+  private final ConcurrentNavigableMap<Integer, Book> books = new ConcurrentSkipListMap<>();
+
+  @Override
+  @SuppressWarnings("PMD.ShortVariable")
+  public Optional<Book> findById(final int id) {
+    return Optional.ofNullable(books.get(id));
+  }
+
+  @Override
+  public List<Book> findAll() {
+    return new ArrayList<>(books.values());
+  }
+
+  @Override
+  public List<Book> findAfter(final int afterId, final int limit) {
+    final List<Book> page = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+    if (limit <= 0) {
+      return page;
+    }
+    for (final Book book : books.tailMap(afterId, false).values()) {
+      page.add(book);
+      if (page.size() == limit) {
+        break;
+      }
+    }
+    return page;
+  }
+
+  @Override
+  public int count() {
+    return books.size();
+  }
+
+  @Override
+  public void save(final Book book) {
+    books.put(book.getId(), book);
+  }
+
+  @Override
+  public void saveAll(final Collection<Book> batch) {
+    for (final Book book : batch) {
+      books.put(book.getId(), book);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("PMD.ShortVariable")
+  public boolean deleteById(final int id) {
+    return books.remove(id) != null;
+  }
+
+  @Override
+  public Iterator<Book> iterator() {
+    return books.values().iterator();
+  }
+}
@@ -0,0 +1,191 @@
+package dev.coms4156.project.individualproject.repository;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import dev.coms4156.project.individualproject.model.Book;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JSON-over-HTTP client for an upstream catalogue service such as CLIO.
+ *
+ * <p>The upstream is expected to serve, relative to the base URI:
+ * <ul>
+ *   <li>{@code GET books/{id}}: the book, or 404;</li>
+ *   <li>{@code GET books?afterId=&limit=}: up to {@code limit} books with a greater id, in id
+ *       order;</li>
+ *   <li>{@code GET books/count}: the number of books, as a JSON number;</li>
+ *   <li>{@code PUT books/{id}}: insert or replace one book;</li>
+ *   <li>{@code POST books}: insert or replace a JSON array of books;</li>
+ *   <li>{@code DELETE books/{id}}: 2xx if removed, 404 if there was no such book.</li>
+ * </ul>
+ *
+ * <p>Uses {@link HttpURLConnection}, whose keep-alive pool reuses connections across calls
+ * and whose read timeout bounds every wait on a stalled upstream.
+ */
+public class RemoteCatalogueClient {
+
+  /** Serializes books for writes. */
+  private static final ObjectWriter WRITER = new ObjectMapper().writer();
+
+  /** Parses a single book. */
+  private static final ObjectReader BOOK_READER = new ObjectMapper().readerFor(Book.class);
+
+  /** Parses a book count. */
+  private static final ObjectReader COUNT_READER = new ObjectMapper().readerFor(Integer.class);
+
+  /** Parses a page of books. */
+  private static final ObjectReader PAGE_READER =
+      new ObjectMapper().readerFor(new TypeReference<List<Book>>() {});
+
+  /** Base URI, ending in a slash. */
+  private final URI base;
+
+  /** Connect and read timeout in milliseconds. */
+  private final int timeoutMillis;
+
+  /**
+   * Creates a client.
+   *
+   * @param base upstream base URI
+   * @param timeout connect timeout, and the longest wait for each read
+   */
+  public RemoteCatalogueClient(final URI base, final Duration timeout) {
+    final String uri = base.toString();
+    this.base = uri.endsWith("/") ? base : URI.create(uri + "/");
+    this.timeoutMillis = (int) Math.min(Integer.MAX_VALUE, timeout.toMillis());
+  }
+
+  /**
+   * Fetches one book.
+   *
+   * @param id the book id
+   * @return the book, or empty if the upstream does not have it
+   * @throws IOException if the request fails or the upstream answers with an error
+   */
+  @SuppressWarnings("PMD.ShortVariable")
+  public Optional<Book> fetch(final int id) throws IOException {
+    final HttpURLConnection connection = open("GET", "books/" + id);
+    if (connection.getResponseCode() == HttpURLConnection.HTTP_NOT_FOUND) {
+      discard(connection);
+      return Optional.empty();
+    }
+    return Optional.of(BOOK_READER.readValue(body(connection)));
+  }
+
+  /**
+   * Fetches up to {@code limit} books with an id greater than {@code afterId}.
+   *
+   * @param afterId exclusive lower bound
+   * @param limit maximum number of books
+   * @return the books in id order
+   * @throws IOException if the request fails or the upstream answers with an error
+   */
+  public List<Book> fetchAfter(final int afterId, final int limit) throws IOException {
+    return PAGE_READER.readValue(
+        body(open("GET", "books?afterId=" + afterId + "&limit=" + limit)));
+  }
+
+  /**
+   * Counts the upstream's books without transferring them.
+   *
+   * @return the number of books
+   * @throws IOException if the request fails or the upstream answers with an error
+   */
+  public int count() throws IOException {
+    return COUNT_READER.<Integer>readValue(body(open("GET", "books/count")));
+  }
+
+  /**
+   * Inserts or replaces one book.
+   *
+   * @param book the book
+   * @throws IOException if the request fails or the upstream answers with an error
+   */
+  public void store(final Book book) throws IOException {
+    discard(ok(send(open("PUT", "books/" + book.getId()), WRITER.writeValueAsBytes(book))));
+  }
+
+  /**
+   * Inserts or replaces several books in one request.
+   *
+   * @param books the books
+   * @throws IOException if the request fails or the upstream answers with an error
+   */
+  public void storeAll(final Collection<Book> books) throws IOException {
+    discard(ok(send(open("POST", "books"), WRITER.writeValueAsBytes(books))));
+  }
+
+  /**
+   * Deletes one book.
+   *
+   * @param id the book id
+   * @return true if the upstream had the book
+   * @throws IOException if the request fails or the upstream answers with an error
+   */
+  @SuppressWarnings("PMD.ShortVariable")
+  public boolean delete(final int id) throws IOException {
+    final HttpURLConnection connection = open("DELETE", "books/" + id);
+    final boolean found = connection.getResponseCode() != HttpURLConnection.HTTP_NOT_FOUND;
+    discard(found ? ok(connection) : connection);
+    return found;
+  }
+
+  private HttpURLConnection open(final String method, final String path) throws IOException {
+    final HttpURLConnection connection =
+        (HttpURLConnection) base.resolve(path).toURL().openConnection();
+    connection.setRequestMethod(method);
+    connection.setConnectTimeout(timeoutMillis);
+    connection.setReadTimeout(timeoutMillis);
+    connection.setRequestProperty("Accept", "application/json");
+    return connection;
+  }
+
+  private static HttpURLConnection send(final HttpURLConnection connection, final byte[] body)
+      throws IOException {
+    connection.setDoOutput(true);
+    connection.setFixedLengthStreamingMode(body.length);
+    connection.setRequestProperty("Content-Type", "application/json");
+    try (OutputStream out = connection.getOutputStream()) {
+      out.write(body);
+    }
+    return connection;
+  }
+
+  /** Reads a successful response's body, leaving the connection free for reuse. */
+  private static byte[] body(final HttpURLConnection connection) throws IOException {
+    try (InputStream in = ok(connection).getInputStream()) {
+      return in.readAllBytes();
+    }
+  }
+
+  /** Drains the response so the JDK can return the connection to its keep-alive pool. */
+  private static void discard(final HttpURLConnection connection) throws IOException {
+    final InputStream in = connection.getResponseCode() / 100 == 2
+        ? connection.getInputStream() : connection.getErrorStream();
+    if (in != null) {
+      try (in) {
+        in.transferTo(OutputStream.nullOutputStream());
+      }
+    }
+  }
+
+  private static HttpURLConnection ok(final HttpURLConnection connection) throws IOException {
+    final int status = connection.getResponseCode();
+    if (status / 100 != 2) {
+      discard(connection);
+      throw new IOException("Upstream catalogue answered " + status + " for "
+          + connection.getRequestMethod() + " " + connection.getURL());
+    }
+    return connection;
+  }
+}
@@ -0,0 +1,224 @@
+package dev.coms4156.project.individualproject.repository;
+
+import dev.coms4156.project.individualproject.cache.ReadThroughCache;
+import dev.coms4156.project.individualproject.model.Book;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link CatalogueRepository} over an upstream catalogue service, with point lookups served
+ * from a bounded {@link ReadThroughCache}.
+ *
+ * <p>Concurrent lookups of an uncached id cost a single upstream request, and ids the upstream
+ * does not have are cached as absent too. Writes go to the upstream first and then replace the
+ * cached book. Books are refreshed in the background before they expire, so hot titles pick up
+ * changes made upstream without readers ever waiting on it. Refreshed books are new instances:
+ * a caller that holds an older one and locks it must check that it is still the one
+ * {@link #findById(int)} returns, as the service does.
+ *
+ * <p>Scans ({@link #findAll()}, {@link #findAfter(int, int)}, {@link #iterator()}) always go
+ * to the upstream and do not fill the cache, so they cannot push the hot set out. They return
+ * the cached instance for ids that are cached, so a scan sees an upstream change to a cached
+ * book once it has been refreshed or has expired. {@link #iterator()} fetches one page at a time
+ * as it advances, and {@link #count()} asks the upstream for its count without a scan. The
+ * repository does not hold the whole catalogue, and tells its {@link LoadListener} about every
+ * book a miss or refresh reads, so that indexes over the catalogue follow upstream changes.
+ *
+ * <p>Upstream failures surface as {@link UncheckedIOException}. A failed write also drops the
+ * books it covers from the cache: callers change the cached instance before saving it, so
+ * keeping it would serve a state the upstream never stored. The next lookup reloads it.
+ */
+public class RemoteCatalogueRepository implements CatalogueRepository {
+
+  /** Books per upstream request when scanning the whole catalogue. */
+  private static final int SCAN_PAGE = 1000;
+
+  /** Cached in place of ids the upstream does not have. */
+  private static final Book ABSENT = new Book();
+
+  /** Upstream client. */
+  private final RemoteCatalogueClient client;
+
+  /** Runs the cache's background refreshes. */
+  private final ExecutorService refresher;
+
+  /** Books, or {@link #ABSENT}, by id. */
+  private final ReadThroughCache<Integer, Book> cache;
+
+  /** Told about books the cache reads; set by the service that indexes the catalogue. */
+  private volatile LoadListener loadListener = (id, book) -> { };
+
+  /**
+   * Creates the repository.
+   *
+   * @param client upstream client
+   * @param maximumSize most books kept in the cache
+   * @param expireAfterWrite age after which a cached book is reloaded before use
+   * @param refreshAfterWrite age after which a lookup reloads a book in the background
+   */
+  public RemoteCatalogueRepository(final RemoteCatalogueClient client, final int maximumSize,
+                                   final Duration expireAfterWrite,
+                                   final Duration refreshAfterWrite) {
+    this.client = client;
+    this.refresher = Executors.newFixedThreadPool(2, task -> {
+      final Thread thread = new Thread(task, "catalogue-cache-refresh");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.cache = new ReadThroughCache<>(id -> client.fetch(id).orElse(ABSENT), maximumSize,
+        expireAfterWrite, refreshAfterWrite, refresher, System::nanoTime,
+        (id, book) -> loadListener.loaded(id, book == ABSENT ? null : book));
+  }
+
+  @Override
+  @SuppressWarnings("PMD.ShortVariable")
+  public Optional<Book> findById(final int id) {
+    final Book book = cache.get(id);
+    return book == ABSENT ? Optional.empty() : Optional.of(book);
+  }
+
+  @Override
+  public List<Book> findAll() {
+    final List<Book> all = new ArrayList<>();
+    List<Book> page = findAfter(Integer.MIN_VALUE, SCAN_PAGE);
+    while (!page.isEmpty()) {
+      all.addAll(page);
+      page = page.size() < SCAN_PAGE ? List.of()
+          : findAfter(page.get(page.size() - 1).getId(), SCAN_PAGE);
+    }
+    return all;
+  }
+
+  @Override
+  public List<Book> findAfter(final int afterId, final int limit) {
+    if (limit <= 0) {
+      return new ArrayList<>();
+    }
+    try {
+      final List<Book> page = new ArrayList<>(client.fetchAfter(afterId, limit));
+      page.replaceAll(this::canonical);
+      return page;
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public int count() {
+    try {
+      return client.count();
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void save(final Book book) {
+    try {
+      client.store(book);
+    } catch (final IOException e) {
+      cache.invalidate(book.getId());
+      throw new UncheckedIOException(e);
+    }
+    cache.put(book.getId(), book);
+  }
+
+  @Override
+  public void saveAll(final Collection<Book> books) {
+    if (books.isEmpty()) {
+      return;
+    }
+    try {
+      client.storeAll(books);
+    } catch (final IOException e) {
+      for (final Book book : books) {
+        cache.invalidate(book.getId());
+      }
+      throw new UncheckedIOException(e);
+    }
+    for (final Book book : books) {
+      cache.put(book.getId(), book);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("PMD.ShortVariable")
+  public boolean deleteById(final int id) {
+    final boolean removed;
+    try {
+      removed = client.delete(id);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    cache.put(id, ABSENT);
+    return removed;
+  }
+
+  /** Pages through the upstream as the iterator advances, {@value #SCAN_PAGE} books a time. */
+  @Override
+  public Iterator<Book> iterator() {
+    return new PagingIterator();
+  }
+
+  @Override
+  public boolean holdsWholeCatalogue() {
+    return false;
+  }
+
+  @Override
+  public void setLoadListener(final LoadListener listener) {
+    loadListener = listener;
+  }
+
+  @Override
+  public Map<String, Object> getCacheStats() {
+    return cache.getStats();
+  }
+
+  @Override
+  public void close() {
+    refresher.shutdownNow();
+  }
+
+  /** Returns the cached instance for {@code book}'s id if there is one, else {@code book}. */
+  private Book canonical(final Book book) {
+    final Book cached = cache.getIfPresent(book.getId());
+    return cached == null || cached == ABSENT ? book : cached;
+  }
+
+  /** Fetches the next page of the upstream once the current one is used up. */
+  private final class PagingIterator implements Iterator<Book> {
+    /** Current page; shorter than {@link #SCAN_PAGE} only at the end. */
+    private List<Book> page = findAfter(Integer.MIN_VALUE, SCAN_PAGE);
+
+    /** Position of the next book in {@link #page}. */
+    private int next;
+
+    @Override
+    public boolean hasNext() {
+      if (next == page.size() && page.size() == SCAN_PAGE) {
+        page = findAfter(page.get(next - 1).getId(), SCAN_PAGE);
+        next = 0;
+      }
+      return next < page.size();
+    }
+
+    @Override
+    public Book next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return page.get(next++);
+    }
+  }
+}
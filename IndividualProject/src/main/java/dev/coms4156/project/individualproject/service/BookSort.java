@@ -0,0 +1,53 @@
+package dev.coms4156.project.individualproject.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Orders supported by {@link MockApiService#listBooks(BookSort, String, int)}.
+ */
+public enum BookSort {
+  /** Ascending id, i.e. {@link dev.coms4156.project.individualproject.model.Book} order. */
+  ID,
+  /** Descending {@code amountOfTimesCheckedOut}, ties broken by ascending id. */
+  POPULARITY;
+
+  /**
+   * Parses a request parameter value such as {@code "id"} or {@code "popularity"}.
+   *
+   * @param value parameter value
+   * @return the matching order
+   * @throws IllegalArgumentException if the value names no order
+   */
+  public static BookSort fromParameter(final String value) {
+    for (final BookSort sort : values()) {
+      if (sort.name().equalsIgnoreCase(value)) {
+        return sort;
+      }
+    }
+    throw new IllegalArgumentException("Unknown sort: " + value);
+  }
+
+  /**
+   * Encodes the position just after a book as a cursor for
+   * {@link MockApiService#listBooks(BookSort, String, int)}. Positions do not depend on which
+   * books a catalogue holds, so a cursor from one shard's page is valid on every shard.
+   *
+   * @param bookId id of the last book returned
+   * @param timesCheckedOut its {@code amountOfTimesCheckedOut}
+   * @return the cursor
+   */
+  public String cursorAfter(final int bookId, final int timesCheckedOut) {
+    final String raw = this == POPULARITY
+        ? parameterName() + ":" + timesCheckedOut + ":" + bookId
+        : parameterName() + ":" + bookId;
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /** Lower-case name used in request parameters and cursors. */
+  String parameterName() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+}
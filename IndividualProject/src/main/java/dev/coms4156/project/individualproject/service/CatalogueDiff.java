@@ -0,0 +1,134 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.model.Book;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Difference between the live catalogue and a new version of its source, keyed by book id.
+ *
+ * <p>Only descriptive fields count as a change (see {@link Book#hasSameDescription(Book)}):
+ * copy, checkout and due-date state is owned by the running service, not by the source file.
+ * Only books the source listed before can be removed by it; books that reached the catalogue
+ * another way, such as a bulk import, are left alone.
+ */
+public final class CatalogueDiff {
+
+  /** Source records whose id is not in the catalogue. */
+  private final List<Book> created;
+
+  /** Source records whose description differs from the catalogue's. */
+  private final List<Book> updated;
+
+  /** Catalogue ids the previous source listed and this one does not. */
+  private final List<Integer> removed;
+
+  /** Ids of the source's valid records. */
+  private final Set<Integer> listed;
+
+  /** Source records equal to the catalogue's. */
+  private final int unchanged;
+
+  /** Source records without a positive id or a title. */
+  private final int skipped;
+
+  private CatalogueDiff(final List<Book> created, final List<Book> updated,
+                        final List<Integer> removed, final Set<Integer> listed,
+                        final int unchanged, final int skipped) {
+    this.created = Collections.unmodifiableList(created);
+    this.updated = Collections.unmodifiableList(updated);
+    this.removed = Collections.unmodifiableList(removed);
+    this.listed = Collections.unmodifiableSet(listed);
+    this.unchanged = unchanged;
+    this.skipped = skipped;
+  }
+
+  /**
+   * Compares the catalogue with {@code source}. When the source lists an id more than once,
+   * the last record wins. Only the books in {@code source} and {@code previous} are looked up,
+   * so the catalogue is never scanned.
+   *
+   * @param current looks up a catalogue book by id; null if there is none
+   * @param previous ids listed by the previous source; only these can be removed
+   * @param source the new source records, any order
+   * @return the diff; {@link #getCreated()} and {@link #getUpdated()} hold source records
+   */
+  public static CatalogueDiff compute(final IntFunction<Book> current,
+                                      final Collection<Integer> previous,
+                                      final List<Book> source) {
+    final Map<Integer, Book> incoming = new LinkedHashMap<>();
+    int skipped = 0;
+    for (final Book book : source) {
+      if (book.getId() <= 0 || book.getTitle() == null || book.getTitle().isBlank()) {
+        skipped++;
+      } else {
+        incoming.put(book.getId(), book);
+      }
+    }
+    final List<Book> created = new ArrayList<>();
+    final List<Book> updated = new ArrayList<>();
+    int unchanged = 0;
+    for (final Book record : incoming.values()) {
+      final Book book = current.apply(record.getId());
+      if (book == null) {
+        created.add(record);
+      } else if (book.hasSameDescription(record)) {
+        unchanged++;
+      } else {
+        updated.add(record);
+      }
+    }
+    final List<Integer> removed = new ArrayList<>();
+    for (final Integer id : previous) {
+      if (!incoming.containsKey(id) && current.apply(id) != null) {
+        removed.add(id);
+      }
+    }
+    return new CatalogueDiff(created, updated, removed, incoming.keySet(), unchanged, skipped);
+  }
+
+  /**
+   * Returns whether applying the diff would change nothing.
+   *
+   * @return true if there is nothing to create, update or remove
+   */
+  public boolean isEmpty() {
+    return created.isEmpty() && updated.isEmpty() && removed.isEmpty();
+  }
+
+  public List<Book> getCreated() {
+    return created;
+  }
+
+  public List<Book> getUpdated() {
+    return updated;
+  }
+
+  public List<Integer> getRemoved() {
+    return removed;
+  }
+
+  public Set<Integer> getListed() {
+    return listed;
+  }
+
+  public int getUnchanged() {
+    return unchanged;
+  }
+
+  public int getSkipped() {
+    return skipped;
+  }
+
+  @Override
+  public String toString() {
+    return "created=" + created.size() + ", updated=" + updated.size() + ", removed="
+        + removed.size() + ", unchanged=" + unchanged + ", skipped=" + skipped;
+  }
+}
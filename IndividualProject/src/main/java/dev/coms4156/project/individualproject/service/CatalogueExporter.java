@@ -0,0 +1,229 @@
+package dev.coms4156.project.individualproject.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.coms4156.project.individualproject.model.Book;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the catalogue, as of one {@link CatalogueSnapshot}, as gzip-compressed NDJSON or CSV.
+ *
+ * <p>Books are pulled from the snapshot's lazy iterator and written one at a time, so memory
+ * use does not depend on the catalogue size. Snapshot files written by
+ * {@link #createSnapshotFile()} are named after their MVCC version; the newest is served by
+ * {@code GET /books/export/snapshot}.
+ */
+@Component
+public class CatalogueExporter {
+
+  /** Snapshot file names: {@code catalogue-<version>.ndjson.gz}. */
+  private static final Pattern SNAPSHOT_FILE = Pattern.compile("catalogue-(\\d+)\\.ndjson\\.gz");
+
+  /** CSV header; must match {@link #writeCsvRow}. */
+  private static final String CSV_HEADER = "id,title,authors,language,shelvingLocation,"
+      + "publicationDate,publisher,subjects,amountOfTimesCheckedOut,copiesAvailable,"
+      + "totalCopies,returnDates";
+
+  /** Serializes one book per NDJSON line, leaving flushing to the buffered writer. */
+  private static final ObjectWriter BOOK_WRITER = new ObjectMapper()
+      .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+      .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+      .writerFor(Book.class);
+
+  /** Source of snapshots. */
+  private final MockApiService mockApiService;
+
+  /** Directory holding snapshot files. */
+  private final Path exportDir;
+
+  /**
+   * Creates the exporter.
+   *
+   * @param mockApiService source of snapshots
+   * @param exportDir directory for snapshot files
+   */
+  public CatalogueExporter(final MockApiService mockApiService,
+      @Value("${catalogue.export-dir:data/exports}") final Path exportDir) {
+    this.mockApiService = mockApiService;
+    this.exportDir = exportDir;
+  }
+
+  /**
+   * Writes every book of {@code snapshot} to {@code out} as gzip-compressed {@code format}.
+   * {@code out} is finished but not closed.
+   *
+   * @param snapshot the books to write
+   * @param format record format
+   * @param out destination
+   * @return number of books written
+   * @throws IOException if writing fails
+   */
+  public long write(final CatalogueSnapshot snapshot, final ExportFormat format,
+                    final OutputStream out) throws IOException {
+    final GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024);
+    final Writer writer = new BufferedWriter(
+        new OutputStreamWriter(gzip, StandardCharsets.UTF_8), 64 * 1024);
+    long count = 0;
+    if (format == ExportFormat.CSV) {
+      writer.write(CSV_HEADER);
+      writer.write("\r\n");
+    }
+    for (final Book book : snapshot) {
+      if (format == ExportFormat.CSV) {
+        writeCsvRow(writer, book);
+      } else {
+        BOOK_WRITER.writeValue(writer, book);
+        writer.write('\n');
+      }
+      count++;
+    }
+    writer.flush();
+    gzip.finish();
+    return count;
+  }
+
+  /**
+   * Writes the current catalogue to a new snapshot file in NDJSON format, replacing older
+   * snapshot files once it is complete.
+   *
+   * @return the new file
+   * @throws IOException if writing fails
+   */
+  public Path createSnapshotFile() throws IOException {
+    Files.createDirectories(exportDir);
+    try (CatalogueSnapshot snapshot = mockApiService.openSnapshot()) {
+      final Path target = exportDir.resolve("catalogue-" + snapshot.getVersion() + ".ndjson.gz");
+      final Path temp = Files.createTempFile(exportDir, "catalogue-", ".tmp");
+      try (OutputStream out = Files.newOutputStream(temp)) {
+        write(snapshot, ExportFormat.NDJSON, out);
+      } catch (final IOException | RuntimeException e) {
+        Files.deleteIfExists(temp);
+        throw e;
+      }
+      Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      deleteOlderThan(snapshot.getVersion());
+      return target;
+    }
+  }
+
+  /**
+   * Returns the newest snapshot file, if any.
+   *
+   * @return the file
+   * @throws IOException if the directory cannot be listed
+   */
+  public Optional<Path> latestSnapshotFile() throws IOException {
+    if (!Files.isDirectory(exportDir)) {
+      return Optional.empty();
+    }
+    Path latest = null;
+    long latestVersion = -1;
+    for (final Path file : listSnapshotFiles()) {
+      final long version = versionOf(file);
+      if (version > latestVersion) {
+        latest = file;
+        latestVersion = version;
+      }
+    }
+    return Optional.ofNullable(latest);
+  }
+
+  /**
+   * Keeps the previous newest file as well: a download that started on it may still be
+   * opening it by name.
+   */
+  private void deleteOlderThan(final long version) throws IOException {
+    final List<Path> files = listSnapshotFiles();
+    long previous = -1;
+    for (final Path file : files) {
+      final long fileVersion = versionOf(file);
+      if (fileVersion < version) {
+        previous = Math.max(previous, fileVersion);
+      }
+    }
+    for (final Path file : files) {
+      final long fileVersion = versionOf(file);
+      if (fileVersion < previous) {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+
+  private List<Path> listSnapshotFiles() throws IOException {
+    try (Stream<Path> entries = Files.list(exportDir)) {
+      return entries.filter(p -> SNAPSHOT_FILE.matcher(p.getFileName().toString()).matches())
+          .toList();
+    } catch (final UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static long versionOf(final Path file) {
+    final Matcher matcher = SNAPSHOT_FILE.matcher(file.getFileName().toString());
+    return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+  }
+
+  private static void writeCsvRow(final Writer writer, final Book book) throws IOException {
+    writer.write(Integer.toString(book.getId()));
+    writer.write(',');
+    writeCsvField(writer, book.getTitle());
+    writer.write(',');
+    writeCsvField(writer, joined(book.getAuthors()));
+    writer.write(',');
+    writeCsvField(writer, book.getLanguage());
+    writer.write(',');
+    writeCsvField(writer, book.getShelvingLocation());
+    writer.write(',');
+    writeCsvField(writer, book.getPublicationDate());
+    writer.write(',');
+    writeCsvField(writer, book.getPublisher());
+    writer.write(',');
+    writeCsvField(writer, joined(book.getSubjects()));
+    writer.write(',');
+    writer.write(Integer.toString(book.getAmountOfTimesCheckedOut()));
+    writer.write(',');
+    writer.write(Integer.toString(book.getCopiesAvailable()));
+    writer.write(',');
+    writer.write(Integer.toString(book.getTotalCopies()));
+    writer.write(',');
+    writeCsvField(writer, joined(book.getReturnDates()));
+    writer.write("\r\n");
+  }
+
+  private static String joined(final List<String> values) {
+    return values == null ? "" : String.join("; ", values);
+  }
+
+  /** Quotes a field if it contains a delimiter, quote or line break. */
+  private static void writeCsvField(final Writer writer, final String value) throws IOException {
+    final String text = value == null ? "" : value;
+    if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0
+        && text.indexOf('\r') < 0) {
+      writer.write(text);
+    } else {
+      writer.write('"');
+      writer.write(text.replace("\"", "\"\""));
+      writer.write('"');
+    }
+  }
+}
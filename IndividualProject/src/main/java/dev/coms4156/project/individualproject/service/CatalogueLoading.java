@@ -0,0 +1,14 @@
+package dev.coms4156.project.individualproject.service;
+
+/**
+ * When {@link MockApiService} loads the catalogue (seeds the repository if it is empty and
+ * builds its indexes). Until loading has finished, calls that read the catalogue wait for it.
+ */
+public enum CatalogueLoading {
+  /** Load while the service is constructed, so startup includes the whole load. */
+  EAGER,
+  /** Load on the first call that needs the catalogue, or the first readiness check. */
+  LAZY,
+  /** Load on a background thread started by the constructor, overlapping the rest of startup. */
+  BACKGROUND
+}
@@ -0,0 +1,82 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.model.Book;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A point-in-time, read-only view of the catalogue opened by
+ * {@link VersionedCatalogue#openSnapshot()}.
+ *
+ * <p>Iteration is lazy and in id order; the books returned are immutable copies and must not
+ * be mutated. The snapshot pins the versions it can see until {@link #close()} is called.
+ *
+ * <p>For a repository the service does not mirror, a snapshot is instead a scan of the
+ * repository: each book is copied as it is read, so books are individually consistent but the
+ * view as a whole is not point-in-time. Its version is the wall-clock time it was opened.
+ */
+public final class CatalogueSnapshot implements Iterable<Book>, AutoCloseable {
+
+  /** Owning catalogue, or null for a scan. */
+  private final VersionedCatalogue catalogue;
+
+  /** Books to scan when there is no {@link #catalogue}. */
+  private final Iterable<Book> scan;
+
+  /** Commit version this snapshot reads at. */
+  private final long version;
+
+  /** Whether {@link #close()} has run. */
+  private boolean closed;
+
+  CatalogueSnapshot(final VersionedCatalogue catalogue, final long version) {
+    this.catalogue = catalogue;
+    this.scan = null;
+    this.version = version;
+  }
+
+  CatalogueSnapshot(final Iterable<Book> scan, final long version) {
+    this.catalogue = null;
+    this.scan = scan;
+    this.version = version;
+  }
+
+  /**
+   * Returns the commit version this snapshot reads at.
+   *
+   * @return snapshot version
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  @Override
+  public Iterator<Book> iterator() {
+    if (closed) {
+      throw new IllegalStateException("Snapshot is closed");
+    }
+    return catalogue == null ? scan.iterator() : catalogue.iterator(version);
+  }
+
+  /**
+   * Materializes the snapshot.
+   *
+   * @return a new list of the visible books in id order
+   */
+  public List<Book> toList() {
+    final List<Book> books = new ArrayList<>();
+    forEach(books::add);
+    return books;
+  }
+
+  @Override
+  public synchronized void close() {
+    if (!closed) {
+      closed = true;
+      if (catalogue != null) {
+        catalogue.release(version);
+      }
+    }
+  }
+}
@@ -0,0 +1,178 @@
+package dev.coms4156.project.individualproject.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.coms4156.project.individualproject.model.Book;
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hot reload of the catalogue from {@code catalogue.source}, a JSON array of books in the
+ * same format as {@code mockdata/books.json}.
+ *
+ * <p>The file's directory is watched with a {@link WatchService}. Once the file has been quiet
+ * for {@code catalogue.source-debounce} after a change, it is parsed and handed to
+ * {@link MockApiService#reloadCatalogue(List)}, which applies only the records that differ and
+ * keeps circulation state. A file that fails to parse, for example one caught mid-write, is
+ * logged and ignored; the next change triggers another attempt. The file is also applied
+ * once the catalogue has loaded, so edits made while the service was down are picked up.
+ * With {@code catalogue.loading} set to {@code LAZY} or {@code BACKGROUND}, starting the
+ * watcher neither waits for nor triggers the load; the first reload runs on the thread that
+ * finishes loading, before the watcher begins reacting to changes.
+ *
+ * <p>Enabled by setting {@code catalogue.source}.
+ */
+@Component
+@ConditionalOnExpression("!'${catalogue.source:}'.isEmpty()")
+public class CatalogueSourceWatcher implements AutoCloseable {
+
+  /** Logger instance for this watcher. */
+  private static final Logger LOG = LoggerFactory.getLogger(CatalogueSourceWatcher.class);
+
+  /** Parses the whole source file. */
+  private static final ObjectReader SOURCE_READER =
+      new ObjectMapper().readerFor(new TypeReference<List<Book>>() {});
+
+  /** Service the changes are applied to. */
+  private final MockApiService mockApiService;
+
+  /** Watched catalogue file. */
+  private final Path source;
+
+  /** Quiet period after the last change before the file is read. */
+  private final Duration debounce;
+
+  /** Watches the source's directory; null until started. */
+  private WatchService watchService;
+
+  /** Runs {@link #watch(WatchService)}; null until started. */
+  private Thread watcher;
+
+  /**
+   * Creates the watcher.
+   *
+   * @param mockApiService service the changes are applied to
+   * @param source catalogue file to watch
+   * @param debounce quiet period after the last change before the file is read
+   */
+  public CatalogueSourceWatcher(final MockApiService mockApiService,
+      @Value("${catalogue.source}") final Path source,
+      @Value("${catalogue.source-debounce:250ms}") final Duration debounce) {
+    this.mockApiService = mockApiService;
+    this.source = source.toAbsolutePath();
+    this.debounce = debounce;
+  }
+
+  /**
+   * Starts watching the file and applies it once the catalogue has loaded. Changes made in
+   * between are caught by the watch and applied after that first reload.
+   *
+   * @throws IOException if the source's directory cannot be watched
+   */
+  @PostConstruct
+  public synchronized void start() throws IOException {
+    final Path directory = source.getParent();
+    final WatchService service = directory.getFileSystem().newWatchService();
+    directory.register(service,
+        StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    watchService = service;
+    mockApiService.afterLoad(() -> startWatching(service));
+  }
+
+  /** Applies the current file, then reacts to changes; does nothing once closed. */
+  private synchronized void startWatching(final WatchService service) {
+    if (watchService != service) {
+      return;
+    }
+    reload();
+    watcher = new Thread(() -> watch(service), "catalogue-source-watcher");
+    watcher.setDaemon(true);
+    watcher.start();
+  }
+
+  /**
+   * Reads the source file and applies its differences to the catalogue.
+   *
+   * @return what changed, or null if the file is missing or cannot be parsed
+   */
+  public CatalogueDiff reload() {
+    CatalogueDiff diff = null;
+    if (Files.isRegularFile(source)) {
+      try (InputStream in = Files.newInputStream(source)) {
+        final List<Book> books = SOURCE_READER.readValue(in);
+        diff = mockApiService.reloadCatalogue(books);
+        LOG.info("Reloaded catalogue from {}: {}", source, diff);
+      } catch (final IOException e) {
+        LOG.warn("Ignoring unreadable catalogue source {}: {}", source, e.getMessage());
+      }
+    } else {
+      LOG.warn("Catalogue source {} does not exist; keeping the current catalogue.", source);
+    }
+    return diff;
+  }
+
+  private void watch(final WatchService service) {
+    try {
+      while (true) {
+        if (drain(service.take())) {
+          // Editors and copy tools write in several steps; wait for the last one.
+          for (WatchKey more = poll(service); more != null; more = poll(service)) {
+            drain(more);
+          }
+          reload();
+        }
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (final ClosedWatchServiceException e) {
+      // Closed by close(); nothing left to watch.
+      LOG.debug("Stopped watching {}", source);
+    }
+  }
+
+  private WatchKey poll(final WatchService service) throws InterruptedException {
+    return service.poll(debounce.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /** Consumes the key's events; returns whether any of them may concern the source file. */
+  private boolean drain(final WatchKey key) {
+    boolean touched = false;
+    for (final WatchEvent<?> event : key.pollEvents()) {
+      if (event.kind() == StandardWatchEventKinds.OVERFLOW
+          || source.getFileName().equals(event.context())) {
+        touched = true;
+      }
+    }
+    key.reset();
+    return touched;
+  }
+
+  /** Stops watching. */
+  @Override
+  public synchronized void close() throws IOException {
+    if (watchService != null) {
+      watchService.close();
+      if (watcher != null) {
+        watcher.interrupt();
+      }
+      watchService = null;
+    }
+  }
+}
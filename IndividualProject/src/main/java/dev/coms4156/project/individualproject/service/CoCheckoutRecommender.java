@@ -0,0 +1,181 @@
+package dev.coms4156.project.individualproject.service;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * "Readers also borrowed" statistics maintained incrementally from checkouts.
+ *
+ * <p>Each patron's most recent checkouts are kept in a short history. A new checkout forms a
+ * pair with every book in that history; the pair count goes into a {@link CountMinSketch}
+ * instead of a pairwise matrix, and both books offer each other to a fixed-size top-K list
+ * using the sketch estimate. A query reads one top-K list, so it costs O(K) whatever the
+ * catalogue size. Memory is capped by the sketch dimensions and by LRU bounds on the
+ * number of patron histories and top-K lists.
+ */
+@Component
+public class CoCheckoutRecommender {
+
+  /** Checkouts remembered per patron. */
+  private final int historySize;
+
+  /** Entries kept per book. */
+  private final int topK;
+
+  /** Pair counts. */
+  private final CountMinSketch pairs;
+
+  /** Recent checkouts per patron, least recently active first; guarded by {@code this}. */
+  private final Map<String, Deque<Integer>> histories;
+
+  /** Strongest co-checkouts per book, least recently updated first; guarded by {@code this}. */
+  private final Map<Integer, TopK> related;
+
+  /**
+   * Spring entry point.
+   *
+   * @param historySize checkouts remembered per patron
+   * @param topK related books kept per book
+   * @param maxPatrons patron histories kept before the least recent is dropped
+   * @param maxItems top-K lists kept before the least recent is dropped
+   * @param sketchWidth counters per sketch row
+   * @param sketchDepth sketch rows
+   */
+  @Autowired
+  @SuppressWarnings("PMD.ExcessiveParameterList")
+  public CoCheckoutRecommender(
+      @Value("${recommendations.history-size:20}") final int historySize,
+      @Value("${recommendations.top-k:10}") final int topK,
+      @Value("${recommendations.max-patrons:100000}") final int maxPatrons,
+      @Value("${recommendations.max-items:100000}") final int maxItems,
+      @Value("${recommendations.sketch-width:262144}") final int sketchWidth,
+      @Value("${recommendations.sketch-depth:4}") final int sketchDepth) {
+    this.historySize = historySize;
+    this.topK = topK;
+    this.pairs = new CountMinSketch(sketchWidth, sketchDepth);
+    this.histories = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, Deque<Integer>> eldest) {
+        return size() > maxPatrons;
+      }
+    };
+    this.related = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<Integer, TopK> eldest) {
+        return size() > maxItems;
+      }
+    };
+  }
+
+  /**
+   * Creates a recommender with default bounds.
+   */
+  public CoCheckoutRecommender() {
+    this(20, 10, 100_000, 100_000, 1 << 18, 4);
+  }
+
+  /**
+   * Records that {@code patronId} checked out {@code bookId}.
+   *
+   * @param patronId the borrowing patron
+   * @param bookId the checked-out book
+   */
+  public synchronized void recordCheckout(final String patronId, final int bookId) {
+    final Deque<Integer> history = histories.computeIfAbsent(patronId, p -> new ArrayDeque<>());
+    for (final int previous : history) {
+      if (previous != bookId) {
+        final int count = pairs.increment(pairKey(previous, bookId));
+        topRelatedTo(previous).offer(bookId, count);
+        topRelatedTo(bookId).offer(previous, count);
+      }
+    }
+    history.remove(bookId);
+    history.addLast(bookId);
+    if (history.size() > historySize) {
+      history.removeFirst();
+    }
+  }
+
+  /**
+   * Returns the books most often borrowed by the same patrons as {@code bookId}.
+   *
+   * @param bookId the book
+   * @param limit maximum number of entries
+   * @return estimated co-checkout counts keyed by book id, highest first
+   */
+  public synchronized Map<Integer, Integer> alsoBorrowed(final int bookId, final int limit) {
+    final TopK top = related.get(bookId);
+    final Map<Integer, Integer> result = new LinkedHashMap<>();
+    if (top != null) {
+      top.appendTo(result, limit);
+    }
+    return result;
+  }
+
+  private TopK topRelatedTo(final int bookId) {
+    return related.computeIfAbsent(bookId, id -> new TopK(topK));
+  }
+
+  /** Order-independent key for the unordered pair {a, b}. */
+  private static long pairKey(final int first, final int second) {
+    final int low = Math.min(first, second);
+    final int high = Math.max(first, second);
+    return (long) low << 32 | high & 0xFFFFFFFFL;
+  }
+
+  /** Fixed-capacity list of the strongest related ids; replaces its weakest entry. */
+  private static final class TopK {
+    /** Related book ids. */
+    private final int[] ids;
+
+    /** Estimated co-checkout counts, parallel to {@link #ids}. */
+    private final int[] counts;
+
+    /** Number of used slots. */
+    private int size;
+
+    private TopK(final int capacity) {
+      this.ids = new int[capacity];
+      this.counts = new int[capacity];
+    }
+
+    private void offer(final int bookId, final int count) {
+      int weakest = -1;
+      for (int i = 0; i < size; i++) {
+        if (ids[i] == bookId) {
+          counts[i] = Math.max(counts[i], count);
+          return;
+        }
+        if (weakest < 0 || counts[i] < counts[weakest]) {
+          weakest = i;
+        }
+      }
+      if (size < ids.length) {
+        ids[size] = bookId;
+        counts[size] = count;
+        size++;
+      } else if (weakest >= 0 && count > counts[weakest]) {
+        ids[weakest] = bookId;
+        counts[weakest] = count;
+      }
+    }
+
+    private void appendTo(final Map<Integer, Integer> result, final int limit) {
+      final Integer[] order = new Integer[size];
+      for (int i = 0; i < size; i++) {
+        order[i] = i;
+      }
+      Arrays.sort(order, (a, b) -> counts[a] != counts[b]
+          ? Integer.compare(counts[b], counts[a]) : Integer.compare(ids[a], ids[b]));
+      for (int i = 0; i < Math.min(limit, size); i++) {
+        result.put(ids[order[i]], counts[order[i]]);
+      }
+    }
+  }
+}
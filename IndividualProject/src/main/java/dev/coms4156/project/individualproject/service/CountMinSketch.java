@@ -0,0 +1,91 @@
+package dev.coms4156.project.individualproject.service;
+
+/**
+ * Fixed-size frequency sketch: {@code depth} rows of {@code width} counters, each row indexed
+ * by an independent hash of the key. An estimate is the minimum over the rows, so it never
+ * undercounts and overcounts by at most {@code e * total / width} with probability
+ * {@code 1 - exp(-depth)}. Memory does not grow with the number of distinct keys.
+ *
+ * <p>Not thread-safe; callers synchronize.
+ */
+public final class CountMinSketch {
+
+  /** Per-row hash seeds (odd 64-bit constants). */
+  private static final long[] SEEDS = {
+      0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L,
+      0xFF51AFD7ED558CCDL, 0xC4CEB9FE1A85EC53L, 0x27D4EB2F165667C5L, 0x85EBCA77C2B2AE63L,
+  };
+
+  /** Counter rows. */
+  private final int[][] rows;
+
+  /** {@code width - 1}; width is a power of two. */
+  private final int mask;
+
+  /**
+   * Creates an empty sketch.
+   *
+   * @param width counters per row, rounded up to a power of two
+   * @param depth number of rows, 1 to 8
+   * @throws IllegalArgumentException if a dimension is out of range
+   */
+  public CountMinSketch(final int width, final int depth) {
+    if (width < 1 || width > 1 << 30 || depth < 1 || depth > SEEDS.length) {
+      throw new IllegalArgumentException("width must be 1..2^30 and depth 1.." + SEEDS.length);
+    }
+    final int size = Integer.bitCount(width) == 1 ? width : Integer.highestOneBit(width) << 1;
+    this.rows = new int[depth][size];
+    this.mask = size - 1;
+  }
+
+  /**
+   * Counts one occurrence of {@code key}.
+   *
+   * @param key the key
+   * @return the new estimate for {@code key}
+   */
+  public int increment(final long key) {
+    int estimate = Integer.MAX_VALUE;
+    for (int row = 0; row < rows.length; row++) {
+      final int index = index(key, row);
+      if (rows[row][index] < Integer.MAX_VALUE) {
+        rows[row][index]++;
+      }
+      estimate = Math.min(estimate, rows[row][index]);
+    }
+    return estimate;
+  }
+
+  /**
+   * Returns the estimated count of {@code key}.
+   *
+   * @param key the key
+   * @return an estimate that is never below the true count
+   */
+  public int estimate(final long key) {
+    int estimate = Integer.MAX_VALUE;
+    for (int row = 0; row < rows.length; row++) {
+      estimate = Math.min(estimate, rows[row][index(key, row)]);
+    }
+    return estimate;
+  }
+
+  /**
+   * Halves every counter, so that counts decay and recent activity outweighs old activity.
+   */
+  public void halve() {
+    for (final int[] row : rows) {
+      for (int i = 0; i < row.length; i++) {
+        row[i] >>>= 1;
+      }
+    }
+  }
+
+  private int index(final long key, final int row) {
+    long hash = (key + SEEDS[row]) * SEEDS[(row + 1) % SEEDS.length];
+    hash ^= hash >>> 31;
+    hash *= 0xBF58476D1CE4E5B9L;
+    hash ^= hash >>> 29;
+    return (int) hash & mask;
+  }
+}
@@ -0,0 +1,38 @@
+package dev.coms4156.project.individualproject.service;
+
+import java.util.Locale;
+
+/**
+ * Record formats supported by {@link CatalogueExporter}.
+ */
+public enum ExportFormat {
+  /** One JSON book object per line. */
+  NDJSON,
+  /** RFC 4180 CSV with a header row; list fields are joined with {@code "; "}. */
+  CSV;
+
+  /**
+   * Parses a request parameter value such as {@code "ndjson"} or {@code "csv"}.
+   *
+   * @param value parameter value
+   * @return the matching format
+   * @throws IllegalArgumentException if the value names no format
+   */
+  public static ExportFormat fromParameter(final String value) {
+    for (final ExportFormat format : values()) {
+      if (format.name().equalsIgnoreCase(value)) {
+        return format;
+      }
+    }
+    throw new IllegalArgumentException("Unknown format: " + value);
+  }
+
+  /**
+   * Returns the file extension, without the {@code .gz} suffix.
+   *
+   * @return e.g. {@code "ndjson"}
+   */
+  public String extension() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+}
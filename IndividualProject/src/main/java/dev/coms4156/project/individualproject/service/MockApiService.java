@@ -1,21 +1,68 @@
 package dev.coms4156.project.individualproject.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.coms4156.project.individualproject.events.MutationEvent;
+import dev.coms4156.project.individualproject.events.MutationEventPipeline;
+import dev.coms4156.project.individualproject.events.MutationType;
+import dev.coms4156.project.individualproject.instrumentation.RequestTimings;
 import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.model.BookPage;
+import dev.coms4156.project.individualproject.model.ImportReport;
+import dev.coms4156.project.individualproject.model.MappedCounterStore;
+import dev.coms4156.project.individualproject.model.RelatedTitle;
+import dev.coms4156.project.individualproject.model.TrendingTitle;
+import dev.coms4156.project.individualproject.repository.CatalogueRepository;
+import dev.coms4156.project.individualproject.repository.InMemoryCatalogueRepository;
+import dev.coms4156.project.individualproject.shard.ShardRing;
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 
 /**
  * Mock API service that mimics a backing catalogue (e.g., CLIO).
  *
- * <p>Provides read/update operations on an in-memory list of {@link Book}s that is
- * loaded from {@code src/main/resources/mockdata/books.json} at construction time.
+ * <p>Provides read/update operations on the {@link Book}s held by a
+ * {@link CatalogueRepository}. An empty repository is seeded from
+ * {@code src/main/resources/mockdata/books.json}, or from {@code catalogue.seed}, when the
+ * catalogue is loaded: at construction time by default, or later as set by
+ * {@code catalogue.loading} (see {@link CatalogueLoading}).
+ *
+ * <p>All book mutations go through this service so that the change is persisted to the
+ * repository; callers should not mutate a {@link Book} obtained from it directly.
  */
 @Service
 public class MockApiService {
@@ -23,75 +70,909 @@ public class MockApiService {
   /** Logger instance for this service. */
   private static final Logger LOG = LoggerFactory.getLogger(MockApiService.class);
 
-  /** In-memory catalogue of books, loaded from the JSON resource. */
-  private List<Book> books;
+  /** Parses one imported NDJSON record. */
+  private static final ObjectReader BOOK_READER = new ObjectMapper().readerFor(Book.class);
+
+  /** Storage backend holding the catalogue. */
+  private final CatalogueRepository repository;
+
+  /** Off-heap home of the copy and checkout counters, or null to keep them on-heap. */
+  private final MappedCounterStore counterStore;
+
+  /** Multi-version copy of the catalogue that full scans read from, if {@link #mirrored}. */
+  private final VersionedCatalogue versions = new VersionedCatalogue();
+
+  /**
+   * Whether {@link #versions} mirrors the catalogue. False for a repository that does not
+   * hold the whole catalogue, such as the remote backend, whose bounded cache a mirror would
+   * defeat: scans then page through the repository instead.
+   */
+  private final boolean mirrored;
+
+  /** Catalogue ordered by checkout count, for the popularity listing. */
+  private final PopularityIndex popularity = new PopularityIndex();
+
+  /** Recent checkout counts behind the trending listing. */
+  private final TrendingTracker trending;
+
+  /** Co-checkout statistics behind "readers also borrowed". */
+  private final CoCheckoutRecommender recommender;
+
+  /** Receives an event for every committed mutation, or null to publish nothing. */
+  private final MutationEventPipeline events;
+
+  /** Tells whether a book id belongs in this catalogue; false for other shards' books. */
+  private final IntPredicate owns;
+
+  /** JSON array of books that an empty repository is seeded with. */
+  private final Resource seed;
+
+  /** Runs {@link #loadCatalogue()} exactly once; done when loading has finished or failed. */
+  private final FutureTask<Void> loading = new FutureTask<>(this::loadCatalogue, null) {
+    @Override
+    protected void done() {
+      runAfterLoad();
+    }
+  };
+
+  /** Tasks waiting for the catalogue to load; see {@link #afterLoad(Runnable)}. */
+  private final List<Runnable> afterLoad = new ArrayList<>();
+
+  /** Set once a background thread has been started for {@link #loading}. */
+  private final AtomicBoolean loaderStarted = new AtomicBoolean();
+
+  /** Set when the catalogue has been loaded successfully. */
+  private volatile boolean loaded;
+
+  /** Serializes bulk imports with each other. */
+  private final Object importLock = new Object();
+
+  /**
+   * Ids the catalogue source accounts for: the seed books an empty repository was filled with,
+   * then the books listed by the last reload. A reload removes only these, so books imported
+   * or already in the repository at startup are never deleted by it. Guarded by
+   * {@link #importLock}.
+   */
+  private final Set<Integer> sourceIds = new HashSet<>();
+
+  /**
+   * Copy mutations hold the read side; {@link #reloadCatalogue(List)} and bulk imports hold the
+   * write side while they swap in new records, so no mutation lands on a replaced instance.
+   */
+  private final ReadWriteLock reloadLock = new ReentrantReadWriteLock();
 
   /** Example auxiliary list; kept for parity with baseline code. */
   private List<String> bags;
 
   /**
-   * Constructs a new service and eagerly loads book data from
-   * {@code resources/mockdata/books.json}. If the resource is missing or
-   * unreadable, the service falls back to an empty catalogue and logs the error.
+   * Constructs a new service over a fresh in-memory repository seeded from
+   * {@code resources/mockdata/books.json}.
    */
   public MockApiService() {
-    try (InputStream inputStream = Thread.currentThread()
-        .getContextClassLoader()
-        .getResourceAsStream("mockdata/books.json")) {
-
-      if (inputStream == null) {
-        LOG.error("Failed to find mockdata/books.json in resources.");
-        this.books = new ArrayList<>(0);
-      } else {
-        final ObjectMapper mapper = new ObjectMapper();
-        // PMD: UseDiamondOperator — use <>
-        this.books = mapper.readValue(inputStream, new TypeReference<>() {});
-        LOG.info("Successfully loaded books from mockdata/books.json.");
+    this(new InMemoryCatalogueRepository(), (MappedCounterStore) null);
+  }
+
+  /**
+   * Constructs a new service over {@code repository} with on-heap counters.
+   *
+   * @param repository storage backend
+   */
+  public MockApiService(final CatalogueRepository repository) {
+    this(repository, (MappedCounterStore) null);
+  }
+
+  /**
+   * Spring entry point; uses the {@link MappedCounterStore} bean when one is configured.
+   *
+   * @param repository storage backend
+   * @param counterStore provider of the optional counter store
+   * @param trending tracker for recent checkouts
+   * @param recommender co-checkout statistics
+   * @param events provider of the mutation event pipeline
+   * @param shards provider of the shard ring, present when the catalogue is sharded
+   * @param loading when to load the catalogue
+   * @param seed JSON array of books to seed an empty repository with
+   */
+  @Autowired
+  @SuppressWarnings("PMD.ExcessiveParameterList")
+  public MockApiService(final CatalogueRepository repository,
+      final ObjectProvider<MappedCounterStore> counterStore,
+      final TrendingTracker trending,
+      final CoCheckoutRecommender recommender,
+      final ObjectProvider<MutationEventPipeline> events,
+      final ObjectProvider<ShardRing> shards,
+      @Value("${catalogue.loading:EAGER}") final CatalogueLoading loading,
+      @Value("${catalogue.seed:classpath:mockdata/books.json}") final Resource seed) {
+    this(repository, counterStore.getIfAvailable(), trending, recommender,
+        events.getIfAvailable(), ownership(shards.getIfAvailable()), loading, seed);
+  }
+
+  /**
+   * Constructs a new service over {@code repository} with a 24-hour trending window and
+   * default co-checkout bounds. No mutation events are published.
+   *
+   * @param repository storage backend
+   * @param counterStore off-heap counter store, or null
+   */
+  public MockApiService(final CatalogueRepository repository,
+                        final MappedCounterStore counterStore) {
+    this(repository, counterStore,
+        new TrendingTracker(Clock.systemUTC(), Duration.ofHours(24), 24),
+        new CoCheckoutRecommender(), null);
+  }
+
+  /**
+   * Constructs a new service over {@code repository} that holds the whole catalogue and
+   * loads it eagerly.
+   *
+   * @param repository storage backend
+   * @param counterStore off-heap counter store, or null
+   * @param trending tracker for recent checkouts
+   * @param recommender co-checkout statistics
+   * @param events pipeline for mutation events, or null
+   */
+  @SuppressWarnings("PMD.ExcessiveParameterList")
+  public MockApiService(final CatalogueRepository repository,
+                        final MappedCounterStore counterStore,
+                        final TrendingTracker trending,
+                        final CoCheckoutRecommender recommender,
+                        final MutationEventPipeline events) {
+    this(repository, counterStore, trending, recommender, events, id -> true,
+        CatalogueLoading.EAGER, new ClassPathResource("mockdata/books.json"));
+  }
+
+  /**
+   * Constructs a new service over {@code repository}. When the catalogue is loaded, as set by
+   * {@code loading}, an empty repository is seeded from {@code seed}. If the seed is missing or
+   * unreadable, the service starts with an empty catalogue and logs the error. Only the seed
+   * books accepted by {@code owns} are kept, as are only those of later catalogue reloads;
+   * on a shard, that is the slice it owns.
+   *
+   * <p>When {@code counterStore} is given, every book's copy and checkout counters are bound
+   * to it. At load time, counts already in the store from a previous run take precedence over
+   * the repository's values; books written later by an update, an import or a reload store
+   * their own counts.
+   *
+   * @param repository storage backend
+   * @param counterStore off-heap counter store, or null
+   * @param trending tracker for recent checkouts
+   * @param recommender co-checkout statistics
+   * @param events pipeline for mutation events, or null
+   * @param owns tells whether a book id belongs in this catalogue
+   * @param loading when to load the catalogue
+   * @param seed JSON array of books to seed an empty repository with
+   */
+  @SuppressWarnings("PMD.ExcessiveParameterList")
+  public MockApiService(final CatalogueRepository repository,
+                        final MappedCounterStore counterStore,
+                        final TrendingTracker trending,
+                        final CoCheckoutRecommender recommender,
+                        final MutationEventPipeline events,
+                        final IntPredicate owns,
+                        final CatalogueLoading loading,
+                        final Resource seed) {
+    this.repository = repository;
+    this.mirrored = repository.holdsWholeCatalogue();
+    this.counterStore = counterStore;
+    this.trending = trending;
+    this.recommender = recommender;
+    this.events = events;
+    this.owns = owns;
+    this.seed = seed;
+    // Keep parity with baseline; not used functionally.
+    this.bags = new ArrayList<>();
+    if (loading == CatalogueLoading.EAGER) {
+      awaitCatalogue();
+    } else if (loading == CatalogueLoading.BACKGROUND) {
+      loadInBackground();
+    }
+  }
+
+  /**
+   * Tells whether the catalogue has been loaded, so that calls reading it return without
+   * waiting. Readiness probes should report the service ready only then.
+   *
+   * @return true once loading has finished successfully
+   */
+  public boolean isLoaded() {
+    return loaded;
+  }
+
+  /**
+   * Runs {@code task} once the catalogue has loaded, without causing it to load: right away if
+   * it has, otherwise on the thread that finishes loading it. The task is dropped if loading
+   * fails.
+   *
+   * @param task what to run
+   */
+  public void afterLoad(final Runnable task) {
+    synchronized (afterLoad) {
+      if (!loading.isDone()) {
+        afterLoad.add(task);
+        return;
+      }
+    }
+    if (loaded) {
+      task.run();
+    }
+  }
+
+  private void runAfterLoad() {
+    final List<Runnable> tasks;
+    synchronized (afterLoad) {
+      tasks = List.copyOf(afterLoad);
+      afterLoad.clear();
+    }
+    if (loaded) {
+      tasks.forEach(Runnable::run);
+    }
+  }
+
+  /**
+   * Starts loading the catalogue on a background thread unless it is loading or loaded
+   * already.
+   */
+  public void loadInBackground() {
+    if (!loading.isDone() && loaderStarted.compareAndSet(false, true)) {
+      final Thread loader = new Thread(loading, "catalogue-loader");
+      loader.setDaemon(true);
+      loader.start();
+    }
+  }
+
+  /**
+   * Loads the catalogue on this thread if no other thread has started to, otherwise waits
+   * for that load to finish.
+   *
+   * @throws IllegalStateException if loading failed
+   */
+  private void awaitCatalogue() {
+    if (loaded) {
+      return;
+    }
+    // No-op if another thread is running it.
+    loading.run();
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          loading.get();
+          return;
+        } catch (final InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    } catch (final ExecutionException e) {
+      throw new IllegalStateException("Catalogue failed to load", e.getCause());
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void loadCatalogue() {
+    final long start = System.nanoTime();
+    repository.setLoadListener(this::reindex);
+    final int stored = repository.count();
+    if (stored == 0) {
+      final List<Book> seedBooks = loadSeedBooks(seed);
+      final List<Book> owned = owned(seedBooks);
+      if (owned.size() < seedBooks.size()) {
+        LOG.info("Keeping the {} of {} seed books owned by this shard.", owned.size(),
+            seedBooks.size());
+      }
+      repository.saveAll(owned);
+      synchronized (importLock) {
+        owned.forEach(book -> sourceIds.add(book.getId()));
+      }
+    } else {
+      LOG.info("Using {} books already present in the catalogue repository.", stored);
+    }
+    // One pass over the repository, which for the remote backend is one upstream scan.
+    final List<Book> mirror = new ArrayList<>(mirrored ? stored : 0);
+    int books = 0;
+    int adopted = 0;
+    for (final Book book : repository) {
+      if (counterStore != null && book.bindCounters(counterStore)) {
+        adopted++;
+      }
+      popularity.update(book);
+      if (mirrored) {
+        mirror.add(book);
       }
+      books++;
+    }
+    if (counterStore != null) {
+      LOG.info("Bound book counters off-heap; {} restored from a previous run.", adopted);
+    }
+    versions.publishAll(mirror);
+    loaded = true;
+    LOG.info("Loaded {} books in {} ms.", books, (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Re-indexes a book the repository read again from its source, so that the popularity
+   * listing follows changes made upstream; {@code book} is null if the source dropped it.
+   */
+  @SuppressWarnings("PMD.ShortVariable")
+  private void reindex(final int id, final Book book) {
+    if (book == null) {
+      popularity.remove(id);
+    } else {
+      synchronized (book) {
+        popularity.update(book);
+      }
+    }
+  }
+
+  private static IntPredicate ownership(final ShardRing shards) {
+    return shards == null ? id -> true : shards::isLocal;
+  }
+
+  private List<Book> owned(final List<Book> books) {
+    final List<Book> owned = new ArrayList<>(books.size());
+    for (final Book book : books) {
+      if (owns.test(book.getId())) {
+        owned.add(book);
+      }
+    }
+    return owned;
+  }
+
+  private static List<Book> loadSeedBooks(final Resource source) {
+    if (!source.exists()) {
+      LOG.error("Failed to find seed catalogue {}.", source.getDescription());
+      return new ArrayList<>(0);
+    }
+    try (InputStream inputStream = source.getInputStream()) {
+      final ObjectMapper mapper = new ObjectMapper();
+      // PMD: UseDiamondOperator — use <>
+      final List<Book> seed = mapper.readValue(inputStream, new TypeReference<>() {});
+      LOG.info("Successfully loaded books from {}.", source.getDescription());
+      return seed;
     } catch (final Exception e) {
       LOG.error("Failed to load books", e);
-      this.books = new ArrayList<>(0);
+      return new ArrayList<>(0);
     }
-
-    // Keep parity with baseline; not used functionally.
-    this.bags = new ArrayList<>();
   }
 
   /**
-   * Returns the current catalogue.
+   * Returns the current catalogue as one consistent point-in-time snapshot.
    *
-   * <p>Note: Returns an unmodifiable view to prevent accidental external mutation.
+   * <p>Note: Returns an unmodifiable list of snapshot copies; concurrent checkouts neither
+   * block this call nor show up half-applied in its result. Use {@link #findBook(int)} to get
+   * the live instance of a book. For a repository that does not hold the whole catalogue,
+   * this is a scan of the repository, as described at {@link CatalogueSnapshot}.
    *
-   * @return an unmodifiable list of books
+   * @return an unmodifiable list of books, ordered by id
    */
   public List<Book> getBooks() {
-    return Collections.unmodifiableList(books);
+    try (CatalogueSnapshot snapshot = openSnapshot()) {
+      return Collections.unmodifiableList(snapshot.toList());
+    }
+  }
+
+  /**
+   * Opens a lazily-iterated point-in-time view of the catalogue for long scans. The caller
+   * must close it so that superseded versions can be reclaimed. For a repository that does
+   * not hold the whole catalogue, the view pages through the repository as it is iterated,
+   * so it sees changes made at the source.
+   *
+   * @return the snapshot
+   */
+  public CatalogueSnapshot openSnapshot() {
+    awaitCatalogue();
+    return mirrored ? versions.openSnapshot()
+        : new CatalogueSnapshot(this::scanCopies, System.currentTimeMillis());
+  }
+
+  /** Iterates copies of the repository's books, each taken under the book's monitor. */
+  private Iterator<Book> scanCopies() {
+    return StreamSupport.stream(repository.spliterator(), false).map(book -> {
+      synchronized (book) {
+        return new Book(book);
+      }
+    }).iterator();
+  }
+
+  /**
+   * Looks up a single book by id without scanning the catalogue.
+   *
+   * @param id the book id
+   * @return the book, or empty if no book has that id
+   */
+  @SuppressWarnings("PMD.ShortVariable")
+  public Optional<Book> findBook(final int id) {
+    awaitCatalogue();
+    return repository.findById(id);
+  }
+
+  /**
+   * Returns one page of the catalogue in {@code sort} order using keyset pagination: the
+   * cursor records the last position returned, so each page costs one index seek plus
+   * {@code limit} steps no matter how deep it is. Books changed between pages appear at
+   * their position at the time each page is read. Over a remote repository the books are
+   * always current, and the popularity order follows every book the cache has re-read;
+   * checkouts made upstream to a book nobody has read since startup move it only once it is.
+   *
+   * @param sort listing order
+   * @param cursor {@link BookPage#getNextCursor()} of the previous page, or null for the first
+   * @param limit maximum number of books on the page (positive)
+   * @return the page
+   * @throws IllegalArgumentException if the cursor is malformed or belongs to another order
+   */
+  public BookPage listBooks(final BookSort sort, final String cursor, final int limit) {
+    awaitCatalogue();
+    if (limit < 1) {
+      throw new IllegalArgumentException("limit must be positive");
+    }
+    final long[] position = cursor == null ? null : decodeCursor(sort, cursor);
+    if (sort == BookSort.POPULARITY) {
+      return popularityPage(
+          position == null ? null : PopularityIndex.key((int) position[0], (int) position[1]),
+          limit);
+    }
+    final List<Book> page = repository.findAfter(
+        position == null ? Integer.MIN_VALUE : (int) position[0], limit + 1);
+    String next = null;
+    if (page.size() > limit) {
+      page.remove(limit);
+      next = sort.cursorAfter(page.get(limit - 1).getId(), 0);
+    }
+    return new BookPage(page, next);
+  }
+
+  /**
+   * Reads a popularity page after {@code afterKey}. The next cursor is the index key the last
+   * book was read at rather than its current count, which a checkout may already have moved.
+   * Books removed since their key was read are skipped.
+   */
+  private BookPage popularityPage(final Long afterKey, final int limit) {
+    final List<Book> page = new ArrayList<>(Math.min(limit, 1024));
+    long lastKey = 0;
+    Long position = afterKey;
+    boolean more = false;
+    while (!more) {
+      final List<Long> keys = popularity.after(position, limit + 1 - page.size());
+      if (keys.isEmpty()) {
+        break;
+      }
+      for (final Long key : keys) {
+        position = key;
+        final Book book = repository.findById(PopularityIndex.idOf(key)).orElse(null);
+        if (book != null && page.size() == limit) {
+          more = true;
+        } else if (book != null) {
+          page.add(book);
+          lastKey = key;
+        }
+      }
+    }
+    final String next = more ? BookSort.POPULARITY.cursorAfter(PopularityIndex.idOf(lastKey),
+        PopularityIndex.timesCheckedOutOf(lastKey)) : null;
+    return new BookPage(page, next);
+  }
+
+  private static long[] decodeCursor(final BookSort sort, final String cursor) {
+    try {
+      final String[] parts = new String(Base64.getUrlDecoder().decode(cursor),
+          StandardCharsets.UTF_8).split(":");
+      final int expected = sort == BookSort.POPULARITY ? 3 : 2;
+      if (parts.length != expected || !sort.parameterName().equals(parts[0])) {
+        throw new IllegalArgumentException("Cursor does not match sort " + sort.parameterName());
+      }
+      final long[] position = new long[expected - 1];
+      for (int i = 1; i < expected; i++) {
+        position[i - 1] = Integer.parseInt(parts[i]);
+      }
+      return position;
+    } catch (final IllegalArgumentException e) {
+      // Also covers NumberFormatException and bad base64.
+      throw new IllegalArgumentException("Invalid cursor.", e);
+    }
+  }
+
+  /**
+   * Returns the books checked out most within the trending window, as opposed to
+   * {@code amountOfTimesCheckedOut}, which counts every checkout ever made.
+   *
+   * @param limit maximum number of titles
+   * @return titles with their window counts, most checked out first
+   */
+  public List<TrendingTitle> getTrending(final int limit) {
+    awaitCatalogue();
+    final Map<Integer, Integer> top = trending.top(limit);
+    final List<TrendingTitle> titles = new ArrayList<>(top.size());
+    for (final Map.Entry<Integer, Integer> entry : top.entrySet()) {
+      repository.findById(entry.getKey())
+          .ifPresent(book -> titles.add(new TrendingTitle(book, entry.getValue())));
+    }
+    return titles;
+  }
+
+  /**
+   * Attributes a successful checkout of {@code bookId} to {@code patronId} for the
+   * "readers also borrowed" statistics.
+   *
+   * @param patronId the borrowing patron
+   * @param bookId the checked-out book
+   */
+  public void recordPatronCheckout(final String patronId, final int bookId) {
+    recommender.recordCheckout(patronId, bookId);
+  }
+
+  /**
+   * Returns the books most often borrowed by the same patrons as {@code bookId}.
+   *
+   * @param bookId the book
+   * @param limit maximum number of titles
+   * @return related titles with estimated co-checkout counts, strongest first
+   */
+  public List<RelatedTitle> getAlsoBorrowed(final int bookId, final int limit) {
+    awaitCatalogue();
+    final Map<Integer, Integer> related = recommender.alsoBorrowed(bookId, limit);
+    final List<RelatedTitle> titles = new ArrayList<>(related.size());
+    for (final Map.Entry<Integer, Integer> entry : related.entrySet()) {
+      repository.findById(entry.getKey())
+          .ifPresent(book -> titles.add(new RelatedTitle(book, entry.getValue())));
+    }
+    return titles;
   }
 
   /**
    * Replaces the existing book (matched via {@link Book#equals(Object)}) with
-   * {@code newBook}. If no match is found, the catalogue remains unchanged.
+   * {@code newBook}. If no match is found, the catalogue remains unchanged. The replacement
+   * happens under the stored instance's monitor, so it is ordered with copy mutations of the
+   * same book: none of them is lost, and none writes the replaced instance back.
    *
    * @param newBook updated book instance (non-null)
    */
   public void updateBook(final Book newBook) {
-    final List<Book> tmpBooks = new ArrayList<>();
-    for (final Book book : books) {
-      if (book.equals(newBook)) {
-        tmpBooks.add(newBook);
-      } else {
-        tmpBooks.add(book);
+    awaitCatalogue();
+    try (RequestTimings.Stage stage = RequestTimings.stage("persist")) {
+      publish(mutateLive(newBook, live -> {
+        if (counterStore != null) {
+          newBook.writeCounters(counterStore);
+        }
+        repository.save(newBook);
+        popularity.update(newBook);
+        if (mirrored) {
+          versions.publish(newBook);
+        }
+        return MutationEvent.of(MutationType.UPDATE, newBook, null);
+      }));
+    }
+  }
+
+  /**
+   * Upserts books read from newline-delimited JSON, one {@link Book} object per line.
+   *
+   * <p>The body is read one line at a time, so memory use depends on {@code batchSize}, not
+   * on the size of the import; the report lists at most {@link ImportReport#MAX_BATCHES}
+   * batches and {@link ImportReport#MAX_ERRORS} errors and totals the rest. Valid records are
+   * collected into batches of {@code batchSize}. Each batch is written with a single
+   * {@code saveAll} and becomes visible to snapshot readers as one commit. A record replaces
+   * any book with the same id. Within a batch the last record for an id wins. Records that
+   * fail to parse, that lack a positive id or a title, or whose id belongs to another shard,
+   * are skipped and reported.
+   *
+   * @param body NDJSON source; not closed
+   * @param batchSize records per batch (positive)
+   * @return counts, timing totals, the first batches and the first errors
+   * @throws IOException if reading the body fails
+   */
+  public ImportReport importBooks(final Reader body, final int batchSize) throws IOException {
+    awaitCatalogue();
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batchSize must be positive");
+    }
+    final ImportReport report = new ImportReport();
+    final BufferedReader reader = new BufferedReader(body);
+    final Map<Integer, Book> batch = new LinkedHashMap<>();
+    int rejected = 0;
+    long batchStart = System.nanoTime();
+    long lineNumber = 0;
+    for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+      lineNumber++;
+      if (line.isBlank()) {
+        continue;
+      }
+      final String problem = parseInto(line, batch);
+      if (problem != null) {
+        report.addError(lineNumber, problem);
+        rejected++;
+      }
+      if (batch.size() + rejected >= batchSize) {
+        commitBatch(batch, rejected, batchStart, report);
+        batch.clear();
+        rejected = 0;
+        batchStart = System.nanoTime();
+      }
+    }
+    if (!batch.isEmpty() || rejected > 0) {
+      commitBatch(batch, rejected, batchStart, report);
+    }
+    return report;
+  }
+
+  /** Parses one record into {@code batch}; returns why it was rejected, or null. */
+  private String parseInto(final String line, final Map<Integer, Book> batch) {
+    try {
+      final Book book = BOOK_READER.readValue(line);
+      if (book.getId() <= 0) {
+        return "id must be a positive integer";
+      }
+      if (book.getTitle() == null || book.getTitle().isBlank()) {
+        return "title is required";
+      }
+      if (!owns.test(book.getId())) {
+        return "book " + book.getId() + " belongs to another shard";
       }
+      batch.put(book.getId(), book);
+      return null;
+    } catch (final JsonProcessingException e) {
+      return e.getOriginalMessage();
+    }
+  }
+
+  /**
+   * Writes one batch and updates every index once for it. Copy mutations wait while the batch
+   * replaces their books, as for a reload.
+   */
+  private void commitBatch(final Map<Integer, Book> batch, final int rejected,
+                           final long batchStart, final ImportReport report) {
+    final List<Book> books = new ArrayList<>(batch.values());
+    final List<MutationEvent> committed = new ArrayList<>(books.size());
+    int created = 0;
+    synchronized (importLock) {
+      final Lock lock = reloadLock.writeLock();
+      lock.lock();
+      try (RequestTimings.Stage stage = RequestTimings.stage("persist")) {
+        for (final Book book : books) {
+          final boolean exists = repository.findById(book.getId()).isPresent();
+          if (!exists) {
+            created++;
+          }
+          if (counterStore != null) {
+            book.writeCounters(counterStore);
+          }
+          committed.add(MutationEvent.of(
+              exists ? MutationType.UPDATE : MutationType.CREATE, book, null));
+        }
+        repository.saveAll(books);
+        for (final Book book : books) {
+          popularity.update(book);
+        }
+        if (mirrored) {
+          versions.publishAll(books);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+    committed.forEach(this::publish);
+    report.addBatch(new ImportReport.BatchStats(report.getBatchCount() + 1, created,
+        books.size() - created, rejected, (System.nanoTime() - batchStart) / 1_000_000.0));
+  }
+
+  /**
+   * Applies a new version of the catalogue source, touching only the records that differ.
+   *
+   * <p>Books are matched by id. New ids are added, and books whose descriptive fields changed
+   * get a new record that keeps the live copy, checkout and due-date state: the source
+   * corrects descriptions, while circulation state always belongs to the running service.
+   * Unchanged books are not touched, so their index entries and snapshot versions stay as they
+   * are. A book missing from {@code source} is removed only if the seed or the previous source
+   * listed it; books imported through {@link #importBooks(Reader, int)}, or present in a
+   * persistent repository at startup, stay until deleted explicitly.
+   *
+   * <p>Copy mutations wait while the changes are swapped in, and all of them are committed as
+   * one catalogue version: a snapshot reader sees the whole reload or none of it, and a
+   * single-book lookup sees either the old record or the new one.
+   *
+   * @param source every record of the new source; on a shard, records of books owned by
+   *     other shards are ignored
+   * @return what changed
+   */
+  public CatalogueDiff reloadCatalogue(final List<Book> source) {
+    awaitCatalogue();
+    final CatalogueDiff diff;
+    final List<MutationEvent> committed = new ArrayList<>();
+    synchronized (importLock) {
+      final Lock lock = reloadLock.writeLock();
+      lock.lock();
+      try (RequestTimings.Stage stage = RequestTimings.stage("persist")) {
+        diff = CatalogueDiff.compute(id -> repository.findById(id).orElse(null), sourceIds,
+            owned(source));
+        sourceIds.clear();
+        sourceIds.addAll(diff.getListed());
+        if (diff.isEmpty()) {
+          return diff;
+        }
+        final List<Book> changed = new ArrayList<>();
+        for (final Book correction : diff.getUpdated()) {
+          final Book replacement = new Book(repository.findById(correction.getId()).get());
+          replacement.copyDescriptionFrom(correction);
+          changed.add(replacement);
+          committed.add(MutationEvent.of(MutationType.UPDATE, replacement, null));
+        }
+        for (final Book created : diff.getCreated()) {
+          changed.add(created);
+          committed.add(MutationEvent.of(MutationType.CREATE, created, null));
+        }
+        for (final Integer id : diff.getRemoved()) {
+          repository.findById(id).ifPresent(
+              book -> committed.add(MutationEvent.of(MutationType.REMOVE, book, null)));
+          repository.deleteById(id);
+          popularity.remove(id);
+        }
+        if (counterStore != null) {
+          // Replacements carry the live counts; created books must not inherit the slot of a
+          // removed book with the same id.
+          changed.forEach(book -> book.writeCounters(counterStore));
+        }
+        repository.saveAll(changed);
+        changed.forEach(popularity::update);
+        if (mirrored) {
+          versions.commit(changed, diff.getRemoved());
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+    committed.forEach(this::publish);
+    return diff;
+  }
+
+  /**
+   * Checks out a copy of {@code book} and persists the change.
+   *
+   * @param book the book to check out, matched by id against the live catalogue
+   * @return the due date, or null if the book is unknown or no copies are available
+   */
+  public String checkoutCopy(final Book book) {
+    final MutationEvent event = mutateLive(book, live -> {
+      final String due = live.checkoutCopy();
+      if (due == null) {
+        return null;
+      }
+      persist(live);
+      return MutationEvent.of(MutationType.CHECKOUT, live, due);
+    });
+    if (event != null) {
+      trending.recordCheckout(event.getBookId());
+      publish(event);
+    }
+    return event == null ? null : event.getDueDate();
+  }
+
+  /**
+   * Returns a checked-out copy of {@code book} and persists the change.
+   *
+   * @param book the book to return, matched by id against the live catalogue
+   * @param date the due date handed out at checkout
+   * @return true if a copy with that due date was returned
+   */
+  public boolean returnCopy(final Book book, final String date) {
+    final MutationEvent event = mutateLive(book, live -> {
+      if (!live.returnCopy(date)) {
+        return null;
+      }
+      persist(live);
+      return MutationEvent.of(MutationType.RETURN, live, date);
+    });
+    publish(event);
+    return event != null;
+  }
+
+  /**
+   * Adds a copy to {@code book} and persists the change.
+   *
+   * @param book the book to extend, matched by id against the live catalogue
+   */
+  public void addCopy(final Book book) {
+    publish(mutateLive(book, live -> {
+      live.addCopy();
+      persistCounts(live);
+      return MutationEvent.of(MutationType.ADD_COPY, live, null);
+    }));
+  }
+
+  /**
+   * Removes an available copy from {@code book} and persists the change.
+   *
+   * @param book the book to shrink, matched by id against the live catalogue
+   * @return true if a copy was removed
+   */
+  public boolean deleteCopy(final Book book) {
+    final MutationEvent event = mutateLive(book, live -> {
+      if (!live.deleteCopy()) {
+        return null;
+      }
+      persistCounts(live);
+      return MutationEvent.of(MutationType.DELETE_COPY, live, null);
+    });
+    publish(event);
+    return event != null;
+  }
+
+  /**
+   * Runs {@code mutation} on the stored instance for {@code book}, which may be a snapshot
+   * copy, under that instance's monitor. A catalogue reload or import cannot swap the instance
+   * out while the mutation runs. A caching backend may still replace it with a refreshed copy, so
+   * the instance is looked up again once locked and the lock moves to the new one if needed.
+   *
+   * @return the mutation's event, or null if the book is unknown or nothing changed
+   */
+  private MutationEvent mutateLive(final Book book,
+                                   final Function<Book, MutationEvent> mutation) {
+    final Lock lock = reloadLock.readLock();
+    lock.lock();
+    try {
+      Book live = repository.findById(book.getId()).orElse(null);
+      MutationEvent event = null;
+      boolean applied = false;
+      while (live != null && !applied) {
+        synchronized (live) {
+          final Book current = repository.findById(book.getId()).orElse(null);
+          if (current == live) {
+            event = mutation.apply(live);
+            applied = true;
+          } else {
+            live = current;
+          }
+        }
+      }
+      return event;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Saves a mutated book and commits its new version; called under the book's monitor. */
+  private void persist(final Book book) {
+    try (RequestTimings.Stage stage = RequestTimings.stage("persist")) {
+      repository.save(book);
+      popularity.update(book);
+      if (mirrored) {
+        versions.publish(book);
+      }
+    }
+  }
+
+  /**
+   * Like {@link #persist(Book)} for a mutation that changed only copy counts. With a counter
+   * store those are already durable in the mapped file, so the repository write is skipped;
+   * the book's in-memory record is the instance just mutated.
+   */
+  private void persistCounts(final Book book) {
+    if (counterStore == null) {
+      persist(book);
+      return;
+    }
+    try (RequestTimings.Stage stage = RequestTimings.stage("persist")) {
+      popularity.update(book);
+      if (mirrored) {
+        versions.publish(book);
+      }
+    }
+  }
+
+  /** Hands {@code event} to the pipeline; called after the book's monitor is released. */
+  private void publish(final MutationEvent event) {
+    if (event != null && events != null) {
+      events.publish(event);
     }
-    this.books = tmpBooks;
   }
 
   /**
    * Logs the current catalogue to the application logger.
    */
   public void printBooks() {
-    for (final Book b : books) {
+    awaitCatalogue();
+    for (final Book b : repository) {
       LOG.info("Book: {}", b);
     }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.model.Book;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Ordered index of the catalogue by descending checkout count, then ascending id.
+ *
+ * <p>Both components are packed into one {@code long} key so that a page is a single
+ * {@code tailSet} seek followed by a walk of {@code limit} keys. The index holds keys only:
+ * a page is returned as the keys it was read at, which the caller resolves to books and uses
+ * as the exact position to continue from. Updates and removals of one id are serialized on
+ * its {@code keyById} entry, so two instances of the same book may be indexed concurrently.
+ */
+final class PopularityIndex {
+
+  /** Packed keys of the indexed books. */
+  private final NavigableSet<Long> keys = new ConcurrentSkipListSet<>();
+
+  /** Current key of every indexed id. */
+  private final Map<Integer, Long> keyById = new ConcurrentHashMap<>();
+
+  /** Re-indexes {@code book} under its current checkout count. */
+  void update(final Book book) {
+    final long key = key(book.getAmountOfTimesCheckedOut(), book.getId());
+    keyById.compute(book.getId(), (id, previous) -> {
+      keys.add(key);
+      if (previous != null && previous != key) {
+        keys.remove(previous);
+      }
+      return key;
+    });
+  }
+
+  /** Drops {@code id} from the index. */
+  @SuppressWarnings("PMD.ShortVariable")
+  void remove(final int id) {
+    keyById.computeIfPresent(id, (k, previous) -> {
+      keys.remove(previous);
+      return null;
+    });
+  }
+
+  /**
+   * Returns up to {@code limit} keys strictly after the given position.
+   *
+   * @param afterKey exclusive start key, or null to start from the most popular book
+   * @param limit maximum number of keys
+   * @return the keys, most popular first; see {@link #idOf} and {@link #timesCheckedOutOf}
+   */
+  List<Long> after(final Long afterKey, final int limit) {
+    final Set<Long> tail = afterKey == null ? keys : keys.tailSet(afterKey, false);
+    final List<Long> page = new ArrayList<>(Math.min(limit, 1024));
+    for (final Long key : tail) {
+      if (page.size() == limit) {
+        break;
+      }
+      page.add(key);
+    }
+    return page;
+  }
+
+  /**
+   * Packs a position so that natural {@code long} order is popularity order: the inverted
+   * count in the high half, the id (offset to unsigned) in the low half.
+   */
+  @SuppressWarnings("PMD.ShortVariable")
+  static long key(final int timesCheckedOut, final int id) {
+    final long inverted = Integer.MAX_VALUE - (long) Math.max(0, timesCheckedOut);
+    return inverted << 32 | (id - (long) Integer.MIN_VALUE);
+  }
+
+  /** Unpacks the book id of a {@link #key}. */
+  static int idOf(final long key) {
+    return (int) ((key & 0xFFFF_FFFFL) + Integer.MIN_VALUE);
+  }
+
+  /** Unpacks the checkout count of a {@link #key}. */
+  static int timesCheckedOutOf(final long key) {
+    return (int) (Integer.MAX_VALUE - (key >>> 32));
+  }
+}
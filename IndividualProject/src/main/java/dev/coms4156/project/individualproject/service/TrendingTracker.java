@@ -0,0 +1,182 @@
+package dev.coms4156.project.individualproject.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sliding-window checkout counts per book, with the ranking kept up to date incrementally.
+ *
+ * <p>The window is split into {@code buckets} equal time buckets. Every book with recent
+ * checkouts has a ring buffer holding one count per bucket plus their running total. When a
+ * bucket falls out of the window only the books that were checked out during it are touched,
+ * so the cost of expiry is proportional to the checkouts being forgotten, not to the size of
+ * the catalogue. The ranking is an ordered set by window total, so reading the top N is a walk
+ * of N entries. Memory is bounded by the number of books checked out within one window.
+ */
+@Component
+public class TrendingTracker {
+
+  /** Ranking order: most checkouts in the window first, ties by ascending id. */
+  private static final Comparator<Window> ORDER = Comparator
+      .comparingInt((Window w) -> -w.total).thenComparingInt(w -> w.bookId);
+
+  /** Time source. */
+  private final Clock clock;
+
+  /** Width of one bucket in milliseconds. */
+  private final long bucketMillis;
+
+  /** Number of buckets in the window. */
+  private final int bucketCount;
+
+  /** Ring buffers of books with checkouts inside the window; guarded by {@code this}. */
+  private final Map<Integer, Window> windows = new HashMap<>();
+
+  /** Books ordered by window total; guarded by {@code this}. */
+  private final NavigableSet<Window> ranking = new TreeSet<>(ORDER);
+
+  /** Ids checked out during each bucket, for expiry; guarded by {@code this}. */
+  private final List<Set<Integer>> touched;
+
+  /** Bucket number ({@code millis / bucketMillis}) of the newest bucket; guarded by this. */
+  private long currentBucket;
+
+  /**
+   * Spring entry point.
+   *
+   * @param window length of the trending window
+   * @param buckets number of buckets the window is divided into
+   */
+  @Autowired
+  public TrendingTracker(@Value("${trending.window:PT24H}") final Duration window,
+                         @Value("${trending.buckets:24}") final int buckets) {
+    this(Clock.systemUTC(), window, buckets);
+  }
+
+  /**
+   * Creates a tracker.
+   *
+   * @param clock time source
+   * @param window length of the trending window
+   * @param buckets number of buckets the window is divided into (at least 1)
+   * @throws IllegalArgumentException if a bucket would be shorter than a millisecond
+   */
+  public TrendingTracker(final Clock clock, final Duration window, final int buckets) {
+    if (buckets < 1 || window.toMillis() < buckets) {
+      throw new IllegalArgumentException("window must hold at least one ms per bucket");
+    }
+    this.clock = clock;
+    this.bucketCount = buckets;
+    this.bucketMillis = window.toMillis() / buckets;
+    this.touched = new ArrayList<>(buckets);
+    for (int i = 0; i < buckets; i++) {
+      touched.add(new HashSet<>());
+    }
+    this.currentBucket = clock.millis() / bucketMillis;
+  }
+
+  /**
+   * Counts one checkout of {@code bookId} now.
+   *
+   * @param bookId the checked-out book
+   */
+  public synchronized void recordCheckout(final int bookId) {
+    advance();
+    final int slot = slot(currentBucket);
+    final Window window = windows.computeIfAbsent(bookId, id -> new Window(id, bucketCount));
+    ranking.remove(window);
+    window.counts[slot]++;
+    window.total++;
+    ranking.add(window);
+    touched.get(slot).add(bookId);
+  }
+
+  /**
+   * Returns the books with the most checkouts in the current window.
+   *
+   * @param limit maximum number of entries
+   * @return checkout counts keyed by book id, highest first
+   */
+  public synchronized Map<Integer, Integer> top(final int limit) {
+    advance();
+    final Map<Integer, Integer> top = new LinkedHashMap<>();
+    for (final Window window : ranking) {
+      if (top.size() >= limit) {
+        break;
+      }
+      top.put(window.bookId, window.total);
+    }
+    return top;
+  }
+
+  /**
+   * Returns the number of checkouts of {@code bookId} in the current window.
+   *
+   * @param bookId the book
+   * @return window count
+   */
+  public synchronized int count(final int bookId) {
+    advance();
+    final Window window = windows.get(bookId);
+    return window == null ? 0 : window.total;
+  }
+
+  /** Expires every bucket that has left the window since the last call. */
+  private void advance() {
+    final long now = clock.millis() / bucketMillis;
+    final long expireUpTo = Math.min(now, currentBucket + bucketCount);
+    for (long bucket = currentBucket + 1; bucket <= expireUpTo; bucket++) {
+      final int slot = slot(bucket);
+      final Set<Integer> ids = touched.get(slot);
+      for (final Integer id : ids) {
+        final Window window = windows.get(id);
+        ranking.remove(window);
+        window.total -= window.counts[slot];
+        window.counts[slot] = 0;
+        if (window.total == 0) {
+          windows.remove(id);
+        } else {
+          ranking.add(window);
+        }
+      }
+      ids.clear();
+    }
+    if (now > currentBucket) {
+      currentBucket = now;
+    }
+  }
+
+  private int slot(final long bucket) {
+    return (int) Math.floorMod(bucket, (long) bucketCount);
+  }
+
+  /** Per-book ring buffer of bucket counts. */
+  private static final class Window {
+    /** The book. */
+    private final int bookId;
+
+    /** Checkouts per bucket slot. */
+    private final int[] counts;
+
+    /** Sum of {@link #counts}. */
+    private int total;
+
+    private Window(final int bookId, final int buckets) {
+      this.bookId = bookId;
+      this.counts = new int[buckets];
+    }
+  }
+}
@@ -0,0 +1,266 @@
+package dev.coms4156.project.individualproject.service;
+
+import dev.coms4156.project.individualproject.model.Book;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multi-version view of the catalogue used for consistent full scans.
+ *
+ * <p>Every committed write gets the next value of a logical clock and prepends an immutable
+ * copy of the written book(s) to that id's version chain. A reader opens a
+ * {@link CatalogueSnapshot} at the current clock and, for every id, sees the newest version
+ * not newer than its snapshot, so a scan never mixes states from different commits.
+ *
+ * <p>Commits and snapshot registration take a short monitor (a clock bump and pointer
+ * updates); scans themselves hold no lock, so long scans never block checkouts.
+ * Superseded versions are pruned as soon as no open snapshot can reach them: on the next
+ * write to the same id, and when the oldest snapshot is closed.
+ */
+public class VersionedCatalogue {
+
+  /** Serializes commits with snapshot registration. */
+  private final Object commitLock = new Object();
+
+  /** Version of the latest commit; guarded by {@link #commitLock}. */
+  private long clock;
+
+  /** Newest version per id. */
+  private final ConcurrentNavigableMap<Integer, Version> heads = new ConcurrentSkipListMap<>();
+
+  /** Open snapshot versions with their reference counts; guarded by {@link #commitLock}. */
+  private final ConcurrentNavigableMap<Long, AtomicInteger> readers =
+      new ConcurrentSkipListMap<>();
+
+  /** Ids whose chains may still hold superseded versions. */
+  private final Queue<Integer> retained = new ConcurrentLinkedQueue<>();
+
+  /** Number of superseded versions currently reachable from the chains. */
+  private final AtomicInteger retainedVersions = new AtomicInteger();
+
+  /**
+   * Commits a new version of {@code book}.
+   *
+   * @param book the current state; an immutable copy is stored
+   */
+  public void publish(final Book book) {
+    publishAll(Collections.singletonList(book));
+  }
+
+  /**
+   * Commits new versions of several books atomically: a snapshot sees all of them or none.
+   *
+   * @param books the current states; immutable copies are stored
+   */
+  public void publishAll(final Collection<Book> books) {
+    commit(books, Collections.emptyList());
+  }
+
+  /**
+   * Commits new versions of several books and the removal of others atomically: a snapshot
+   * sees the whole change or none of it.
+   *
+   * @param books the current states; immutable copies are stored
+   * @param removedIds ids to remove; unknown ids are ignored
+   */
+  public void commit(final Collection<Book> books, final Collection<Integer> removedIds) {
+    synchronized (commitLock) {
+      final long version = ++clock;
+      final long horizon = horizon();
+      for (final Book book : books) {
+        install(book.getId(), new Book(book), version, horizon);
+      }
+      for (final Integer id : removedIds) {
+        if (heads.containsKey(id)) {
+          install(id, null, version, horizon);
+        }
+      }
+    }
+  }
+
+  /**
+   * Commits the removal of a book.
+   *
+   * @param id the removed id
+   */
+  @SuppressWarnings("PMD.ShortVariable")
+  public void remove(final int id) {
+    synchronized (commitLock) {
+      if (heads.containsKey(id)) {
+        install(id, null, ++clock, horizon());
+      }
+    }
+  }
+
+  /**
+   * Opens a point-in-time view of the catalogue. Callers must close it, ideally with
+   * try-with-resources, so that superseded versions can be reclaimed.
+   *
+   * @return the snapshot
+   */
+  public CatalogueSnapshot openSnapshot() {
+    final long version;
+    synchronized (commitLock) {
+      version = clock;
+      readers.computeIfAbsent(version, v -> new AtomicInteger()).incrementAndGet();
+    }
+    return new CatalogueSnapshot(this, version);
+  }
+
+  /**
+   * Returns how many superseded versions are still held for open snapshots.
+   *
+   * @return retained version count
+   */
+  public int getRetainedVersionCount() {
+    return retainedVersions.get();
+  }
+
+  /**
+   * Returns how many snapshots are open.
+   *
+   * @return open snapshot count
+   */
+  public int getOpenSnapshotCount() {
+    synchronized (commitLock) {
+      int open = 0;
+      for (final AtomicInteger count : readers.values()) {
+        open += count.get();
+      }
+      return open;
+    }
+  }
+
+  /** Called by {@link CatalogueSnapshot#close()}. */
+  void release(final long version) {
+    synchronized (commitLock) {
+      final AtomicInteger count = readers.get(version);
+      if (count != null && count.decrementAndGet() == 0) {
+        readers.remove(version);
+      }
+      reclaim();
+    }
+  }
+
+  /** Iterates the books visible at {@code version}, in id order. */
+  Iterator<Book> iterator(final long version) {
+    return new SnapshotIterator(heads.values().iterator(), version);
+  }
+
+  /** Oldest version any open or future snapshot can ask for; guarded by commitLock. */
+  private long horizon() {
+    return readers.isEmpty() ? clock : readers.firstKey();
+  }
+
+  @SuppressWarnings("PMD.ShortVariable")
+  private void install(final int id, final Book copy, final long version, final long horizon) {
+    final Version previous = heads.get(id);
+    final Version head = new Version(version, copy, previous);
+    heads.put(id, head);
+    if (previous != null) {
+      retainedVersions.incrementAndGet();
+      prune(id, head, horizon);
+    }
+  }
+
+  /** Drops versions older than the newest one visible at {@code horizon}. */
+  @SuppressWarnings("PMD.ShortVariable")
+  private void prune(final int id, final Version head, final long horizon) {
+    Version keep = head;
+    while (keep.version > horizon && keep.older != null) {
+      keep = keep.older;
+    }
+    int dropped = 0;
+    for (Version v = keep.older; v != null; v = v.older) {
+      dropped++;
+    }
+    keep.older = null;
+    retainedVersions.addAndGet(-dropped);
+    if (head.older != null) {
+      retained.add(id);
+    } else if (head.book == null && keep == head) {
+      heads.remove(id, head);
+    }
+  }
+
+  /** Prunes chains queued in {@link #retained}; guarded by commitLock. */
+  private void reclaim() {
+    final long horizon = horizon();
+    for (int pending = retained.size(); pending > 0; pending--) {
+      final Integer id = retained.poll();
+      if (id == null) {
+        break;
+      }
+      final Version head = heads.get(id);
+      if (head != null) {
+        prune(id, head, horizon);
+      }
+    }
+  }
+
+  /** One committed state of a book; {@code book == null} marks a deletion. */
+  private static final class Version {
+    /** Commit version. */
+    private final long version;
+
+    /** Immutable copy of the book, or null for a tombstone. */
+    private final Book book;
+
+    /** Next older version, or null once pruned. */
+    private volatile Version older;
+
+    private Version(final long version, final Book book, final Version older) {
+      this.version = version;
+      this.book = book;
+      this.older = older;
+    }
+  }
+
+  /** Lazily resolves each chain to the version visible at a snapshot. */
+  private static final class SnapshotIterator implements Iterator<Book> {
+    /** Chains in id order. */
+    private final Iterator<Version> chains;
+
+    /** Snapshot version. */
+    private final long version;
+
+    /** Next visible book, or null if not yet resolved. */
+    private Book next;
+
+    private SnapshotIterator(final Iterator<Version> chains, final long version) {
+      this.chains = chains;
+      this.version = version;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (next == null && chains.hasNext()) {
+        Version candidate = chains.next();
+        while (candidate != null && candidate.version > version) {
+          candidate = candidate.older;
+        }
+        if (candidate != null) {
+          next = candidate.book;
+        }
+      }
+      return next != null;
+    }
+
+    @Override
+    public Book next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final Book result = next;
+      next = null;
+      return result;
+    }
+  }
+}
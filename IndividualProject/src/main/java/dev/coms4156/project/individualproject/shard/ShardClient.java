@@ -0,0 +1,257 @@
+package dev.coms4156.project.individualproject.shard;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * HTTP calls from one shard to the others.
+ *
+ * <p>Every call carries {@value #LOCAL_HEADER}, which tells the receiving shard to serve the
+ * request from its own slice of the catalogue rather than route it again. Uses
+ * {@link HttpClient} rather than {@code HttpURLConnection}, which cannot send {@code PATCH}.
+ */
+public class ShardClient {
+
+  /** Request header marking a call that must be served by the receiving shard itself. */
+  public static final String LOCAL_HEADER = "X-Shard-Local";
+
+  /** Response header naming the index of the shard that served a forwarded request. */
+  public static final String OWNER_HEADER = "X-Shard-Owner";
+
+  /** Logger for this client. */
+  private static final Logger LOG = LoggerFactory.getLogger(ShardClient.class);
+
+  /** Request headers passed on when forwarding. */
+  private static final List<String> FORWARDED_REQUEST_HEADERS =
+      List.of(HttpHeaders.ACCEPT, HttpHeaders.CONTENT_TYPE);
+
+  /** Response headers that describe the hop rather than the content; never copied back. */
+  private static final Set<String> HOP_HEADERS = Set.of("connection", "content-length",
+      "date", "keep-alive", "transfer-encoding");
+
+  /** Shared client; pools connections to every shard. */
+  private final HttpClient http;
+
+  /** Longest wait for a shard's response. */
+  private final Duration timeout;
+
+  /**
+   * Creates a client.
+   *
+   * @param timeout connect timeout, and the longest wait for each response
+   */
+  public ShardClient(final Duration timeout) {
+    this.timeout = timeout;
+    this.http = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(timeout)
+        .build();
+  }
+
+  /**
+   * Replays {@code request} against the shard at {@code node} and copies the answer,
+   * status, headers and body, into {@code response}.
+   *
+   * @param node base URI of the owning shard
+   * @param owner index of that shard, reported in {@value #OWNER_HEADER}
+   * @param request the request to forward; its body is read
+   * @param response receives the shard's answer
+   * @throws IOException if the shard cannot be reached or does not answer in time
+   */
+  public void forward(final URI node, final int owner, final HttpServletRequest request,
+                      final HttpServletResponse response) throws IOException {
+    final String query = request.getQueryString();
+    final String path = request.getRequestURI().substring(request.getContextPath().length());
+    final HttpRequest.Builder builder = HttpRequest.newBuilder(
+            resolve(node, query == null ? path : path + "?" + query))
+        .timeout(timeout)
+        .header(LOCAL_HEADER, "true")
+        .method(request.getMethod(),
+            HttpRequest.BodyPublishers.ofByteArray(request.getInputStream().readAllBytes()));
+    for (final String name : FORWARDED_REQUEST_HEADERS) {
+      final String value = request.getHeader(name);
+      if (value != null) {
+        builder.header(name, value);
+      }
+    }
+    final HttpResponse<byte[]> answer = send(builder.build());
+    response.setStatus(answer.statusCode());
+    for (final Map.Entry<String, List<String>> header : answer.headers().map().entrySet()) {
+      if (!HOP_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+        for (final String value : header.getValue()) {
+          response.addHeader(header.getKey(), value);
+        }
+      }
+    }
+    response.setHeader(OWNER_HEADER, Integer.toString(owner));
+    response.setContentLength(answer.body().length);
+    try (OutputStream out = response.getOutputStream()) {
+      out.write(answer.body());
+    }
+  }
+
+  /**
+   * Sends {@code GET pathAndQuery} to every node at once, asking for JSON.
+   *
+   * @param nodes base URIs of the shards
+   * @param pathAndQuery absolute path, with query string if any
+   * @return the responses, in the order of {@code nodes}
+   * @throws IOException if any shard cannot be reached or does not answer in time
+   */
+  public List<HttpResponse<byte[]>> gather(final List<URI> nodes, final String pathAndQuery)
+      throws IOException {
+    return sendAll(nodes, gets(nodes, pathAndQuery), HttpResponse.BodyHandlers.ofByteArray());
+  }
+
+  /**
+   * Sends {@code POST pathAndQuery} to every node at once, each with its own body read from a
+   * file, asking for JSON.
+   *
+   * @param nodes base URIs of the shards
+   * @param pathAndQuery absolute path, with query string if any
+   * @param contentType content type of the bodies, or null
+   * @param bodies one body file per node, in the order of {@code nodes}
+   * @return the responses, in the order of {@code nodes}
+   * @throws IOException if a body cannot be read, or any shard cannot be reached or does not
+   *     answer in time
+   */
+  public List<HttpResponse<byte[]>> postAll(final List<URI> nodes, final String pathAndQuery,
+                                            final String contentType, final List<Path> bodies)
+      throws IOException {
+    final List<HttpRequest> requests = new ArrayList<>(nodes.size());
+    for (int i = 0; i < nodes.size(); i++) {
+      final HttpRequest.Builder builder = HttpRequest.newBuilder(
+              resolve(nodes.get(i), pathAndQuery))
+          .timeout(timeout)
+          .header(LOCAL_HEADER, "true")
+          .header(HttpHeaders.ACCEPT, "application/json")
+          .POST(HttpRequest.BodyPublishers.ofFile(bodies.get(i)));
+      if (contentType != null) {
+        builder.header(HttpHeaders.CONTENT_TYPE, contentType);
+      }
+      requests.add(builder.build());
+    }
+    return sendAll(nodes, requests, HttpResponse.BodyHandlers.ofByteArray());
+  }
+
+  /**
+   * Sends {@code GET pathAndQuery} to every node at once and returns as soon as each has sent
+   * its headers, leaving the bodies to be read in turn. The caller must close every body.
+   *
+   * @param nodes base URIs of the shards
+   * @param pathAndQuery absolute path, with query string if any
+   * @return the responses, in the order of {@code nodes}
+   * @throws IOException if any shard cannot be reached or does not answer in time; every
+   *     body opened is then closed
+   */
+  public List<HttpResponse<InputStream>> open(final List<URI> nodes, final String pathAndQuery)
+      throws IOException {
+    return sendAll(nodes, gets(nodes, pathAndQuery), HttpResponse.BodyHandlers.ofInputStream());
+  }
+
+  /**
+   * Sends {@code GET pathAndQuery} to one node, asking for JSON.
+   *
+   * @param node base URI of the shard
+   * @param pathAndQuery absolute path, with query string if any
+   * @return the response
+   * @throws IOException if the shard cannot be reached or does not answer in time
+   */
+  public HttpResponse<byte[]> get(final URI node, final String pathAndQuery) throws IOException {
+    return send(localGet(node, pathAndQuery));
+  }
+
+  private List<HttpRequest> gets(final List<URI> nodes, final String pathAndQuery) {
+    final List<HttpRequest> requests = new ArrayList<>(nodes.size());
+    for (final URI node : nodes) {
+      requests.add(localGet(node, pathAndQuery));
+    }
+    return requests;
+  }
+
+  /** Sends {@code requests}, one per node, at once and waits for every answer. */
+  private <T> List<HttpResponse<T>> sendAll(final List<URI> nodes,
+                                            final List<HttpRequest> requests,
+                                            final HttpResponse.BodyHandler<T> handler)
+      throws IOException {
+    final List<CompletableFuture<HttpResponse<T>>> pending = new ArrayList<>(nodes.size());
+    for (final HttpRequest request : requests) {
+      pending.add(http.sendAsync(request, handler));
+    }
+    final List<HttpResponse<T>> answers = new ArrayList<>(nodes.size());
+    for (int i = 0; i < pending.size(); i++) {
+      try {
+        answers.add(pending.get(i).get());
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        discard(pending);
+        throw new InterruptedIOException("Interrupted while waiting for " + nodes.get(i));
+      } catch (final ExecutionException e) {
+        discard(pending);
+        throw new IOException("Shard " + nodes.get(i) + " is unavailable", e.getCause());
+      }
+    }
+    return answers;
+  }
+
+  /** Closes the streamed bodies of answers that arrived, or will arrive, after a failure. */
+  private static <T> void discard(final List<CompletableFuture<HttpResponse<T>>> pending) {
+    for (final CompletableFuture<HttpResponse<T>> answer : pending) {
+      answer.thenAccept(unread -> {
+        if (unread.body() instanceof Closeable) {
+          try {
+            ((Closeable) unread.body()).close();
+          } catch (final IOException e) {
+            LOG.debug("Failed to close an unread shard answer", e);
+          }
+        }
+      });
+    }
+  }
+
+  private HttpRequest localGet(final URI node, final String pathAndQuery) {
+    return HttpRequest.newBuilder(resolve(node, pathAndQuery))
+        .timeout(timeout)
+        .header(LOCAL_HEADER, "true")
+        .header(HttpHeaders.ACCEPT, "application/json")
+        .GET()
+        .build();
+  }
+
+  private HttpResponse<byte[]> send(final HttpRequest request) throws IOException {
+    try {
+      return http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for " + request.uri());
+    }
+  }
+
+  /** Appends an absolute request path to a base URI, keeping any context path it has. */
+  static URI resolve(final URI node, final String pathAndQuery) {
+    final String base = node.toString();
+    return URI.create((base.endsWith("/") ? base.substring(0, base.length() - 1) : base)
+        + pathAndQuery);
+  }
+}
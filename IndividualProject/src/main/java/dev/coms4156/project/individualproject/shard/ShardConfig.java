@@ -0,0 +1,45 @@
+package dev.coms4156.project.individualproject.shard;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Runs this process as one shard of an id-partitioned catalogue when {@code shard.nodes} is
+ * set. Every shard keeps only the books the {@link ShardRing} assigns to it, and
+ * {@link ShardRoutingFilter} sends each request to the shard or shards that can answer it.
+ */
+@Configuration
+@ConditionalOnExpression("!'${shard.nodes:}'.isEmpty()")
+public class ShardConfig {
+
+  /**
+   * Creates the ring.
+   *
+   * @param nodes base URIs of all shards, in the same order on every node
+   * @param self index of this process in {@code nodes}
+   * @param virtualNodes ring points per shard
+   * @return the ring
+   */
+  @Bean
+  public ShardRing shardRing(@Value("${shard.nodes}") final List<URI> nodes,
+      @Value("${shard.self:0}") final int self,
+      @Value("${shard.virtual-nodes:128}") final int virtualNodes) {
+    return new ShardRing(nodes, self, virtualNodes);
+  }
+
+  /**
+   * Creates the client for calls to the other shards.
+   *
+   * @param timeout connect timeout, and the longest wait for each response
+   * @return the client
+   */
+  @Bean
+  public ShardClient shardClient(@Value("${shard.timeout:2s}") final Duration timeout) {
+    return new ShardClient(timeout);
+  }
+}
@@ -0,0 +1,127 @@
+package dev.coms4156.project.individualproject.shard;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Consistent-hash ring that assigns every book id to one shard.
+ *
+ * <p>Each shard is placed on the ring at {@code virtualNodes} points derived from its base URI,
+ * and a book belongs to the first point at or after the hash of its id. Points depend only on
+ * the shard's own URI, so adding or removing a shard moves only the ids on the arcs it gains
+ * or loses (about {@code 1/n} of the catalogue) and every other book stays where it was. Ids
+ * are hashed rather than used directly, so sequential ids spread evenly.
+ *
+ * <p>Immutable; every node must be configured with the same list of shards.
+ */
+public final class ShardRing {
+
+  /** Base URIs of the shards, by index. */
+  private final List<URI> nodes;
+
+  /** Index of this process in {@link #nodes}. */
+  private final int self;
+
+  /** Ring positions, ascending. */
+  private final long[] points;
+
+  /** Shard index owning each position in {@link #points}. */
+  private final int[] owners;
+
+  /**
+   * Builds the ring.
+   *
+   * @param nodes base URIs of all shards, in the same order on every node
+   * @param self index of this process in {@code nodes}
+   * @param virtualNodes ring points per shard; more points even out the shard sizes
+   * @throws IllegalArgumentException if {@code nodes} is empty or has duplicates, or if
+   *     {@code self} or {@code virtualNodes} is out of range
+   */
+  public ShardRing(final List<URI> nodes, final int self, final int virtualNodes) {
+    if (nodes.isEmpty() || nodes.stream().distinct().count() != nodes.size()) {
+      throw new IllegalArgumentException("shard.nodes must list distinct base URIs");
+    }
+    if (self < 0 || self >= nodes.size()) {
+      throw new IllegalArgumentException(
+          "shard.self must be between 0 and " + (nodes.size() - 1) + ", was " + self);
+    }
+    if (virtualNodes < 1) {
+      throw new IllegalArgumentException("shard.virtual-nodes must be positive");
+    }
+    this.nodes = List.copyOf(nodes);
+    this.self = self;
+    final long[][] placed = new long[nodes.size() * virtualNodes][];
+    int next = 0;
+    for (int shard = 0; shard < nodes.size(); shard++) {
+      // String.hashCode() is specified, so every node derives the same points.
+      final long seed = mix(nodes.get(shard).toString().hashCode());
+      for (int replica = 0; replica < virtualNodes; replica++) {
+        placed[next++] = new long[] {mix(seed + replica * 0x9E3779B97F4A7C15L), shard};
+      }
+    }
+    // Ties (vanishingly rare) go to the lower index, so every node builds the same ring.
+    Arrays.sort(placed, (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0])
+        : Long.compare(a[1], b[1]));
+    this.points = new long[placed.length];
+    this.owners = new int[placed.length];
+    for (int i = 0; i < placed.length; i++) {
+      points[i] = placed[i][0];
+      owners[i] = (int) placed[i][1];
+    }
+  }
+
+  /**
+   * Returns the index of the shard that owns {@code bookId}.
+   *
+   * @param bookId the book id
+   * @return shard index
+   */
+  public int ownerOf(final int bookId) {
+    final long hash = mix(bookId);
+    int at = Arrays.binarySearch(points, hash);
+    if (at < 0) {
+      at = -at - 1;
+    }
+    return owners[at == points.length ? 0 : at];
+  }
+
+  /**
+   * Tells whether this process owns {@code bookId}.
+   *
+   * @param bookId the book id
+   * @return true if the book belongs to this shard
+   */
+  public boolean isLocal(final int bookId) {
+    return ownerOf(bookId) == self;
+  }
+
+  /**
+   * Returns the base URI of a shard.
+   *
+   * @param index shard index
+   * @return its base URI
+   */
+  public URI node(final int index) {
+    return nodes.get(index);
+  }
+
+  public List<URI> getNodes() {
+    return nodes;
+  }
+
+  public int getSelf() {
+    return self;
+  }
+
+  /** MurmurHash3's 64-bit finalizer: every input bit affects every output bit. */
+  private static long mix(final long value) {
+    long hash = value;
+    hash ^= hash >>> 33;
+    hash *= 0xFF51AFD7ED558CCDL;
+    hash ^= hash >>> 33;
+    hash *= 0xC4CEB9FE1A85EC53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
@@ -0,0 +1,631 @@
+package dev.coms4156.project.individualproject.shard;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.coms4156.project.individualproject.model.ImportReport;
+import dev.coms4156.project.individualproject.service.BookSort;
+import dev.coms4156.project.individualproject.service.ExportFormat;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Routes requests across the shards of an id-partitioned catalogue (see {@link ShardRing}).
+ *
+ * <p>Requests about one book, {@code /book/{id}}, {@code /book/{id}/add},
+ * {@code /book/{id}/also-borrowed}, {@code PATCH /checkout?id=} and {@code PATCH /return?id=},
+ * are served here if this shard owns the book and otherwise forwarded unchanged to the owner,
+ * whose answer is relayed as is. Catalogue-wide reads are scattered to every shard, this one
+ * included, and gathered:
+ * <ul>
+ *   <li>{@code /books}: every shard's page from the same cursor, merged in the requested order
+ *       and cut to {@code limit}. Cursors are positions in that order rather than in one
+ *       shard's slice, so the merged pages are exactly those of an unsharded catalogue;</li>
+ *   <li>{@code /books/available}: the union, in id order;</li>
+ *   <li>{@code /books/trending}: the shards' top lists merged by window count. Each book's
+ *       checkouts are all counted by its owner, so the merged top N is exact;</li>
+ *   <li>{@code /books/recommendation}: the five most checked out of the shards' candidates,
+ *       which always include the global top five, and five random picks from the rest.</li>
+ *   <li>{@code /books/export}: every shard's dump in turn, streamed without buffering. Each
+ *       part is a consistent snapshot of its shard, taken as the request starts; a CSV header
+ *       is sent once.</li>
+ * </ul>
+ * If any shard answers a scattered request with an error, that answer is relayed; if one
+ * cannot be reached, the request fails with {@code 502 Bad Gateway}.
+ *
+ * <p>An availability stream is long-lived, so it is redirected ({@code 307}) to the shard
+ * that owns the books it watches rather than relayed; a stream of books held by different
+ * shards is refused with {@code 400}, as one stream per shard is needed. An import sent to any
+ * shard is split by owner, each shard imports its own part, and the reports are merged. Other
+ * endpoints serve this shard only. "Also borrowed" statistics only relate books held by the
+ * same shard.
+ *
+ * <p>Runs ahead of admission control, so that a book's token buckets live on its owner.
+ * Enabled by setting {@code shard.nodes}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+@ConditionalOnExpression("!'${shard.nodes:}'.isEmpty()")
+public class ShardRoutingFilter extends OncePerRequestFilter {
+
+  /** Logger for this filter. */
+  private static final Logger LOG = LoggerFactory.getLogger(ShardRoutingFilter.class);
+
+  /** Parses the shards' JSON answers. */
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  /** Path prefix of the single-book endpoints. */
+  private static final String BOOK_PREFIX = "/book/";
+
+  /** Path of the availability streams. */
+  private static final String STREAM_PATH = "/books/availability/stream";
+
+  /** Path of bulk imports. */
+  private static final String IMPORT_PATH = "/books/import";
+
+  /** Size of a recommendation list, and the least books a shard needs to compute one. */
+  private static final int RECOMMENDATIONS = 10;
+
+  /** Picks in a recommendation list chosen by popularity. */
+  private static final int POPULAR_PICKS = 5;
+
+  /** Default {@code limit} of {@code /books/trending}. */
+  private static final int DEFAULT_TRENDING = 10;
+
+  /** Default {@code limit} of {@code /books}. */
+  private static final int DEFAULT_PAGE = 50;
+
+  /** Orders gathered books by id. */
+  private static final Comparator<JsonNode> BY_ID =
+      Comparator.comparingInt(book -> book.path("id").asInt());
+
+  /** Orders gathered books like {@code PopularityIndex}: most checked out first, then id. */
+  private static final Comparator<JsonNode> BY_POPULARITY =
+      Comparator.comparingInt((JsonNode book) -> -book.path("amountOfTimesCheckedOut").asInt())
+          .thenComparing(BY_ID);
+
+  /** Orders gathered trending titles like {@code TrendingTracker}: count, then id. */
+  private static final Comparator<JsonNode> BY_TRENDING =
+      Comparator.comparingInt((JsonNode title) -> -title.path("checkouts").asInt())
+          .thenComparingInt(title -> title.path("book").path("id").asInt());
+
+  /** Ownership of book ids. */
+  private final ShardRing ring;
+
+  /** Calls to the other shards. */
+  private final ShardClient client;
+
+  /** Renders gathered results in the format the caller accepts. */
+  private final HttpMessageConverters converters;
+
+  /**
+   * Creates the filter.
+   *
+   * @param ring ownership of book ids
+   * @param client calls to the other shards
+   * @param converters MVC's message converters
+   */
+  public ShardRoutingFilter(final ShardRing ring, final ShardClient client,
+                            final HttpMessageConverters converters) {
+    super();
+    this.ring = ring;
+    this.client = client;
+    this.converters = converters;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(final HttpServletRequest request) {
+    return request.getHeader(ShardClient.LOCAL_HEADER) != null
+        || bookIdOf(request) == null && !isStream(request) && !isImport(request)
+        && gatherer(request) == null;
+  }
+
+  @Override
+  protected void doFilterInternal(final HttpServletRequest request,
+                                  final HttpServletResponse response,
+                                  final FilterChain filterChain)
+      throws ServletException, IOException {
+    final Integer bookId = bookIdOf(request);
+    try {
+      if (bookId == null && isStream(request)) {
+        routeStream(request, response, filterChain);
+      } else if (bookId == null && isImport(request)) {
+        routeImport(request, response);
+      } else if (bookId == null) {
+        gatherer(request).gather(request, response);
+      } else if (ring.isLocal(bookId)) {
+        filterChain.doFilter(request, response);
+      } else {
+        final int owner = ring.ownerOf(bookId);
+        client.forward(ring.node(owner), owner, request, response);
+      }
+    } catch (final IOException e) {
+      if (response.isCommitted()) {
+        throw e;
+      }
+      LOG.warn("Shard request {} {} failed", request.getMethod(), request.getRequestURI(), e);
+      writeText(response, HttpStatus.BAD_GATEWAY, "A catalogue shard is unavailable.");
+    }
+  }
+
+  /**
+   * Serves a stream here if this shard owns every watched book, redirects it to the owner if
+   * another shard does, and refuses it if they are spread over several. Id lists the
+   * controller would reject are left to it.
+   */
+  private void routeStream(final HttpServletRequest request, final HttpServletResponse response,
+                           final FilterChain filterChain) throws ServletException, IOException {
+    final Set<Integer> owners = new TreeSet<>();
+    final String[] values = request.getParameterValues("ids");
+    for (final String value : values == null ? new String[0] : values) {
+      for (final String raw : value.split(",")) {
+        try {
+          if (!raw.isBlank()) {
+            owners.add(ring.ownerOf(Integer.parseInt(raw.trim())));
+          }
+        } catch (final NumberFormatException e) {
+          filterChain.doFilter(request, response);
+          return;
+        }
+      }
+    }
+    if (owners.size() > 1) {
+      writeText(response, HttpStatus.BAD_REQUEST, "The books are held by shards " + owners
+          + "; open one stream per shard.");
+    } else if (owners.isEmpty() || owners.contains(ring.getSelf())) {
+      filterChain.doFilter(request, response);
+    } else {
+      final int owner = owners.iterator().next();
+      response.setStatus(HttpStatus.TEMPORARY_REDIRECT.value());
+      response.setHeader(HttpHeaders.LOCATION,
+          ShardClient.resolve(ring.node(owner), pathAndQuery(request)).toString());
+      response.setHeader(ShardClient.OWNER_HEADER, Integer.toString(owner));
+    }
+  }
+
+  /**
+   * Merges every shard's page after the same cursor. A shard that has more books than it
+   * returned, or more books than fit on the merged page, means there is a next page, which
+   * starts after the last book kept.
+   */
+  private void gatherPage(final HttpServletRequest request,
+                          final HttpServletResponse response) throws IOException {
+    final List<JsonNode> books = new ArrayList<>();
+    boolean more = false;
+    for (final HttpResponse<byte[]> answer : client.gather(ring.getNodes(),
+        pathAndQuery(request))) {
+      if (answer.statusCode() != HttpStatus.OK.value()) {
+        relay(answer, response);
+        return;
+      }
+      final JsonNode page = MAPPER.readTree(answer.body());
+      page.path("books").forEach(books::add);
+      more |= page.hasNonNull("nextCursor");
+    }
+    // Every shard has accepted the parameters.
+    final String sortParameter = request.getParameter("sort");
+    final BookSort sort = BookSort.fromParameter(sortParameter == null ? "id" : sortParameter);
+    books.sort(sort == BookSort.POPULARITY ? BY_POPULARITY : BY_ID);
+    final int limit = parseLimit(request.getParameter("limit"), DEFAULT_PAGE);
+    more |= books.size() > limit;
+    final List<JsonNode> kept = books.subList(0, Math.min(limit, books.size()));
+    final ObjectNode page = MAPPER.createObjectNode();
+    page.putArray("books").addAll(kept);
+    if (more && !kept.isEmpty()) {
+      final JsonNode last = kept.get(kept.size() - 1);
+      page.put("nextCursor", sort.cursorAfter(last.path("id").asInt(),
+          last.path("amountOfTimesCheckedOut").asInt()));
+    } else {
+      page.putNull("nextCursor");
+    }
+    write(request, response, page);
+  }
+
+  /**
+   * Splits an NDJSON import by owner, sends every shard its part at once and merges their
+   * reports. Each part keeps the body's line numbering: lines owned elsewhere are sent as
+   * blank lines, which an import skips, so every reported line number refers to the original
+   * body. Lines without a readable id go to this shard, which reports them. Parts are spooled
+   * to temporary files, so memory use does not grow with the import. If a shard answers with
+   * an error, that answer is relayed; the other shards may have committed their parts.
+   */
+  private void routeImport(final HttpServletRequest request,
+                           final HttpServletResponse response) throws IOException {
+    final List<URI> nodes = ring.getNodes();
+    final List<Path> parts = new ArrayList<>(nodes.size());
+    try {
+      for (int shard = 0; shard < nodes.size(); shard++) {
+        parts.add(Files.createTempFile("import-" + shard + "-", ".ndjson"));
+      }
+      splitImport(request, parts);
+      final List<HttpResponse<byte[]>> answers =
+          client.postAll(nodes, pathAndQuery(request), request.getContentType(), parts);
+      for (final HttpResponse<byte[]> answer : answers) {
+        if (answer.statusCode() != HttpStatus.OK.value()) {
+          relay(answer, response);
+          return;
+        }
+      }
+      write(request, response, mergeReports(answers));
+    } finally {
+      for (final Path part : parts) {
+        Files.deleteIfExists(part);
+      }
+    }
+  }
+
+  /** Writes every line of the request body to its owner's part and a blank line to the rest. */
+  private void splitImport(final HttpServletRequest request, final List<Path> parts)
+      throws IOException {
+    final List<Writer> writers = new ArrayList<>(parts.size());
+    try {
+      for (final Path part : parts) {
+        writers.add(Files.newBufferedWriter(part, StandardCharsets.UTF_8));
+      }
+      final BufferedReader reader = new BufferedReader(
+          new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+      for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+        final int owner = line.isBlank() ? -1 : ownerOfRecord(line);
+        for (int shard = 0; shard < writers.size(); shard++) {
+          if (shard == owner) {
+            writers.get(shard).write(line);
+          }
+          writers.get(shard).write('\n');
+        }
+      }
+    } finally {
+      for (final Writer writer : writers) {
+        writer.close();
+      }
+    }
+  }
+
+  /** Returns the shard owning an import record, or this shard if it has no readable id. */
+  private int ownerOfRecord(final String line) {
+    try {
+      final JsonNode bookId = MAPPER.readTree(line).path("id");
+      return bookId.isIntegralNumber() && bookId.canConvertToInt()
+          ? ring.ownerOf(bookId.intValue()) : ring.getSelf();
+    } catch (final JsonProcessingException e) {
+      return ring.getSelf();
+    }
+  }
+
+  /**
+   * Adds up the shards' import reports. Errors are merged in line order and batches listed
+   * shard by shard, each tagged with its shard, both capped as in a single report.
+   */
+  private static ObjectNode mergeReports(final List<HttpResponse<byte[]>> answers)
+      throws IOException {
+    long created = 0;
+    long updated = 0;
+    long failed = 0;
+    long batchCount = 0;
+    double elapsedMillis = 0;
+    double slowestBatchMillis = 0;
+    final ArrayNode batches = MAPPER.createArrayNode();
+    final List<JsonNode> errors = new ArrayList<>();
+    for (int shard = 0; shard < answers.size(); shard++) {
+      final JsonNode report = MAPPER.readTree(answers.get(shard).body());
+      created += report.path("created").asLong();
+      updated += report.path("updated").asLong();
+      failed += report.path("failed").asLong();
+      batchCount += report.path("batchCount").asLong();
+      elapsedMillis += report.path("elapsedMillis").asDouble();
+      slowestBatchMillis = Math.max(slowestBatchMillis,
+          report.path("slowestBatchMillis").asDouble());
+      for (final JsonNode batch : report.path("batches")) {
+        if (batches.size() < ImportReport.MAX_BATCHES) {
+          batches.add(((ObjectNode) batch.deepCopy()).put("shard", shard));
+        }
+      }
+      report.path("errors").forEach(errors::add);
+    }
+    errors.sort(Comparator.comparingLong(error -> error.path("line").asLong()));
+    final ObjectNode merged = MAPPER.createObjectNode();
+    merged.put("created", created);
+    merged.put("updated", updated);
+    merged.put("failed", failed);
+    merged.put("batchCount", batchCount);
+    merged.put("elapsedMillis", elapsedMillis);
+    merged.put("slowestBatchMillis", slowestBatchMillis);
+    merged.put("recordsPerSecond", elapsedMillis <= 0 ? 0
+        : (created + updated + failed) * 1000.0 / elapsedMillis);
+    merged.set("batches", batches);
+    merged.putArray("errors")
+        .addAll(errors.subList(0, Math.min(ImportReport.MAX_ERRORS, errors.size())));
+    return merged;
+  }
+
+  /**
+   * Streams every shard's gzip dump in turn. Concatenated gzip members form one valid gzip
+   * file; for CSV, the parts after the first are recompressed without their header row.
+   */
+  private void gatherExport(final HttpServletRequest request,
+                            final HttpServletResponse response) throws IOException {
+    final List<HttpResponse<InputStream>> parts =
+        client.open(ring.getNodes(), pathAndQuery(request));
+    try {
+      for (final HttpResponse<InputStream> part : parts) {
+        if (part.statusCode() != HttpStatus.OK.value()) {
+          response.setStatus(part.statusCode());
+          part.headers().firstValue(HttpHeaders.CONTENT_TYPE).ifPresent(response::setContentType);
+          part.body().transferTo(response.getOutputStream());
+          return;
+        }
+      }
+      final HttpHeaders headers = new HttpHeaders();
+      parts.get(0).headers().map().forEach(headers::addAll);
+      response.setStatus(HttpStatus.OK.value());
+      response.setContentType(headers.getFirst(HttpHeaders.CONTENT_TYPE));
+      response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+          headers.getFirst(HttpHeaders.CONTENT_DISPOSITION));
+      // Every shard has accepted the format.
+      final String format = request.getParameter("format");
+      final boolean csv =
+          format != null && ExportFormat.fromParameter(format) == ExportFormat.CSV;
+      final OutputStream out = response.getOutputStream();
+      for (int shard = 0; shard < parts.size(); shard++) {
+        if (csv && shard > 0) {
+          appendWithoutHeader(parts.get(shard).body(), out);
+        } else {
+          parts.get(shard).body().transferTo(out);
+        }
+        out.flush();
+      }
+    } finally {
+      for (final HttpResponse<InputStream> part : parts) {
+        part.body().close();
+      }
+    }
+  }
+
+  /** Copies a gzip stream as a new gzip member without its first line. */
+  private static void appendWithoutHeader(final InputStream gzip, final OutputStream out)
+      throws IOException {
+    try (InputStream in = new GZIPInputStream(gzip);
+         OutputStream member = new GZIPOutputStream(StreamUtils.nonClosing(out))) {
+      int next = in.read();
+      while (next >= 0 && next != '\n') {
+        next = in.read();
+      }
+      in.transferTo(member);
+    }
+  }
+
+  private void gatherAvailable(final HttpServletRequest request,
+                               final HttpServletResponse response) throws IOException {
+    final List<JsonNode> books = new ArrayList<>();
+    if (collect(request, response, books)) {
+      books.sort(BY_ID);
+      write(request, response, books);
+    }
+  }
+
+  private void gatherTrending(final HttpServletRequest request,
+                              final HttpServletResponse response) throws IOException {
+    final List<JsonNode> titles = new ArrayList<>();
+    if (collect(request, response, titles)) {
+      titles.sort(BY_TRENDING);
+      final int limit = parseLimit(request.getParameter("limit"), DEFAULT_TRENDING);
+      write(request, response, titles.subList(0, Math.min(limit, titles.size())));
+    }
+  }
+
+  /**
+   * Each shard with at least ten books answers with its own top five and five random picks;
+   * smaller shards contribute every book they hold. The global top five are among those
+   * candidates, so the popular half is exact; the random half is drawn from the rest of the
+   * candidates rather than from the whole catalogue.
+   */
+  private void gatherRecommendations(final HttpServletRequest request,
+                                     final HttpServletResponse response) throws IOException {
+    final List<HttpResponse<byte[]>> answers =
+        client.gather(ring.getNodes(), pathAndQuery(request));
+    final Map<Integer, JsonNode> candidates = new LinkedHashMap<>();
+    for (int shard = 0; shard < answers.size(); shard++) {
+      HttpResponse<byte[]> answer = answers.get(shard);
+      JsonNode books = null;
+      if (answer.statusCode() == HttpStatus.BAD_REQUEST.value()) {
+        // Too few books for a local recommendation; a single page holds them all.
+        answer = client.get(ring.node(shard), "/books?limit=" + RECOMMENDATIONS);
+        books = answer.statusCode() == HttpStatus.OK.value()
+            ? MAPPER.readTree(answer.body()).path("books") : null;
+      } else if (answer.statusCode() == HttpStatus.OK.value()) {
+        books = MAPPER.readTree(answer.body());
+      }
+      if (books == null) {
+        relay(answer, response);
+        return;
+      }
+      for (final JsonNode book : books) {
+        candidates.putIfAbsent(book.path("id").asInt(), book);
+      }
+    }
+    if (candidates.size() < RECOMMENDATIONS) {
+      writeText(response, HttpStatus.BAD_REQUEST,
+          "Not enough books to generate 10 recommendations.");
+      return;
+    }
+    final List<JsonNode> pool = new ArrayList<>(candidates.values());
+    pool.sort(BY_POPULARITY);
+    final List<JsonNode> recommendations = new ArrayList<>(pool.subList(0, POPULAR_PICKS));
+    final List<JsonNode> remaining = new ArrayList<>(pool.subList(POPULAR_PICKS, pool.size()));
+    Collections.shuffle(remaining);
+    recommendations.addAll(remaining.subList(0, RECOMMENDATIONS - POPULAR_PICKS));
+    write(request, response, recommendations);
+  }
+
+  /**
+   * Scatters the request and adds the elements of every shard's JSON array to {@code into}.
+   *
+   * @return false if a shard answered with an error, which has then been relayed
+   */
+  private boolean collect(final HttpServletRequest request, final HttpServletResponse response,
+                          final List<JsonNode> into) throws IOException {
+    for (final HttpResponse<byte[]> answer : client.gather(ring.getNodes(),
+        pathAndQuery(request))) {
+      if (answer.statusCode() != HttpStatus.OK.value()) {
+        relay(answer, response);
+        return false;
+      }
+      MAPPER.readTree(answer.body()).forEach(into::add);
+    }
+    return true;
+  }
+
+  private void write(final HttpServletRequest request, final HttpServletResponse response,
+                     final List<JsonNode> body) throws IOException {
+    write(request, response, MAPPER.createArrayNode().addAll(body));
+  }
+
+  /** Writes {@code body} through the first converter that can produce an accepted type. */
+  private void write(final HttpServletRequest request, final HttpServletResponse response,
+                     final JsonNode body) throws IOException {
+    final String accept = request.getHeader(HttpHeaders.ACCEPT);
+    final List<MediaType> accepted = accept == null || accept.isBlank()
+        ? List.of(MediaType.ALL) : new ArrayList<>(MediaType.parseMediaTypes(accept));
+    MimeTypeUtils.sortBySpecificity(accepted);
+    for (final MediaType type : accepted) {
+      for (final HttpMessageConverter<?> converter : converters.getConverters()) {
+        if (converter.canWrite(body.getClass(), type)) {
+          response.setStatus(HttpStatus.OK.value());
+          @SuppressWarnings("unchecked")
+          final HttpMessageConverter<Object> writer = (HttpMessageConverter<Object>) converter;
+          final ServletServerHttpResponse output = new ServletServerHttpResponse(response);
+          writer.write(body, type, output);
+          output.flush();
+          return;
+        }
+      }
+    }
+    writeText(response, HttpStatus.NOT_ACCEPTABLE, "No acceptable representation.");
+  }
+
+  private static void relay(final HttpResponse<byte[]> answer,
+                            final HttpServletResponse response) throws IOException {
+    response.setStatus(answer.statusCode());
+    answer.headers().firstValue(HttpHeaders.CONTENT_TYPE).ifPresent(response::setContentType);
+    response.getOutputStream().write(answer.body());
+  }
+
+  private static void writeText(final HttpServletResponse response, final HttpStatus status,
+                                final String message) throws IOException {
+    response.setStatus(status.value());
+    response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    response.getWriter().write(message);
+  }
+
+  private static String pathAndQuery(final HttpServletRequest request) {
+    final String path = request.getRequestURI().substring(request.getContextPath().length());
+    return request.getQueryString() == null ? path : path + "?" + request.getQueryString();
+  }
+
+  /** Reads a limit every shard has already validated, defaulting like the controller. */
+  private static int parseLimit(final String raw, final int defaultLimit) {
+    return raw == null ? defaultLimit : Integer.parseInt(raw);
+  }
+
+  /** Returns the handler for a catalogue-wide read, or null for every other request. */
+  private Gatherer gatherer(final HttpServletRequest request) {
+    if (!"GET".equals(request.getMethod())) {
+      return null;
+    }
+    switch (request.getRequestURI().substring(request.getContextPath().length())) {
+      case "/books":
+        return this::gatherPage;
+      case "/books/export":
+        return this::gatherExport;
+      case "/books/available":
+        return this::gatherAvailable;
+      case "/books/trending":
+        return this::gatherTrending;
+      case "/books/recommendation":
+        return this::gatherRecommendations;
+      default:
+        return null;
+    }
+  }
+
+  /** Tells whether {@code request} is a bulk import. */
+  private static boolean isImport(final HttpServletRequest request) {
+    return "POST".equals(request.getMethod()) && IMPORT_PATH.equals(
+        request.getRequestURI().substring(request.getContextPath().length()));
+  }
+
+  /** Tells whether {@code request} opens an availability stream. */
+  private static boolean isStream(final HttpServletRequest request) {
+    return "GET".equals(request.getMethod()) && STREAM_PATH.equals(
+        request.getRequestURI().substring(request.getContextPath().length()));
+  }
+
+  /** Returns the book a single-book request targets, or null for every other request. */
+  private static Integer bookIdOf(final HttpServletRequest request) {
+    final String path = request.getRequestURI().substring(request.getContextPath().length());
+    String raw = null;
+    if ("/checkout".equals(path) || "/return".equals(path)) {
+      raw = request.getParameter("id");
+    } else if (path.startsWith(BOOK_PREFIX)) {
+      final int end = path.indexOf('/', BOOK_PREFIX.length());
+      raw = path.substring(BOOK_PREFIX.length(), end < 0 ? path.length() : end);
+    }
+    Integer bookId = null;
+    if (raw != null) {
+      try {
+        bookId = Integer.valueOf(raw);
+      } catch (final NumberFormatException e) {
+        // Leave malformed ids to the controller's own validation.
+        bookId = null;
+      }
+    }
+    return bookId;
+  }
+
+  /** Serves one catalogue-wide read from every shard's answer. */
+  @FunctionalInterface
+  private interface Gatherer {
+
+    void gather(HttpServletRequest request, HttpServletResponse response) throws IOException;
+  }
+}
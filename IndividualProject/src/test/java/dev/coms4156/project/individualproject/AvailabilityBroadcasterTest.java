@@ -0,0 +1,91 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.events.AvailabilityBroadcaster;
+import dev.coms4156.project.individualproject.events.MutationEvent;
+import dev.coms4156.project.individualproject.events.MutationType;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+/**
+ * Fan-out tests for {@link AvailabilityBroadcaster} over a real {@link MockApiService}.
+ */
+class AvailabilityBroadcasterTest {
+
+  private MockApiService service;
+
+  private AvailabilityBroadcaster broadcaster;
+
+  @BeforeEach
+  void setUp() {
+    service = new MockApiService();
+    final DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+    beans.registerSingleton("mockApiService", service);
+    broadcaster = new AvailabilityBroadcaster(beans.getBeanProvider(MockApiService.class),
+        Duration.ofHours(1), Duration.ofHours(1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    broadcaster.close();
+  }
+
+  @Test
+  void change_reachesOnlyItsWatchers_amongManyIdleSubscriptions() throws Exception {
+    final List<Book> books = service.getBooks();
+    final int subscriptions = 20_000;
+    for (int i = 0; i < subscriptions; i++) {
+      broadcaster.subscribe(List.of(books.get(i % books.size()).getId()));
+    }
+    awaitEventsSent(subscriptions);
+
+    final Book watched = books.get(0);
+    final String due = service.checkoutCopy(watched);
+    final long start = System.nanoTime();
+    broadcaster.onEvents(List.of(MutationEvent.of(MutationType.CHECKOUT, watched, due)));
+    final long watchers = subscriptions / books.size()
+        + (subscriptions % books.size() > 0 ? 1 : 0);
+    awaitEventsSent(subscriptions + watchers);
+    final long micros = (System.nanoTime() - start) / 1000;
+
+    assertEquals(subscriptions, broadcaster.getStats().get("subscriptions"));
+    assertEquals(books.size(), broadcaster.getStats().get("watchedBooks"));
+    assertTrue(micros < 5_000_000, "fan-out to " + watchers + " watchers took " + micros + "us");
+  }
+
+  @Test
+  void batchOfChanges_collapsesToOneEvent() throws Exception {
+    final Book book = service.getBooks().get(0);
+    broadcaster.subscribe(List.of(book.getId()));
+    awaitEventsSent(1);
+
+    final List<MutationEvent> batch = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      service.addCopy(book);
+      batch.add(MutationEvent.of(MutationType.ADD_COPY, book, null));
+    }
+    broadcaster.onEvents(batch);
+    awaitEventsSent(2);
+    Thread.sleep(100);
+
+    assertEquals(2L, broadcaster.getStats().get("eventsSent"));
+  }
+
+  private void awaitEventsSent(final long expected) throws InterruptedException {
+    final long deadline = System.nanoTime() + Duration.ofSeconds(20).toNanos();
+    while ((long) broadcaster.getStats().get("eventsSent") < expected
+        && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertEquals(expected, broadcaster.getStats().get("eventsSent"));
+  }
+}
@@ -0,0 +1,166 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import dev.coms4156.project.individualproject.controller.AvailabilityStreamController;
+import dev.coms4156.project.individualproject.events.AvailabilityBroadcaster;
+import dev.coms4156.project.individualproject.events.MutationEvent;
+import dev.coms4156.project.individualproject.events.MutationType;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import java.io.UnsupportedEncodingException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * MVC tests for {@link AvailabilityStreamController} and the events it receives from
+ * {@link AvailabilityBroadcaster}.
+ */
+@WebMvcTest(controllers = AvailabilityStreamController.class,
+    properties = "availability.heartbeat=100ms")
+@Import(AvailabilityBroadcaster.class)
+class AvailabilityStreamControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private AvailabilityBroadcaster broadcaster;
+
+  @MockBean
+  private MockApiService mockApiService;
+
+  private final Map<Integer, Book> catalogue = new ConcurrentHashMap<>();
+
+  @BeforeEach
+  void setUp() {
+    broadcaster.reset();
+    catalogue.put(1, new Book("A", 1));
+    catalogue.put(2, new Book("B", 2));
+    catalogue.put(3, new Book("C", 3));
+    Mockito.when(mockApiService.findBook(Mockito.anyInt()))
+        .thenAnswer(inv -> Optional.ofNullable(catalogue.get(inv.<Integer>getArgument(0))));
+  }
+
+  @Test
+  void stream_sendsSnapshotThenChanges() throws Exception {
+    final MockHttpServletResponse response = open("1,2");
+    awaitContains(response, "data:{\"id\":1,\"copiesAvailable\":1,\"totalCopies\":1}");
+    awaitContains(response, "data:{\"id\":2,\"copiesAvailable\":1,\"totalCopies\":1}");
+
+    final Book book = catalogue.get(1);
+    final String due = book.checkoutCopy();
+    broadcaster.onEvents(List.of(MutationEvent.of(MutationType.CHECKOUT, book, due)));
+    awaitContains(response, "data:{\"id\":1,\"copiesAvailable\":0,\"totalCopies\":1}");
+
+    book.returnCopy(due);
+    broadcaster.onEvents(List.of(MutationEvent.of(MutationType.RETURN, book, due)));
+    awaitTrue(() -> count(response, "\"id\":1,\"copiesAvailable\":1") == 2);
+    assertTrue(content(response).contains("event:availability"));
+  }
+
+  @Test
+  void stream_skipsUnchangedAndUnwatchedBooks() throws Exception {
+    final MockHttpServletResponse response = open("1,2");
+    awaitContains(response, "\"id\":2,");
+
+    broadcaster.onEvents(List.of(
+        MutationEvent.of(MutationType.UPDATE, catalogue.get(1), null),
+        MutationEvent.of(MutationType.ADD_COPY, catalogue.get(3), null)));
+    final Book changed = catalogue.get(2);
+    changed.addCopy();
+    broadcaster.onEvents(List.of(MutationEvent.of(MutationType.ADD_COPY, changed, null)));
+    awaitContains(response, "\"id\":2,\"copiesAvailable\":2");
+
+    assertEquals(1, count(response, "\"id\":1,"), "unchanged book must not be resent");
+    assertFalse(content(response).contains("\"id\":3,"));
+  }
+
+  @Test
+  void stream_reportsRemovedBooks() throws Exception {
+    final MockHttpServletResponse response = open("3");
+    awaitContains(response, "\"id\":3,");
+
+    final Book removed = catalogue.remove(3);
+    broadcaster.onEvents(List.of(MutationEvent.of(MutationType.REMOVE, removed, null)));
+
+    awaitContains(response, "event:removed\ndata:{\"id\":3}");
+  }
+
+  @Test
+  void stream_sendsHeartbeats() throws Exception {
+    final MockHttpServletResponse response = open("1");
+
+    awaitContains(response, ":heartbeat");
+    assertEquals(1, broadcaster.getStats().get("subscriptions"));
+  }
+
+  @Test
+  void stream_rejectsBadIdLists() throws Exception {
+    mockMvc.perform(get("/books/availability/stream").param("ids", ""))
+        .andExpect(status().isBadRequest());
+    final StringBuilder tooMany = new StringBuilder("1");
+    for (int i = 2; i <= 101; i++) {
+      tooMany.append(',').append(i);
+    }
+    mockMvc.perform(get("/books/availability/stream").param("ids", tooMany.toString()))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/books/availability/stream").param("ids", "1,999"))
+        .andExpect(status().isNotFound());
+    assertEquals(0, broadcaster.getStats().get("subscriptions"));
+  }
+
+  private MockHttpServletResponse open(final String ids) throws Exception {
+    return mockMvc.perform(get("/books/availability/stream").param("ids", ids))
+        .andExpect(request().asyncStarted())
+        .andReturn().getResponse();
+  }
+
+  private static String content(final MockHttpServletResponse response) {
+    try {
+      return response.getContentAsString();
+    } catch (final UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static int count(final MockHttpServletResponse response, final String needle) {
+    final String content = content(response);
+    int count = 0;
+    for (int at = content.indexOf(needle); at >= 0; at = content.indexOf(needle, at + 1)) {
+      count++;
+    }
+    return count;
+  }
+
+  private static void awaitContains(final MockHttpServletResponse response, final String text)
+      throws InterruptedException {
+    awaitTrue(() -> content(response).contains(text));
+  }
+
+  private static void awaitTrue(final BooleanSupplier condition) throws InterruptedException {
+    final long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+    while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(condition.getAsBoolean(), "expected event was not streamed in time");
+  }
+}
@@ -0,0 +1,98 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.controller.BinaryCodecConfig;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Tests for {@link BinaryCodecConfig}: the binary mappers carry the same settings as the JSON
+ * one, plus an opt-in size and throughput comparison.
+ */
+class BinaryCodecConfigTest {
+
+  /** Type of the catalogue payload, as returned by {@code GET /books/available}. */
+  private static final TypeReference<List<Book>> BOOKS = new TypeReference<>() {};
+
+  private Map<String, ObjectMapper> mappers;
+
+  private List<Book> catalogue;
+
+  @BeforeEach
+  void setUp() {
+    final BinaryCodecConfig config = new BinaryCodecConfig();
+    mappers = new LinkedHashMap<>();
+    mappers.put("json", Jackson2ObjectMapperBuilder.json().build());
+    mappers.put("smile", config.smileHttpMessageConverter(new Jackson2ObjectMapperBuilder())
+        .getObjectMapper());
+    mappers.put("cbor", config.cborHttpMessageConverter(new Jackson2ObjectMapperBuilder())
+        .getObjectMapper());
+    catalogue = new MockApiService().getBooks();
+  }
+
+  @Test
+  void everyFormat_roundTripsTheCatalogueToTheSameTree() throws Exception {
+    final ObjectMapper json = mappers.get("json");
+    final JsonNode expected = json.valueToTree(catalogue);
+    for (final Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+      final ObjectMapper mapper = entry.getValue();
+      final List<Book> decoded = mapper.readValue(mapper.writeValueAsBytes(catalogue), BOOKS);
+      assertEquals(expected, json.valueToTree(decoded), entry.getKey());
+    }
+  }
+
+  @Test
+  void binaryFormats_areSmallerThanJson() throws Exception {
+    final int json = mappers.get("json").writeValueAsBytes(catalogue).length;
+    assertTrue(mappers.get("smile").writeValueAsBytes(catalogue).length < json);
+    assertTrue(mappers.get("cbor").writeValueAsBytes(catalogue).length < json);
+  }
+
+  /**
+   * Payload size and encode/decode throughput of the seeded catalogue in each format.
+   * Run with {@code -Dbenchmark=true}.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+  void benchmark_payloadSizeAndThroughput() throws Exception {
+    final int iterations = 2_000;
+    System.out.printf("format   bytes      encode/s   decode/s%n");
+    for (final Map.Entry<String, ObjectMapper> entry : mappers.entrySet()) {
+      final ObjectMapper mapper = entry.getValue();
+      final byte[] payload = mapper.writeValueAsBytes(catalogue);
+      // Warm up both paths before timing them.
+      for (int i = 0; i < iterations; i++) {
+        mapper.readValue(mapper.writeValueAsBytes(catalogue), BOOKS);
+      }
+
+      long start = System.nanoTime();
+      long sink = 0;
+      for (int i = 0; i < iterations; i++) {
+        sink += mapper.writeValueAsBytes(catalogue).length;
+      }
+      final double encodePerSecond = iterations / ((System.nanoTime() - start) / 1e9);
+
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        sink += mapper.readValue(payload, BOOKS).size();
+      }
+      final double decodePerSecond = iterations / ((System.nanoTime() - start) / 1e9);
+
+      System.out.printf("%-6s %7d %10.0f %10.0f%n",
+          entry.getKey(), payload.length, encodePerSecond, decodePerSecond);
+      assertTrue(sink > 0);
+    }
+  }
+}
@@ -8,6 +8,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import dev.coms4156.project.individualproject.model.Book;
 import java.time.LocalDate;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -113,4 +114,24 @@ class BookTest {
     assertFalse(book.hasMultipleAuthors(), "Exactly one author -> false");
   }
 
+  @Test
+  void copyDescriptionFrom_replacesDescriptionButKeepsCirculationState() {
+    final String due = book.checkoutCopy();
+    book.addCopy();
+    final Book corrected = new Book("When Breath Becomes Air (2nd ed.)", 99);
+    corrected.getAuthors().add("Paul Kalanithi");
+    assertFalse(book.hasSameDescription(corrected));
+
+    book.copyDescriptionFrom(corrected);
+
+    assertTrue(book.hasSameDescription(corrected));
+    assertEquals(1, book.getId());
+    assertEquals(1, book.getCopiesAvailable());
+    assertEquals(2, book.getTotalCopies());
+    assertEquals(1, book.getAmountOfTimesCheckedOut());
+    assertEquals(List.of(due), book.getReturnDates());
+    corrected.getAuthors().add("Someone Else");
+    assertEquals(1, book.getAuthors().size(), "lists are copied, not shared");
+  }
+
 }
\ No newline at end of file
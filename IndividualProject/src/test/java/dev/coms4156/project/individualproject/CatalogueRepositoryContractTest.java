@@ -0,0 +1,200 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.repository.CatalogueRepository;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Conformance and performance suite that every {@link CatalogueRepository} backend must pass.
+ *
+ * <p>Backends are tested by subclassing this class and implementing {@link #newRepository()}.
+ */
+abstract class CatalogueRepositoryContractTest {
+
+  /** Catalogue size used by the performance checks. */
+  private static final int LARGE = 20_000;
+
+  protected CatalogueRepository repository;
+
+  /**
+   * Creates an empty repository for one test.
+   *
+   * @return a new, empty repository
+   */
+  protected abstract CatalogueRepository newRepository();
+
+  /**
+   * Time allowed for 20k deep-page reads in the performance check.
+   *
+   * @return the budget; backends that pay a network round trip per page may allow more
+   */
+  protected Duration pageBudget() {
+    return Duration.ofSeconds(5);
+  }
+
+  @BeforeEach
+  void openRepository() {
+    repository = newRepository();
+  }
+
+  @AfterEach
+  void closeRepository() {
+    repository.close();
+  }
+
+  @Test
+  void newRepository_isEmpty() {
+    assertEquals(0, repository.count());
+    assertTrue(repository.findAll().isEmpty());
+    assertFalse(repository.iterator().hasNext());
+  }
+
+  @Test
+  void save_thenFindById_returnsStoredBook() {
+    repository.save(new Book("A", 7));
+
+    assertEquals("A", repository.findById(7).orElseThrow().getTitle());
+    assertTrue(repository.findById(8).isEmpty());
+    assertEquals(1, repository.count());
+  }
+
+  @Test
+  void save_existingId_replacesWithoutGrowing() {
+    repository.save(new Book("A", 7));
+    repository.save(new Book("A2", 7));
+
+    assertEquals("A2", repository.findById(7).orElseThrow().getTitle());
+    assertEquals(1, repository.count());
+  }
+
+  @Test
+  void saveAll_insertsEveryBook() {
+    repository.saveAll(List.of(new Book("A", 1), new Book("B", 2), new Book("C", 3)));
+
+    assertEquals(3, repository.count());
+    assertEquals("B", repository.findById(2).orElseThrow().getTitle());
+  }
+
+  @Test
+  void deleteById_removesOnlyThatBook() {
+    repository.saveAll(List.of(new Book("A", 1), new Book("B", 2)));
+
+    assertTrue(repository.deleteById(1));
+    assertFalse(repository.deleteById(1), "second delete should report nothing removed");
+    assertTrue(repository.findById(1).isEmpty());
+    assertEquals(1, repository.count());
+  }
+
+  @Test
+  void scans_areOrderedById() {
+    repository.saveAll(List.of(new Book("C", 30), new Book("A", 10), new Book("B", 20)));
+
+    assertEquals(List.of(10, 20, 30), ids(repository.findAll()));
+    final List<Book> iterated = new ArrayList<>();
+    repository.forEach(iterated::add);
+    assertEquals(List.of(10, 20, 30), ids(iterated));
+  }
+
+  @Test
+  void findAfter_returnsBoundedPageAfterKey() {
+    for (int i = 1; i <= 10; i++) {
+      repository.save(new Book("B" + i, i));
+    }
+
+    assertEquals(List.of(1, 2, 3), ids(repository.findAfter(Integer.MIN_VALUE, 3)));
+    assertEquals(List.of(4, 5, 6), ids(repository.findAfter(3, 3)));
+    assertEquals(List.of(10), ids(repository.findAfter(9, 3)));
+    assertTrue(repository.findAfter(10, 3).isEmpty());
+    assertTrue(repository.findAfter(0, 0).isEmpty());
+  }
+
+  @Test
+  void mutatedBook_isVisibleAfterSave() {
+    repository.save(new Book("A", 1));
+    final Book stored = repository.findById(1).orElseThrow();
+    stored.checkoutCopy();
+    repository.save(stored);
+
+    assertEquals(0, repository.findById(1).orElseThrow().getCopiesAvailable());
+    assertEquals(1, repository.findById(1).orElseThrow().getAmountOfTimesCheckedOut());
+  }
+
+  @Test
+  void iterator_toleratesConcurrentWrites() {
+    repository.saveAll(List.of(new Book("A", 1), new Book("B", 2), new Book("D", 4)));
+    final Iterator<Book> it = repository.iterator();
+    repository.save(new Book("C", 3));
+    repository.deleteById(2);
+
+    final List<Integer> seen = new ArrayList<>();
+    while (it.hasNext()) {
+      seen.add(it.next().getId());
+    }
+    // Books written after the iterator was opened may or may not show up; untouched ones must.
+    assertTrue(seen.containsAll(List.of(1, 4)), "missing untouched books: " + seen);
+    assertEquals(new HashSet<>(seen).size(), seen.size(), "duplicate books: " + seen);
+    assertTrue(Set.of(1, 2, 3, 4).containsAll(seen), "unexpected books: " + seen);
+  }
+
+  @Test
+  void concurrentSaves_areAllRetained() throws Exception {
+    final ExecutorService pool = Executors.newFixedThreadPool(4);
+    for (int t = 0; t < 4; t++) {
+      final int base = t * 1000;
+      pool.submit(() -> {
+        for (int i = 0; i < 250; i++) {
+          repository.save(new Book("T", base + i));
+        }
+      });
+    }
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+    assertEquals(1000, repository.count());
+  }
+
+  @Test
+  void performance_pointLookupsAndPagesStayFastOnLargeCatalogue() {
+    final List<Book> batch = new ArrayList<>(LARGE);
+    for (int i = 0; i < LARGE; i++) {
+      batch.add(new Book("B" + i, i));
+    }
+    assertTimeoutPreemptively(Duration.ofSeconds(20), () -> repository.saveAll(batch));
+
+    assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+      for (int i = 0; i < 200_000; i++) {
+        final int id = (i * 7919) % LARGE;
+        assertTrue(repository.findById(id).isPresent());
+      }
+    }, "200k point lookups must not degrade to scans");
+
+    assertTimeoutPreemptively(pageBudget(), () -> {
+      for (int i = 0; i < 20_000; i++) {
+        assertEquals(10, repository.findAfter(LARGE - 100, 10).size());
+      }
+    }, "deep pages must cost O(page + log n)");
+  }
+
+  private static List<Integer> ids(final List<Book> books) {
+    final List<Integer> ids = new ArrayList<>(books.size());
+    for (final Book book : books) {
+      ids.add(book.getId());
+    }
+    return ids;
+  }
+}
@@ -0,0 +1,123 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.repository.InMemoryCatalogueRepository;
+import dev.coms4156.project.individualproject.service.CatalogueLoading;
+import dev.coms4156.project.individualproject.service.CatalogueSourceWatcher;
+import dev.coms4156.project.individualproject.service.CoCheckoutRecommender;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.TrendingTracker;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Tests for {@link CatalogueSourceWatcher} against a real file and {@link MockApiService}.
+ */
+class CatalogueSourceWatcherTest {
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @TempDir
+  Path dir;
+
+  private Path source;
+
+  private MockApiService svc;
+
+  private CatalogueSourceWatcher watcher;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    source = dir.resolve("books.json");
+    write(new Book("One", 1), new Book("Two", 2));
+    svc = new MockApiService();
+    watcher = new CatalogueSourceWatcher(svc, source, Duration.ofMillis(50));
+    watcher.start();
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    watcher.close();
+  }
+
+  @Test
+  void start_replacesSeedWithTheSourceFile() {
+    assertEquals(List.of(1, 2), svc.getBooks().stream().map(Book::getId).toList());
+  }
+
+  @Test
+  void start_withLazyLoading_waitsForTheLoadWithoutTriggeringIt() throws Exception {
+    final MockApiService lazy = new MockApiService(new InMemoryCatalogueRepository(), null,
+        new TrendingTracker(Duration.ofHours(1), 6),
+        new CoCheckoutRecommender(), null, id -> true, CatalogueLoading.LAZY,
+        new ClassPathResource("mockdata/books.json"));
+    try (CatalogueSourceWatcher lazyWatcher =
+             new CatalogueSourceWatcher(lazy, source, Duration.ofMillis(50))) {
+      lazyWatcher.start();
+      assertFalse(lazy.isLoaded(), "starting the watcher loaded the catalogue");
+
+      // The first read loads the seed, and the source is applied before it returns.
+      assertEquals(List.of(1, 2), lazy.getBooks().stream().map(Book::getId).toList());
+
+      write(new Book("One", 1));
+      awaitTrue(() -> lazy.findBook(2).isEmpty());
+    }
+  }
+
+  @Test
+  void fileChange_isAppliedAndKeepsCheckouts() throws Exception {
+    final String due = svc.checkoutCopy(svc.findBook(1).orElseThrow());
+
+    write(new Book("One, corrected", 1), new Book("Three", 3));
+
+    awaitTrue(() -> svc.findBook(3).isPresent());
+    final Book corrected = svc.findBook(1).orElseThrow();
+    assertEquals("One, corrected", corrected.getTitle());
+    assertEquals(0, corrected.getCopiesAvailable());
+    assertEquals(List.of(due), corrected.getReturnDates());
+    assertEquals(List.of(1, 3), svc.getBooks().stream().map(Book::getId).toList());
+  }
+
+  @Test
+  void unparseableFile_isIgnoredUntilFixed() throws Exception {
+    Files.writeString(source, "[{\"id\":1,\"title\":");
+    assertNull(watcher.reload());
+    assertEquals(List.of(1, 2), svc.getBooks().stream().map(Book::getId).toList());
+
+    write(new Book("One", 1));
+
+    awaitTrue(() -> svc.findBook(2).isEmpty());
+    assertEquals("One", svc.findBook(1).orElseThrow().getTitle());
+  }
+
+  private void write(final Book... books) throws IOException {
+    // Write and rename, as editors and deploy tools do, so the watcher never sees half a file.
+    final Path staged = dir.resolve("books.json.tmp");
+    mapper.writeValue(staged.toFile(), List.of(books));
+    Files.move(staged, source, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  private static void awaitTrue(final BooleanSupplier condition) throws InterruptedException {
+    final long deadline = System.nanoTime() + Duration.ofSeconds(15).toNanos();
+    while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+      Thread.sleep(20);
+    }
+    assertTrue(condition.getAsBoolean(), "watcher did not apply the change in time");
+  }
+}
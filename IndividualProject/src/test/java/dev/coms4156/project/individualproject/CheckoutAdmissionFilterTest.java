@@ -0,0 +1,127 @@
+package dev.coms4156.project.individualproject;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import dev.coms4156.project.individualproject.admission.AdmissionMetrics;
+import dev.coms4156.project.individualproject.admission.CheckoutAdmissionFilter;
+import dev.coms4156.project.individualproject.controller.MetricsController;
+import dev.coms4156.project.individualproject.controller.RouteController;
+import dev.coms4156.project.individualproject.events.MutationEventConfig;
+import dev.coms4156.project.individualproject.instrumentation.TimingRegistry;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Tests for the per-book admission filter and {@code /metrics/admission}.
+ */
+@WebMvcTest(controllers = {RouteController.class, MetricsController.class},
+    properties = {"admission.enabled=true", "admission.checkout.burst=2",
+        "admission.checkout.rate-per-second=0.001", "admission.read.burst=3",
+        "admission.read.rate-per-second=0.001", "admission.sold-out.retry-after-seconds=45"})
+@Import({TimingRegistry.class, AdmissionMetrics.class, MutationEventConfig.class})
+class CheckoutAdmissionFilterTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private AdmissionMetrics admissionMetrics;
+
+  @Autowired
+  private CheckoutAdmissionFilter admissionFilter;
+
+  @MockBean
+  private MockApiService mockApiService;
+
+  private List<Book> books;
+
+  @BeforeEach
+  void setUp() {
+    books = new ArrayList<>();
+    final Book plenty = new Book("Plenty", 1);
+    plenty.addCopy();
+    plenty.addCopy();
+    books.add(plenty);
+    final Book soldOut = new Book("Sold Out", 2);
+    soldOut.deleteCopy();
+    books.add(soldOut);
+    books.add(new Book("Hot", 3));
+    books.add(new Book("Cold", 4));
+    Mockito.when(mockApiService.findBook(Mockito.anyInt())).thenAnswer(inv -> {
+      final int id = inv.getArgument(0);
+      return books.stream().filter(b -> b.getId() == id).findFirst();
+    });
+    Mockito.when(mockApiService.checkoutCopy(Mockito.any()))
+        .thenAnswer(inv -> inv.<Book>getArgument(0).checkoutCopy());
+    admissionMetrics.reset();
+    admissionFilter.reset();
+  }
+
+  @Test
+  void checkout_soldOutTitleIsShedBeforeTheService() throws Exception {
+    mockMvc.perform(patch("/checkout").param("id", "2"))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().string("Retry-After", "45"))
+        .andExpect(content().string("No copies available."));
+    Mockito.verify(mockApiService, Mockito.never()).checkoutCopy(Mockito.any());
+  }
+
+  @Test
+  void checkout_beyondBurstIsRateLimitedPerBook() throws Exception {
+    mockMvc.perform(patch("/checkout").param("id", "1")).andExpect(status().isOk());
+    mockMvc.perform(patch("/checkout").param("id", "1")).andExpect(status().isOk());
+    mockMvc.perform(patch("/checkout").param("id", "1"))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().exists("Retry-After"));
+    // Another title keeps its own budget.
+    mockMvc.perform(patch("/checkout").param("id", "4")).andExpect(status().isOk());
+  }
+
+  @Test
+  void getBook_beyondBurstIsRateLimited() throws Exception {
+    for (int i = 0; i < 3; i++) {
+      mockMvc.perform(get("/book/3")).andExpect(status().isOk());
+    }
+    mockMvc.perform(get("/book/3"))
+        .andExpect(status().isTooManyRequests())
+        .andExpect(content().string("Too many requests for this book."));
+  }
+
+  @Test
+  void unguardedRequestsAreNotCounted() throws Exception {
+    mockMvc.perform(get("/books/available")).andExpect(status().isOk());
+    mockMvc.perform(get("/metrics/admission"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.admitted").value(0));
+  }
+
+  @Test
+  void metricsEndpoint_reportsShedCountsByReasonAndBook() throws Exception {
+    mockMvc.perform(patch("/checkout").param("id", "2"));
+    mockMvc.perform(patch("/checkout").param("id", "2"));
+    mockMvc.perform(patch("/checkout").param("id", "2"));
+    mockMvc.perform(patch("/checkout").param("id", "1"));
+
+    mockMvc.perform(get("/metrics/admission"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.admitted").value(1))
+        .andExpect(jsonPath("$.shedSoldOut").value(2))
+        .andExpect(jsonPath("$.shedRateLimited").value(1))
+        .andExpect(jsonPath("$.shedByBook['2']").value(3));
+  }
+}
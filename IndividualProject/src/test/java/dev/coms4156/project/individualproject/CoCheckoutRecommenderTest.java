@@ -0,0 +1,105 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.service.CoCheckoutRecommender;
+import dev.coms4156.project.individualproject.service.CountMinSketch;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CoCheckoutRecommender} and {@link CountMinSketch}.
+ */
+class CoCheckoutRecommenderTest {
+
+  @Test
+  void alsoBorrowed_ranksByCoCheckoutCount() {
+    final CoCheckoutRecommender recommender = new CoCheckoutRecommender();
+    // Three patrons borrow 1 and 2, one of them also borrows 3.
+    for (final String patron : List.of("a", "b", "c")) {
+      recommender.recordCheckout(patron, 1);
+      recommender.recordCheckout(patron, 2);
+    }
+    recommender.recordCheckout("c", 3);
+
+    final Map<Integer, Integer> related = recommender.alsoBorrowed(1, 5);
+    assertEquals(List.of(2, 3), List.copyOf(related.keySet()));
+    assertEquals(3, related.get(2).intValue());
+    assertEquals(1, related.get(3).intValue());
+    assertEquals(List.of(1, 3), List.copyOf(recommender.alsoBorrowed(2, 5).keySet()));
+  }
+
+  @Test
+  void alsoBorrowed_unknownBookIsEmpty() {
+    assertTrue(new CoCheckoutRecommender().alsoBorrowed(42, 5).isEmpty());
+  }
+
+  @Test
+  void repeatCheckoutOfSameBook_doesNotPairWithItself() {
+    final CoCheckoutRecommender recommender = new CoCheckoutRecommender();
+    recommender.recordCheckout("a", 1);
+    recommender.recordCheckout("a", 1);
+
+    assertTrue(recommender.alsoBorrowed(1, 5).isEmpty());
+  }
+
+  @Test
+  void historyIsBounded() {
+    final CoCheckoutRecommender recommender =
+        new CoCheckoutRecommender(2, 10, 100, 100, 1024, 4);
+    recommender.recordCheckout("a", 1);
+    recommender.recordCheckout("a", 2);
+    recommender.recordCheckout("a", 3);
+    // Book 1 has left the two-entry history, so 4 pairs only with 2 and 3.
+    recommender.recordCheckout("a", 4);
+
+    assertEquals(List.of(2, 3), List.copyOf(recommender.alsoBorrowed(4, 5).keySet()));
+  }
+
+  @Test
+  void topRelated_keepsStrongestEntries() {
+    final CoCheckoutRecommender recommender =
+        new CoCheckoutRecommender(20, 2, 100, 100, 1024, 4);
+    for (int patron = 0; patron < 3; patron++) {
+      recommender.recordCheckout("p" + patron, 1);
+      recommender.recordCheckout("p" + patron, 2);
+    }
+    for (int patron = 0; patron < 2; patron++) {
+      recommender.recordCheckout("q" + patron, 1);
+      recommender.recordCheckout("q" + patron, 3);
+    }
+    recommender.recordCheckout("r", 1);
+    recommender.recordCheckout("r", 4);
+
+    assertEquals(List.of(2, 3), List.copyOf(recommender.alsoBorrowed(1, 5).keySet()));
+  }
+
+  @Test
+  void sketch_neverUndercounts() {
+    final CountMinSketch sketch = new CountMinSketch(64, 4);
+    for (long key = 0; key < 1000; key++) {
+      for (int i = 0; i <= key % 5; i++) {
+        sketch.increment(key);
+      }
+    }
+    for (long key = 0; key < 1000; key++) {
+      assertTrue(sketch.estimate(key) >= key % 5 + 1);
+    }
+  }
+
+  @Test
+  void sketch_halveDecaysEveryCount() {
+    final CountMinSketch sketch = new CountMinSketch(1024, 4);
+    for (int i = 0; i < 9; i++) {
+      sketch.increment(42);
+    }
+    sketch.increment(7);
+
+    sketch.halve();
+
+    assertEquals(4, sketch.estimate(42));
+    assertEquals(0, sketch.estimate(7));
+  }
+}
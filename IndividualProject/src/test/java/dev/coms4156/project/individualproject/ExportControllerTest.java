@@ -0,0 +1,152 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import dev.coms4156.project.individualproject.controller.ExportController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.CatalogueExporter;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.VersionedCatalogue;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+/**
+ * MVC tests for {@link ExportController}.
+ */
+@WebMvcTest(ExportController.class)
+@Import(CatalogueExporter.class)
+class ExportControllerTest {
+
+  @TempDir
+  static Path exportDir;
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private MockApiService mockApiService;
+
+  private VersionedCatalogue versions;
+
+  @DynamicPropertySource
+  static void exportDirectory(final DynamicPropertyRegistry registry) {
+    registry.add("catalogue.export-dir", () -> exportDir.toString());
+  }
+
+  @BeforeEach
+  void setUp() throws IOException {
+    try (Stream<Path> files = Files.list(exportDir)) {
+      for (final Path file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    final Book quoted = new Book("Title, with \"quotes\"", 2);
+    quoted.checkoutCopy();
+    versions = new VersionedCatalogue();
+    versions.publishAll(List.of(new Book("Plain", 1), quoted));
+    Mockito.when(mockApiService.openSnapshot()).thenAnswer(inv -> versions.openSnapshot());
+  }
+
+  @Test
+  void export_streamsGzippedNdjsonOfSnapshot() throws Exception {
+    final List<String> lines = gunzipLines(download(get("/books/export")));
+
+    assertEquals(2, lines.size());
+    assertTrue(lines.get(0).contains("\"id\":1"));
+    assertTrue(lines.get(1).contains("\"amountOfTimesCheckedOut\":1"));
+    assertTrue(lines.get(1).contains("\"returnDates\":[\""));
+    assertEquals(0, versions.getOpenSnapshotCount(), "snapshot must be closed after export");
+  }
+
+  @Test
+  void export_csvQuotesFieldsAndHasHeader() throws Exception {
+    final List<String> lines = gunzipLines(download(get("/books/export").param("format", "csv")));
+
+    assertEquals(3, lines.size());
+    assertTrue(lines.get(0).startsWith("id,title,authors,"));
+    assertTrue(lines.get(2).startsWith("2,\"Title, with \"\"quotes\"\"\","));
+  }
+
+  @Test
+  void export_unknownFormat_returns400() throws Exception {
+    mockMvc.perform(get("/books/export").param("format", "xml"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void snapshot_missing_returns404() throws Exception {
+    mockMvc.perform(get("/books/export/snapshot"))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  void snapshot_createdFileIsServedWithLength() throws Exception {
+    mockMvc.perform(post("/books/export/snapshot"))
+        .andExpect(status().isCreated());
+
+    final MvcResult result = mockMvc.perform(get("/books/export/snapshot"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Type", "application/gzip"))
+        .andReturn();
+    final byte[] body = result.getResponse().getContentAsByteArray();
+    assertEquals(body.length, result.getResponse().getContentLength());
+    assertEquals(2, gunzipLines(body).size());
+  }
+
+  @Test
+  void snapshot_keepsOnlyTheTwoNewestFiles() throws Exception {
+    for (int i = 0; i < 4; i++) {
+      versions.publish(new Book("Plain", 1));
+      mockMvc.perform(post("/books/export/snapshot")).andExpect(status().isCreated());
+    }
+    try (Stream<Path> files = Files.list(exportDir)) {
+      assertEquals(2, files.count());
+    }
+  }
+
+  private byte[] download(final RequestBuilder builder) throws Exception {
+    final MvcResult started = mockMvc.perform(builder)
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    return mockMvc.perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Type", "application/gzip"))
+        .andReturn().getResponse().getContentAsByteArray();
+  }
+
+  private static List<String> gunzipLines(final byte[] gzipped) throws IOException {
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        new GZIPInputStream(new ByteArrayInputStream(gzipped)), StandardCharsets.UTF_8))) {
+      return reader.lines().collect(Collectors.toList());
+    }
+  }
+}
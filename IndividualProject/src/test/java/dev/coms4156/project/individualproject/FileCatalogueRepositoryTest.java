@@ -0,0 +1,84 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.repository.CatalogueRepository;
+import dev.coms4156.project.individualproject.repository.FileCatalogueRepository;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Runs the repository contract against {@link FileCatalogueRepository}, plus durability checks.
+ */
+class FileCatalogueRepositoryTest extends CatalogueRepositoryContractTest {
+
+  @TempDir
+  Path dir;
+
+  @Override
+  protected CatalogueRepository newRepository() {
+    return new FileCatalogueRepository(dir.resolve("catalogue.ndjson"));
+  }
+
+  @Test
+  void reopen_replaysPutsAndDeletes() {
+    repository.saveAll(List.of(new Book("A", 1), new Book("B", 2)));
+    repository.save(new Book("B2", 2));
+    repository.deleteById(1);
+    repository.close();
+
+    repository = newRepository();
+    assertEquals(1, repository.count());
+    assertEquals("B2", repository.findById(2).orElseThrow().getTitle());
+  }
+
+  @Test
+  void reopen_skipsTornTrailingRecord() throws IOException {
+    repository.save(new Book("A", 1));
+    repository.close();
+    Files.writeString(dir.resolve("catalogue.ndjson"), "{\"op\":\"put\",\"book\":{\"id\":2,",
+        StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+    repository = newRepository();
+    assertEquals(1, repository.count());
+  }
+
+  @Test
+  void compact_keepsOneRecordPerBook() throws IOException {
+    repository.save(new Book("A", 1));
+    for (int i = 0; i < 10; i++) {
+      repository.save(new Book("A" + i, 1));
+    }
+    ((FileCatalogueRepository) repository).compact();
+
+    assertEquals(1, Files.readAllLines(dir.resolve("catalogue.ndjson")).size());
+    repository.close();
+    repository = newRepository();
+    assertEquals("A9", repository.findById(1).orElseThrow().getTitle());
+  }
+
+  @Test
+  void service_checkoutSurvivesRestart() {
+    final MockApiService first = new MockApiService(repository);
+    final Book book = first.getBooks().stream().filter(Book::hasCopies).findFirst().orElseThrow();
+    assertNotNull(first.checkoutCopy(book));
+    final int checkedOut = first.findBook(book.getId()).orElseThrow().getAmountOfTimesCheckedOut();
+    repository.close();
+
+    repository = newRepository();
+    final MockApiService second = new MockApiService(repository);
+    final Book reloaded = second.findBook(book.getId()).orElseThrow();
+    assertEquals(checkedOut, reloaded.getAmountOfTimesCheckedOut());
+    assertTrue(reloaded.getReturnDates().size() >= 1);
+  }
+}
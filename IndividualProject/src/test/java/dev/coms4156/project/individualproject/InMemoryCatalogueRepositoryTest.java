@@ -0,0 +1,15 @@
+package dev.coms4156.project.individualproject;
+
+import dev.coms4156.project.individualproject.repository.CatalogueRepository;
+import dev.coms4156.project.individualproject.repository.InMemoryCatalogueRepository;
+
+/**
+ * Runs the repository contract against {@link InMemoryCatalogueRepository}.
+ */
+class InMemoryCatalogueRepositoryTest extends CatalogueRepositoryContractTest {
+
+  @Override
+  protected CatalogueRepository newRepository() {
+    return new InMemoryCatalogueRepository();
+  }
+}
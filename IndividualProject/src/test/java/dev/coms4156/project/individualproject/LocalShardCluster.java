@@ -0,0 +1,85 @@
+package dev.coms4156.project.individualproject;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Several shards of the application running in this JVM, each a full Spring context on its
+ * own port, for tests. Separate processes are started with {@code run-shards.sh} instead.
+ */
+final class LocalShardCluster implements AutoCloseable {
+
+  private final List<URI> nodes;
+
+  private final List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+
+  private LocalShardCluster(final List<URI> nodes) {
+    this.nodes = nodes;
+  }
+
+  /** Starts {@code shards} shards. */
+  static LocalShardCluster start(final int shards) {
+    return start(shards, shards);
+  }
+
+  /**
+   * Configures {@code shards} shards but starts only the first {@code running}; the others
+   * refuse connections.
+   */
+  static LocalShardCluster start(final int shards, final int running) {
+    final List<URI> nodes = new ArrayList<>(shards);
+    for (int i = 0; i < shards; i++) {
+      nodes.add(URI.create("http://127.0.0.1:" + freePort() + "/"));
+    }
+    final LocalShardCluster cluster = new LocalShardCluster(List.copyOf(nodes));
+    final String list = nodes.stream().map(URI::toString).collect(Collectors.joining(","));
+    try {
+      for (int i = 0; i < running; i++) {
+        // Arguments, unlike builder properties, override application.properties.
+        cluster.contexts.add(new SpringApplicationBuilder(IndividualProjectApplication.class)
+            .run("--server.port=" + nodes.get(i).getPort(), "--shard.nodes=" + list,
+                "--shard.self=" + i, "--spring.main.banner-mode=off"));
+      }
+    } catch (final RuntimeException e) {
+      cluster.close();
+      throw e;
+    }
+    return cluster;
+  }
+
+  /** Base URIs of every configured shard, by index. */
+  List<URI> nodes() {
+    return nodes;
+  }
+
+  /** Base URI of one shard. */
+  URI node(final int index) {
+    return nodes.get(index);
+  }
+
+  /** Spring context of a running shard. */
+  ConfigurableApplicationContext context(final int index) {
+    return contexts.get(index);
+  }
+
+  @Override
+  public void close() {
+    contexts.forEach(ConfigurableApplicationContext::close);
+  }
+
+  private static int freePort() {
+    try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+      return socket.getLocalPort();
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,272 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.model.MappedCounterStore;
+import dev.coms4156.project.individualproject.repository.CatalogueRepositoryConfig;
+import dev.coms4156.project.individualproject.repository.FileCatalogueRepository;
+import dev.coms4156.project.individualproject.repository.InMemoryCatalogueRepository;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for {@link MappedCounterStore} and the off-heap counters of {@link Book}.
+ */
+class MappedCounterStoreTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void bind_newSlot_keepsBookValues() {
+    try (MappedCounterStore store = new MappedCounterStore(dir.resolve("counters.bin"))) {
+      final Book book = new Book("A", 1);
+      book.addCopy();
+
+      assertFalse(book.bindCounters(store), "fresh slot should be seeded from the book");
+      assertEquals(2, book.getCopiesAvailable());
+      assertEquals(2, book.getTotalCopies());
+      assertEquals(0, book.getAmountOfTimesCheckedOut());
+    }
+  }
+
+  @Test
+  void countersSurviveReopen_andTakePrecedence() {
+    final Path file = dir.resolve("counters.bin");
+    try (MappedCounterStore store = new MappedCounterStore(file)) {
+      final Book book = new Book("A", 42);
+      book.bindCounters(store);
+      assertNotNull(book.checkoutCopy());
+      book.addCopy();
+    }
+
+    try (MappedCounterStore store = new MappedCounterStore(file)) {
+      final Book reloaded = new Book("A", 42);
+      assertTrue(reloaded.bindCounters(store), "existing slot should be adopted");
+      assertEquals(1, reloaded.getCopiesAvailable());
+      assertEquals(2, reloaded.getTotalCopies());
+      assertEquals(1, reloaded.getAmountOfTimesCheckedOut());
+    }
+  }
+
+  @Test
+  void writeCounters_replacesStaleSlot() {
+    try (MappedCounterStore store = new MappedCounterStore(dir.resolve("counters.bin"))) {
+      final Book removed = new Book("Old", 5);
+      removed.bindCounters(store);
+      removed.addCopy();
+      removed.checkoutCopy();
+
+      final Book recreated = new Book("New", 5);
+      recreated.writeCounters(store);
+      assertEquals(1, recreated.getCopiesAvailable());
+      assertEquals(1, recreated.getTotalCopies());
+      assertEquals(0, recreated.getAmountOfTimesCheckedOut());
+    }
+  }
+
+  @Test
+  void largeId_growsMapping() {
+    try (MappedCounterStore store = new MappedCounterStore(dir.resolve("counters.bin"))) {
+      final Book small = new Book("S", 3);
+      small.bindCounters(store);
+      final Book large = new Book("L", 1_000_000);
+      large.bindCounters(store);
+      large.addCopy();
+      small.addCopy();
+
+      assertEquals(2, large.getTotalCopies());
+      assertEquals(2, small.getTotalCopies());
+    }
+  }
+
+  @Test
+  void unsupportedId_staysOnHeap() {
+    try (MappedCounterStore store = new MappedCounterStore(dir.resolve("counters.bin"))) {
+      final Book book = new Book("N", -5);
+      assertFalse(book.bindCounters(store));
+      book.addCopy();
+      assertEquals(2, book.getTotalCopies());
+    }
+  }
+
+  @Test
+  void boundBook_rejectsIdChange() {
+    try (MappedCounterStore store = new MappedCounterStore(dir.resolve("counters.bin"))) {
+      final Book book = new Book("A", 1);
+      book.bindCounters(store);
+      assertThrows(IllegalStateException.class, () -> book.setId(2));
+    }
+  }
+
+  @Test
+  void concurrentCheckouts_neverOversell() throws Exception {
+    try (MappedCounterStore store = new MappedCounterStore(dir.resolve("counters.bin"))) {
+      final Book book = new Book("Hot", 7);
+      book.bindCounters(store);
+      for (int i = 0; i < 99; i++) {
+        book.addCopy();
+      }
+      final ExecutorService pool = Executors.newFixedThreadPool(8);
+      final List<Future<Integer>> results = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        results.add(pool.submit(() -> {
+          int won = 0;
+          for (int i = 0; i < 50; i++) {
+            // Counters are atomic; returnDates is guarded by the caller, as the service does.
+            synchronized (book) {
+              if (book.checkoutCopy() != null) {
+                won++;
+              }
+            }
+          }
+          return won;
+        }));
+      }
+      int total = 0;
+      for (final Future<Integer> result : results) {
+        total += result.get();
+      }
+      pool.shutdown();
+      assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+      assertEquals(100, total);
+      assertEquals(0, book.getCopiesAvailable());
+      assertEquals(100, book.getAmountOfTimesCheckedOut());
+    }
+  }
+
+  @Test
+  void serialization_readsOffHeapCounters() throws Exception {
+    try (MappedCounterStore store = new MappedCounterStore(dir.resolve("counters.bin"))) {
+      final Book book = new Book("A", 9);
+      book.bindCounters(store);
+      book.checkoutCopy();
+
+      final JsonNode json = new ObjectMapper().valueToTree(book);
+      assertEquals(0, json.get("copiesAvailable").asInt());
+      assertEquals(1, json.get("amountOfTimesCheckedOut").asInt());
+    }
+  }
+
+  @Test
+  void service_importAndUpdateStoreTheirOwnCounts() throws Exception {
+    try (MappedCounterStore store = new MappedCounterStore(dir.resolve("counters.bin"))) {
+      final MockApiService svc = new MockApiService(new InMemoryCatalogueRepository(), store);
+      final Book book = svc.getBooks().get(0);
+      svc.addCopy(book);
+      svc.addCopy(book);
+
+      svc.importBooks(new StringReader("{\"id\":" + book.getId()
+          + ",\"title\":\"T\",\"copiesAvailable\":7,\"totalCopies\":9}"), 10);
+      assertEquals(7, svc.findBook(book.getId()).orElseThrow().getCopiesAvailable());
+      assertEquals(9, svc.findBook(book.getId()).orElseThrow().getTotalCopies());
+
+      final Book update = new Book(svc.findBook(book.getId()).orElseThrow());
+      update.setTotalCopies(12);
+      svc.updateBook(update);
+      assertEquals(12, svc.findBook(book.getId()).orElseThrow().getTotalCopies());
+    }
+  }
+
+  @Test
+  void service_returnsCopiesCheckedOutBeforeRestart() {
+    final Path counters = dir.resolve("counters.bin");
+    final Path journal = dir.resolve("catalogue.ndjson");
+    final int id;
+    final String due;
+    try (MappedCounterStore store = new MappedCounterStore(counters);
+         FileCatalogueRepository repo = new FileCatalogueRepository(journal)) {
+      final MockApiService svc = new MockApiService(repo, store);
+      final Book book = svc.getBooks().stream().filter(Book::hasCopies).findFirst().orElseThrow();
+      id = book.getId();
+      due = svc.checkoutCopy(book);
+    }
+
+    try (MappedCounterStore store = new MappedCounterStore(counters);
+         FileCatalogueRepository repo = new FileCatalogueRepository(journal)) {
+      final MockApiService svc = new MockApiService(repo, store);
+      final Book book = svc.findBook(id).orElseThrow();
+      final int available = book.getCopiesAvailable();
+      assertTrue(svc.returnCopy(book, due));
+      assertEquals(available + 1, svc.findBook(id).orElseThrow().getCopiesAvailable());
+    }
+  }
+
+  @Test
+  void config_refusesCounterFileWithMemoryBackend() {
+    final CatalogueRepositoryConfig config = new CatalogueRepositoryConfig();
+    assertThrows(IllegalStateException.class,
+        () -> config.mappedCounterStore("memory", dir.resolve("counters.bin")));
+  }
+
+  @Test
+  void config_refusesCounterFileWithRemoteBackend() {
+    final CatalogueRepositoryConfig config = new CatalogueRepositoryConfig();
+    assertThrows(IllegalStateException.class,
+        () -> config.mappedCounterStore("remote", dir.resolve("counters.bin")));
+  }
+
+  @Test
+  void service_keepsCopyCountChangesOffTheJournal() throws Exception {
+    final Path counters = dir.resolve("counters.bin");
+    final Path journal = dir.resolve("catalogue.ndjson");
+    final int id;
+    final int total;
+    try (MappedCounterStore store = new MappedCounterStore(counters);
+         FileCatalogueRepository repo = new FileCatalogueRepository(journal)) {
+      final MockApiService svc = new MockApiService(repo, store);
+      final Book book = svc.getBooks().get(0);
+      id = book.getId();
+      total = book.getTotalCopies();
+      final long journaled = Files.size(journal);
+      svc.addCopy(book);
+      svc.addCopy(book);
+      assertTrue(svc.deleteCopy(book));
+      assertEquals(journaled, Files.size(journal), "copy counts must not be journaled");
+      assertEquals(total + 1, svc.getBooks().get(0).getTotalCopies());
+    }
+
+    try (MappedCounterStore store = new MappedCounterStore(counters);
+         FileCatalogueRepository repo = new FileCatalogueRepository(journal)) {
+      final MockApiService svc = new MockApiService(repo, store);
+      assertEquals(total + 1, svc.findBook(id).orElseThrow().getTotalCopies());
+    }
+  }
+
+  @Test
+  void service_restoresCountersAfterRestart() {
+    final Path file = dir.resolve("counters.bin");
+    final int id;
+    try (MappedCounterStore store = new MappedCounterStore(file)) {
+      final MockApiService svc = new MockApiService(new InMemoryCatalogueRepository(), store);
+      final Book book = svc.getBooks().stream().filter(Book::hasCopies).findFirst().orElseThrow();
+      id = book.getId();
+      svc.addCopy(book);
+      svc.addCopy(book);
+    }
+
+    try (MappedCounterStore store = new MappedCounterStore(file)) {
+      final MockApiService svc = new MockApiService(new InMemoryCatalogueRepository(), store);
+      final Book fresh = new MockApiService().findBook(id).orElseThrow();
+      assertEquals(fresh.getTotalCopies() + 2, svc.findBook(id).orElseThrow().getTotalCopies());
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package dev.coms4156.project.individualproject;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import dev.coms4156.project.individualproject.admission.AdmissionMetrics;
+import dev.coms4156.project.individualproject.controller.MetricsController;
+import dev.coms4156.project.individualproject.events.MutationEventConfig;
+import dev.coms4156.project.individualproject.instrumentation.TimingRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * MVC tests for {@link MetricsController} endpoints whose sources may be absent.
+ */
+@WebMvcTest(MetricsController.class)
+@Import({TimingRegistry.class, AdmissionMetrics.class, MutationEventConfig.class})
+class MetricsControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Test
+  void cacheMetrics_areEmptyWithoutCachingBackend() throws Exception {
+    mockMvc.perform(get("/metrics/cache"))
+        .andExpect(status().isOk())
+        .andExpect(content().json("{}", true));
+  }
+
+  @Test
+  void availabilityMetrics_areEmptyWithoutBroadcaster() throws Exception {
+    mockMvc.perform(get("/metrics/availability"))
+        .andExpect(status().isOk())
+        .andExpect(content().json("{}", true));
+  }
+
+  @Test
+  void eventMetrics_reportThePipeline() throws Exception {
+    mockMvc.perform(get("/metrics/events"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.policy").value("BLOCK"))
+        .andExpect(jsonPath("$.published").value(0));
+  }
+}
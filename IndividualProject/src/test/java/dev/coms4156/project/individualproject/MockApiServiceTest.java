@@ -2,13 +2,44 @@ package dev.coms4156.project.individualproject;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.model.BookPage;
+import dev.coms4156.project.individualproject.model.ImportReport;
+import dev.coms4156.project.individualproject.model.TrendingTitle;
+import dev.coms4156.project.individualproject.repository.InMemoryCatalogueRepository;
+import dev.coms4156.project.individualproject.service.BookSort;
+import dev.coms4156.project.individualproject.service.CatalogueDiff;
+import dev.coms4156.project.individualproject.service.CatalogueLoading;
+import dev.coms4156.project.individualproject.service.CoCheckoutRecommender;
 import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.TrendingTracker;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
 
 /**
  * Tests for {@link MockApiService}.
@@ -16,6 +47,8 @@ import org.junit.jupiter.api.Test;
  */
 class MockApiServiceTest {
 
+  private static final Resource SEED = new ClassPathResource("mockdata/books.json");
+
   @Test
   void constructor_initializesBooksList() {
     MockApiService svc = new MockApiService();
@@ -50,4 +83,404 @@ class MockApiServiceTest {
  
     assertEquals(before.size(), svc.getBooks().size(), "Size should not change on in-place update");
   }
-}
\ No newline at end of file
+
+  @Test
+  void findBook_returnsBookByIdOrEmpty() {
+    MockApiService svc = new MockApiService();
+    Book first = svc.getBooks().get(0);
+
+    assertEquals(first, svc.findBook(first.getId()).orElse(null));
+    assertTrue(svc.findBook(-1).isEmpty(), "Unknown ids should yield an empty result");
+  }
+
+  @Test
+  void addCopy_updatesStoredBook() {
+    MockApiService svc = new MockApiService();
+    Book first = svc.getBooks().get(0);
+    int before = first.getTotalCopies();
+
+    svc.addCopy(first);
+
+    assertEquals(before + 1, svc.findBook(first.getId()).orElseThrow().getTotalCopies());
+  }
+
+  @Test
+  void listBooks_byId_walksWholeCatalogueInPages() {
+    MockApiService svc = new MockApiService();
+    List<Book> all = svc.getBooks();
+
+    List<Integer> seen = new ArrayList<>();
+    String cursor = null;
+    do {
+      BookPage page = svc.listBooks(BookSort.ID, cursor, 7);
+      assertTrue(page.getBooks().size() <= 7);
+      page.getBooks().forEach(b -> seen.add(b.getId()));
+      cursor = page.getNextCursor();
+    } while (cursor != null);
+
+    assertEquals(all.stream().map(Book::getId).toList(), seen);
+  }
+
+  @Test
+  void listBooks_byPopularity_ordersByCheckoutsThenId() {
+    InMemoryCatalogueRepository repo = new InMemoryCatalogueRepository();
+    for (int id = 1; id <= 5; id++) {
+      Book book = new Book("T" + id, id);
+      book.addCopy();
+      book.addCopy();
+      repo.save(book);
+    }
+    MockApiService svc = new MockApiService(repo);
+    svc.checkoutCopy(svc.findBook(4).orElseThrow());
+    svc.checkoutCopy(svc.findBook(4).orElseThrow());
+    svc.checkoutCopy(svc.findBook(2).orElseThrow());
+
+    BookPage first = svc.listBooks(BookSort.POPULARITY, null, 2);
+    assertEquals(List.of(4, 2), first.getBooks().stream().map(Book::getId).toList());
+    assertNotNull(first.getNextCursor());
+
+    // The cursor is a position, not an offset: book 5 moves to (1 checkout, id 5), which is
+    // still after the cursor (1 checkout, id 2), and nothing is skipped or repeated.
+    svc.checkoutCopy(svc.findBook(5).orElseThrow());
+    BookPage second = svc.listBooks(BookSort.POPULARITY, first.getNextCursor(), 10);
+    assertEquals(List.of(5, 1, 3), second.getBooks().stream().map(Book::getId).toList());
+    assertNull(second.getNextCursor());
+  }
+
+  @Test
+  void listBooks_byPopularity_cursorIgnoresCheckoutsDuringThePage() {
+    AtomicBoolean armed = new AtomicBoolean();
+    List<MockApiService> service = new ArrayList<>();
+    InMemoryCatalogueRepository repo = new InMemoryCatalogueRepository() {
+      @Override
+      public Optional<Book> findById(final int id) {
+        if (id == 3 && armed.compareAndSet(true, false)) {
+          // A checkout landing while the page is being read.
+          service.get(0).checkoutCopy(new Book("", 3));
+        }
+        return super.findById(id);
+      }
+    };
+    for (int id = 1; id <= 5; id++) {
+      Book book = new Book("T" + id, id);
+      book.addCopy();
+      book.addCopy();
+      repo.save(book);
+    }
+    MockApiService svc = new MockApiService(repo);
+    service.add(svc);
+    svc.checkoutCopy(svc.findBook(1).orElseThrow());
+    svc.checkoutCopy(svc.findBook(3).orElseThrow());
+
+    armed.set(true);
+    BookPage first = svc.listBooks(BookSort.POPULARITY, null, 2);
+    assertEquals(List.of(1, 3), first.getBooks().stream().map(Book::getId).toList());
+    assertEquals(2, svc.findBook(3).orElseThrow().getAmountOfTimesCheckedOut());
+
+    // Book 3 moved ahead of the cursor; book 1, which did not move, must not come back.
+    BookPage second = svc.listBooks(BookSort.POPULARITY, first.getNextCursor(), 10);
+    assertEquals(List.of(2, 4, 5), second.getBooks().stream().map(Book::getId).toList());
+  }
+
+  @Test
+  void listBooks_rejectsForeignOrMalformedCursor() {
+    MockApiService svc = new MockApiService();
+    String idCursor = svc.listBooks(BookSort.ID, null, 1).getNextCursor();
+
+    assertThrows(IllegalArgumentException.class,
+        () -> svc.listBooks(BookSort.POPULARITY, idCursor, 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> svc.listBooks(BookSort.ID, "not a cursor", 1));
+  }
+
+  @Test
+  void getTrending_countsRecentCheckouts() {
+    InMemoryCatalogueRepository repo = new InMemoryCatalogueRepository();
+    repo.save(new Book("First", 1));
+    Book seeded = new Book("Second", 2);
+    seeded.addCopy();
+    repo.save(seeded);
+    MockApiService svc = new MockApiService(repo);
+    Book first = svc.findBook(1).orElseThrow();
+    Book second = svc.findBook(2).orElseThrow();
+
+    svc.checkoutCopy(second);
+    svc.checkoutCopy(first);
+    svc.checkoutCopy(second);
+
+    List<TrendingTitle> trending = svc.getTrending(5);
+    assertEquals(second.getId(), trending.get(0).getBook().getId());
+    assertEquals(2, trending.get(0).getCheckouts());
+    assertEquals(first.getId(), trending.get(1).getBook().getId());
+  }
+
+  @Test
+  void importBooks_upsertsInBatchesAndReportsErrors() throws IOException {
+    InMemoryCatalogueRepository repo = new InMemoryCatalogueRepository();
+    repo.save(new Book("Existing", 1));
+    MockApiService svc = new MockApiService(repo);
+    String body = String.join("\n",
+        "{\"id\":1,\"title\":\"Existing, revised\"}",
+        "{\"id\":2,\"title\":\"New\",\"totalCopies\":3,\"copiesAvailable\":3}",
+        "",
+        "{\"id\":3,\"title\":",
+        "{\"id\":0,\"title\":\"No id\"}",
+        "{\"id\":4,\"title\":\"Also new\"}");
+
+    ImportReport report = svc.importBooks(new StringReader(body), 2);
+
+    assertEquals(2, report.getCreated());
+    assertEquals(1, report.getUpdated());
+    assertEquals(2, report.getFailed());
+    assertEquals(3, report.getBatches().size());
+    assertEquals(3, report.getBatchCount());
+    assertEquals(List.of(4L, 5L),
+        report.getErrors().stream().map(ImportReport.ImportError::getLine).toList());
+    assertEquals("Existing, revised", svc.findBook(1).orElseThrow().getTitle());
+    assertEquals(3, svc.findBook(2).orElseThrow().getCopiesAvailable());
+    assertEquals(List.of(1, 2, 4), svc.getBooks().stream().map(Book::getId).toList());
+  }
+
+  @Test
+  void importBooks_listsOnlyTheFirstBatchesButTotalsAll() throws IOException {
+    MockApiService svc = new MockApiService(new InMemoryCatalogueRepository());
+    StringBuilder body = new StringBuilder();
+    int records = ImportReport.MAX_BATCHES + 50;
+    for (int id = 1; id <= records; id++) {
+      body.append("{\"id\":").append(id).append(",\"title\":\"T\"}\n");
+    }
+
+    ImportReport report = svc.importBooks(new StringReader(body.toString()), 1);
+
+    assertEquals(records, report.getCreated() + report.getUpdated());
+    assertEquals(records, report.getBatchCount());
+    assertEquals(ImportReport.MAX_BATCHES, report.getBatches().size());
+    assertTrue(report.getSlowestBatchMillis() <= report.getElapsedMillis());
+  }
+
+  @Test
+  void reloadCatalogue_appliesOnlyChangedRecordsAndKeepsCirculationState() {
+    InMemoryCatalogueRepository repo = new InMemoryCatalogueRepository();
+    repo.saveAll(List.of(new Book("One", 1), new Book("Two", 2), new Book("Three", 3)));
+    MockApiService svc = new MockApiService(repo);
+    // The first version of the source lists every book, so the next one may remove them.
+    assertTrue(svc.reloadCatalogue(
+        List.of(new Book("One", 1), new Book("Two", 2), new Book("Three", 3))).isEmpty());
+    final String due = svc.checkoutCopy(svc.findBook(1).orElseThrow());
+    svc.addCopy(svc.findBook(1).orElseThrow());
+    final Book untouched = svc.findBook(3).orElseThrow();
+    List<Book> source = List.of(new Book("One, corrected", 1), new Book("Three", 3),
+        new Book("Four", 4), new Book(" ", 5));
+
+    CatalogueDiff diff = svc.reloadCatalogue(source);
+
+    assertEquals(List.of(4), diff.getCreated().stream().map(Book::getId).toList());
+    assertEquals(List.of(1), diff.getUpdated().stream().map(Book::getId).toList());
+    assertEquals(List.of(2), diff.getRemoved());
+    assertEquals(1, diff.getUnchanged());
+    assertEquals(1, diff.getSkipped());
+
+    Book corrected = svc.findBook(1).orElseThrow();
+    assertEquals("One, corrected", corrected.getTitle());
+    assertEquals(1, corrected.getCopiesAvailable());
+    assertEquals(2, corrected.getTotalCopies());
+    assertEquals(1, corrected.getAmountOfTimesCheckedOut());
+    assertEquals(List.of(due), corrected.getReturnDates());
+    assertSame(untouched, svc.findBook(3).orElseThrow(), "unchanged records are not replaced");
+    assertEquals(List.of(1, 3, 4), svc.getBooks().stream().map(Book::getId).toList());
+    assertEquals(List.of(1, 3, 4), svc.listBooks(BookSort.POPULARITY, null, 10).getBooks()
+        .stream().map(Book::getId).toList());
+
+    assertTrue(svc.reloadCatalogue(source).isEmpty());
+    assertTrue(svc.returnCopy(corrected, due));
+  }
+
+  @Test
+  void reloadCatalogue_removesOnlyBooksAnEarlierSourceListed() throws IOException {
+    InMemoryCatalogueRepository repo = new InMemoryCatalogueRepository();
+    repo.saveAll(List.of(new Book("Before", 1), new Book("Listed", 2)));
+    MockApiService svc = new MockApiService(repo);
+    svc.importBooks(new StringReader("{\"id\":3,\"title\":\"Imported\"}"), 10);
+
+    CatalogueDiff first = svc.reloadCatalogue(List.of(new Book("Listed", 2)));
+    assertEquals(List.of(), first.getRemoved());
+
+    CatalogueDiff second = svc.reloadCatalogue(List.of(new Book("Four", 4)));
+    assertEquals(List.of(2), second.getRemoved());
+    assertEquals(List.of(1, 3, 4), svc.getBooks().stream().map(Book::getId).toList());
+  }
+
+  @Test
+  void reloadCatalogue_isAtomicForScansAndLosesNoConcurrentCheckouts() throws Exception {
+    final int books = 20;
+    InMemoryCatalogueRepository repo = new InMemoryCatalogueRepository();
+    for (int id = 1; id <= books; id++) {
+      repo.save(new Book("v0", List.of(), "", "", "", "", List.of(), id, 1_000_000, 1_000_000));
+    }
+    MockApiService svc = new MockApiService(repo);
+    AtomicBoolean done = new AtomicBoolean();
+    AtomicInteger checkouts = new AtomicInteger();
+    ExecutorService pool = Executors.newFixedThreadPool(3);
+    try {
+      Future<?> borrower = pool.submit(() -> {
+        for (int i = 0; !done.get(); i++) {
+          if (svc.checkoutCopy(new Book("", 1 + i % books)) != null) {
+            checkouts.incrementAndGet();
+          }
+        }
+      });
+      final Future<Integer> scanner = pool.submit(() -> {
+        int scans = 0;
+        while (!done.get()) {
+          Set<String> titles = new HashSet<>();
+          svc.getBooks().forEach(book -> titles.add(book.getTitle()));
+          assertEquals(1, titles.size(), "a scan mixed two reloads: " + titles);
+          scans++;
+        }
+        return scans;
+      });
+      for (int round = 1; round <= 200; round++) {
+        List<Book> source = new ArrayList<>();
+        for (int id = 1; id <= books; id++) {
+          source.add(new Book("v" + round, id));
+        }
+        svc.reloadCatalogue(source);
+      }
+      done.set(true);
+      borrower.get(10, TimeUnit.SECONDS);
+      assertTrue(scanner.get(10, TimeUnit.SECONDS) > 0);
+    } finally {
+      done.set(true);
+      pool.shutdownNow();
+    }
+
+    int recorded = 0;
+    for (Book book : svc.getBooks()) {
+      assertEquals("v200", book.getTitle());
+      recorded += book.getAmountOfTimesCheckedOut();
+    }
+    assertEquals(checkouts.get(), recorded);
+  }
+
+  @Test
+  void importAndUpdate_loseNothingToConcurrentCheckouts() throws Exception {
+    final int books = 8;
+    InMemoryCatalogueRepository repo = new InMemoryCatalogueRepository();
+    for (int id = 1; id <= books; id++) {
+      repo.save(new Book("v0", List.of(), "", "", "", "", List.of(), id, 1_000_000, 1_000_000));
+    }
+    MockApiService svc = new MockApiService(repo);
+    AtomicBoolean done = new AtomicBoolean();
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> borrowers = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        borrowers.add(pool.submit(() -> {
+          for (int i = 0; !done.get(); i++) {
+            svc.checkoutCopy(new Book("", 1 + i % books));
+          }
+        }));
+      }
+      for (int round = 1; round <= 300; round++) {
+        StringBuilder body = new StringBuilder();
+        for (int id = 1; id <= books; id++) {
+          body.append("{\"id\":").append(id).append(",\"title\":\"v").append(round)
+              .append("\",\"copiesAvailable\":1000000,\"totalCopies\":1000000}\n");
+        }
+        svc.importBooks(new StringReader(body.toString()), books);
+        final int updated = 1 + round % books;
+        Book update = new Book(svc.findBook(updated).orElseThrow());
+        update.setTitle("u" + round);
+        svc.updateBook(update);
+        // A checkout that persisted a replaced instance would bring back an older title.
+        Thread.sleep(1);
+        for (int id = 1; id <= books; id++) {
+          assertEquals((id == updated ? "u" : "v") + round,
+              svc.findBook(id).orElseThrow().getTitle(), "book " + id);
+        }
+      }
+      done.set(true);
+      for (Future<?> borrower : borrowers) {
+        borrower.get(10, TimeUnit.SECONDS);
+      }
+    } finally {
+      done.set(true);
+      pool.shutdownNow();
+    }
+
+    List<Integer> byPopularity = svc.listBooks(BookSort.POPULARITY, null, books * 2).getBooks()
+        .stream().map(Book::getId).toList();
+    assertEquals(books, byPopularity.size(), "popularity index holds stale entries");
+    assertEquals(books, new HashSet<>(byPopularity).size());
+  }
+
+  @Test
+  void lazyLoading_loadsOnFirstUse() {
+    CountingRepository repo = new CountingRepository();
+    MockApiService svc = service(repo, CatalogueLoading.LAZY, SEED);
+    assertFalse(svc.isLoaded());
+    assertEquals(0, repo.saveAllCalls.get());
+
+    assertTrue(svc.findBook(svc.getBooks().get(0).getId()).isPresent());
+    assertTrue(svc.isLoaded());
+  }
+
+  @Test
+  void concurrentFirstCalls_loadTheCatalogueOnce() throws Exception {
+    CountingRepository repo = new CountingRepository();
+    MockApiService svc = service(repo, CatalogueLoading.LAZY, SEED);
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<Integer>> sizes = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        sizes.add(pool.submit(() -> {
+          start.await();
+          return svc.getBooks().size();
+        }));
+      }
+      start.countDown();
+      for (Future<Integer> size : sizes) {
+        assertEquals(50, size.get(10, TimeUnit.SECONDS));
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+    assertEquals(1, repo.saveAllCalls.get());
+  }
+
+  @Test
+  void backgroundLoading_makesCallsWaitUntilLoaded() {
+    MockApiService svc = service(new CountingRepository(), CatalogueLoading.BACKGROUND, SEED);
+    assertEquals(50, svc.getBooks().size());
+    assertTrue(svc.isLoaded());
+    assertDoesNotThrow(svc::loadInBackground);
+  }
+
+  @Test
+  void missingSeed_startsEmpty() {
+    MockApiService svc = service(new CountingRepository(), CatalogueLoading.EAGER,
+        new ClassPathResource("mockdata/missing.json"));
+    assertTrue(svc.isLoaded());
+    assertTrue(svc.getBooks().isEmpty());
+  }
+
+  private static MockApiService service(CountingRepository repo, CatalogueLoading loading,
+                                        Resource seed) {
+    return new MockApiService(repo, null,
+        new TrendingTracker(Clock.systemUTC(), Duration.ofHours(1), 6),
+        new CoCheckoutRecommender(), null, id -> true, loading, seed);
+  }
+
+  /** Counts bulk writes, which the seed load makes exactly one of. */
+  private static final class CountingRepository extends InMemoryCatalogueRepository {
+
+    private final AtomicInteger saveAllCalls = new AtomicInteger();
+
+    @Override
+    public void saveAll(Collection<Book> batch) {
+      saveAllCalls.incrementAndGet();
+      super.saveAll(batch);
+    }
+  }
+}
@@ -0,0 +1,343 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.events.BackpressurePolicy;
+import dev.coms4156.project.individualproject.events.MpmcRingBuffer;
+import dev.coms4156.project.individualproject.events.MutationEvent;
+import dev.coms4156.project.individualproject.events.MutationEventPipeline;
+import dev.coms4156.project.individualproject.events.MutationListener;
+import dev.coms4156.project.individualproject.events.MutationType;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.repository.InMemoryCatalogueRepository;
+import dev.coms4156.project.individualproject.service.CoCheckoutRecommender;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.TrendingTracker;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Tests for {@link MpmcRingBuffer}, {@link MutationEventPipeline} and the events published by
+ * {@link MockApiService}.
+ */
+class MutationEventPipelineTest {
+
+  @Test
+  void ringBuffer_isFifoAndBounded() {
+    final MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(3);
+    assertEquals(4, buffer.capacity());
+    for (int i = 0; i < 4; i++) {
+      assertTrue(buffer.offer(i));
+    }
+    assertFalse(buffer.offer(4));
+    assertEquals(0, buffer.poll().intValue());
+    assertTrue(buffer.offer(4));
+    final List<Integer> drained = new ArrayList<>();
+    assertEquals(4, buffer.drainTo(drained, 10));
+    assertEquals(List.of(1, 2, 3, 4), drained);
+    assertNull(buffer.poll());
+  }
+
+  @Test
+  void ringBuffer_concurrentProducersAndConsumersLoseNothing() throws Exception {
+    final MpmcRingBuffer<Long> buffer = new MpmcRingBuffer<>(1024);
+    final int producers = 4;
+    final int perProducer = 100_000;
+    final AtomicLong sum = new AtomicLong();
+    final AtomicLong count = new AtomicLong();
+    final List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      threads.add(new Thread(() -> {
+        for (long i = 1; i <= perProducer; i++) {
+          while (!buffer.offer(i)) {
+            Thread.onSpinWait();
+          }
+        }
+      }));
+      threads.add(new Thread(() -> {
+        while (count.get() < (long) producers * perProducer) {
+          final Long value = buffer.poll();
+          if (value != null) {
+            sum.addAndGet(value);
+            count.incrementAndGet();
+          }
+        }
+      }));
+    }
+    threads.forEach(Thread::start);
+    for (final Thread thread : threads) {
+      thread.join(TimeUnit.SECONDS.toMillis(30));
+    }
+    assertEquals((long) producers * perProducer, count.get());
+    assertEquals((long) producers * perProducer * (perProducer + 1) / 2, sum.get());
+  }
+
+  @Test
+  void pipeline_deliversEveryEventInOrderInBoundedBatches() {
+    final List<Integer> seen = Collections.synchronizedList(new ArrayList<>());
+    final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    final MutationEventPipeline pipeline = new MutationEventPipeline(List.of(batch -> {
+      batchSizes.add(batch.size());
+      batch.forEach(e -> seen.add(e.getBookId()));
+    }), 64, 1, 8, BackpressurePolicy.BLOCK);
+    pipeline.start();
+    for (int i = 0; i < 1000; i++) {
+      pipeline.publish(event(i));
+    }
+    pipeline.close();
+
+    final List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      expected.add(i);
+    }
+    assertEquals(expected, seen);
+    assertTrue(batchSizes.stream().allMatch(size -> size <= 8));
+    assertEquals(1000L, pipeline.getStats().get("delivered"));
+  }
+
+  @Test
+  void pipeline_dropPolicyDiscardsWhenFull() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch stuck = new CountDownLatch(1);
+    final MutationEventPipeline pipeline = new MutationEventPipeline(
+        List.of(blockingListener(stuck, release)), 4, 1, 1, BackpressurePolicy.DROP);
+    pipeline.start();
+    pipeline.publish(event(0));
+    assertTrue(stuck.await(5, TimeUnit.SECONDS));
+    for (int i = 1; i <= 10; i++) {
+      pipeline.publish(event(i));
+    }
+    release.countDown();
+    pipeline.close();
+
+    assertEquals(6L, pipeline.getStats().get("dropped"));
+    assertEquals(5L, pipeline.getStats().get("delivered"));
+  }
+
+  @Test
+  void pipeline_callerRunsPolicyDeliversOnPublishingThread() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch stuck = new CountDownLatch(1);
+    final List<Thread> deliveringThreads = Collections.synchronizedList(new ArrayList<>());
+    final MutationListener blocking = blockingListener(stuck, release);
+    final Thread self = Thread.currentThread();
+    final MutationEventPipeline pipeline = new MutationEventPipeline(List.of(batch -> {
+      deliveringThreads.add(Thread.currentThread());
+      if (Thread.currentThread() != self) {
+        blocking.onEvents(batch);
+      }
+    }), 2, 1, 1, BackpressurePolicy.CALLER_RUNS);
+    pipeline.start();
+    pipeline.publish(event(0));
+    assertTrue(stuck.await(5, TimeUnit.SECONDS));
+    pipeline.publish(event(1));
+    pipeline.publish(event(2));
+    // The consumer is stuck and the buffer is full, so this one is delivered right here.
+    pipeline.publish(event(3));
+    assertTrue(deliveringThreads.contains(self));
+    release.countDown();
+    pipeline.close();
+
+    assertEquals(1L, pipeline.getStats().get("callerRuns"));
+    assertEquals(4L, pipeline.getStats().get("delivered"));
+  }
+
+  @Test
+  void pipeline_blockPolicyWaitsForSpace() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final CountDownLatch stuck = new CountDownLatch(1);
+    final MutationEventPipeline pipeline = new MutationEventPipeline(
+        List.of(blockingListener(stuck, release)), 2, 1, 1, BackpressurePolicy.BLOCK);
+    pipeline.start();
+    pipeline.publish(event(0));
+    assertTrue(stuck.await(5, TimeUnit.SECONDS));
+    pipeline.publish(event(1));
+    pipeline.publish(event(2));
+
+    final Thread producer = new Thread(() -> pipeline.publish(event(3)));
+    producer.start();
+    producer.join(200);
+    assertTrue(producer.isAlive(), "publish should wait while the buffer is full");
+
+    release.countDown();
+    producer.join(TimeUnit.SECONDS.toMillis(5));
+    pipeline.close();
+    assertEquals(4L, pipeline.getStats().get("delivered"));
+    assertEquals(0L, pipeline.getStats().get("dropped"));
+  }
+
+  @Test
+  void pipeline_failingListenerDoesNotStarveOthers() {
+    final List<MutationEvent> seen = Collections.synchronizedList(new ArrayList<>());
+    final MutationEventPipeline pipeline = new MutationEventPipeline(List.of(
+        batch -> {
+          throw new IllegalStateException("boom");
+        },
+        seen::addAll), 16, 1, 4, BackpressurePolicy.BLOCK);
+    pipeline.start();
+    pipeline.publish(event(1));
+    pipeline.publish(event(2));
+    pipeline.close();
+
+    assertEquals(2, seen.size());
+  }
+
+  @Test
+  void pipeline_idleConsumerSleepsUntilAnEventArrives() throws Exception {
+    final List<MutationEvent> seen = Collections.synchronizedList(new ArrayList<>());
+    final MutationEventPipeline pipeline = new MutationEventPipeline(List.of(seen::addAll),
+        16, 1, 4, BackpressurePolicy.BLOCK);
+    pipeline.start();
+    try {
+      awaitStat(pipeline, "sleepingConsumers", 1);
+      pipeline.publish(event(7));
+      awaitStat(pipeline, "delivered", 1L);
+      assertEquals(7, seen.get(0).getBookId());
+    } finally {
+      pipeline.close();
+    }
+  }
+
+  @Test
+  void pipeline_withoutListenersQueuesNothing() {
+    final MutationEventPipeline pipeline = new MutationEventPipeline(List.of(), 16, 2, 4,
+        BackpressurePolicy.BLOCK);
+    pipeline.start();
+    pipeline.publish(event(1));
+    pipeline.close();
+
+    assertEquals(0L, pipeline.getStats().get("published"));
+    assertEquals(0, pipeline.getStats().get("queued"));
+    assertEquals(0L, pipeline.getStats().get("dropped"));
+  }
+
+  @Test
+  void service_publishesTypedEventsForEachMutation() {
+    final List<MutationEvent> seen = Collections.synchronizedList(new ArrayList<>());
+    final MutationEventPipeline pipeline =
+        new MutationEventPipeline(List.of(seen::addAll), 64, 1, 16, BackpressurePolicy.BLOCK);
+    pipeline.start();
+    final MockApiService svc = service(pipeline);
+    final Book book = svc.findBook(1).orElseThrow();
+
+    final String due = svc.checkoutCopy(book);
+    svc.returnCopy(book, due);
+    svc.addCopy(book);
+    svc.deleteCopy(book);
+    svc.updateBook(new Book("Renamed", 1));
+    svc.deleteCopy(svc.findBook(2).orElseThrow());
+    svc.deleteCopy(svc.findBook(2).orElseThrow());
+    pipeline.close();
+
+    assertEquals(List.of(MutationType.CHECKOUT, MutationType.RETURN, MutationType.ADD_COPY,
+        MutationType.DELETE_COPY, MutationType.UPDATE, MutationType.DELETE_COPY),
+        seen.stream().map(MutationEvent::getType).toList());
+    assertEquals(due, seen.get(0).getDueDate());
+    assertEquals(0, seen.get(0).getCopiesAvailable());
+    assertEquals(2, seen.get(5).getBookId());
+  }
+
+  /**
+   * Checkout latency with a slow listener run inline versus through the pipeline.
+   * Run with {@code -Dbenchmark=true}.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+  void benchmark_checkoutLatencyInlineVersusPipeline() {
+    final int checkouts = 20_000;
+    // Stand-in for audit logging or an index update: ~20us of work per batch plus per event.
+    final MutationListener slow = batch -> LockSupport.parkNanos(20_000L + batch.size() * 2_000L);
+
+    final MockApiService inline = service(null);
+    final long[] inlineNanos = new long[checkouts];
+    for (int i = -checkouts / 4; i < checkouts; i++) {
+      final long start = System.nanoTime();
+      checkoutAndReturn(inline);
+      slow.onEvents(List.of(event(1)));
+      if (i >= 0) {
+        inlineNanos[i] = System.nanoTime() - start;
+      }
+    }
+
+    final MutationEventPipeline pipeline = new MutationEventPipeline(
+        List.of(slow), 8192, 1, 256, BackpressurePolicy.BLOCK);
+    pipeline.start();
+    final MockApiService async = service(pipeline);
+    final long[] asyncNanos = new long[checkouts];
+    for (int i = -checkouts / 4; i < checkouts; i++) {
+      final long start = System.nanoTime();
+      checkoutAndReturn(async);
+      if (i >= 0) {
+        asyncNanos[i] = System.nanoTime() - start;
+      }
+    }
+    pipeline.close();
+
+    System.out.printf("checkout latency (us)  p50      p99      p99.9%n");
+    System.out.printf("inline listener       %7.1f  %7.1f  %7.1f%n",
+        percentile(inlineNanos, 50), percentile(inlineNanos, 99), percentile(inlineNanos, 99.9));
+    System.out.printf("event pipeline        %7.1f  %7.1f  %7.1f%n",
+        percentile(asyncNanos, 50), percentile(asyncNanos, 99), percentile(asyncNanos, 99.9));
+    System.out.println("pipeline stats: " + pipeline.getStats());
+    assertTrue(percentile(asyncNanos, 50) < percentile(inlineNanos, 50));
+  }
+
+  private static void checkoutAndReturn(final MockApiService svc) {
+    final Book book = svc.findBook(1).orElseThrow();
+    svc.returnCopy(book, svc.checkoutCopy(book));
+  }
+
+  private static double percentile(final long[] nanos, final double pct) {
+    final long[] sorted = nanos.clone();
+    Arrays.sort(sorted);
+    final int index = (int) Math.min(sorted.length - 1, Math.ceil(pct / 100 * sorted.length) - 1);
+    return sorted[Math.max(0, index)] / 1000.0;
+  }
+
+  private static MockApiService service(final MutationEventPipeline pipeline) {
+    final InMemoryCatalogueRepository repo = new InMemoryCatalogueRepository();
+    repo.save(new Book("One", 1));
+    repo.save(new Book("Two", 2));
+    return new MockApiService(repo, null,
+        new TrendingTracker(Clock.systemUTC(), Duration.ofHours(1), 6),
+        new CoCheckoutRecommender(), pipeline);
+  }
+
+  private static void awaitStat(final MutationEventPipeline pipeline, final String name,
+                                final Object expected) throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!expected.equals(pipeline.getStats().get(name)) && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    assertEquals(expected, pipeline.getStats().get(name), name);
+  }
+
+  private static MutationListener blockingListener(final CountDownLatch stuck,
+                                                   final CountDownLatch release) {
+    return batch -> {
+      stuck.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+  }
+
+  private static MutationEvent event(final int bookId) {
+    return new MutationEvent(MutationType.CHECKOUT, bookId, 0, 1, 1, null, 0L);
+  }
+}
@@ -0,0 +1,172 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.cache.ReadThroughCache;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ReadThroughCache} on a manual clock, with refreshes run either inline
+ * or when the test chooses.
+ */
+class ReadThroughCacheTest {
+
+  private final AtomicLong now = new AtomicLong();
+
+  private final AtomicInteger version = new AtomicInteger();
+
+  private final List<Runnable> pendingRefreshes = new ArrayList<>();
+
+  private volatile boolean failing;
+
+  private final ReadThroughCache.Loader<Integer, String> loader = key -> {
+    if (failing) {
+      throw new IOException("upstream down");
+    }
+    return key + "@" + version.get();
+  };
+
+  private ReadThroughCache<Integer, String> cache(final int maximumSize) {
+    return new ReadThroughCache<>(loader, maximumSize, Duration.ofSeconds(60),
+        Duration.ofSeconds(30), pendingRefreshes::add, now::get);
+  }
+
+  private void advance(final Duration duration) {
+    now.addAndGet(duration.toNanos());
+  }
+
+  private void runRefreshes() {
+    final List<Runnable> due = new ArrayList<>(pendingRefreshes);
+    pendingRefreshes.clear();
+    due.forEach(Runnable::run);
+  }
+
+  @Test
+  void expiredEntry_isReloadedBeforeUse() {
+    final ReadThroughCache<Integer, String> cache = cache(10);
+    assertEquals("1@0", cache.get(1));
+
+    version.set(1);
+    advance(Duration.ofSeconds(61));
+
+    assertEquals("1@1", cache.get(1));
+    assertEquals(2L, cache.getStats().get("loads"));
+  }
+
+  @Test
+  void agingEntry_isServedStaleWhileRefreshing() {
+    final ReadThroughCache<Integer, String> cache = cache(10);
+    cache.get(1);
+    version.set(1);
+    advance(Duration.ofSeconds(31));
+
+    assertEquals("1@0", cache.get(1));
+    assertEquals("1@0", cache.get(1));
+    assertEquals(1, pendingRefreshes.size(), "one refresh per entry at a time");
+
+    runRefreshes();
+    assertEquals("1@1", cache.get(1));
+    assertEquals(1L, cache.getStats().get("refreshes"));
+    assertEquals(1L, cache.getStats().get("misses"), "stale hits must not count as misses");
+  }
+
+  @Test
+  void invalidatedEntry_isReloadedOnNextGet() {
+    final ReadThroughCache<Integer, String> cache = cache(10);
+    cache.put(1, "1@local");
+    version.set(1);
+
+    cache.invalidate(1);
+    assertNull(cache.getIfPresent(1));
+    assertEquals("1@1", cache.get(1));
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  void failedRefresh_keepsServingUntilExpiry() {
+    final ReadThroughCache<Integer, String> cache = cache(10);
+    cache.get(1);
+    failing = true;
+    advance(Duration.ofSeconds(31));
+
+    cache.get(1);
+    runRefreshes();
+    assertEquals("1@0", cache.get(1));
+
+    advance(Duration.ofSeconds(30));
+    assertThrows(UncheckedIOException.class, () -> cache.get(1));
+    assertEquals(2L, cache.getStats().get("loadFailures"));
+  }
+
+  @Test
+  void put_winsOverAnEarlierRefresh() {
+    final ReadThroughCache<Integer, String> cache = cache(10);
+    cache.get(1);
+    version.set(1);
+    advance(Duration.ofSeconds(31));
+    cache.get(1);
+
+    cache.put(1, "written");
+    runRefreshes();
+
+    assertEquals("written", cache.get(1));
+    assertEquals(0L, cache.getStats().get("refreshes"));
+  }
+
+  @Test
+  void hotSet_survivesScan() {
+    final ReadThroughCache<Integer, String> cache = cache(100);
+    for (int round = 0; round < 5; round++) {
+      for (int key = 0; key < 50; key++) {
+        cache.get(key);
+      }
+    }
+
+    for (int key = 1000; key < 3000; key++) {
+      cache.get(key);
+    }
+
+    int retained = 0;
+    for (int key = 0; key < 50; key++) {
+      if (cache.getIfPresent(key) != null) {
+        retained++;
+      }
+    }
+    // Sketch collisions may cost a hot key or two; plain LRU would have kept none.
+    assertTrue(retained >= 45, "one-off keys displaced " + (50 - retained) + " hot keys");
+    assertTrue(cache.size() <= 100);
+    assertTrue((long) cache.getStats().get("evictions") >= 1900);
+  }
+
+  @Test
+  void stats_reportHitRatioAndLoadLatency() {
+    final ReadThroughCache<Integer, String> cache = cache(10);
+    cache.get(1);
+    cache.get(1);
+    cache.get(1);
+    cache.get(2);
+
+    final Map<String, Object> stats = cache.getStats();
+    assertEquals(2L, stats.get("hits"));
+    assertEquals(2L, stats.get("misses"));
+    assertEquals(0.5, (double) stats.get("hitRatio"), 1e-9);
+    assertTrue((double) stats.get("meanLoadMillis") >= 0.0);
+    assertNull(cache.getIfPresent(3));
+  }
+
+  @Test
+  void nonPositiveSize_isRejected() {
+    assertThrows(IllegalArgumentException.class, () -> cache(0));
+  }
+}
@@ -0,0 +1,45 @@
+package dev.coms4156.project.individualproject;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import dev.coms4156.project.individualproject.controller.ReadinessController;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * MVC tests for {@link ReadinessController}.
+ */
+@WebMvcTest(ReadinessController.class)
+class ReadinessControllerTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @MockBean
+  private MockApiService mockApiService;
+
+  @Test
+  void ready_isUnavailableWhileLoading_andStartsLazyLoad() throws Exception {
+    Mockito.when(mockApiService.isLoaded()).thenReturn(false);
+
+    mockMvc.perform(get("/ready"))
+        .andExpect(status().isServiceUnavailable())
+        .andExpect(header().string("Retry-After", "1"));
+    Mockito.verify(mockApiService).loadInBackground();
+  }
+
+  @Test
+  void ready_isOkOnceLoaded() throws Exception {
+    Mockito.when(mockApiService.isLoaded()).thenReturn(true);
+
+    mockMvc.perform(get("/ready")).andExpect(status().isOk());
+    Mockito.verify(mockApiService, Mockito.never()).loadInBackground();
+  }
+}
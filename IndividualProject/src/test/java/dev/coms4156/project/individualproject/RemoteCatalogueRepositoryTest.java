@@ -0,0 +1,220 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.controller.RouteController;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.repository.CatalogueRepository;
+import dev.coms4156.project.individualproject.repository.RemoteCatalogueClient;
+import dev.coms4156.project.individualproject.repository.RemoteCatalogueRepository;
+import dev.coms4156.project.individualproject.service.BookSort;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the repository contract against {@link RemoteCatalogueRepository} backed by a
+ * {@link StubCatalogueServer}, plus caching checks.
+ */
+class RemoteCatalogueRepositoryTest extends CatalogueRepositoryContractTest {
+
+  private StubCatalogueServer upstream;
+
+  @Override
+  protected CatalogueRepository newRepository() {
+    try {
+      upstream = new StubCatalogueServer();
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return new RemoteCatalogueRepository(
+        new RemoteCatalogueClient(upstream.uri(), Duration.ofSeconds(5)), 100_000,
+        Duration.ofMinutes(10), Duration.ofMinutes(5));
+  }
+
+  /** Every page is a loopback HTTP round trip, roughly 0.3 ms here. */
+  @Override
+  protected Duration pageBudget() {
+    return Duration.ofSeconds(30);
+  }
+
+  @AfterEach
+  void stopUpstream() {
+    upstream.close();
+  }
+
+  @Test
+  void concurrentMisses_costOneUpstreamLookup() throws Exception {
+    upstream.put(new Book("A", 1));
+    upstream.setLookupLatencyMillis(200);
+    final int readers = 16;
+    final ExecutorService pool = Executors.newFixedThreadPool(readers);
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Future<Book>> results = new ArrayList<>();
+    for (int i = 0; i < readers; i++) {
+      results.add(pool.submit(() -> {
+        start.await();
+        return repository.findById(1).orElseThrow();
+      }));
+    }
+    start.countDown();
+    final Book first = results.get(0).get();
+    for (final Future<Book> result : results) {
+      assertSame(first, result.get());
+    }
+    pool.shutdown();
+
+    assertEquals(1, upstream.lookups());
+    final Map<String, Object> stats = repository.getCacheStats();
+    assertEquals(1L, stats.get("loads"));
+    assertEquals((long) readers - 1, stats.get("coalescedMisses"));
+    assertTrue((double) stats.get("maxLoadMillis") >= 200.0);
+  }
+
+  @Test
+  void hitsAndKnownAbsentIds_stayLocal() {
+    upstream.put(new Book("A", 1));
+
+    for (int i = 0; i < 10; i++) {
+      assertEquals("A", repository.findById(1).orElseThrow().getTitle());
+      assertTrue(repository.findById(2).isEmpty());
+    }
+
+    assertEquals(2, upstream.lookups());
+    final Map<String, Object> stats = repository.getCacheStats();
+    assertEquals(18L, stats.get("hits"));
+    assertEquals(0.9, (double) stats.get("hitRatio"), 1e-9);
+  }
+
+  @Test
+  void writes_reachTheUpstreamAndTheCache() {
+    repository.save(new Book("A", 1));
+    assertEquals("A", upstream.get(1).getTitle());
+
+    repository.deleteById(1);
+    assertTrue(repository.findById(1).isEmpty());
+    assertNull(upstream.get(1));
+    assertEquals(0, upstream.lookups());
+  }
+
+  @Test
+  void scans_returnCachedInstances() {
+    repository.saveAll(List.of(new Book("A", 1), new Book("B", 2)));
+    final Book cached = repository.findById(1).orElseThrow();
+
+    assertSame(cached, repository.findAll().get(0));
+  }
+
+  @Test
+  void service_loadsWithOneUpstreamScanAndKeepsNoMirror() {
+    final MockApiService service = new MockApiService(repository);
+    assertEquals(1, upstream.scans());
+    final int size = service.getBooks().size();
+
+    final Book added = new Book("Added upstream", 100_000);
+    upstream.put(added);
+
+    // Scans page through the upstream rather than a copy taken at startup.
+    assertEquals(size + 1, service.getBooks().size());
+    assertEquals(3, upstream.scans());
+  }
+
+  @Test
+  void service_upstreamChangesReachAvailableBooksAndPopularity() throws Exception {
+    try (RemoteCatalogueRepository refreshing = new RemoteCatalogueRepository(
+        new RemoteCatalogueClient(upstream.uri(), Duration.ofSeconds(5)), 100_000,
+        Duration.ofMinutes(10), Duration.ZERO)) {
+      for (int id = 1; id <= 3; id++) {
+        upstream.put(new Book("T" + id, id));
+      }
+      final MockApiService service = new MockApiService(refreshing);
+      final RouteController controller = new RouteController(service);
+      final Book uncached = upstream.get(1);
+      final Book cached = service.findBook(2).orElseThrow();
+      assertTrue(availableIds(controller).contains(uncached.getId()));
+
+      final Book lent = new Book(uncached);
+      while (lent.hasCopies()) {
+        lent.checkoutCopy();
+      }
+      upstream.put(lent);
+      final Book popular = new Book(cached);
+      for (int i = 0; i < 50; i++) {
+        popular.returnCopy(popular.checkoutCopy());
+      }
+      upstream.put(popular);
+
+      assertFalse(availableIds(controller).contains(uncached.getId()));
+      // The next hit refreshes the cached book in the background and re-indexes it.
+      service.findBook(cached.getId());
+      final long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+      while (firstByPopularity(service) != cached.getId() && System.nanoTime() < deadline) {
+        Thread.sleep(20);
+      }
+      assertEquals(cached.getId(), firstByPopularity(service));
+      assertEquals(50, service.findBook(cached.getId()).orElseThrow()
+          .getAmountOfTimesCheckedOut());
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static List<Integer> availableIds(final RouteController controller) {
+    return ((List<Book>) controller.getAvailableBooks().getBody()).stream().map(Book::getId)
+        .toList();
+  }
+
+  private static int firstByPopularity(final MockApiService service) {
+    return service.listBooks(BookSort.POPULARITY, null, 1).getBooks().get(0).getId();
+  }
+
+  @Test
+  void service_checkoutIsWrittenUpstream() {
+    final MockApiService service = new MockApiService(repository);
+    final Book book = service.getBooks().stream().filter(Book::hasCopies).findFirst()
+        .orElseThrow();
+
+    assertNotNull(service.checkoutCopy(book));
+
+    final Book live = service.findBook(book.getId()).orElseThrow();
+    final Book stored = upstream.get(book.getId());
+    assertEquals(book.getCopiesAvailable() - 1, stored.getCopiesAvailable());
+    assertEquals(live.getCopiesAvailable(), stored.getCopiesAvailable());
+    assertEquals(live.getAmountOfTimesCheckedOut(), stored.getAmountOfTimesCheckedOut());
+  }
+
+  @Test
+  void service_failedWriteLeavesNoUnsavedStateBehind() {
+    final MockApiService service = new MockApiService(repository);
+    final Book book = service.getBooks().stream().filter(Book::hasCopies).findFirst()
+        .orElseThrow();
+    final int available = book.getCopiesAvailable();
+    upstream.setFailWrites(true);
+
+    assertThrows(UncheckedIOException.class, () -> service.checkoutCopy(book));
+
+    upstream.setFailWrites(false);
+    final Book live = service.findBook(book.getId()).orElseThrow();
+    assertEquals(available, live.getCopiesAvailable());
+    assertTrue(live.getReturnDates().isEmpty());
+    assertEquals(available, service.getBooks().stream()
+        .filter(b -> b.getId() == book.getId()).findFirst().orElseThrow().getCopiesAvailable());
+    assertNotNull(service.checkoutCopy(live));
+    assertEquals(available - 1, upstream.get(book.getId()).getCopiesAvailable());
+  }
+}
@@ -6,14 +6,23 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import dev.coms4156.project.individualproject.controller.BinaryCodecConfig;
 import dev.coms4156.project.individualproject.controller.RouteController;
 import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.model.BookPage;
+import dev.coms4156.project.individualproject.model.ImportReport;
+import dev.coms4156.project.individualproject.model.RelatedTitle;
+import dev.coms4156.project.individualproject.model.TrendingTitle;
+import dev.coms4156.project.individualproject.service.BookSort;
 import dev.coms4156.project.individualproject.service.MockApiService;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -28,6 +37,7 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest; 
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType; 
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -38,6 +48,7 @@ import org.springframework.test.web.servlet.MockMvc;
  * is mocked via {@code @MockBean}.
  */
 @WebMvcTest(RouteController.class)
+@Import(BinaryCodecConfig.class)
 class RouteControllerTest {
 
   @Autowired
@@ -57,7 +68,25 @@ class RouteControllerTest {
     books.add(b1);
     books.add(b2);
 
-    Mockito.when(mockApiService.getBooks()).thenReturn(new ArrayList<>(books));
+    stubCatalogue(books);
+    // Service mutations delegate to the book so controller responses reflect the change.
+    Mockito.when(mockApiService.checkoutCopy(Mockito.any()))
+        .thenAnswer(inv -> inv.<Book>getArgument(0).checkoutCopy());
+    Mockito.doAnswer(inv -> {
+      inv.<Book>getArgument(0).addCopy();
+      return null;
+    }).when(mockApiService).addCopy(Mockito.any());
+    Mockito.when(mockApiService.returnCopy(Mockito.any(), Mockito.anyString()))
+        .thenAnswer(inv -> inv.<Book>getArgument(0).returnCopy(inv.getArgument(1)));
+  }
+
+  /** Stubs both the full scan and the by-id lookup over {@code catalogue}. */
+  private void stubCatalogue(final List<Book> catalogue) {
+    Mockito.when(mockApiService.getBooks()).thenReturn(new ArrayList<>(catalogue));
+    Mockito.when(mockApiService.findBook(Mockito.anyInt())).thenAnswer(inv -> {
+      final int id = inv.getArgument(0);
+      return catalogue.stream().filter(b -> b.getId() == id).findFirst();
+    });
   }
 
   @Test
@@ -76,6 +105,95 @@ class RouteControllerTest {
         .andExpect(jsonPath("$.title").value("A"));
   }
 
+  @Test
+  void listBooks_returnsPageAndNextCursor() throws Exception {
+    Mockito.when(mockApiService.listBooks(BookSort.POPULARITY, "abc", 2))
+        .thenReturn(new BookPage(books, "next"));
+
+    mockMvc.perform(get("/books").param("sort", "popularity")
+            .param("cursor", "abc").param("limit", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.books", hasSize(2)))
+        .andExpect(jsonPath("$.nextCursor").value("next"));
+  }
+
+  @Test
+  void listBooks_invalidParameters_return400() throws Exception {
+    Mockito.when(mockApiService.listBooks(Mockito.any(), Mockito.eq("bad"), Mockito.anyInt()))
+        .thenThrow(new IllegalArgumentException("Invalid cursor."));
+
+    mockMvc.perform(get("/books").param("sort", "title"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/books").param("limit", "0"))
+        .andExpect(status().isBadRequest());
+    mockMvc.perform(get("/books").param("cursor", "bad"))
+        .andExpect(status().isBadRequest())
+        .andExpect(content().string("Invalid cursor."));
+  }
+
+  @Test
+  void getTrending_returnsTitlesWithWindowCounts() throws Exception {
+    Mockito.when(mockApiService.getTrending(5))
+        .thenReturn(List.of(new TrendingTitle(books.get(1), 4)));
+
+    mockMvc.perform(get("/books/trending").param("limit", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)))
+        .andExpect(jsonPath("$[0].book.id").value(2))
+        .andExpect(jsonPath("$[0].checkouts").value(4));
+  }
+
+  @Test
+  void getTrending_invalidLimit_returns400() throws Exception {
+    mockMvc.perform(get("/books/trending").param("limit", "0"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void getAlsoBorrowed_returnsRelatedTitles() throws Exception {
+    Mockito.when(mockApiService.getAlsoBorrowed(1, 5))
+        .thenReturn(List.of(new RelatedTitle(books.get(1), 3)));
+
+    mockMvc.perform(get("/book/1/also-borrowed"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].book.id").value(2))
+        .andExpect(jsonPath("$[0].coCheckouts").value(3));
+  }
+
+  @Test
+  void getAlsoBorrowed_notFound_returns404() throws Exception {
+    mockMvc.perform(get("/book/99/also-borrowed"))
+        .andExpect(status().isNotFound());
+  }
+
+  @Test
+  void checkout_withPatron_recordsCoCheckout() throws Exception {
+    mockMvc.perform(patch("/checkout").param("id", "1").param("patronId", "p-7"))
+        .andExpect(status().isOk());
+
+    Mockito.verify(mockApiService).recordPatronCheckout("p-7", 1);
+  }
+
+  @Test
+  void importBooks_streamsBodyToService() throws Exception {
+    final ImportReport report = new ImportReport();
+    report.addBatch(new ImportReport.BatchStats(1, 2, 0, 0, 1.5));
+    Mockito.when(mockApiService.importBooks(Mockito.any(), Mockito.eq(100))).thenReturn(report);
+
+    mockMvc.perform(post("/books/import").param("batchSize", "100")
+            .contentType("application/x-ndjson")
+            .content("{\"id\":7,\"title\":\"X\"}\n{\"id\":8,\"title\":\"Y\"}\n"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.created").value(2))
+        .andExpect(jsonPath("$.batches[0].recordsPerSecond").exists());
+  }
+
+  @Test
+  void importBooks_invalidBatchSize_returns400() throws Exception {
+    mockMvc.perform(post("/books/import").param("batchSize", "0").content("{}"))
+        .andExpect(status().isBadRequest());
+  }
+
   @Test
   void getAvailableBooks_returnsAvailableBooksList() throws Exception {
     mockMvc.perform(get("/books/available"))
@@ -84,6 +202,49 @@ class RouteControllerTest {
         .andExpect(jsonPath("$", hasSize(2)));
   }
 
+  @Test
+  void getAvailableBooks_acceptCbor_returnsCborEncodedList() throws Exception {
+    final MediaType cbor = MediaType.APPLICATION_CBOR;
+    final byte[] body = mockMvc.perform(get("/books/available").accept(cbor))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(cbor))
+        .andReturn()
+        .getResponse()
+        .getContentAsByteArray();
+
+    final List<Book> decoded = new CBORMapper().readValue(body, new TypeReference<>() {});
+    assertEquals(List.of(1, 2), decoded.stream().map(Book::getId).toList());
+    assertEquals("A", decoded.get(0).getTitle());
+  }
+
+  @Test
+  void getBook_acceptSmile_returnsSmileEncodedBook() throws Exception {
+    final MediaType smile = new MediaType("application", "x-jackson-smile");
+    final byte[] body = mockMvc.perform(get("/book/2").accept(smile))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(smile))
+        .andReturn()
+        .getResponse()
+        .getContentAsByteArray();
+
+    final Book decoded = new SmileMapper().readValue(body, Book.class);
+    assertEquals(2, decoded.getId());
+    assertEquals("B", decoded.getTitle());
+  }
+
+  @Test
+  void getTrending_jsonUnlessBinaryIsPreferred() throws Exception {
+    Mockito.when(mockApiService.getTrending(Mockito.anyInt())).thenReturn(List.of());
+
+    mockMvc.perform(get("/books/trending")
+            .header("Accept", "application/cbor, application/json;q=0.5"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR));
+    mockMvc.perform(get("/books/trending").header("Accept", "*/*"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+  }
+
   @Test
   void addCopy_found_returns200() throws Exception {
     mockMvc.perform(patch("/book/1/add"))
@@ -111,7 +272,7 @@ class RouteControllerTest {
       }
       catalogue.add(b);
     }
-    Mockito.when(mockApiService.getBooks()).thenReturn(catalogue);
+    stubCatalogue(catalogue);
 
     final String body = mockMvc.perform(get("/books/recommendation"))
         .andExpect(status().isOk())
@@ -150,7 +311,7 @@ class RouteControllerTest {
         new Book("B", 2),
         new Book("C", 3)
     );
-    Mockito.when(mockApiService.getBooks()).thenReturn(few);
+    stubCatalogue(few);
 
     mockMvc.perform(get("/books/recommendation"))
         .andExpect(status().isBadRequest());
@@ -165,7 +326,7 @@ class RouteControllerTest {
     Book book = new Book("C", 3);
     List<Book> list = new ArrayList<>();
     list.add(book);
-    Mockito.when(mockApiService.getBooks()).thenReturn(list);
+    stubCatalogue(list);
 
     mockMvc.perform(patch("/checkout").param("id", "3"))
         .andExpect(status().isOk())
@@ -174,7 +335,7 @@ class RouteControllerTest {
         .andExpect(jsonPath("$.copiesAvailable").value(0))
         .andExpect(jsonPath("$.amountOfTimesCheckedOut").value(1));
 
-    Mockito.verify(mockApiService).updateBook(Mockito.argThat(b -> b.getId() == 3));
+    Mockito.verify(mockApiService).checkoutCopy(Mockito.argThat(b -> b.getId() == 3));
   }
 
   /**
@@ -188,7 +349,7 @@ class RouteControllerTest {
 
     List<Book> list = new ArrayList<>();
     list.add(book);
-    Mockito.when(mockApiService.getBooks()).thenReturn(list);
+    stubCatalogue(list);
 
     mockMvc.perform(patch("/checkout").param("id", "4"))
         .andExpect(status().isBadRequest())
@@ -200,13 +361,80 @@ class RouteControllerTest {
    */
   @Test
   void checkout_notFound_returns404() throws Exception {
-    Mockito.when(mockApiService.getBooks()).thenReturn(new ArrayList<>());
+    stubCatalogue(new ArrayList<>());
 
     mockMvc.perform(patch("/checkout").param("id", "999"))
         .andExpect(status().isNotFound())
         .andExpect(content().string(org.hamcrest.Matchers.containsString("Book not found")));
   }
 
+  /** Return succeeds for a due date handed out at checkout. */
+  @Test
+  void return_success_returns200AndUpdatedBook() throws Exception {
+    final Book book = new Book("C", 3);
+    final String due = book.checkoutCopy();
+    stubCatalogue(List.of(book));
+
+    mockMvc.perform(patch("/return").param("id", "3").param("dueDate", due))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.copiesAvailable").value(1))
+        .andExpect(jsonPath("$.returnDates").isEmpty());
+  }
+
+  /**
+   * Mutations answer with the book as it is after the change, even if a reload replaced the
+   * instance found by the lookup and the service updated the replacement.
+   */
+  @Test
+  void mutations_returnTheInstanceTheServiceUpdated() throws Exception {
+    final Book looked = new Book("C", 3);
+    final Book replacement = new Book("C", 3);
+    replacement.addCopy();
+    final List<Book> catalogue = new ArrayList<>(List.of(looked));
+    stubCatalogue(catalogue);
+    // The service swaps in the replacement and mutates it, as mutateLive does after a reload.
+    Mockito.doAnswer(inv -> {
+      catalogue.set(0, replacement);
+      return replacement.checkoutCopy();
+    }).when(mockApiService).checkoutCopy(Mockito.any());
+    Mockito.doAnswer(inv -> {
+      replacement.addCopy();
+      return null;
+    }).when(mockApiService).addCopy(Mockito.any());
+    Mockito.doAnswer(inv -> replacement.returnCopy(inv.getArgument(1)))
+        .when(mockApiService).returnCopy(Mockito.any(), Mockito.anyString());
+
+    mockMvc.perform(patch("/checkout").param("id", "3"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.totalCopies").value(2))
+        .andExpect(jsonPath("$.copiesAvailable").value(1))
+        .andExpect(jsonPath("$.amountOfTimesCheckedOut").value(1));
+    mockMvc.perform(patch("/book/3/add"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.totalCopies").value(3));
+    final String due = replacement.getReturnDates().get(0);
+    mockMvc.perform(patch("/return").param("id", "3").param("dueDate", due))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.copiesAvailable").value(3))
+        .andExpect(jsonPath("$.returnDates").isEmpty());
+  }
+
+  /** Return is rejected when no copy with that due date is out. */
+  @Test
+  void return_unknownDueDate_returns400() throws Exception {
+    stubCatalogue(List.of(new Book("C", 3)));
+
+    mockMvc.perform(patch("/return").param("id", "3").param("dueDate", "2000-01-01"))
+        .andExpect(status().isBadRequest());
+  }
+
+  /** Return returns 404 when the book does not exist. */
+  @Test
+  void return_notFound_returns404() throws Exception {
+    mockMvc.perform(patch("/return").param("id", "999").param("dueDate", "2000-01-01"))
+        .andExpect(status().isNotFound());
+  }
+
   /** getBook returns 404 when not found. */
   @Test
   void getBook_notFound_returns404() throws Exception {
@@ -226,7 +454,8 @@ class RouteControllerTest {
   /** addCopy returns 500 when the service throws an exception. */
   @Test
   void addCopy_exception_returns500() throws Exception {
-    Mockito.when(mockApiService.getBooks()).thenThrow(new RuntimeException("oops"));
+    Mockito.when(mockApiService.findBook(Mockito.anyInt()))
+        .thenThrow(new RuntimeException("oops"));
     mockMvc.perform(patch("/book/1/add"))
         .andExpect(status().isInternalServerError())
         .andExpect(content().string(containsString("Error occurred when adding a copy")));
@@ -255,7 +484,8 @@ class RouteControllerTest {
   /** checkout returns 500 when the service throws. */
   @Test
   void checkout_exception_returns500() throws Exception {
-    Mockito.when(mockApiService.getBooks()).thenThrow(new RuntimeException("fail"));
+    Mockito.when(mockApiService.findBook(Mockito.anyInt()))
+        .thenThrow(new RuntimeException("fail"));
     mockMvc.perform(patch("/checkout").param("id", "1"))
         .andExpect(status().isInternalServerError())
         .andExpect(content().string(containsString("Error during checkout.")));
@@ -0,0 +1,108 @@
+package dev.coms4156.project.individualproject;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import dev.coms4156.project.individualproject.admission.AdmissionMetrics;
+import dev.coms4156.project.individualproject.controller.MetricsController;
+import dev.coms4156.project.individualproject.controller.RouteController;
+import dev.coms4156.project.individualproject.events.MutationEventConfig;
+import dev.coms4156.project.individualproject.instrumentation.RequestTimings;
+import dev.coms4156.project.individualproject.instrumentation.TimingRegistry;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Tests for the opt-in Server-Timing instrumentation and {@code /metrics/timings}.
+ */
+@WebMvcTest(controllers = {RouteController.class, MetricsController.class},
+    properties = "instrumentation.enabled=true")
+@Import({TimingRegistry.class, AdmissionMetrics.class, MutationEventConfig.class})
+class ServerTimingFilterTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+
+  @Autowired
+  private TimingRegistry timingRegistry;
+
+  @MockBean
+  private MockApiService mockApiService;
+
+  @BeforeEach
+  void setUp() {
+    final List<Book> books = new ArrayList<>();
+    books.add(new Book("A", 1));
+    books.add(new Book("B", 2));
+    Mockito.when(mockApiService.findBook(Mockito.anyInt())).thenAnswer(inv -> {
+      final int id = inv.getArgument(0);
+      return books.stream().filter(b -> b.getId() == id).findFirst();
+    });
+    Mockito.when(mockApiService.checkoutCopy(Mockito.any()))
+        .thenAnswer(inv -> inv.<Book>getArgument(0).checkoutCopy());
+    timingRegistry.reset();
+  }
+
+  @Test
+  void getBook_reportsLookupSerializeAndTotalStages() throws Exception {
+    mockMvc.perform(get("/book/1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id").value(1))
+        .andExpect(header().string("Server-Timing", containsString("lookup;dur=")))
+        .andExpect(header().string("Server-Timing", containsString("serialize;dur=")))
+        .andExpect(header().string("Server-Timing", containsString("total;dur=")));
+  }
+
+  @Test
+  void getBook_reportsRequestThreadAllocation() throws Exception {
+    // HotSpot supports per-thread allocation counters, so the entry is always present here.
+    mockMvc.perform(get("/book/1"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Server-Timing",
+            matchesPattern(".*alloc;desc=\"\\d+ bytes\".*")));
+  }
+
+  @Test
+  void checkout_reportsMutationStage() throws Exception {
+    mockMvc.perform(patch("/checkout").param("id", "2"))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Server-Timing", containsString("mutation;dur=")));
+  }
+
+  @Test
+  void metricsEndpoint_aggregatesByMatchedRoute() throws Exception {
+    mockMvc.perform(get("/book/1")).andExpect(status().isOk());
+    mockMvc.perform(get("/book/2")).andExpect(status().isOk());
+
+    mockMvc.perform(get("/metrics/timings"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$['GET /book/{id}'].requests").value(2))
+        .andExpect(jsonPath("$['GET /book/{id}'].stages.lookup.meanMillis")
+            .value(greaterThanOrEqualTo(0.0)));
+  }
+
+  @Test
+  void stage_isNoOpOutsideInstrumentedRequest() {
+    try (RequestTimings.Stage first = RequestTimings.stage("lookup");
+         RequestTimings.Stage second = RequestTimings.stage("mutation")) {
+      assertSame(first, second, "Both handles should be the shared no-op instance");
+    }
+  }
+}
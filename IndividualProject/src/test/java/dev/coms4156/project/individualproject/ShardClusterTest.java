@@ -0,0 +1,334 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.coms4156.project.individualproject.shard.ShardClient;
+import dev.coms4156.project.individualproject.shard.ShardRing;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * End-to-end routing tests against three in-process shards started by
+ * {@link LocalShardCluster}, each holding its slice of the seed catalogue.
+ */
+class ShardClusterTest {
+
+  private static final int SHARDS = 3;
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static final HttpClient HTTP = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1).build();
+
+  private static LocalShardCluster cluster;
+
+  private static ShardRing ring;
+
+  @BeforeAll
+  static void startCluster() {
+    cluster = LocalShardCluster.start(SHARDS);
+    ring = cluster.context(0).getBean(ShardRing.class);
+  }
+
+  @AfterAll
+  static void stopCluster() {
+    cluster.close();
+  }
+
+  @Test
+  void eachShard_holdsOnlyTheBooksItOwns() throws Exception {
+    final Set<Integer> seen = new HashSet<>();
+    for (int shard = 0; shard < SHARDS; shard++) {
+      final JsonNode books = json(local(shard, "/books?limit=500")).path("books");
+      assertTrue(books.size() > 0, "shard " + shard + " is empty");
+      for (final JsonNode book : books) {
+        final int id = book.path("id").asInt();
+        assertEquals(shard, ring.ownerOf(id), "book " + id + " is on the wrong shard");
+        assertTrue(seen.add(id), "book " + id + " is on two shards");
+      }
+    }
+    assertEquals(50, seen.size());
+  }
+
+  @Test
+  void bookLookups_throughAnyShard_reachTheOwner() throws Exception {
+    for (final int id : allIds()) {
+      final HttpResponse<String> response = send("GET", 0, "/book/" + id);
+      assertEquals(200, response.statusCode());
+      assertEquals(id, json(response).path("id").asInt());
+      assertEquals(ring.ownerOf(id) != 0,
+          response.headers().firstValue(ShardClient.OWNER_HEADER).isPresent());
+    }
+    assertEquals(404, send("GET", 1, "/book/999999").statusCode());
+  }
+
+  @Test
+  void checkoutAndReturn_throughAnotherShard_updateTheOwner() throws Exception {
+    final int id = firstIdOwnedBy(1);
+    final int before = json(local(1, "/book/" + id)).path("copiesAvailable").asInt();
+    send("PATCH", 2, "/book/" + id + "/add");
+
+    final HttpResponse<String> checkout = send("PATCH", 2, "/checkout?id=" + id);
+    assertEquals(200, checkout.statusCode());
+    assertEquals("1", checkout.headers().firstValue(ShardClient.OWNER_HEADER).orElse(null));
+    assertEquals(before, json(local(1, "/book/" + id)).path("copiesAvailable").asInt());
+
+    final JsonNode dueDates = json(checkout).path("returnDates");
+    final String due = dueDates.get(dueDates.size() - 1).asText();
+    assertEquals(200, send("PATCH", 0, "/return?id=" + id + "&dueDate=" + due).statusCode());
+    assertEquals(before + 1, json(local(1, "/book/" + id)).path("copiesAvailable").asInt());
+  }
+
+  @Test
+  void availableBooks_areGatheredFromEveryShard() throws Exception {
+    final List<Integer> expected = new ArrayList<>();
+    for (int shard = 0; shard < SHARDS; shard++) {
+      for (final JsonNode book : json(local(shard, "/books/available"))) {
+        expected.add(book.path("id").asInt());
+      }
+    }
+    expected.sort(Comparator.naturalOrder());
+
+    final List<Integer> gathered = new ArrayList<>();
+    for (final JsonNode book : json(send("GET", 2, "/books/available"))) {
+      gathered.add(book.path("id").asInt());
+    }
+    assertEquals(expected, gathered);
+  }
+
+  @Test
+  void listing_pagesThroughEveryShardInOrder() throws Exception {
+    final List<JsonNode> books = allBooks();
+    final List<Integer> byId = new ArrayList<>();
+    books.sort(Comparator.comparingInt(book -> book.path("id").asInt()));
+    books.forEach(book -> byId.add(book.path("id").asInt()));
+    assertEquals(byId, pageThrough(1, "id"));
+
+    final List<Integer> byPopularity = new ArrayList<>();
+    books.sort(Comparator.comparingInt(
+        (JsonNode book) -> -book.path("amountOfTimesCheckedOut").asInt())
+        .thenComparingInt(book -> book.path("id").asInt()));
+    books.forEach(book -> byPopularity.add(book.path("id").asInt()));
+    assertEquals(byPopularity, pageThrough(2, "popularity"));
+    assertEquals(400, send("GET", 0, "/books?sort=title").statusCode());
+  }
+
+  @Test
+  void export_concatenatesEveryShardsDump() throws Exception {
+    final Set<Integer> expected = new HashSet<>(allIds());
+
+    final List<String> ndjson = export("ndjson");
+    final Set<Integer> exported = new HashSet<>();
+    for (final String line : ndjson) {
+      assertTrue(exported.add(MAPPER.readTree(line).path("id").asInt()), line);
+    }
+    assertEquals(expected, exported);
+
+    final List<String> csv = export("csv");
+    assertTrue(csv.get(0).startsWith("id,title,"));
+    assertEquals(expected.size() + 1, csv.size());
+    for (final String row : csv.subList(1, csv.size())) {
+      assertFalse(row.startsWith("id,title,"), "header repeated");
+    }
+  }
+
+  @Test
+  void availabilityStream_isRedirectedToTheOwner() throws Exception {
+    final int remote = firstIdOwnedBy(1);
+    final HttpResponse<String> redirect =
+        send("GET", 0, "/books/availability/stream?ids=" + remote);
+    assertEquals(307, redirect.statusCode());
+    assertEquals(cluster.node(1).resolve("/books/availability/stream?ids=" + remote).toString(),
+        redirect.headers().firstValue("Location").orElse(null));
+
+    final HttpResponse<String> spread = send("GET", 0,
+        "/books/availability/stream?ids=" + remote + "," + firstIdOwnedBy(2));
+    assertEquals(400, spread.statusCode());
+  }
+
+  @Test
+  void trending_isMergedAcrossShards() throws Exception {
+    final int hot = firstIdOwnedBy(0);
+    final int warm = firstIdOwnedBy(2);
+    checkOutTimes(hot, 4);
+    checkOutTimes(warm, 3);
+
+    final JsonNode trending = json(send("GET", 1, "/books/trending?limit=2"));
+    assertEquals(2, trending.size());
+    assertEquals(hot, trending.get(0).path("book").path("id").asInt());
+    assertEquals(4, trending.get(0).path("checkouts").asInt());
+    assertEquals(warm, trending.get(1).path("book").path("id").asInt());
+    assertEquals(400, send("GET", 1, "/books/trending?limit=0").statusCode());
+  }
+
+  @Test
+  void recommendations_leadWithTheGlobalTopFive() throws Exception {
+    final List<Integer> counts = new ArrayList<>();
+    for (int shard = 0; shard < SHARDS; shard++) {
+      for (final JsonNode book : json(local(shard, "/books?limit=500")).path("books")) {
+        counts.add(book.path("amountOfTimesCheckedOut").asInt());
+      }
+    }
+    counts.sort(Comparator.reverseOrder());
+
+    final JsonNode picks = json(send("GET", 0, "/books/recommendation"));
+    assertEquals(10, picks.size());
+    final Set<Integer> distinct = new HashSet<>();
+    for (int i = 0; i < picks.size(); i++) {
+      assertTrue(distinct.add(picks.get(i).path("id").asInt()));
+      if (i < 5) {
+        assertEquals(counts.get(i), picks.get(i).path("amountOfTimesCheckedOut").asInt());
+      }
+    }
+  }
+
+  @Test
+  void unreachableShard_failsWithBadGateway() throws Exception {
+    try (LocalShardCluster partial = LocalShardCluster.start(2, 1)) {
+      final ShardRing halfRing = partial.context(0).getBean(ShardRing.class);
+      int remote = 1;
+      while (halfRing.isLocal(remote)) {
+        remote++;
+      }
+      final URI node = partial.node(0);
+      assertEquals(502, send("GET", node, "/book/" + remote, false).statusCode());
+      assertEquals(502, send("GET", node, "/books/available", false).statusCode());
+    }
+  }
+
+  @Test
+  void import_isSplitAcrossOwners() throws Exception {
+    try (LocalShardCluster pair = LocalShardCluster.start(2)) {
+      final ShardRing pairRing = pair.context(0).getBean(ShardRing.class);
+      final StringBuilder body = new StringBuilder();
+      for (int id = 1001; id <= 1020; id++) {
+        body.append("{\"id\":").append(id).append(",\"title\":\"Imported ").append(id)
+            .append("\",\"totalCopies\":1,\"copiesAvailable\":1}\n");
+      }
+      body.append("not json\n");
+      final HttpResponse<String> response = HTTP.send(
+          HttpRequest.newBuilder(pair.node(0).resolve("/books/import"))
+              .POST(HttpRequest.BodyPublishers.ofString(body.toString())).build(),
+          HttpResponse.BodyHandlers.ofString());
+      assertEquals(200, response.statusCode());
+      final JsonNode report = json(response);
+      assertEquals(20, report.path("created").asInt());
+      assertEquals(1, report.path("failed").asInt());
+      assertEquals(21, report.path("errors").get(0).path("line").asInt());
+
+      final Set<Integer> available = new HashSet<>();
+      for (final JsonNode book : json(send("GET", pair.node(1), "/books/available", false))) {
+        final int id = book.path("id").asInt();
+        assertTrue(available.add(id), "book " + id + " is listed twice");
+      }
+      for (int id = 1001; id <= 1020; id++) {
+        assertTrue(available.contains(id), "book " + id + " was not imported");
+        final URI owner = pair.node(pairRing.ownerOf(id));
+        assertEquals(200, send("GET", owner, "/book/" + id, true).statusCode());
+      }
+    }
+  }
+
+  private static void checkOutTimes(final int id, final int times) throws Exception {
+    for (int i = 0; i < times; i++) {
+      send("PATCH", 0, "/book/" + id + "/add");
+      assertEquals(200, send("PATCH", 0, "/checkout?id=" + id).statusCode());
+    }
+  }
+
+  /** Follows {@code nextCursor} through the gathered listing, seven books at a time. */
+  private static List<Integer> pageThrough(final int shard, final String sort) throws Exception {
+    final List<Integer> ids = new ArrayList<>();
+    String cursor = null;
+    do {
+      final JsonNode page = json(send("GET", shard, "/books?limit=7&sort=" + sort
+          + (cursor == null ? "" : "&cursor=" + cursor)));
+      assertTrue(page.path("books").size() <= 7);
+      page.path("books").forEach(book -> ids.add(book.path("id").asInt()));
+      cursor = page.hasNonNull("nextCursor") ? page.path("nextCursor").asText() : null;
+    } while (cursor != null);
+    return ids;
+  }
+
+  private static List<String> export(final String format) throws Exception {
+    final HttpResponse<byte[]> response = HTTP.send(
+        HttpRequest.newBuilder(cluster.node(1).resolve("/books/export?format=" + format))
+            .build(),
+        HttpResponse.BodyHandlers.ofByteArray());
+    assertEquals(200, response.statusCode());
+    // Buffered: GZIPInputStream reads past the first member only if more bytes are available.
+    try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+        new GZIPInputStream(new ByteArrayInputStream(response.body())),
+        StandardCharsets.UTF_8))) {
+      return reader.lines().filter(line -> !line.isBlank()).collect(Collectors.toList());
+    }
+  }
+
+  private static int firstIdOwnedBy(final int shard) throws Exception {
+    return json(local(shard, "/books?limit=1")).path("books").get(0).path("id").asInt();
+  }
+
+  private static List<Integer> allIds() throws Exception {
+    final List<Integer> ids = new ArrayList<>();
+    for (final JsonNode book : allBooks()) {
+      ids.add(book.path("id").asInt());
+    }
+    return ids;
+  }
+
+  private static List<JsonNode> allBooks() throws Exception {
+    final List<JsonNode> books = new ArrayList<>();
+    for (int shard = 0; shard < SHARDS; shard++) {
+      json(local(shard, "/books?limit=500")).path("books").forEach(books::add);
+    }
+    return books;
+  }
+
+  private static HttpResponse<String> local(final int shard, final String path)
+      throws IOException, InterruptedException {
+    return send("GET", cluster.node(shard), path, true);
+  }
+
+  private static HttpResponse<String> send(final String method, final int shard,
+                                           final String path)
+      throws IOException, InterruptedException {
+    return send(method, cluster.node(shard), path, false);
+  }
+
+  private static HttpResponse<String> send(final String method, final URI node,
+                                           final String path, final boolean local)
+      throws IOException, InterruptedException {
+    final HttpRequest.Builder request = HttpRequest.newBuilder(node.resolve(path))
+        .method(method, HttpRequest.BodyPublishers.noBody());
+    if (local) {
+      request.header(ShardClient.LOCAL_HEADER, "true");
+    }
+    return HTTP.send(request.build(), HttpResponse.BodyHandlers.ofString());
+  }
+
+  private static JsonNode json(final HttpResponse<String> response) throws IOException {
+    assertEquals(200, response.statusCode(), response.body());
+    return MAPPER.readTree(response.body());
+  }
+}
@@ -0,0 +1,74 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.shard.ShardRing;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ShardRing}.
+ */
+class ShardRingTest {
+
+  private static final int IDS = 100_000;
+
+  private static List<URI> nodes(final int count) {
+    final List<URI> nodes = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      nodes.add(URI.create("http://shard-" + i + ".example:8080/"));
+    }
+    return nodes;
+  }
+
+  @Test
+  void sequentialIds_spreadEvenly() {
+    final ShardRing ring = new ShardRing(nodes(4), 0, 128);
+    final int[] sizes = new int[4];
+    for (int id = 1; id <= IDS; id++) {
+      sizes[ring.ownerOf(id)]++;
+    }
+    for (final int size : sizes) {
+      assertTrue(Math.abs(size - IDS / 4) < IDS / 4 / 4, "uneven shard of " + size + " ids");
+    }
+  }
+
+  @Test
+  void addingShard_movesOnlyIdsItTakesOver() {
+    final ShardRing before = new ShardRing(nodes(4), 0, 128);
+    final ShardRing after = new ShardRing(nodes(5), 0, 128);
+    int moved = 0;
+    for (int id = 1; id <= IDS; id++) {
+      final int owner = after.ownerOf(id);
+      if (owner != before.ownerOf(id)) {
+        assertEquals(4, owner, "id " + id + " moved between existing shards");
+        moved++;
+      }
+    }
+    assertTrue(moved > IDS / 10 && moved < IDS * 3 / 10, moved + " ids moved");
+  }
+
+  @Test
+  void everyNode_agreesOnOwnership() {
+    final ShardRing first = new ShardRing(nodes(3), 0, 128);
+    final ShardRing second = new ShardRing(nodes(3), 2, 128);
+    for (int id = -500; id <= 500; id++) {
+      assertEquals(first.ownerOf(id), second.ownerOf(id));
+      assertEquals(second.ownerOf(id) == 2, second.isLocal(id));
+    }
+  }
+
+  @Test
+  void badConfiguration_isRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new ShardRing(List.of(), 0, 128));
+    assertThrows(IllegalArgumentException.class, () -> new ShardRing(nodes(2), 2, 128));
+    assertThrows(IllegalArgumentException.class, () -> new ShardRing(nodes(2), 0, 0));
+    final URI node = URI.create("http://localhost:8080/");
+    assertThrows(IllegalArgumentException.class,
+        () -> new ShardRing(List.of(node, node), 0, 128));
+  }
+}
@@ -0,0 +1,157 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.CatalogueLoading;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Time from JVM launch to the first successful {@code GET /book/{id}} against a synthetic
+ * catalogue, for each way of launching the application and each {@link CatalogueLoading}.
+ *
+ * <p>Run with {@code -Dbenchmark=true}. Build with {@code -Pfast-startup} first to compare the
+ * plain jar with Spring AOT plus the AppCDS archive; otherwise only a class path launch is
+ * timed. {@code -Dstartup.books} and {@code -Dstartup.runs} size the catalogue and the number
+ * of launches per row.
+ */
+class StartupBenchmarkTest {
+
+  private static final int BOOKS = Integer.getInteger("startup.books", 200_000);
+
+  private static final int RUNS = Integer.getInteger("startup.runs", 3);
+
+  private static final Path APP_DIR = Path.of("target", "app");
+
+  private static final String APP_JAR = "individualproject-0.0.1-SNAPSHOT.jar";
+
+  private static final String ARCHIVE = "application.jsa";
+
+  private static final Duration DEADLINE = Duration.ofMinutes(2);
+
+  @TempDir
+  private Path temp;
+
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+  void benchmark_timeToFirstLookup() throws Exception {
+    final Path seed = writeCatalogue(temp.resolve("catalogue.json"));
+    final Map<String, List<String>> launchers = new LinkedHashMap<>();
+    if (Files.exists(APP_DIR.resolve(APP_JAR))) {
+      launchers.put("jar", List.of("-jar", APP_JAR));
+      if (Files.exists(APP_DIR.resolve(ARCHIVE))) {
+        launchers.put("jar+aot+cds", List.of("-XX:SharedArchiveFile=" + ARCHIVE,
+            "-Dspring.aot.enabled=true", "-jar", APP_JAR));
+      }
+    } else {
+      System.out.println("No " + APP_DIR + "; build with -Pfast-startup to time AOT and CDS.");
+      launchers.put("classpath", List.of("-cp", System.getProperty("java.class.path"),
+          IndividualProjectApplication.class.getName()));
+    }
+
+    System.out.printf("%d books, time to first GET /book/{id}%n", BOOKS);
+    System.out.printf("launcher     loading     median ms   min ms%n");
+    for (final Map.Entry<String, List<String>> launcher : launchers.entrySet()) {
+      for (final CatalogueLoading loading :
+          List.of(CatalogueLoading.EAGER, CatalogueLoading.BACKGROUND)) {
+        final long[] millis = new long[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+          millis[run] = timeToFirstLookup(launcher.getValue(), seed, loading);
+        }
+        Arrays.sort(millis);
+        System.out.printf("%-12s %-11s %9d %8d%n", launcher.getKey(), loading,
+            millis[RUNS / 2], millis[0]);
+        assertTrue(millis[0] > 0);
+      }
+    }
+  }
+
+  /** Launches the application and polls the last synthetic book until it is served. */
+  private static long timeToFirstLookup(final List<String> launcher, final Path seed,
+                                        final CatalogueLoading loading) throws Exception {
+    final int port = freePort();
+    final List<String> command = new ArrayList<>();
+    command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    command.addAll(launcher);
+    command.addAll(List.of("--server.port=" + port, "--catalogue.seed=file:" + seed,
+        "--catalogue.loading=" + loading, "--spring.main.banner-mode=off",
+        "--logging.level.root=WARN"));
+    final URI book = URI.create("http://127.0.0.1:" + port + "/book/" + BOOKS);
+    final long start = System.nanoTime();
+    final Process process = new ProcessBuilder(command)
+        .directory(Files.isDirectory(APP_DIR) ? APP_DIR.toFile() : null)
+        .redirectErrorStream(true)
+        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+        .start();
+    try {
+      while (!answersOk(book)) {
+        assertTrue(process.isAlive(), () -> "application exited with " + process.exitValue());
+        assertTrue(System.nanoTime() - start < DEADLINE.toNanos(), "no answer in " + DEADLINE);
+        Thread.sleep(5);
+      }
+      return (System.nanoTime() - start) / 1_000_000;
+    } finally {
+      process.destroy();
+      process.waitFor();
+    }
+  }
+
+  private static boolean answersOk(final URI uri) {
+    try {
+      final HttpURLConnection connection = (HttpURLConnection) uri.toURL().openConnection();
+      connection.setConnectTimeout(1_000);
+      connection.setReadTimeout(60_000);
+      try {
+        return connection.getResponseCode() == HttpURLConnection.HTTP_OK;
+      } finally {
+        connection.disconnect();
+      }
+    } catch (final IOException e) {
+      // Not listening yet.
+      return false;
+    }
+  }
+
+  /** Writes books 1..BOOKS in the format of {@code mockdata/books.json}. */
+  private static Path writeCatalogue(final Path file) throws IOException {
+    final ObjectMapper mapper = new ObjectMapper()
+        .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    try (OutputStream out = Files.newOutputStream(file);
+         JsonGenerator json = mapper.createGenerator(out)) {
+      json.writeStartArray();
+      for (int id = 1; id <= BOOKS; id++) {
+        mapper.writeValue(json, new Book("Synthetic title " + id,
+            List.of("Author " + id % 5_000), "English", "Stacks " + id % 40, "2001-01-01",
+            "Publisher " + id % 300, List.of("Subject " + id % 700), id, 1 + id % 3,
+            1 + id % 3));
+      }
+      json.writeEndArray();
+    }
+    return file;
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+      return socket.getLocalPort();
+    }
+  }
+}
@@ -0,0 +1,192 @@
+package dev.coms4156.project.individualproject;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dev.coms4156.project.individualproject.model.Book;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process upstream catalogue speaking the protocol of
+ * {@link dev.coms4156.project.individualproject.repository.RemoteCatalogueClient}, for tests.
+ */
+final class StubCatalogueServer implements AutoCloseable {
+
+  static {
+    // Without this, Nagle's algorithm and delayed ACKs add ~40 ms to every small response.
+    System.setProperty("sun.net.httpserver.nodelay", "true");
+  }
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  private final NavigableMap<Integer, Book> books = new ConcurrentSkipListMap<>();
+
+  private final AtomicInteger lookups = new AtomicInteger();
+
+  private final AtomicInteger scans = new AtomicInteger();
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  private final HttpServer server;
+
+  private volatile long lookupLatencyMillis;
+
+  private volatile boolean failWrites;
+
+  StubCatalogueServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/books", this::handle);
+    server.setExecutor(executor);
+    server.start();
+  }
+
+  /** Base URI to hand to the client. */
+  URI uri() {
+    return URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/");
+  }
+
+  /** Number of {@code GET books/{id}} requests served. */
+  int lookups() {
+    return lookups.get();
+  }
+
+  /** Number of scans started, that is {@code GET books?afterId=} requests for the first page. */
+  int scans() {
+    return scans.get();
+  }
+
+  /** Delays every {@code GET books/{id}} by this long. */
+  void setLookupLatencyMillis(final long millis) {
+    lookupLatencyMillis = millis;
+  }
+
+  /** Makes every write answer 503 until cleared. */
+  void setFailWrites(final boolean fail) {
+    failWrites = fail;
+  }
+
+  /** Changes the upstream directly, as another client of it would. */
+  void put(final Book book) {
+    books.put(book.getId(), book);
+  }
+
+  /** Returns the upstream's copy of a book, or null. */
+  Book get(final int id) {
+    return books.get(id);
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private void handle(final HttpExchange exchange) throws IOException {
+    try (exchange) {
+      final String path = exchange.getRequestURI().getPath();
+      final String rest = path.length() > "/books/".length() ? path.substring(7) : "";
+      if (failWrites && !"GET".equals(exchange.getRequestMethod())) {
+        exchange.sendResponseHeaders(503, -1);
+        return;
+      }
+      switch (exchange.getRequestMethod() + (rest.isEmpty() ? "" : " id")) {
+        case "GET id":
+          if ("count".equals(rest)) {
+            respond(exchange, books.size());
+            break;
+          }
+          lookups.incrementAndGet();
+          pause();
+          respond(exchange, books.get(Integer.parseInt(rest)));
+          break;
+        case "GET":
+          respond(exchange, page(exchange.getRequestURI()));
+          break;
+        case "PUT id":
+          final Book book = read(exchange.getRequestBody(), new TypeReference<Book>() {});
+          books.put(book.getId(), book);
+          exchange.sendResponseHeaders(200, -1);
+          break;
+        case "POST":
+          for (final Book each : read(exchange.getRequestBody(),
+              new TypeReference<List<Book>>() {})) {
+            books.put(each.getId(), each);
+          }
+          exchange.sendResponseHeaders(200, -1);
+          break;
+        case "DELETE id":
+          exchange.sendResponseHeaders(
+              books.remove(Integer.parseInt(rest)) == null ? 404 : 200, -1);
+          break;
+        default:
+          exchange.sendResponseHeaders(405, -1);
+      }
+    }
+  }
+
+  private List<Book> page(final URI uri) {
+    int afterId = Integer.MIN_VALUE;
+    int limit = Integer.MAX_VALUE;
+    for (final String param : uri.getQuery().split("&")) {
+      final String[] pair = param.split("=", 2);
+      if ("afterId".equals(pair[0])) {
+        afterId = Integer.parseInt(pair[1]);
+      } else if ("limit".equals(pair[0])) {
+        limit = Integer.parseInt(pair[1]);
+      }
+    }
+    if (afterId == Integer.MIN_VALUE) {
+      scans.incrementAndGet();
+    }
+    final List<Book> page = new ArrayList<>();
+    for (final Map.Entry<Integer, Book> entry : books.tailMap(afterId, false).entrySet()) {
+      if (page.size() == limit) {
+        break;
+      }
+      page.add(entry.getValue());
+    }
+    return page;
+  }
+
+  private void pause() {
+    final long millis = lookupLatencyMillis;
+    if (millis > 0) {
+      try {
+        Thread.sleep(millis);
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private <T> T read(final InputStream body, final TypeReference<T> type) throws IOException {
+    return mapper.readValue(body, type);
+  }
+
+  private void respond(final HttpExchange exchange, final Object body) throws IOException {
+    if (body == null) {
+      exchange.sendResponseHeaders(404, -1);
+      return;
+    }
+    final byte[] bytes = mapper.writeValueAsBytes(body);
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+}
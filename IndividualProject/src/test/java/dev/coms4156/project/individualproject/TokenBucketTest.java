@@ -0,0 +1,83 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.admission.TokenBucket;
+import dev.coms4156.project.individualproject.admission.TokenBuckets;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TokenBucket} and {@link TokenBuckets}, driven by explicit timestamps.
+ */
+class TokenBucketTest {
+
+  private static final long SECOND = 1_000_000_000L;
+
+  @Test
+  void admitsUpToBurstThenRejects() {
+    final TokenBucket bucket = new TokenBucket(1, 3, 0);
+    assertTrue(bucket.tryAcquire(0));
+    assertTrue(bucket.tryAcquire(0));
+    assertTrue(bucket.tryAcquire(0));
+    assertFalse(bucket.tryAcquire(0));
+  }
+
+  @Test
+  void refillsAtConfiguredRate() {
+    final TokenBucket bucket = new TokenBucket(2, 1, 0);
+    assertTrue(bucket.tryAcquire(0));
+    assertFalse(bucket.tryAcquire(SECOND / 4));
+    assertTrue(bucket.tryAcquire(SECOND / 2));
+  }
+
+  @Test
+  void refillIsCappedAtBurst() {
+    final TokenBucket bucket = new TokenBucket(100, 2, 0);
+    assertTrue(bucket.tryAcquire(0));
+    assertTrue(bucket.isFull(60 * SECOND));
+    assertTrue(bucket.tryAcquire(60 * SECOND));
+    assertTrue(bucket.tryAcquire(60 * SECOND));
+    assertFalse(bucket.tryAcquire(60 * SECOND));
+  }
+
+  @Test
+  void secondsUntilToken_roundsUpToWholeSeconds() {
+    final TokenBucket bucket = new TokenBucket(0.25, 1, 0);
+    assertTrue(bucket.tryAcquire(0));
+    assertEquals(4, bucket.secondsUntilToken(0));
+    assertEquals(1, bucket.secondsUntilToken(3 * SECOND + 1));
+  }
+
+  @Test
+  void rejectsInvalidConfiguration() {
+    assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1, 0));
+    assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0, 0));
+  }
+
+  @Test
+  void table_staysBoundedWhenEveryBucketIsDrained() {
+    final TokenBuckets table = new TokenBuckets(0.001, 1, 100);
+    for (int id = 0; id < 10_000; id++) {
+      assertTrue(table.get(id, 0).tryAcquire(0));
+      assertTrue(table.size() <= 100, "table grew to " + table.size());
+    }
+  }
+
+  @Test
+  void table_evictsRefilledBucketsFirst() {
+    final TokenBuckets table = new TokenBuckets(1, 1, 4);
+    final TokenBucket drained = table.get(1, 0);
+    assertTrue(drained.tryAcquire(0));
+    for (int id = 2; id <= 4; id++) {
+      table.get(id, 0);
+    }
+
+    table.get(5, SECOND / 2);
+    assertEquals(2, table.size());
+    assertSame(drained, table.get(1, SECOND / 2), "the drained bucket must survive the sweep");
+  }
+}
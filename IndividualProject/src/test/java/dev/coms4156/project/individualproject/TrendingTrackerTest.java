@@ -0,0 +1,118 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.service.TrendingTracker;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link TrendingTracker}, driven by a manually advanced clock.
+ */
+class TrendingTrackerTest {
+
+  private ManualClock clock;
+
+  private TrendingTracker tracker;
+
+  @BeforeEach
+  void setUp() {
+    clock = new ManualClock();
+    // One-hour window in six ten-minute buckets.
+    tracker = new TrendingTracker(clock, Duration.ofHours(1), 6);
+  }
+
+  @Test
+  void top_ranksByWindowCountThenId() {
+    checkout(3, 2);
+    checkout(1, 2);
+    checkout(2, 5);
+
+    final Map<Integer, Integer> top = tracker.top(10);
+    assertEquals(List.of(2, 1, 3), List.copyOf(top.keySet()));
+    assertEquals(5, top.get(2).intValue());
+    assertEquals(List.of(2), List.copyOf(tracker.top(1).keySet()));
+  }
+
+  @Test
+  void oldBucketsSlideOutOfTheWindow() {
+    checkout(1, 10);
+    clock.advance(Duration.ofMinutes(30));
+    checkout(2, 3);
+
+    assertEquals(List.of(1, 2), List.copyOf(tracker.top(10).keySet()));
+
+    // Book 1's bucket leaves the window; book 2's is still inside.
+    clock.advance(Duration.ofMinutes(31));
+    assertEquals(0, tracker.count(1));
+    assertEquals(Map.of(2, 3), tracker.top(10));
+
+    clock.advance(Duration.ofMinutes(30));
+    assertTrue(tracker.top(10).isEmpty());
+  }
+
+  @Test
+  void countsWithinTheWindowAccumulateAcrossBuckets() {
+    checkout(7, 1);
+    clock.advance(Duration.ofMinutes(10));
+    checkout(7, 1);
+    clock.advance(Duration.ofMinutes(10));
+    checkout(7, 1);
+
+    assertEquals(3, tracker.count(7));
+  }
+
+  @Test
+  void jumpLongerThanTheWindowClearsEverything() {
+    checkout(1, 4);
+    clock.advance(Duration.ofDays(3));
+    checkout(2, 1);
+
+    assertEquals(Map.of(2, 1), tracker.top(10));
+  }
+
+  @Test
+  void rejectsWindowShorterThanItsBuckets() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new TrendingTracker(clock, Duration.ofMillis(3), 6));
+  }
+
+  private void checkout(final int bookId, final int times) {
+    for (int i = 0; i < times; i++) {
+      tracker.recordCheckout(bookId);
+    }
+  }
+
+  /** Clock that only moves when told to. */
+  private static final class ManualClock extends Clock {
+    private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+    void advance(final Duration duration) {
+      now = now.plus(duration);
+    }
+
+    @Override
+    public ZoneId getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(final ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package dev.coms4156.project.individualproject;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import dev.coms4156.project.individualproject.model.Book;
+import dev.coms4156.project.individualproject.service.CatalogueSnapshot;
+import dev.coms4156.project.individualproject.service.MockApiService;
+import dev.coms4156.project.individualproject.service.VersionedCatalogue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the MVCC snapshot reads of {@link VersionedCatalogue} and {@link MockApiService}.
+ */
+class VersionedCatalogueTest {
+
+  @Test
+  void snapshot_doesNotSeeLaterCommits() {
+    final VersionedCatalogue catalogue = new VersionedCatalogue();
+    final Book book = new Book("A", 1);
+    catalogue.publish(book);
+
+    try (CatalogueSnapshot before = catalogue.openSnapshot()) {
+      book.checkoutCopy();
+      catalogue.publish(book);
+      catalogue.publish(new Book("B", 2));
+
+      final List<Book> seen = before.toList();
+      assertEquals(1, seen.size(), "books committed after the snapshot must be invisible");
+      assertEquals(1, seen.get(0).getCopiesAvailable());
+    }
+    try (CatalogueSnapshot after = catalogue.openSnapshot()) {
+      final List<Book> seen = after.toList();
+      assertEquals(2, seen.size());
+      assertEquals(0, seen.get(0).getCopiesAvailable());
+    }
+  }
+
+  @Test
+  void remove_isVisibleOnlyToLaterSnapshots() {
+    final VersionedCatalogue catalogue = new VersionedCatalogue();
+    catalogue.publishAll(List.of(new Book("A", 1), new Book("B", 2)));
+
+    try (CatalogueSnapshot before = catalogue.openSnapshot()) {
+      catalogue.remove(1);
+      assertEquals(2, before.toList().size());
+      try (CatalogueSnapshot after = catalogue.openSnapshot()) {
+        assertEquals(1, after.toList().size());
+        assertEquals(2, after.toList().get(0).getId());
+      }
+    }
+  }
+
+  @Test
+  void commit_publishesAndRemovesAsOneVersion() {
+    final VersionedCatalogue catalogue = new VersionedCatalogue();
+    catalogue.publishAll(List.of(new Book("A", 1), new Book("B", 2)));
+
+    try (CatalogueSnapshot before = catalogue.openSnapshot()) {
+      catalogue.commit(List.of(new Book("A, revised", 1), new Book("C", 3)), List.of(2, 42));
+      assertEquals(List.of("A", "B"), before.toList().stream().map(Book::getTitle).toList());
+      try (CatalogueSnapshot after = catalogue.openSnapshot()) {
+        assertEquals(List.of("A, revised", "C"),
+            after.toList().stream().map(Book::getTitle).toList());
+      }
+    }
+    assertEquals(0, catalogue.getRetainedVersionCount());
+  }
+
+  @Test
+  void supersededVersions_areReclaimedWhenLastReaderCloses() {
+    final VersionedCatalogue catalogue = new VersionedCatalogue();
+    final Book book = new Book("A", 1);
+    catalogue.publish(book);
+
+    final CatalogueSnapshot pinned = catalogue.openSnapshot();
+    for (int i = 0; i < 5; i++) {
+      book.addCopy();
+      catalogue.publish(book);
+    }
+    assertTrue(catalogue.getRetainedVersionCount() > 0, "pinned version must be retained");
+    assertEquals(1, catalogue.getOpenSnapshotCount());
+
+    pinned.close();
+    assertEquals(0, catalogue.getRetainedVersionCount());
+    assertEquals(0, catalogue.getOpenSnapshotCount());
+  }
+
+  @Test
+  void writesWithoutReaders_retainNothing() {
+    final VersionedCatalogue catalogue = new VersionedCatalogue();
+    final Book book = new Book("A", 1);
+    for (int i = 0; i < 100; i++) {
+      book.addCopy();
+      catalogue.publish(book);
+    }
+    assertEquals(0, catalogue.getRetainedVersionCount());
+  }
+
+  @Test
+  void concurrentBatchedWrites_scansAlwaysSeeConsistentTotals() throws Exception {
+    final VersionedCatalogue catalogue = new VersionedCatalogue();
+    final Book left = new Book("L", 1);
+    final Book right = new Book("R", 2);
+    for (int i = 0; i < 99; i++) {
+      left.addCopy();
+    }
+    catalogue.publishAll(List.of(left, right));
+    final int expected = left.getTotalCopies() + right.getTotalCopies();
+
+    final AtomicBoolean running = new AtomicBoolean(true);
+    final ExecutorService pool = Executors.newFixedThreadPool(3);
+    final Future<?> writer = pool.submit(() -> {
+      for (int i = 0; i < 20_000; i++) {
+        // Move one copy between the two books in a single commit.
+        if (i % 2 == 0) {
+          left.setTotalCopies(left.getTotalCopies() - 1);
+          right.setTotalCopies(right.getTotalCopies() + 1);
+        } else {
+          left.setTotalCopies(left.getTotalCopies() + 1);
+          right.setTotalCopies(right.getTotalCopies() - 1);
+        }
+        catalogue.publishAll(List.of(left, right));
+      }
+      running.set(false);
+    });
+    final List<Future<Boolean>> readers = new ArrayList<>();
+    for (int r = 0; r < 2; r++) {
+      readers.add(pool.submit(() -> {
+        boolean consistent = true;
+        while (running.get()) {
+          try (CatalogueSnapshot snapshot = catalogue.openSnapshot()) {
+            int total = 0;
+            for (final Book book : snapshot) {
+              total += book.getTotalCopies();
+            }
+            consistent &= total == expected;
+          }
+        }
+        return consistent;
+      }));
+    }
+    writer.get(30, TimeUnit.SECONDS);
+    for (final Future<Boolean> reader : readers) {
+      assertTrue(reader.get(30, TimeUnit.SECONDS), "a scan observed a half-applied commit");
+    }
+    pool.shutdown();
+    assertEquals(0, catalogue.getRetainedVersionCount());
+  }
+
+  @Test
+  void service_getBooksReturnsSnapshotCopies() {
+    final MockApiService svc = new MockApiService();
+    final Book copy = svc.getBooks().stream().filter(Book::hasCopies).findFirst().orElseThrow();
+    final int before = copy.getCopiesAvailable();
+
+    svc.checkoutCopy(copy);
+
+    assertEquals(before, copy.getCopiesAvailable(), "snapshot copies are never mutated");
+    assertEquals(before - 1, svc.findBook(copy.getId()).orElseThrow().getCopiesAvailable());
+    final Book rescanned = svc.getBooks().stream()
+        .filter(b -> b.getId() == copy.getId()).findFirst().orElseThrow();
+    assertEquals(before - 1, rescanned.getCopiesAvailable());
+    assertNotSame(copy, rescanned);
+  }
+}